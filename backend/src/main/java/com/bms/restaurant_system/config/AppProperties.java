@@ -1,14 +1,35 @@
 package com.bms.restaurant_system.config;
 
+import com.bms.restaurant_system.entity.Notification;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "app")
 public class AppProperties {
-    
+
     private Upload upload = new Upload();
-    
+    private Kitchen kitchen = new Kitchen();
+    private Dispatch dispatch = new Dispatch();
+    private Tracking tracking = new Tracking();
+    private DeliveryFee deliveryFee = new DeliveryFee();
+    private Routing routing = new Routing();
+    private Cod cod = new Cod();
+    private DriverMetrics driverMetrics = new DriverMetrics();
+    private Refund refund = new Refund();
+    private PaymentStats paymentStats = new PaymentStats();
+    private Auth auth = new Auth();
+    private RateLimit rateLimit = new RateLimit();
+    private PasswordHashing passwordHashing = new PasswordHashing();
+    private Outbox outbox = new Outbox();
+    private Retention retention = new Retention();
+
     public Upload getUpload() {
         return upload;
     }
@@ -16,16 +37,871 @@ public class AppProperties {
     public void setUpload(Upload upload) {
         this.upload = upload;
     }
-    
+
+    public Kitchen getKitchen() {
+        return kitchen;
+    }
+
+    public void setKitchen(Kitchen kitchen) {
+        this.kitchen = kitchen;
+    }
+
+    public Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    public void setDispatch(Dispatch dispatch) {
+        this.dispatch = dispatch;
+    }
+
+    public Tracking getTracking() {
+        return tracking;
+    }
+
+    public void setTracking(Tracking tracking) {
+        this.tracking = tracking;
+    }
+
+    public DeliveryFee getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public void setDeliveryFee(DeliveryFee deliveryFee) {
+        this.deliveryFee = deliveryFee;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+    }
+
+    public Cod getCod() {
+        return cod;
+    }
+
+    public void setCod(Cod cod) {
+        this.cod = cod;
+    }
+
+    public DriverMetrics getDriverMetrics() {
+        return driverMetrics;
+    }
+
+    public void setDriverMetrics(DriverMetrics driverMetrics) {
+        this.driverMetrics = driverMetrics;
+    }
+
+    public Refund getRefund() {
+        return refund;
+    }
+
+    public void setRefund(Refund refund) {
+        this.refund = refund;
+    }
+
+    public PaymentStats getPaymentStats() {
+        return paymentStats;
+    }
+
+    public void setPaymentStats(PaymentStats paymentStats) {
+        this.paymentStats = paymentStats;
+    }
+
+    public Auth getAuth() {
+        return auth;
+    }
+
+    public void setAuth(Auth auth) {
+        this.auth = auth;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public void setPasswordHashing(PasswordHashing passwordHashing) {
+        this.passwordHashing = passwordHashing;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Retention retention) {
+        this.retention = retention;
+    }
+
     public static class Upload {
-        private String dir;
-        
+        private String dir = System.getProperty("user.home") + "/restaurant-system/uploads";
+
         public String getDir() {
             return dir;
         }
-        
+
         public void setDir(String dir) {
             this.dir = dir;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Location of the kitchen that all deliveries are picked up from
+     */
+    public static class Kitchen {
+        private double latitude = 6.9271;
+        private double longitude = 79.8612;
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(double latitude) {
+            this.latitude = latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(double longitude) {
+            this.longitude = longitude;
+        }
+    }
+
+    /**
+     * Automatic driver dispatch settings
+     */
+    public static class Dispatch {
+        private boolean enabled = false;
+        private long batchIntervalMs = 5000;
+        private double searchRadiusKm = 15.0;
+        private int maxActiveDeliveries = 3;
+        private int candidatesPerDelivery = 8;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getBatchIntervalMs() {
+            return batchIntervalMs;
+        }
+
+        public void setBatchIntervalMs(long batchIntervalMs) {
+            this.batchIntervalMs = batchIntervalMs;
+        }
+
+        public double getSearchRadiusKm() {
+            return searchRadiusKm;
+        }
+
+        public void setSearchRadiusKm(double searchRadiusKm) {
+            this.searchRadiusKm = searchRadiusKm;
+        }
+
+        public int getMaxActiveDeliveries() {
+            return maxActiveDeliveries;
+        }
+
+        public void setMaxActiveDeliveries(int maxActiveDeliveries) {
+            this.maxActiveDeliveries = maxActiveDeliveries;
+        }
+
+        public int getCandidatesPerDelivery() {
+            return candidatesPerDelivery;
+        }
+
+        public void setCandidatesPerDelivery(int candidatesPerDelivery) {
+            this.candidatesPerDelivery = candidatesPerDelivery;
+        }
+    }
+
+    /**
+     * Live driver location tracking settings
+     */
+    public static class Tracking {
+        private long flushIntervalMs = 5000;
+        private int bufferSize = 64;
+        private int idleTimeoutMinutes = 30;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getIdleTimeoutMinutes() {
+            return idleTimeoutMinutes;
+        }
+
+        public void setIdleTimeoutMinutes(int idleTimeoutMinutes) {
+            this.idleTimeoutMinutes = idleTimeoutMinutes;
+        }
+    }
+
+    /**
+     * Multi-drop route batching limits
+     */
+    public static class Routing {
+        private int maxStops = 4;
+        private double maxRouteMinutes = 60;
+        private double averageSpeedKmh = 25;
+        private double serviceMinutesPerStop = 3;
+        private int deliveryWindowMinutes = 45;
+
+        public int getMaxStops() {
+            return maxStops;
+        }
+
+        public void setMaxStops(int maxStops) {
+            this.maxStops = maxStops;
+        }
+
+        public double getMaxRouteMinutes() {
+            return maxRouteMinutes;
+        }
+
+        public void setMaxRouteMinutes(double maxRouteMinutes) {
+            this.maxRouteMinutes = maxRouteMinutes;
+        }
+
+        public double getAverageSpeedKmh() {
+            return averageSpeedKmh;
+        }
+
+        public void setAverageSpeedKmh(double averageSpeedKmh) {
+            this.averageSpeedKmh = averageSpeedKmh;
+        }
+
+        public double getServiceMinutesPerStop() {
+            return serviceMinutesPerStop;
+        }
+
+        public void setServiceMinutesPerStop(double serviceMinutesPerStop) {
+            this.serviceMinutesPerStop = serviceMinutesPerStop;
+        }
+
+        public int getDeliveryWindowMinutes() {
+            return deliveryWindowMinutes;
+        }
+
+        public void setDeliveryWindowMinutes(int deliveryWindowMinutes) {
+            this.deliveryWindowMinutes = deliveryWindowMinutes;
+        }
+    }
+
+    /**
+     * Cash-on-delivery reconciliation settings
+     */
+    public static class Cod {
+        private String reconcileCron = "0 0 3 * * *";
+        private int lookbackDays = 7;
+
+        public String getReconcileCron() {
+            return reconcileCron;
+        }
+
+        public void setReconcileCron(String reconcileCron) {
+            this.reconcileCron = reconcileCron;
+        }
+
+        public int getLookbackDays() {
+            return lookbackDays;
+        }
+
+        public void setLookbackDays(int lookbackDays) {
+            this.lookbackDays = lookbackDays;
+        }
+    }
+
+    /**
+     * Driver performance aggregation settings
+     */
+    public static class DriverMetrics {
+        private long flushIntervalMs = 10000;
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    /**
+     * Asynchronous refund processing. The simulated gateway settings apply only when no real gateway is configured.
+     */
+    public static class Refund {
+        private int maxAttempts = 5;
+        private long initialBackoffMs = 2000;
+        private long maxBackoffMs = 60000;
+        private long recoveryIntervalMs = 30000;
+        private long simulatedLatencyMs = 1000;
+        private double simulatedFailureRate = 0.1;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+
+        public long getRecoveryIntervalMs() {
+            return recoveryIntervalMs;
+        }
+
+        public void setRecoveryIntervalMs(long recoveryIntervalMs) {
+            this.recoveryIntervalMs = recoveryIntervalMs;
+        }
+
+        public long getSimulatedLatencyMs() {
+            return simulatedLatencyMs;
+        }
+
+        public void setSimulatedLatencyMs(long simulatedLatencyMs) {
+            this.simulatedLatencyMs = simulatedLatencyMs;
+        }
+
+        public double getSimulatedFailureRate() {
+            return simulatedFailureRate;
+        }
+
+        public void setSimulatedFailureRate(double simulatedFailureRate) {
+            this.simulatedFailureRate = simulatedFailureRate;
+        }
+    }
+
+    /**
+     * Payment and slip dashboard figures, served from a snapshot that is rebuilt after writes.
+     */
+    public static class PaymentStats {
+        private long refreshIntervalMs = 5000;
+        private long maxAgeMs = 60000;
+        private int histogramDays = 30;
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+
+        public long getMaxAgeMs() {
+            return maxAgeMs;
+        }
+
+        public void setMaxAgeMs(long maxAgeMs) {
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        public int getHistogramDays() {
+            return histogramDays;
+        }
+
+        public void setHistogramDays(int histogramDays) {
+            this.histogramDays = histogramDays;
+        }
+    }
+
+    /**
+     * Per-request authentication, served from token claims and a cache of user status.
+     */
+    public static class Auth {
+        private int userCacheSize = 10000;
+        private long userCacheTtlMs = 300000;
+
+        public int getUserCacheSize() {
+            return userCacheSize;
+        }
+
+        public void setUserCacheSize(int userCacheSize) {
+            this.userCacheSize = userCacheSize;
+        }
+
+        public long getUserCacheTtlMs() {
+            return userCacheTtlMs;
+        }
+
+        public void setUserCacheTtlMs(long userCacheTtlMs) {
+            this.userCacheTtlMs = userCacheTtlMs;
+        }
+    }
+
+    /**
+     * Token bucket limits per user (or per IP for anonymous requests), one set per route group.
+     */
+    public static class RateLimit {
+        private boolean enabled = true;
+        private long idleEvictionMs = 60000;
+        private int maxBuckets = 100000;
+        private Limit publicMenu = new Limit(100, 50);
+        private Limit auth = new Limit(10, 0.2);
+        private Limit user = new Limit(60, 20);
+        private Limit admin = new Limit(200, 100);
+        private Limit driver = new Limit(60, 20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIdleEvictionMs() {
+            return idleEvictionMs;
+        }
+
+        public void setIdleEvictionMs(long idleEvictionMs) {
+            this.idleEvictionMs = idleEvictionMs;
+        }
+
+        public int getMaxBuckets() {
+            return maxBuckets;
+        }
+
+        public void setMaxBuckets(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        public Limit getPublicMenu() {
+            return publicMenu;
+        }
+
+        public void setPublicMenu(Limit publicMenu) {
+            this.publicMenu = publicMenu;
+        }
+
+        public Limit getAuth() {
+            return auth;
+        }
+
+        public void setAuth(Limit auth) {
+            this.auth = auth;
+        }
+
+        public Limit getUser() {
+            return user;
+        }
+
+        public void setUser(Limit user) {
+            this.user = user;
+        }
+
+        public Limit getAdmin() {
+            return admin;
+        }
+
+        public void setAdmin(Limit admin) {
+            this.admin = admin;
+        }
+
+        public Limit getDriver() {
+            return driver;
+        }
+
+        public void setDriver(Limit driver) {
+            this.driver = driver;
+        }
+
+        /**
+         * Burst of capacity requests, refilled at refillPerSecond
+         */
+        public static class Limit {
+            private int capacity;
+            private double refillPerSecond;
+
+            public Limit() {
+            }
+
+            public Limit(int capacity, double refillPerSecond) {
+                this.capacity = capacity;
+                this.refillPerSecond = refillPerSecond;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public double getRefillPerSecond() {
+                return refillPerSecond;
+            }
+
+            public void setRefillPerSecond(double refillPerSecond) {
+                this.refillPerSecond = refillPerSecond;
+            }
+        }
+    }
+
+    /**
+     * BCrypt runs on its own bounded pool; requests beyond threads plus queue capacity are rejected at once.
+     */
+    public static class PasswordHashing {
+        private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueCapacity = 16;
+        private int reservedForSessions = 4;
+        private int bcryptStrength = 10;
+        private long waitTimeoutMs = 5000;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getReservedForSessions() {
+            return reservedForSessions;
+        }
+
+        public void setReservedForSessions(int reservedForSessions) {
+            this.reservedForSessions = reservedForSessions;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+    }
+
+    /**
+     * Relay of outbox events to their consumers; failed consumers are retried with backoff up to max attempts.
+     */
+    public static class Outbox {
+        private long relayIntervalMs = 5000;
+        private int batchSize = 100;
+        private int maxAttempts = 10;
+        private long leaseMs = 60000;
+        private long initialBackoffMs = 1000;
+        private long maxBackoffMs = 300000;
+
+        public long getRelayIntervalMs() {
+            return relayIntervalMs;
+        }
+
+        public void setRelayIntervalMs(long relayIntervalMs) {
+            this.relayIntervalMs = relayIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getLeaseMs() {
+            return leaseMs;
+        }
+
+        public void setLeaseMs(long leaseMs) {
+            this.leaseMs = leaseMs;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    /**
+     * Purge of old notifications, tracking history and relayed outbox events, in small batches off-peak.
+     * A TTL of zero or less keeps the rows forever; per-type notification TTLs override the defaults.
+     */
+    public static class Retention {
+        private boolean enabled = true;
+        private String purgeCron = "0 30 3 * * *";
+        private int batchSize = 1000;
+        private long batchPauseMs = 100;
+        private long maxRunMs = 1800000;
+        private int readNotificationTtlDays = 30;
+        private int unreadNotificationTtlDays = 90;
+        private Map<Notification.NotificationType, Integer> readNotificationTtlDaysByType =
+                new EnumMap<>(Map.of(Notification.NotificationType.PROMOTIONAL, 7));
+        private Map<Notification.NotificationType, Integer> unreadNotificationTtlDaysByType =
+                new EnumMap<>(Map.of(Notification.NotificationType.PROMOTIONAL, 14));
+        private int orderTrackingTtlDays = 365;
+        private int processedOutboxTtlDays = 7;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPurgeCron() {
+            return purgeCron;
+        }
+
+        public void setPurgeCron(String purgeCron) {
+            this.purgeCron = purgeCron;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getBatchPauseMs() {
+            return batchPauseMs;
+        }
+
+        public void setBatchPauseMs(long batchPauseMs) {
+            this.batchPauseMs = batchPauseMs;
+        }
+
+        public long getMaxRunMs() {
+            return maxRunMs;
+        }
+
+        public void setMaxRunMs(long maxRunMs) {
+            this.maxRunMs = maxRunMs;
+        }
+
+        public int getReadNotificationTtlDays() {
+            return readNotificationTtlDays;
+        }
+
+        public void setReadNotificationTtlDays(int readNotificationTtlDays) {
+            this.readNotificationTtlDays = readNotificationTtlDays;
+        }
+
+        public int getUnreadNotificationTtlDays() {
+            return unreadNotificationTtlDays;
+        }
+
+        public void setUnreadNotificationTtlDays(int unreadNotificationTtlDays) {
+            this.unreadNotificationTtlDays = unreadNotificationTtlDays;
+        }
+
+        public Map<Notification.NotificationType, Integer> getReadNotificationTtlDaysByType() {
+            return readNotificationTtlDaysByType;
+        }
+
+        public void setReadNotificationTtlDaysByType(Map<Notification.NotificationType, Integer> readNotificationTtlDaysByType) {
+            this.readNotificationTtlDaysByType = readNotificationTtlDaysByType;
+        }
+
+        public Map<Notification.NotificationType, Integer> getUnreadNotificationTtlDaysByType() {
+            return unreadNotificationTtlDaysByType;
+        }
+
+        public void setUnreadNotificationTtlDaysByType(Map<Notification.NotificationType, Integer> unreadNotificationTtlDaysByType) {
+            this.unreadNotificationTtlDaysByType = unreadNotificationTtlDaysByType;
+        }
+
+        public int getOrderTrackingTtlDays() {
+            return orderTrackingTtlDays;
+        }
+
+        public void setOrderTrackingTtlDays(int orderTrackingTtlDays) {
+            this.orderTrackingTtlDays = orderTrackingTtlDays;
+        }
+
+        public int getProcessedOutboxTtlDays() {
+            return processedOutboxTtlDays;
+        }
+
+        public void setProcessedOutboxTtlDays(int processedOutboxTtlDays) {
+            this.processedOutboxTtlDays = processedOutboxTtlDays;
+        }
+
+        public int readTtlDays(Notification.NotificationType type) {
+            return readNotificationTtlDaysByType.getOrDefault(type, readNotificationTtlDays);
+        }
+
+        public int unreadTtlDays(Notification.NotificationType type) {
+            return unreadNotificationTtlDaysByType.getOrDefault(type, unreadNotificationTtlDays);
+        }
+    }
+
+    /**
+     * Distance and zone based delivery pricing.
+     * Zones take precedence over bands; without bands the flat fee from system settings applies.
+     */
+    public static class DeliveryFee {
+        private List<Band> bands = new ArrayList<>();
+        private List<Zone> zones = new ArrayList<>();
+        private double zoneGridCellDegrees = 0.002;
+
+        public List<Band> getBands() {
+            return bands;
+        }
+
+        public void setBands(List<Band> bands) {
+            this.bands = bands;
+        }
+
+        public List<Zone> getZones() {
+            return zones;
+        }
+
+        public void setZones(List<Zone> zones) {
+            this.zones = zones;
+        }
+
+        public double getZoneGridCellDegrees() {
+            return zoneGridCellDegrees;
+        }
+
+        public void setZoneGridCellDegrees(double zoneGridCellDegrees) {
+            this.zoneGridCellDegrees = zoneGridCellDegrees;
+        }
+
+        /**
+         * Fee for deliveries up to maxKm from the kitchen
+         */
+        public static class Band {
+            private double maxKm;
+            private BigDecimal fee;
+
+            public double getMaxKm() {
+                return maxKm;
+            }
+
+            public void setMaxKm(double maxKm) {
+                this.maxKm = maxKm;
+            }
+
+            public BigDecimal getFee() {
+                return fee;
+            }
+
+            public void setFee(BigDecimal fee) {
+                this.fee = fee;
+            }
+        }
+
+        /**
+         * Polygon with a fixed fee; points are "latitude longitude" pairs
+         */
+        public static class Zone {
+            private String name;
+            private BigDecimal fee;
+            private List<String> points = new ArrayList<>();
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public BigDecimal getFee() {
+                return fee;
+            }
+
+            public void setFee(BigDecimal fee) {
+                this.fee = fee;
+            }
+
+            public List<String> getPoints() {
+                return points;
+            }
+
+            public void setPoints(List<String> points) {
+                this.points = points;
+            }
+        }
+    }
+}
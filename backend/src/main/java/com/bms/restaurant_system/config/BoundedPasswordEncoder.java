@@ -0,0 +1,122 @@
+package com.bms.restaurant_system.config;
+
+import com.bms.restaurant_system.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on a dedicated bounded pool, so a login storm uses at most app.password-hashing.threads
+ * cores and cannot take every request thread. Work beyond threads plus queue capacity is rejected
+ * at once with ServiceBusyException; the last reserved-for-sessions slots are kept for requests from
+ * users who are already authenticated, such as password changes.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final int capacity;
+    private final int reservedForSessions;
+    private final long waitTimeoutMs;
+
+    public BoundedPasswordEncoder(AppProperties.PasswordHashing config) {
+        this(config, new BCryptPasswordEncoder(config.getBcryptStrength()));
+    }
+
+    BoundedPasswordEncoder(AppProperties.PasswordHashing config, PasswordEncoder delegate) {
+        this.delegate = delegate;
+        int threads = Math.max(1, config.getThreads());
+        int queueCapacity = Math.max(0, config.getQueueCapacity());
+        this.capacity = threads + queueCapacity;
+        this.reservedForSessions = Math.min(Math.max(0, config.getReservedForSessions()), capacity - 1);
+        this.waitTimeoutMs = config.getWaitTimeoutMs();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only reads the cost from the stored hash, so it stays on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    int admitted() {
+        return admitted.get();
+    }
+
+    private <T> T run(Callable<T> task) {
+        int limit = hasSession() ? capacity : capacity - reservedForSessions;
+        if (admitted.incrementAndGet() > limit) {
+            admitted.decrementAndGet();
+            logger.warn("Password hashing saturated ({} in progress), rejecting request", limit);
+            throw busy();
+        }
+        Future<T> future = null;
+        try {
+            future = executor.submit(task);
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            if (future != null) {
+                future.cancel(true);
+            }
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            admitted.decrementAndGet();
+        }
+    }
+
+    private ServiceBusyException busy() {
+        long retryAfterSeconds = Math.max(1, (waitTimeoutMs + 999) / 1000);
+        return new ServiceBusyException("Too many sign-in requests, please retry shortly", retryAfterSeconds);
+    }
+
+    private static boolean hasSession() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+}
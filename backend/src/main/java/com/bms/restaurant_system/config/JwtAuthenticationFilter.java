@@ -1,7 +1,8 @@
 package com.bms.restaurant_system.config;
 
-import com.bms.restaurant_system.service.user.UserDetailsServiceImpl;
+import com.bms.restaurant_system.service.user.UserStatusCache;
 import com.bms.restaurant_system.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -24,7 +26,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserStatusCache userStatusCache;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
@@ -41,24 +43,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // One verification covers signature, expiry and subject
+                claims = jwtUtil.parseClaims(jwt);
             } catch (Exception e) {
                 chain.doFilter(request, response);
                 return;
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+                // Authorities come from the token; the cached status only confirms the account is still
+                // enabled and the role has not changed since the token was issued
+                UserStatusCache.UserStatus status = userStatusCache.get(claims.getSubject());
+                String tokenRole = claims.get("role", String.class);
+                if (status != null && status.enabled() && status.role().name().equals(tokenRole)) {
+                    UserDetails userDetails = User.withUsername(status.username())
+                            .password("")
+                            .roles(tokenRole)
+                            .build();
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
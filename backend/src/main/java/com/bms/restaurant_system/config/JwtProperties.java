@@ -15,6 +15,7 @@ public class JwtProperties {
     
     private String secret = "mySecretKey123456789012345678901234567890";
     private long expiration = 86400000; // 24 hours in milliseconds
+    private int claimsCacheSize = 10000; // verified tokens kept in memory; 0 disables the cache
     
     public String getSecret() {
         return secret;
@@ -31,4 +32,12 @@ public class JwtProperties {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public int getClaimsCacheSize() {
+        return claimsCacheSize;
+    }
+
+    public void setClaimsCacheSize(int claimsCacheSize) {
+        this.claimsCacheSize = claimsCacheSize;
+    }
 }
\ No newline at end of file
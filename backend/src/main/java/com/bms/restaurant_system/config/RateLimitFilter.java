@@ -0,0 +1,102 @@
+package com.bms.restaurant_system.config;
+
+import com.bms.restaurant_system.util.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Throttles API calls with a token bucket per route group and caller: the authenticated
+ * username, or the client IP for anonymous requests. Runs after JwtAuthenticationFilter so the
+ * caller is known; rejected requests get 429 with Retry-After in seconds.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
+            throws ServletException, IOException {
+
+        AppProperties.RateLimit config = appProperties.getRateLimit();
+        String group = routeGroup(request.getRequestURI());
+        if (!config.isEnabled() || group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Uses the connection address; behind a proxy set server.forward-headers-strategy so it is the client's
+        String caller = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                ? "u:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(group + '|' + caller, limitFor(config, group));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        logger.debug("Rate limited {} on {} group, retry after {}s", caller, group, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, retry after " + retryAfterSeconds + " seconds\"}");
+    }
+
+    /**
+     * Route group for the path, or null when the path is not throttled
+     */
+    static String routeGroup(String path) {
+        if (path.startsWith("/api/auth/") || path.startsWith("/api/driver/auth/")
+                || path.equals("/api/users/register") || path.equals("/api/delivery-drivers/register")) {
+            return "auth";
+        }
+        if (path.startsWith("/api/menus") || path.startsWith("/images/") || path.startsWith("/uploads/")) {
+            return "public-menu";
+        }
+        if (path.startsWith("/api/admin/") || path.startsWith("/api/manager/") || path.startsWith("/api/kitchen/")
+                || path.startsWith("/api/delivery-drivers")) {
+            return "admin";
+        }
+        if (path.startsWith("/api/driver/")) {
+            return "driver";
+        }
+        if (path.startsWith("/api/")) {
+            return "user";
+        }
+        return null;
+    }
+
+    private static AppProperties.RateLimit.Limit limitFor(AppProperties.RateLimit config, String group) {
+        return switch (group) {
+            case "auth" -> config.getAuth();
+            case "public-menu" -> config.getPublicMenu();
+            case "admin" -> config.getAdmin();
+            case "driver" -> config.getDriver();
+            default -> config.getUser();
+        };
+    }
+}
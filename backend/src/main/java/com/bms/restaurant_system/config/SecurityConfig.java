@@ -1,5 +1,6 @@
 package com.bms.restaurant_system.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +10,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
@@ -23,11 +23,15 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, UserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, UserDetailsService userDetailsService, JwtAuthenticationFilter jwtAuthFilter,
+                                                   RateLimitFilter rateLimitFilter) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches of SSE streams were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Public endpoints - no authentication required (ORDER MATTERS!)
                 .requestMatchers("/api/auth/**").permitAll()  // Authentication endpoints
                 .requestMatchers("/api/driver/auth/**").permitAll()  // Driver login/logout - MUST BE BEFORE /api/driver/**
@@ -70,6 +74,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // Add JWT authentication filter before UsernamePasswordAuthenticationFilter
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Throttle once the caller is known, before any controller work
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
             .userDetailsService(userDetailsService)
             .httpBasic(httpBasic -> httpBasic.disable())
             .formLogin(form -> form.disable());
@@ -78,8 +84,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(AppProperties appProperties) {
+        // BCrypt off the request threads, on a bounded pool
+        return new BoundedPasswordEncoder(appProperties.getPasswordHashing());
     }
 
     @Bean
@@ -1,18 +1,32 @@
 package com.bms.restaurant_system.controller.admin;
 
 import com.bms.restaurant_system.dto.OrderDTO;
+import com.bms.restaurant_system.dto.PaymentStatsDTO;
+import com.bms.restaurant_system.dto.driver.CodReconciliationDTO;
 import com.bms.restaurant_system.dto.driver.DeliveryDTO;
+import com.bms.restaurant_system.dto.driver.DriverStatsDTO;
+import com.bms.restaurant_system.dto.driver.RouteAssignmentRequest;
+import com.bms.restaurant_system.dto.driver.RoutePlanDTO;
 import com.bms.restaurant_system.entity.Menu;
 import com.bms.restaurant_system.entity.User;
 import com.bms.restaurant_system.entity.Order;
 import com.bms.restaurant_system.entity.Reservation;
 import com.bms.restaurant_system.service.order.OrderService;
+import com.bms.restaurant_system.service.delivery.CodReconciliationService;
 import com.bms.restaurant_system.service.delivery.DeliveryService;
+import com.bms.restaurant_system.service.delivery.DispatchEngine;
+import com.bms.restaurant_system.service.delivery.DispatchMatcher;
+import com.bms.restaurant_system.service.delivery.DriverMetricsService;
+import com.bms.restaurant_system.service.delivery.RouteBatchingService;
 import com.bms.restaurant_system.service.database.DatabaseRetrievalService;
+import com.bms.restaurant_system.service.payment.PaymentStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +39,16 @@ public class AdminController {
     private DeliveryService deliveryService;
     @Autowired
     private DatabaseRetrievalService databaseRetrievalService;
+    @Autowired
+    private DispatchEngine dispatchEngine;
+    @Autowired
+    private RouteBatchingService routeBatchingService;
+    @Autowired
+    private CodReconciliationService codReconciliationService;
+    @Autowired
+    private DriverMetricsService driverMetricsService;
+    @Autowired
+    private PaymentStatsService paymentStatsService;
 
     @GetMapping("/orders")
     public ResponseEntity<List<OrderDTO>> getAllOrders() {
@@ -36,6 +60,12 @@ public class AdminController {
         return ResponseEntity.ok(deliveryService.getAllDeliveries());
     }
 
+    // Payment and slip totals with per-day histograms for the finance dashboard
+    @GetMapping("/payments/statistics")
+    public ResponseEntity<PaymentStatsDTO> getPaymentStatistics() {
+        return ResponseEntity.ok(paymentStatsService.getSnapshot());
+    }
+
     // Database retrieval endpoints for admin users only
     @GetMapping("/database/menus")
     public ResponseEntity<List<Menu>> getAllMenus() {
@@ -128,6 +158,56 @@ public class AdminController {
         }
     }
 
+    // Run an auto-dispatch batch immediately instead of waiting for the scheduler
+    @PostMapping("/deliveries/auto-dispatch")
+    public ResponseEntity<Map<String, Object>> autoDispatch() {
+        List<DispatchMatcher.Assignment> assignments = dispatchEngine.dispatchPending();
+        return ResponseEntity.ok(Map.of("assigned", assignments.size(), "assignments", assignments));
+    }
+
+    // Multi-stop routes over deliveries that are ready for pickup
+    @GetMapping("/deliveries/routes")
+    public ResponseEntity<List<RoutePlanDTO>> planRoutes() {
+        return ResponseEntity.ok(routeBatchingService.planRoutes());
+    }
+
+    @PostMapping("/deliveries/routes/assign")
+    public ResponseEntity<?> assignRoute(@RequestBody RouteAssignmentRequest request) {
+        try {
+            return ResponseEntity.ok(routeBatchingService.assignRoute(
+                    request.routeId(), request.deliveryIds(), request.driverId()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Reconcile cash-on-delivery collections; defaults to today's shift for all drivers
+    @PostMapping("/deliveries/cod/reconcile")
+    public ResponseEntity<?> reconcileCashOnDelivery(
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            CodReconciliationDTO result = codReconciliationService.reconcile(driverId,
+                    from != null ? from : LocalDate.now().atStartOfDay(),
+                    to != null ? to : LocalDateTime.now());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Driver leaderboards served from in-memory aggregates
+    @GetMapping("/drivers/leaderboard/deliveries")
+    public ResponseEntity<List<DriverStatsDTO>> getDeliveryLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(driverMetricsService.getTopByDeliveries(limit));
+    }
+
+    @GetMapping("/drivers/leaderboard/rating")
+    public ResponseEntity<List<DriverStatsDTO>> getRatingLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(driverMetricsService.getTopRatedAvailable(limit));
+    }
+
     // Note: User management endpoints have been moved to AdminUserController
     // to avoid duplicate mappings and provide better separation of concerns
 }
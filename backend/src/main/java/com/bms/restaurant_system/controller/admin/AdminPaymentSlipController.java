@@ -1,15 +1,24 @@
 package com.bms.restaurant_system.controller.admin;
 
 import com.bms.restaurant_system.dto.PaymentSlipDTO;
+import com.bms.restaurant_system.dto.PaymentSlipQueuePageDTO;
+import com.bms.restaurant_system.dto.PaymentSlipReviewRequest;
+import com.bms.restaurant_system.dto.PaymentSlipReviewResultDTO;
+import com.bms.restaurant_system.dto.StatementReconciliationDTO;
 import com.bms.restaurant_system.entity.PaymentSlip;
 import com.bms.restaurant_system.service.payment.PaymentSlipService;
+import com.bms.restaurant_system.service.payment.StatementReconciliationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +30,9 @@ public class AdminPaymentSlipController {
     @Autowired
     private PaymentSlipService paymentSlipService;
 
+    @Autowired
+    private StatementReconciliationService statementReconciliationService;
+
     // Get all payment slips
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -37,6 +49,53 @@ public class AdminPaymentSlipController {
         return ResponseEntity.ok(paymentSlipService.getPendingPaymentSlips());
     }
 
+    // Review queue, one keyset page at a time; pass nextCursor from the previous page to continue
+    @GetMapping("/queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getReviewQueue(@RequestParam(defaultValue = "PENDING") String status,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            PaymentSlip.PaymentSlipStatus slipStatus = PaymentSlip.PaymentSlipStatus.valueOf(status.toUpperCase());
+            PaymentSlipQueuePageDTO page = paymentSlipService.getReviewQueue(slipStatus, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid review queue request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Confirm or reject a page of slips in one request
+    @PostMapping("/review")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reviewPaymentSlips(@RequestBody PaymentSlipReviewRequest request) {
+        logger.info("Admin reviewing a batch of payment slips");
+        try {
+            PaymentSlipReviewResultDTO result = paymentSlipService.reviewPaymentSlips(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Match a bank statement CSV against open slips and payments; exact matches are confirmed unless autoConfirm=false
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconcileStatement(@RequestParam("file") MultipartFile file,
+                                                @RequestParam(defaultValue = "true") boolean autoConfirm) {
+        String adminUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+        logger.info("Admin {} reconciling bank statement {}", adminUsername, file.getOriginalFilename());
+        try (InputStream statement = file.getInputStream()) {
+            StatementReconciliationDTO result = statementReconciliationService.reconcile(statement, adminUsername, autoConfirm);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Error reading bank statement: {}", e.getMessage());
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to read statement"));
+        }
+    }
+
     // Get payment slips by status
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
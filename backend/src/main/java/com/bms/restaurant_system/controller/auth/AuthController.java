@@ -5,6 +5,7 @@ import com.bms.restaurant_system.dto.auth.LoginResponse;
 import com.bms.restaurant_system.dto.UserDTO;
 import com.bms.restaurant_system.dto.UserResponseDTO;
 import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.exception.ServiceBusyException;
 import com.bms.restaurant_system.service.user.UserService;
 import com.bms.restaurant_system.util.JwtUtil;
 import org.slf4j.Logger;
@@ -74,6 +75,8 @@ public class AuthController {
                 "message", "Registration successful",
                 "user", createdUser
             ));
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Registration failed for user: {}", userDTO.username(), e);
             return ResponseEntity.status(400).body(java.util.Map.of(
@@ -0,0 +1,110 @@
+package com.bms.restaurant_system.controller.driver;
+
+import com.bms.restaurant_system.dto.driver.LocationPingDTO;
+import com.bms.restaurant_system.service.delivery.DeliveryService;
+import com.bms.restaurant_system.service.delivery.LocationIngestionService;
+import com.bms.restaurant_system.service.user.TrackingAccessService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/driver")
+public class DriverController {
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
+    @Autowired
+    private TrackingAccessService trackingAccessService;
+
+    // All deliveries ever assigned to the driver, newest first
+    @GetMapping("/{driverId}/my-deliveries")
+    public ResponseEntity<?> getMyDeliveries(@PathVariable Long driverId) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(deliveryService.getDeliveriesByDriverId(driverId));
+    }
+
+    // Deliveries the driver is currently working on
+    @GetMapping("/{driverId}/active-deliveries")
+    public ResponseEntity<?> getActiveDeliveries(@PathVariable Long driverId) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(deliveryService.getActiveDeliveriesForDriver(driverId));
+    }
+
+    // Unassigned deliveries waiting for a driver, oldest first; only the driver themselves may browse them
+    @GetMapping("/{driverId}/available-deliveries")
+    public ResponseEntity<?> getAvailableDeliveries(@PathVariable Long driverId) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(deliveryService.getAvailableDeliveries());
+    }
+
+    // Report the driver's current position for an in-progress delivery
+    @PostMapping("/{driverId}/location")
+    public ResponseEntity<?> updateLocation(@PathVariable Long driverId, @RequestBody LocationPingDTO ping) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        try {
+            int accepted = locationIngestionService.ingest(driverId, List.of(ping));
+            return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Report several buffered positions at once, e.g. after the device regains connectivity
+    @PostMapping("/{driverId}/location/batch")
+    public ResponseEntity<?> updateLocations(@PathVariable Long driverId, @RequestBody List<LocationPingDTO> pings) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        try {
+            int accepted = locationIngestionService.ingest(driverId, pings);
+            return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Confirm the cash handed over for a cash-on-delivery drop
+    @PostMapping("/{driverId}/deliveries/{deliveryId}/cash")
+    public ResponseEntity<?> confirmCashCollection(@PathVariable Long driverId, @PathVariable Long deliveryId,
+                                                   @RequestBody Map<String, Object> cashData) {
+        if (!isCurrentDriver(driverId)) {
+            return forbidden();
+        }
+        try {
+            Object amount = cashData.get("amount");
+            if (amount == null) {
+                throw new IllegalArgumentException("Amount is required");
+            }
+            return ResponseEntity.ok(deliveryService.confirmCashCollection(driverId, deliveryId,
+                    new BigDecimal(amount.toString())));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Drivers may only act as themselves
+    private boolean isCurrentDriver(Long driverId) {
+        return driverId.equals(trackingAccessService.currentDriverId());
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Not allowed to act for this driver"));
+    }
+}
@@ -2,21 +2,22 @@ package com.bms.restaurant_system.controller.user;
 
 import com.bms.restaurant_system.dto.user.NotificationDTO;
 import com.bms.restaurant_system.entity.Notification;
-import com.bms.restaurant_system.entity.User;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.NotificationRepository;
-import com.bms.restaurant_system.repository.UserRepository;
 import com.bms.restaurant_system.service.notification.NotificationService;
+import com.bms.restaurant_system.service.notification.NotificationStreamService;
+import com.bms.restaurant_system.service.user.UserStatusCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -25,27 +26,31 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserStatusCache userStatusCache;
 
     /**
-     * Get all notifications for the currently logged-in user
+     * Notifications for the currently logged-in user, including global announcements, newest first.
+     * Fetch once, page back with beforeId, then follow /stream for new ones.
      */
     @GetMapping("/my-notifications")
-    public ResponseEntity<List<NotificationDTO>> getMyNotifications() {
+    public ResponseEntity<List<NotificationDTO>> getMyNotifications(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size) {
         Long userId = getCurrentUserId();
-        
-        // Get notifications for this user OR global notifications
-        List<Notification> notifications = notificationRepository.findByUserId(userId);
-        
-        List<NotificationDTO> notificationDTOs = notifications.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(notificationDTOs);
+        return ResponseEntity.ok(notificationService.getNotificationHistory(userId, beforeId, size));
+    }
+
+    // Live stream of notifications created for the current user and of global announcements
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyNotifications() {
+        return notificationStreamService.subscribe(getCurrentUserId());
     }
 
     /**
@@ -72,11 +77,24 @@ public class NotificationController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        notification.setStatus(Notification.NotificationStatus.READ);
-        notification.setReadAt(LocalDateTime.now());
-        notificationRepository.save(notification);
-        
-        return ResponseEntity.ok(convertToDTO(notification));
+        return ResponseEntity.ok(notificationService.markAsRead(notification));
+    }
+
+    /**
+     * Mark all of the current user's notifications as read
+     */
+    @PatchMapping("/read-all")
+    public ResponseEntity<Map<String, Integer>> markAllAsRead() {
+        int updated = notificationService.markAllAsRead(getCurrentUserId());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+
+    /**
+     * Unread count for the bell badge, without loading the notifications
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount() {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(getCurrentUserId())));
     }
 
     /**
@@ -115,27 +133,12 @@ public class NotificationController {
             throw new RuntimeException("User not authenticated");
         }
         
+        // Served from the status cache the JWT filter already filled, so badge polls cost no user query
         String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
-        
-        return user.getId();
-    }
-
-    private NotificationDTO convertToDTO(Notification notification) {
-        return new NotificationDTO(
-                notification.getId(),
-                notification.getTitle(),
-                notification.getMessage(),
-                notification.getType().name(),
-                notification.getStatus().name(),
-                notification.getUser() != null ? notification.getUser().getId() : null,
-                notification.getUser() != null ? notification.getUser().getUsername() : null,
-                notification.getCreatedAt(),
-                notification.getReadAt(),
-                notification.getReferenceId(),
-                notification.getReferenceType(),
-                notification.getIsGlobal()
-        );
+        UserStatusCache.UserStatus user = userStatusCache.get(username);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found: " + username);
+        }
+        return user.id();
     }
 }
@@ -1,9 +1,12 @@
 package com.bms.restaurant_system.controller.user;
 
 import com.bms.restaurant_system.dto.AssignDriverRequest;
+import com.bms.restaurant_system.dto.DeliveryFeeQuoteDTO;
 import com.bms.restaurant_system.dto.OrderCreateDTO;
 import com.bms.restaurant_system.dto.OrderDTO;
+import com.bms.restaurant_system.dto.driver.AvailableDriverDTO;
 import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.service.DeliveryFeeCalculator;
 import com.bms.restaurant_system.service.order.OrderService;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import org.slf4j.Logger;
@@ -13,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +28,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private DeliveryFeeCalculator deliveryFeeCalculator;
+
     @GetMapping
     public ResponseEntity<List<OrderDTO>> getAllOrders() {
         logger.info("Fetching all orders");
@@ -58,6 +65,19 @@ public class OrderController {
         return ResponseEntity.ok(createdOrder);
     }
 
+    // Live delivery fee for the cart as the customer picks an address
+    @GetMapping("/delivery-fee/quote")
+    public ResponseEntity<?> quoteDeliveryFee(
+            @RequestParam(required = false) BigDecimal latitude,
+            @RequestParam(required = false) BigDecimal longitude) {
+        try {
+            DeliveryFeeQuoteDTO quote = deliveryFeeCalculator.quote(latitude, longitude);
+            return ResponseEntity.ok(quote);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderDTO orderDTO) {
         logger.info("Updating order with id: {}", id);
@@ -117,10 +137,10 @@ public class OrderController {
     }
 
     @GetMapping("/admin/drivers")
-    public ResponseEntity<List<Map<String, Object>>> getAvailableDrivers() {
+    public ResponseEntity<List<AvailableDriverDTO>> getAvailableDrivers() {
         logger.info("Fetching available drivers");
         try {
-            List<Map<String, Object>> drivers = orderService.getAvailableDrivers();
+            List<AvailableDriverDTO> drivers = orderService.getAvailableDrivers();
             logger.info("Found {} available drivers", drivers.size());
             return ResponseEntity.ok(drivers);
         } catch (Exception e) {
@@ -151,6 +171,22 @@ public class OrderController {
         }
     }
 
+    // Customer rating of a delivered order's delivery
+    @PostMapping("/{id}/rating")
+    public ResponseEntity<?> rateDelivery(@PathVariable Long id, @RequestBody Map<String, Object> ratingData) {
+        try {
+            Object rating = ratingData.get("rating");
+            Object feedback = ratingData.get("feedback");
+            return ResponseEntity.ok(orderService.rateDelivery(id,
+                    rating != null ? Integer.valueOf(rating.toString()) : null,
+                    feedback != null ? feedback.toString() : null));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}/assign-driver")
     public ResponseEntity<OrderDTO> assignDriver(
             @PathVariable Long id, 
@@ -1,10 +1,17 @@
 package com.bms.restaurant_system.controller.user;
 
 import com.bms.restaurant_system.dto.OrderTrackingDTO;
+import com.bms.restaurant_system.dto.driver.LivePositionDTO;
+import com.bms.restaurant_system.service.delivery.LocationIngestionService;
 import com.bms.restaurant_system.service.order.OrderTrackingService;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.service.user.TrackingAccessService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +22,15 @@ public class OrderTrackingController {
 
     @Autowired
     private OrderTrackingService orderTrackingService;
+
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
+    @Autowired
+    private TrackingAccessService trackingAccessService;
     
     @GetMapping("/{orderId}")
     public ResponseEntity<List<OrderTrackingDTO>> getOrderTracking(@PathVariable Long orderId) {
@@ -22,6 +38,16 @@ public class OrderTrackingController {
         return ResponseEntity.ok(tracking);
     }
     
+    // Live stream of status, timeline and driver location events for an order.
+    // Only the order's customer, its driver and admins may subscribe.
+    @GetMapping(value = "/{orderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderTracking(@PathVariable Long orderId) {
+        if (!trackingAccessService.canTrackOrder(orderId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(orderTrackingStreamService.subscribe(orderId));
+    }
+    
     @PostMapping("/{orderId}")
     public ResponseEntity<OrderTrackingDTO> addOrderTracking(
             @PathVariable Long orderId,
@@ -38,4 +64,16 @@ public class OrderTrackingController {
         
         return ResponseEntity.ok(tracking);
     }
+
+    // Live driver position, served from memory; 204 when the delivery is not being tracked.
+    // Only the order's customer, its driver and admins may see it.
+    @GetMapping("/delivery/{deliveryId}/location")
+    public ResponseEntity<LivePositionDTO> getLiveLocation(@PathVariable Long deliveryId) {
+        if (!trackingAccessService.canTrackDelivery(deliveryId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return locationIngestionService.getLivePosition(deliveryId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
 }
\ No newline at end of file
@@ -1,17 +1,23 @@
 package com.bms.restaurant_system.controller.user;
 
 import com.bms.restaurant_system.dto.PaymentDTO;
+import com.bms.restaurant_system.dto.RefundJobDTO;
 import com.bms.restaurant_system.service.payment.PaymentService;
+import com.bms.restaurant_system.service.payment.RefundService;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -21,6 +27,9 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private RefundService refundService;
+
     @GetMapping
     public ResponseEntity<List<PaymentDTO>> getAllPayments() {
         logger.info("Fetching all payments");
@@ -72,23 +81,57 @@ public class PaymentController {
         return ResponseEntity.ok(approvedPayment);
     }
 
+    // Queues the refund and answers at once; poll the returned job or wait for the customer notification
     @PostMapping("/{id}/refund")
-    public ResponseEntity<PaymentDTO> processRefund(@PathVariable Long id,
-                                                   @RequestParam BigDecimal amount,
-                                                   @RequestParam String reason) {
-        logger.info("Processing refund for payment id: {} with amount: {}", id, amount);
-        PaymentDTO refundedPayment = paymentService.processRefund(id, amount, reason);
-        logger.info("Refund processed for payment id: {}", id);
-        return ResponseEntity.ok(refundedPayment);
+    public ResponseEntity<?> processRefund(@PathVariable Long id,
+                                           @RequestParam BigDecimal amount,
+                                           @RequestParam String reason,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        logger.info("Queueing refund for payment id: {} with amount: {}", id, amount);
+        return submitRefund(id, amount, reason, idempotencyKey);
     }
 
     @PostMapping("/{id}/refund/full")
-    public ResponseEntity<PaymentDTO> processFullRefund(@PathVariable Long id,
-                                                       @RequestParam String reason) {
-        logger.info("Processing full refund for payment id: {}", id);
-        PaymentDTO refundedPayment = paymentService.processFullRefund(id, reason);
-        logger.info("Full refund processed for payment id: {}", id);
-        return ResponseEntity.ok(refundedPayment);
+    public ResponseEntity<?> processFullRefund(@PathVariable Long id,
+                                               @RequestParam String reason,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        logger.info("Queueing full refund for payment id: {}", id);
+        return submitRefund(id, null, reason, idempotencyKey);
+    }
+
+    @GetMapping("/refunds/{jobId}")
+    public ResponseEntity<RefundJobDTO> getRefundJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(refundService.getRefundJob(jobId));
+    }
+
+    @GetMapping("/{id}/refunds")
+    public ResponseEntity<List<RefundJobDTO>> getRefundJobs(@PathVariable Long id) {
+        return ResponseEntity.ok(refundService.getRefundJobsForPayment(id));
+    }
+
+    private ResponseEntity<?> submitRefund(Long paymentId, BigDecimal amount, String reason, String idempotencyKey) {
+        try {
+            RefundJobDTO job = refundService.requestRefund(paymentId, amount, reason, idempotencyKey);
+            logger.info("Refund job {} accepted for payment id: {}", job.id(), paymentId);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/refunds/" + job.id()))
+                    .body(job);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                // Without a key of ours the violation came from something else
+                logger.warn("Refund conflict for payment id: {}: {}", paymentId, e.getMessage());
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Refund could not be queued, please retry"));
+            }
+            // A concurrent request with the same key created the job first
+            RefundJobDTO job = refundService.getRefundJobByIdempotencyKey(idempotencyKey);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/payments/refunds/" + job.id()))
+                    .body(job);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Refund rejected for payment id: {}: {}", paymentId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/calculate-refund")
@@ -0,0 +1,40 @@
+package com.bms.restaurant_system.controller.user;
+
+import com.bms.restaurant_system.service.storage.BlobStore;
+import com.bms.restaurant_system.service.storage.FileServingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Serves uploaded menu images and payment slips from the blob store.
+ * Takes precedence over the /uploads/** resource handler for blob URLs.
+ */
+@RestController
+public class UploadController {
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @GetMapping(BlobStore.URL_PREFIX + "{shard}/{name}")
+    public void getBlob(@PathVariable String shard, @PathVariable String name,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = blobStore.resolve(BlobStore.URL_PREFIX + shard + "/" + name);
+        if (path == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // The name is the SHA-256 of the content, so it doubles as a strong ETag
+        String hash = name.contains(".") ? name.substring(0, name.indexOf('.')) : name;
+        fileServingService.serve(path, "\"" + hash + "\"", FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+    }
+}
@@ -2,6 +2,7 @@ package com.bms.restaurant_system.controller.user;
 
 import com.bms.restaurant_system.dto.UserResponseDTO;
 import com.bms.restaurant_system.dto.user.RegisterUserDTO;
+import com.bms.restaurant_system.exception.ServiceBusyException;
 import com.bms.restaurant_system.service.user.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +32,8 @@ public class UserController {
             UserResponseDTO createdUser = userService.registerUser(registerUserDTO);
             logger.info("User registered successfully: {}", createdUser.username());
             return ResponseEntity.ok(createdUser);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Registration failed for user: {}", userDTO.username(), e);
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
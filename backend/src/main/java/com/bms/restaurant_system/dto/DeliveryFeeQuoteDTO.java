@@ -0,0 +1,10 @@
+package com.bms.restaurant_system.dto;
+
+import java.math.BigDecimal;
+
+public record DeliveryFeeQuoteDTO(
+    BigDecimal distanceKm,
+    BigDecimal fee,
+    String zone,
+    boolean deliverable
+) {}
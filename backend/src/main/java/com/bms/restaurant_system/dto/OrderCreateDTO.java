@@ -5,6 +5,7 @@ import com.bms.restaurant_system.entity.PaymentMethod;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public record OrderCreateDTO(
@@ -17,8 +18,16 @@ public record OrderCreateDTO(
     String deliveryPhone,
     String specialInstructions,
     @NotNull(message = "Order type is required")
-    Order.OrderType orderType
+    Order.OrderType orderType,
+    BigDecimal deliveryLatitude,
+    BigDecimal deliveryLongitude
 ) {
+    public OrderCreateDTO(Long userId, List<OrderItemCreateDTO> items, PaymentMethod paymentMethod,
+                          String deliveryAddress, String deliveryPhone, String specialInstructions,
+                          Order.OrderType orderType) {
+        this(userId, items, paymentMethod, deliveryAddress, deliveryPhone, specialInstructions, orderType, null, null);
+    }
+
     public record OrderItemCreateDTO(
         @NotNull(message = "Menu ID is required")
         Long menuId,
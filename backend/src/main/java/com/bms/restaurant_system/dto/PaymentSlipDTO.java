@@ -21,5 +21,6 @@ public record PaymentSlipDTO(
     String rejectionReason,
     String adminNotes,
     String bankName,
-    String transactionReference
+    String transactionReference,
+    String thumbnailPath
 ) {}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.bms.restaurant_system.dto;
+
+import java.util.List;
+
+public record PaymentSlipQueuePageDTO(
+    List<PaymentSlipDTO> slips,
+    String nextCursor,
+    boolean hasMore
+) {}
@@ -0,0 +1,16 @@
+package com.bms.restaurant_system.dto;
+
+import java.util.List;
+
+public record PaymentSlipReviewRequest(
+    String adminUsername,
+    List<Decision> decisions
+) {
+    // action is CONFIRM or REJECT; reason is required for rejections
+    public record Decision(
+        Long id,
+        String action,
+        String reason,
+        String notes
+    ) {}
+}
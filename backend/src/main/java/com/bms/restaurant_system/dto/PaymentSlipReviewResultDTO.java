@@ -0,0 +1,9 @@
+package com.bms.restaurant_system.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record PaymentSlipReviewResultDTO(
+    List<PaymentSlipDTO> reviewed,
+    Map<Long, String> failed
+) {}
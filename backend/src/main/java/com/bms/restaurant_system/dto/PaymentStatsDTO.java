@@ -0,0 +1,34 @@
+package com.bms.restaurant_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record PaymentStatsDTO(
+    long version,
+    LocalDateTime generatedAt,
+    Map<String, StatusTotals> payments,
+    Map<String, StatusTotals> paymentSlips,
+    BigDecimal totalProcessedAmount,
+    BigDecimal totalRefundedAmount,
+    List<Day> daily
+) {
+    public record StatusTotals(
+        long count,
+        BigDecimal amount
+    ) {}
+
+    // One histogram bucket; payment figures by submission day, slip figures by upload day
+    public record Day(
+        LocalDate date,
+        long payments,
+        BigDecimal paymentAmount,
+        BigDecimal completedAmount,
+        BigDecimal refundedAmount,
+        long paymentSlips,
+        BigDecimal slipAmount,
+        BigDecimal confirmedSlipAmount
+    ) {}
+}
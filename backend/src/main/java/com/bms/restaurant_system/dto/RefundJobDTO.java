@@ -0,0 +1,19 @@
+package com.bms.restaurant_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record RefundJobDTO(
+    Long id,
+    Long paymentId,
+    String idempotencyKey,
+    BigDecimal amount,
+    String reason,
+    String status,
+    Integer attempts,
+    LocalDateTime nextAttemptAt,
+    String lastError,
+    String gatewayReference,
+    LocalDateTime createdAt,
+    LocalDateTime completedAt
+) {}
@@ -0,0 +1,14 @@
+package com.bms.restaurant_system.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record StatementLineDTO(
+    long lineNumber,
+    LocalDate date,
+    BigDecimal amount,
+    String reference,
+    String outcome,
+    Long paymentSlipId,
+    Long paymentId
+) {}
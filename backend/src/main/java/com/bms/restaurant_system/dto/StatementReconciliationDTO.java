@@ -0,0 +1,17 @@
+package com.bms.restaurant_system.dto;
+
+import java.util.List;
+
+public record StatementReconciliationDTO(
+    long linesRead,
+    long linesSkipped,
+    long exactMatches,
+    long amountAndDateMatches,
+    long amountMismatches,
+    long ambiguous,
+    long unmatched,
+    int slipsConfirmed,
+    int paymentsApproved,
+    List<StatementLineDTO> needsReview,
+    long elapsedMillis
+) {}
@@ -0,0 +1,11 @@
+package com.bms.restaurant_system.dto;
+
+import java.time.LocalDateTime;
+
+public record TrackingStatusDTO(
+    Long orderId,
+    String orderStatus,
+    Long deliveryId,
+    String deliveryStatus,
+    LocalDateTime timestamp
+) {}
@@ -0,0 +1,23 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.math.BigDecimal;
+
+/**
+ * Driver user joined with its driver profile and current load.
+ * Profile fields are null for driver accounts that have no profile yet.
+ */
+public record AvailableDriverDTO(
+    Long id,
+    String username,
+    String email,
+    String phone,
+    boolean enabled,
+    String name,
+    String vehicleNumber,
+    String vehicleType,
+    String licenseNumber,
+    Boolean available,
+    BigDecimal rating,
+    Integer totalDeliveries,
+    Long activeDeliveries
+) {}
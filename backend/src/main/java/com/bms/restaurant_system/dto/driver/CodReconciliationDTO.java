@@ -0,0 +1,11 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record CodReconciliationDTO(
+    LocalDateTime from,
+    LocalDateTime to,
+    int deliveriesVerified,
+    List<CodShiftSummaryDTO> drivers
+) {}
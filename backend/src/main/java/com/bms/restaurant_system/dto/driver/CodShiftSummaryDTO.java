@@ -0,0 +1,13 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CodShiftSummaryDTO(
+    Long driverId,
+    long deliveries,
+    BigDecimal cashCollected,
+    BigDecimal expected,
+    BigDecimal difference,
+    List<Long> mismatchedOrderIds
+) {}
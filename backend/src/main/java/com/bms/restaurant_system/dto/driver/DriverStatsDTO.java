@@ -0,0 +1,15 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.math.BigDecimal;
+
+public record DriverStatsDTO(
+    Long driverId,
+    String name,
+    boolean available,
+    BigDecimal rating,
+    int ratingCount,
+    int totalDeliveries,
+    int onTimeDeliveries,
+    double onTimeRate,
+    double averageDeliveryMinutes
+) {}
@@ -0,0 +1,11 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.time.LocalDateTime;
+
+public record LivePositionDTO(
+    Long deliveryId,
+    Long driverId,
+    double latitude,
+    double longitude,
+    LocalDateTime recordedAt
+) {}
@@ -0,0 +1,10 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.time.LocalDateTime;
+
+public record LocationPingDTO(
+    Long deliveryId,
+    Double latitude,
+    Double longitude,
+    LocalDateTime recordedAt
+) {}
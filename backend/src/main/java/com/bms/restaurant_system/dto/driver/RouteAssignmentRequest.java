@@ -0,0 +1,9 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.util.List;
+
+public record RouteAssignmentRequest(
+    String routeId,
+    Long driverId,
+    List<Long> deliveryIds
+) {}
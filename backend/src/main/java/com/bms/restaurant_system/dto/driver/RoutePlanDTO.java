@@ -0,0 +1,11 @@
+package com.bms.restaurant_system.dto.driver;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record RoutePlanDTO(
+    String routeId,
+    List<Long> deliveryIds,
+    BigDecimal distanceKm,
+    BigDecimal durationMinutes
+) {}
@@ -7,9 +7,14 @@ import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = {
+    @Index(name = "idx_deliveries_driver_status", columnList = "driver_id, status"),
+    @Index(name = "idx_deliveries_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_deliveries_driver_cash", columnList = "driver_id, cash_collection_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -93,6 +98,9 @@ public class Delivery {
     @Column(name = "cash_collection_time")
     private LocalDateTime cashCollectionTime; // When cash was collected
 
+    @Column(name = "cash_reconciled_at")
+    private LocalDateTime cashReconciledAt; // When the shift reconciliation verified the cash
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -121,6 +129,13 @@ public class Delivery {
         RETURNED
     }
 
+    // Statuses in which a delivery counts towards a driver's current load
+    public static final List<DeliveryStatus> ACTIVE_STATUSES = List.of(
+            DeliveryStatus.ASSIGNED,
+            DeliveryStatus.PICKED_UP,
+            DeliveryStatus.IN_TRANSIT,
+            DeliveryStatus.ARRIVED);
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -37,4 +37,11 @@ public class DeliveryDriver {
     
     @Column(columnDefinition = "TEXT")
     private String notes;
+    
+    // Set when the delivery was assigned as part of a planned route
+    @Column(name = "route_id", length = 64)
+    private String routeId;
+    
+    @Column(name = "stop_sequence")
+    private Integer stopSequence;
 }
@@ -0,0 +1,42 @@
+package com.bms.restaurant_system.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only breadcrumb of a driver's position during a delivery.
+ * Rows are only ever inserted in batches by the location write-behind.
+ */
+@Entity
+@Table(name = "delivery_locations", indexes = {
+    @Index(name = "idx_delivery_locations_delivery_time", columnList = "delivery_id, recorded_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryLocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "delivery_id", nullable = false)
+    private Long deliveryId;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(precision = 10, scale = 8, nullable = false)
+    private BigDecimal latitude;
+
+    @Column(precision = 11, scale = 8, nullable = false)
+    private BigDecimal longitude;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -49,18 +49,33 @@ public class Driver {
     @Column(name = "license_number", length = 50)
     private String licenseNumber;
     
-    @Column(nullable = false)
+    // Owned by DriverStateRegistry, which writes it back in bulk
+    @Column(nullable = false, updatable = false)
     private Boolean available = true;
     
+    // Performance columns are only written by DriverMetricsService's atomic increments,
+    // so saving a loaded Driver can never overwrite counts flushed in the meantime
     @DecimalMin(value = "0.0", message = "Rating must be at least 0.0")
     @DecimalMax(value = "5.0", message = "Rating must not exceed 5.0")
-    @Column(precision = 3, scale = 2)
+    @Column(precision = 3, scale = 2, updatable = false)
     private BigDecimal rating = BigDecimal.ZERO;
     
     @Min(value = 0, message = "Total deliveries must be non-negative")
-    @Column(name = "total_deliveries")
+    @Column(name = "total_deliveries", updatable = false)
     private Integer totalDeliveries = 0;
     
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Integer ratingSum = 0;
+    
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+    
+    @Column(name = "on_time_deliveries", nullable = false, updatable = false)
+    private Integer onTimeDeliveries = 0;
+    
+    @Column(name = "total_delivery_minutes", nullable = false, updatable = false)
+    private Long totalDeliveryMinutes = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -8,7 +8,10 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_notifications_type_status_created", columnList = "type, status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
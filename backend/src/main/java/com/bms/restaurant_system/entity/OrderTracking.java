@@ -8,7 +8,10 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_tracking")
+@Table(name = "order_tracking", indexes = {
+    // Serves the retention purge's cutoff lookup
+    @Index(name = "idx_order_tracking_timestamp", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
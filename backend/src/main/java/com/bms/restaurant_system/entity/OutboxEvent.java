@@ -0,0 +1,124 @@
+package com.bms.restaurant_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A state change written in the same transaction as the change itself, for OutboxRelay to hand to
+ * the consumers that react to it. delivered_to lists the consumers that already handled the event,
+ * so a retry only repeats the ones that failed.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_outbox_events_aggregate", columnList = "aggregate_type, aggregate_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false)
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    @Column(name = "new_status", length = 50, nullable = false)
+    private String newStatus;
+
+    // Customer to tell about the change, if any
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Order whose timeline the change belongs on, if any
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "actor")
+    private String actor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "delivered_to")
+    private String deliveredTo;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum AggregateType {
+        ORDER,
+        DELIVERY,
+        PAYMENT_SLIP,
+        RESERVATION,
+        REFUND
+    }
+
+    public enum EventType {
+        CREATED,
+        STATUS_CHANGED
+    }
+
+    public enum OutboxStatus {
+        PENDING,
+        PROCESSED,
+        FAILED
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+    }
+
+    public Set<String> getDeliveredConsumers() {
+        Set<String> consumers = new LinkedHashSet<>();
+        if (this.deliveredTo != null && !this.deliveredTo.isBlank()) {
+            consumers.addAll(Arrays.asList(this.deliveredTo.split(",")));
+        }
+        return consumers;
+    }
+
+    public void setDeliveredConsumers(Set<String> consumers) {
+        this.deliveredTo = consumers.isEmpty() ? null : String.join(",", consumers);
+    }
+}
@@ -9,7 +9,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_transaction_id", columnList = "transaction_id"),
+    @Index(name = "idx_payments_gateway_transaction_id", columnList = "gateway_transaction_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,7 +6,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payment_slips")
+@Table(name = "payment_slips", indexes = {
+    @Index(name = "idx_payment_slips_content_hash", columnList = "content_hash"),
+    @Index(name = "idx_payment_slips_status_uploaded", columnList = "status, uploaded_at, id"),
+    @Index(name = "idx_payment_slips_transaction_reference", columnList = "transaction_reference")
+})
 public class PaymentSlip {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,6 +36,14 @@ public class PaymentSlip {
     @Column(name = "content_type")
     private String contentType;
 
+    // SHA-256 of the file, which also names it in the blob store
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Small JPEG preview for the review queue; null for PDF slips
+    @Column(name = "thumbnail_path", length = 500)
+    private String thumbnailPath;
+
     @Column(name = "payment_amount", precision = 10, scale = 2, nullable = false)
     private BigDecimal paymentAmount;
 
@@ -172,6 +184,22 @@ public class PaymentSlip {
         this.contentType = contentType;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
     public BigDecimal getPaymentAmount() {
         return paymentAmount;
     }
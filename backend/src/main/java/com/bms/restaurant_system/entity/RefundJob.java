@@ -0,0 +1,94 @@
+package com.bms.restaurant_system.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A refund handed to the payment gateway in the background.
+ * The idempotency key identifies the refund to the gateway, so a retried call never refunds twice.
+ */
+@Entity
+@Table(name = "refund_jobs", indexes = {
+    @Index(name = "idx_refund_jobs_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_refund_jobs_payment_id", columnList = "payment_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_refund_jobs_idempotency_key", columnNames = "idempotency_key")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payment_id", nullable = false)
+    private Payment payment;
+
+    @Column(name = "idempotency_key", length = 100, nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "amount", precision = 10, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "reason", length = 500)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RefundStatus status = RefundStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "gateway_reference")
+    private String gatewayReference;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum RefundStatus {
+        PENDING,
+        PROCESSING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = this.createdAt;
+        }
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return this.status == RefundStatus.SUCCEEDED || this.status == RefundStatus.FAILED;
+    }
+}
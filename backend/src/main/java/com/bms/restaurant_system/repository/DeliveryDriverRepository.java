@@ -24,6 +24,9 @@ public interface DeliveryDriverRepository extends JpaRepository<DeliveryDriver,
     // Check if a driver is assigned to a delivery
     boolean existsByDeliveryIdAndDriverId(Long deliveryId, Long driverId);
     
+    // Find the stops of a planned route in driving order
+    List<DeliveryDriver> findByRouteIdOrderByStopSequenceAsc(String routeId);
+    
     // Find recent assignments for a driver
     @Query("SELECT dd FROM DeliveryDriver dd WHERE dd.driver.id = :driverId ORDER BY dd.assignedAt DESC")
     List<DeliveryDriver> findRecentAssignmentsByDriver(@Param("driverId") Long driverId);
@@ -0,0 +1,14 @@
+package com.bms.restaurant_system.repository;
+
+import com.bms.restaurant_system.entity.DeliveryLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeliveryLocationRepository extends JpaRepository<DeliveryLocation, Long> {
+
+    // Breadcrumb trail of a delivery in the order it was driven
+    List<DeliveryLocation> findByDeliveryIdOrderByRecordedAtAsc(Long deliveryId);
+}
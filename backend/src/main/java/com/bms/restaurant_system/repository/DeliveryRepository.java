@@ -1,12 +1,24 @@
 package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.PaymentMethod;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
+    // Rows of [customer user id, order driver user id, delivery driver user id], for tracking access checks
+    @Query("SELECT u.id, od.id, dru.id FROM Delivery d JOIN d.order o LEFT JOIN o.user u LEFT JOIN o.driver od " +
+           "LEFT JOIN d.driver dr LEFT JOIN dr.user dru WHERE d.id = :deliveryId")
+    List<Object[]> findParticipantUserIds(@Param("deliveryId") Long deliveryId);
+
     @Query(value = "SELECT order_id FROM deliveries WHERE id = :id", nativeQuery = true)
     Long findOrderIdById(@Param("id") Long id);
 
@@ -17,4 +29,92 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     @Modifying
     @Query(value = "DELETE FROM deliveries WHERE id = :id", nativeQuery = true)
     void deleteDeliveryById(@Param("id") Long id);
+
+    // Unassigned deliveries whose order is far enough along to be dispatched, oldest first
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.order o " +
+           "WHERE d.driver IS NULL AND d.status IN :deliveryStatuses AND o.status IN :orderStatuses " +
+           "ORDER BY d.createdAt ASC")
+    List<Delivery> findDispatchableDeliveries(@Param("deliveryStatuses") Collection<Delivery.DeliveryStatus> deliveryStatuses,
+                                              @Param("orderStatuses") Collection<Order.OrderStatus> orderStatuses);
+
+    // Rows of [driverId, activeCount] for drivers currently carrying deliveries
+    @Query("SELECT d.driver.id, COUNT(d) FROM Delivery d " +
+           "WHERE d.driver IS NOT NULL AND d.status IN :statuses GROUP BY d.driver.id")
+    List<Object[]> countActiveDeliveriesByDriver(@Param("statuses") Collection<Delivery.DeliveryStatus> statuses);
+
+    // Rows of [driverId, latitude, longitude] from in-progress deliveries, most recently updated first
+    @Query("SELECT d.driver.id, d.currentLatitude, d.currentLongitude FROM Delivery d " +
+           "WHERE d.driver IS NOT NULL AND d.currentLatitude IS NOT NULL AND d.currentLongitude IS NOT NULL " +
+           "AND d.status IN :statuses ORDER BY d.updatedAt DESC")
+    List<Object[]> findDriverPositionsLatestFirst(@Param("statuses") Collection<Delivery.DeliveryStatus> statuses);
+
+    // Write-behind of the live driver position without loading the entity
+    @Modifying
+    @Query("UPDATE Delivery d SET d.currentLatitude = :latitude, d.currentLongitude = :longitude, d.updatedAt = :updatedAt " +
+           "WHERE d.id = :id")
+    int updateCurrentLocation(@Param("id") Long id,
+                              @Param("latitude") BigDecimal latitude,
+                              @Param("longitude") BigDecimal longitude,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Driver screens: served by idx_deliveries_driver_status, order fetched in the same query
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.order WHERE d.driver.id = :driverId ORDER BY d.createdAt DESC")
+    List<Delivery> findByDriverIdWithOrder(@Param("driverId") Long driverId);
+
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.order " +
+           "WHERE d.driver.id = :driverId AND d.status IN :statuses ORDER BY d.createdAt ASC")
+    List<Delivery> findByDriverIdAndStatusInWithOrder(@Param("driverId") Long driverId,
+                                                      @Param("statuses") Collection<Delivery.DeliveryStatus> statuses);
+
+    // Served by idx_deliveries_status_created
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.order WHERE d.status = :status ORDER BY d.createdAt ASC")
+    List<Delivery> findByStatusWithOrder(@Param("status") Delivery.DeliveryStatus status);
+
+    // Rows of [orderCreatedAt, pickupTime, actualDeliveryTime, distanceKm, slowestPreparationMinutes] for ETA training
+    @Query("SELECT o.createdAt, d.pickupTime, d.actualDeliveryTime, d.distanceKm, " +
+           "(SELECT MAX(m.preparationTime) FROM OrderItem oi JOIN oi.menu m WHERE oi.order = o) " +
+           "FROM Delivery d JOIN d.order o " +
+           "WHERE d.status = :status AND d.pickupTime IS NOT NULL AND d.actualDeliveryTime >= :since " +
+           "ORDER BY d.actualDeliveryTime ASC")
+    List<Object[]> findCompletedDeliveryTimings(@Param("status") Delivery.DeliveryStatus status,
+                                                @Param("since") LocalDateTime since);
+
+    // Rows of [driverId, deliveries, cashCollected, expected, mismatches] for confirmed cash not yet reconciled
+    @Query("SELECT d.driver.id, COUNT(d), SUM(d.cashCollected), SUM(o.totalAmount), " +
+           "SUM(CASE WHEN d.cashCollected = o.totalAmount THEN 0 ELSE 1 END) " +
+           "FROM Delivery d JOIN d.order o " +
+           "WHERE o.paymentMethod = :method AND d.cashCollectionConfirmed = true AND d.cashReconciledAt IS NULL " +
+           "AND d.cashCollectionTime >= :from AND d.cashCollectionTime < :to " +
+           "AND (:driverId IS NULL OR d.driver.id = :driverId) " +
+           "GROUP BY d.driver.id")
+    List<Object[]> summarizeUnreconciledCash(@Param("method") PaymentMethod method,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("driverId") Long driverId);
+
+    // Rows of [driverId, orderId] whose collected cash does not match the order total
+    @Query("SELECT d.driver.id, o.id FROM Delivery d JOIN d.order o " +
+           "WHERE o.paymentMethod = :method AND d.cashCollectionConfirmed = true AND d.cashReconciledAt IS NULL " +
+           "AND d.cashCollectionTime >= :from AND d.cashCollectionTime < :to " +
+           "AND (:driverId IS NULL OR d.driver.id = :driverId) " +
+           "AND (d.cashCollected IS NULL OR d.cashCollected <> o.totalAmount) " +
+           "ORDER BY o.id")
+    List<Object[]> findCashMismatches(@Param("method") PaymentMethod method,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("driverId") Long driverId);
+
+    // Set-based sign-off of collections whose cash matches the order total; mismatches stay open
+    @Modifying
+    @Query("UPDATE Delivery d SET d.cashReconciledAt = :now " +
+           "WHERE d.cashCollectionConfirmed = true AND d.cashReconciledAt IS NULL " +
+           "AND d.cashCollectionTime >= :from AND d.cashCollectionTime < :to " +
+           "AND (:driverId IS NULL OR d.driver.id = :driverId) " +
+           "AND EXISTS (SELECT 1 FROM Order o WHERE o = d.order AND o.paymentMethod = :method " +
+           "AND d.cashCollected = o.totalAmount)")
+    int markCashReconciled(@Param("method") PaymentMethod method,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           @Param("driverId") Long driverId,
+                           @Param("now") LocalDateTime now);
 }
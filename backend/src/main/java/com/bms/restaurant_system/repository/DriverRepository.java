@@ -1,13 +1,18 @@
 package com.bms.restaurant_system.repository;
 
+import com.bms.restaurant_system.dto.driver.AvailableDriverDTO;
+import com.bms.restaurant_system.entity.Delivery;
 import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,4 +70,53 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     
     // Check if phone number exists (for unique validation)
     boolean existsByPhone(String phone);
-}
\ No newline at end of file
+    
+    // Driver users with their profile and active delivery count in one query, best rated first
+    @Query("SELECT new com.bms.restaurant_system.dto.driver.AvailableDriverDTO(" +
+           "u.id, u.username, u.email, u.phone, u.enabled, " +
+           "d.name, d.vehicleNumber, d.vehicleType, d.licenseNumber, d.available, d.rating, d.totalDeliveries, " +
+           "(SELECT COUNT(a) FROM Delivery a WHERE a.driver = d AND a.status IN :activeStatuses)) " +
+           "FROM User u LEFT JOIN Driver d ON d.user = u " +
+           "WHERE u.role = :role " +
+           "ORDER BY d.rating DESC NULLS LAST, u.id ASC")
+    List<AvailableDriverDTO> findDriverUsersWithLoad(@Param("role") Role role,
+                                                     @Param("activeStatuses") Collection<Delivery.DeliveryStatus> activeStatuses);
+
+    // Rows of [id, available] for every driver
+    @Query("SELECT d.id, d.available FROM Driver d")
+    List<Object[]> findAllAvailability();
+
+    @Modifying
+    @Query("UPDATE Driver d SET d.available = :available WHERE d.id IN :ids")
+    int updateAvailability(@Param("ids") Collection<Long> ids, @Param("available") boolean available);
+
+    // Rows of [id, name, available, rating, ratingSum, ratingCount, totalDeliveries, onTimeDeliveries, totalDeliveryMinutes]
+    @Query("SELECT d.id, d.name, d.available, d.rating, d.ratingSum, d.ratingCount, d.totalDeliveries, " +
+           "d.onTimeDeliveries, d.totalDeliveryMinutes FROM Driver d")
+    List<Object[]> findAllMetrics();
+
+    // Same rows as findAllMetrics, for the given drivers only
+    @Query("SELECT d.id, d.name, d.available, d.rating, d.ratingSum, d.ratingCount, d.totalDeliveries, " +
+           "d.onTimeDeliveries, d.totalDeliveryMinutes FROM Driver d WHERE d.id IN :ids")
+    List<Object[]> findMetricsByIds(@Param("ids") Collection<Long> ids);
+
+    // Applies accumulated metric deltas in place; rating is assigned first so it reads the pre-increment counts
+    @Modifying
+    @Query("UPDATE Driver d SET " +
+           "d.rating = CASE WHEN d.ratingCount + :ratingCount > 0 " +
+           "THEN ROUND((d.ratingSum + :ratingSum) * 1.0 / (d.ratingCount + :ratingCount), 2) ELSE d.rating END, " +
+           "d.ratingSum = d.ratingSum + :ratingSum, " +
+           "d.ratingCount = d.ratingCount + :ratingCount, " +
+           "d.totalDeliveries = COALESCE(d.totalDeliveries, 0) + :deliveries, " +
+           "d.onTimeDeliveries = d.onTimeDeliveries + :onTime, " +
+           "d.totalDeliveryMinutes = d.totalDeliveryMinutes + :minutes, " +
+           "d.updatedAt = :now " +
+           "WHERE d.id = :id")
+    int incrementMetrics(@Param("id") Long id,
+                         @Param("ratingSum") int ratingSum,
+                         @Param("ratingCount") int ratingCount,
+                         @Param("deliveries") int deliveries,
+                         @Param("onTime") int onTime,
+                         @Param("minutes") long minutes,
+                         @Param("now") LocalDateTime now);
+}
@@ -1,15 +1,31 @@
 package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Ids of notifications of a type and status created before the cutoff, for the retention purge.
+    // Served by idx_notifications_type_status_created.
+    @Query("SELECT n.id FROM Notification n WHERE n.type = :type AND n.status IN :statuses AND n.createdAt < :cutoff")
+    List<Long> findExpiredIds(@Param("type") Notification.NotificationType type,
+                              @Param("statuses") Collection<Notification.NotificationStatus> statuses,
+                              @Param("cutoff") LocalDateTime cutoff,
+                              Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT n FROM Notification n WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
     List<Notification> findByUserId(@Param("userId") Long userId);
@@ -17,8 +33,29 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.status = 'UNREAD' AND n.user.id = :userId ORDER BY n.createdAt DESC")
     List<Notification> findUnreadByUserId(@Param("userId") Long userId);
     
+    // Served by idx_notifications_user_status
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.status = 'UNREAD'")
+    long countUnreadByUserId(@Param("userId") Long userId);
+
+    // Returns 1 only for the caller that actually flipped the notification, so the counter moves once
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.status = 'READ', n.readAt = :readAt WHERE n.id = :id AND n.status = 'UNREAD'")
+    int markReadIfUnread(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'READ', n.readAt = :readAt WHERE n.user.id = :userId AND n.status = 'UNREAD'")
+    int markAllReadByUserId(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+    
     @Query("SELECT n FROM Notification n WHERE n.isGlobal = true ORDER BY n.createdAt DESC")
     List<Notification> findGlobalNotifications();
+
+    // Newest first: the user's own notifications and global announcements, keyset-paginated by id
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.user u WHERE u.id = :userId OR n.isGlobal = true ORDER BY n.id DESC")
+    List<Notification> findHistory(@Param("userId") Long userId, Limit limit);
+
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.user u " +
+           "WHERE (u.id = :userId OR n.isGlobal = true) AND n.id < :beforeId ORDER BY n.id DESC")
+    List<Notification> findHistoryBefore(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
     
     @Query("SELECT n FROM Notification n WHERE n.type = :type ORDER BY n.createdAt DESC")
     List<Notification> findByType(@Param("type") Notification.NotificationType type);
@@ -2,6 +2,11 @@ package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+    // Preparation time of the slowest dish in an order, in minutes
+    @Query("SELECT MAX(m.preparationTime) FROM OrderItem oi JOIN oi.menu m WHERE oi.order.id = :orderId")
+    Integer findMaxPreparationTime(@Param("orderId") Long orderId);
+}
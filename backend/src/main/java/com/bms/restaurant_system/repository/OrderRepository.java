@@ -57,4 +57,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT o FROM Order o WHERE o.orderType = :orderType ORDER BY o.createdAt DESC")
     List<Order> findByOrderType(@Param("orderType") Order.OrderType orderType);
+
+    // Rows of [customer user id, order driver user id, delivery driver user id], for tracking access checks
+    @Query("SELECT u.id, od.id, dru.id FROM Order o LEFT JOIN o.user u LEFT JOIN o.driver od " +
+           "LEFT JOIN o.delivery d LEFT JOIN d.driver dr LEFT JOIN dr.user dru WHERE o.id = :orderId")
+    List<Object[]> findParticipantUserIds(@Param("orderId") Long orderId);
+
+    // Rows of [orderStatus, deliveryId, deliveryStatus] used to seed a tracking stream
+    @Query("SELECT o.status, d.id, d.status FROM Order o LEFT JOIN o.delivery d WHERE o.id = :orderId")
+    List<Object[]> findTrackingStatus(@Param("orderId") Long orderId);
 }
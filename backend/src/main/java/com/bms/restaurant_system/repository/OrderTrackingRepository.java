@@ -2,12 +2,31 @@ package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.Order;
 import com.bms.restaurant_system.entity.OrderTracking;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderTrackingRepository extends JpaRepository<OrderTracking, Long> {
     List<OrderTracking> findByOrderOrderByTimestampDesc(Order order);
+
+    // Rows are written with the current time, so everything up to this id is older than the cutoff.
+    // Reads a range of idx_order_tracking_timestamp; without that index this is a full table scan.
+    @Query("SELECT MAX(t.id) FROM OrderTracking t WHERE t.timestamp < :cutoff")
+    Long findLastIdBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Ids up to maxId, oldest first, read from the primary key for the retention purge
+    @Query("SELECT t.id FROM OrderTracking t WHERE t.id <= :maxId ORDER BY t.id ASC")
+    List<Long> findIdsUpTo(@Param("maxId") Long maxId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM OrderTracking t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
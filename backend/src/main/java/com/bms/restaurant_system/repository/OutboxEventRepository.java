@@ -0,0 +1,43 @@
+package com.bms.restaurant_system.repository;
+
+import com.bms.restaurant_system.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Ids of waiting events that are due, in the order they were written
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = :status AND e.nextAttemptAt <= :now ORDER BY e.id ASC")
+    List<Long> findDueIds(@Param("status") OutboxEvent.OutboxStatus status,
+                          @Param("now") LocalDateTime now,
+                          Limit limit);
+
+    // Leases one due event until leaseUntil and counts the attempt; returns 0 when another relay got there first.
+    // An event whose relay dies becomes due again once the lease runs out.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.id = :id AND e.status = :pending AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("pending") OutboxEvent.OutboxStatus pending,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Ids of events relayed before the cutoff, for the retention purge
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = :status AND e.processedAt < :cutoff")
+    List<Long> findProcessedIdsBefore(@Param("status") OutboxEvent.OutboxStatus status,
+                                      @Param("cutoff") LocalDateTime cutoff,
+                                      Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
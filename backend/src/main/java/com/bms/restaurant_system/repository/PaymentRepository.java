@@ -2,20 +2,30 @@ package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.Payment;
 import com.bms.restaurant_system.entity.PaymentMethod;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     List<Payment> findByOrderId(Long orderId);
     
+    // Row lock held until the transaction ends, for changes that must see the latest payment state
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+    
     List<Payment> findByStatus(Payment.PaymentStatus status);
     
     List<Payment> findByPaymentMethod(PaymentMethod paymentMethod);
@@ -38,4 +48,23 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p FROM Payment p WHERE p.gatewayTransactionId = :gatewayTransactionId")
     List<Payment> findByGatewayTransactionId(@Param("gatewayTransactionId") String gatewayTransactionId);
+    
+    // Dashboard totals per submission day and status: [day, status, count, amount, refundAmount]
+    @Query("SELECT CAST(p.submittedDate AS LocalDate), p.status, COUNT(p), COALESCE(SUM(p.amount), 0), " +
+           "COALESCE(SUM(p.refundAmount), 0) FROM Payment p GROUP BY CAST(p.submittedDate AS LocalDate), p.status")
+    List<Object[]> summarizeByDayAndStatus();
+    
+    // Open payments for statement reconciliation: [id, transactionId, gatewayTransactionId, amount, submittedDate, orderId]
+    @Query("SELECT p.id, p.transactionId, p.gatewayTransactionId, p.amount, p.submittedDate, p.order.id FROM Payment p " +
+           "WHERE p.status IN :statuses")
+    List<Object[]> findReconciliationCandidates(@Param("statuses") Collection<Payment.PaymentStatus> statuses);
+    
+    // Approves payments matched to a bank statement; skips any that changed status since they were read
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :completed, p.approvedDate = :now, p.processedDate = :now, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.status IN :statuses")
+    int approveMatched(@Param("ids") Collection<Long> ids,
+                       @Param("statuses") Collection<Payment.PaymentStatus> statuses,
+                       @Param("completed") Payment.PaymentStatus completed,
+                       @Param("now") LocalDateTime now);
 }
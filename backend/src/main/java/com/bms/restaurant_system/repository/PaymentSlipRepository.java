@@ -2,13 +2,16 @@ package com.bms.restaurant_system.repository;
 
 import com.bms.restaurant_system.entity.PaymentSlip;
 import com.bms.restaurant_system.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentSlipRepository extends JpaRepository<PaymentSlip, Long> {
@@ -43,4 +46,42 @@ public interface PaymentSlipRepository extends JpaRepository<PaymentSlip, Long>
     
     // Find by user and status
     List<PaymentSlip> findByUserAndStatus(User user, PaymentSlip.PaymentSlipStatus status);
+    
+    // Find an earlier upload of the same file for an order
+    Optional<PaymentSlip> findFirstByOrderIdAndContentHash(Long orderId, String contentHash);
+    
+    // Count slips sharing a stored file
+    long countByContentHash(String contentHash);
+    
+    // Thumbnail already made for the same file by an earlier upload
+    @Query("SELECT p.thumbnailPath FROM PaymentSlip p WHERE p.contentHash = :contentHash AND p.thumbnailPath IS NOT NULL")
+    List<String> findThumbnailPathsByContentHash(@Param("contentHash") String contentHash, Limit limit);
+    
+    // First page of the review queue: oldest slips in a status, with order and user loaded
+    @Query("SELECT p FROM PaymentSlip p JOIN FETCH p.order JOIN FETCH p.user WHERE p.status = :status " +
+           "ORDER BY p.uploadedAt ASC, p.id ASC")
+    List<PaymentSlip> findReviewQueue(@Param("status") PaymentSlip.PaymentSlipStatus status, Limit limit);
+    
+    // Next page of the review queue: slips after the (uploadedAt, id) of the last slip already returned
+    @Query("SELECT p FROM PaymentSlip p JOIN FETCH p.order JOIN FETCH p.user WHERE p.status = :status " +
+           "AND (p.uploadedAt > :uploadedAt OR (p.uploadedAt = :uploadedAt AND p.id > :id)) " +
+           "ORDER BY p.uploadedAt ASC, p.id ASC")
+    List<PaymentSlip> findReviewQueueAfter(@Param("status") PaymentSlip.PaymentSlipStatus status,
+                                           @Param("uploadedAt") LocalDateTime uploadedAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+    
+    // Dashboard totals per upload day and status: [day, status, count, paymentAmount]
+    @Query("SELECT CAST(p.uploadedAt AS LocalDate), p.status, COUNT(p), COALESCE(SUM(p.paymentAmount), 0) " +
+           "FROM PaymentSlip p GROUP BY CAST(p.uploadedAt AS LocalDate), p.status")
+    List<Object[]> summarizeByDayAndStatus();
+    
+    // Open slips for statement reconciliation: [id, transactionReference, paymentAmount, paymentDate, uploadedAt, orderId]
+    @Query("SELECT p.id, p.transactionReference, p.paymentAmount, p.paymentDate, p.uploadedAt, p.order.id FROM PaymentSlip p " +
+           "WHERE p.status IN :statuses")
+    List<Object[]> findReconciliationCandidates(@Param("statuses") Collection<PaymentSlip.PaymentSlipStatus> statuses);
+    
+    // Slips for a batch review, with order and user loaded
+    @Query("SELECT p FROM PaymentSlip p JOIN FETCH p.order JOIN FETCH p.user WHERE p.id IN :ids")
+    List<PaymentSlip> findAllByIdWithOrderAndUser(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.bms.restaurant_system.repository;
+
+import com.bms.restaurant_system.entity.RefundJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    Optional<RefundJob> findByIdempotencyKey(String idempotencyKey);
+
+    List<RefundJob> findByPaymentIdOrderByCreatedAtDesc(Long paymentId);
+
+    boolean existsByPaymentIdAndStatusIn(Long paymentId, Collection<RefundJob.RefundStatus> statuses);
+
+    // Job with its payment and order, for applying a finished refund
+    @Query("SELECT j FROM RefundJob j JOIN FETCH j.payment p JOIN FETCH p.order WHERE j.id = :id")
+    Optional<RefundJob> findByIdWithPayment(@Param("id") Long id);
+
+    // Ids of waiting jobs whose next attempt is due, oldest first
+    @Query("SELECT j.id FROM RefundJob j WHERE j.status = :status AND j.nextAttemptAt <= :now ORDER BY j.nextAttemptAt ASC")
+    List<Long> findDueJobIds(@Param("status") RefundJob.RefundStatus status, @Param("now") LocalDateTime now);
+
+    // Moves one due job from waiting to processing; returns 0 when another worker got there first
+    @Modifying
+    @Query("UPDATE RefundJob j SET j.status = :processing, j.attempts = j.attempts + 1, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = :pending AND j.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("pending") RefundJob.RefundStatus pending,
+              @Param("processing") RefundJob.RefundStatus processing,
+              @Param("now") LocalDateTime now);
+
+    // Puts jobs interrupted by a shutdown back in the queue; the idempotency key makes the retry safe
+    @Modifying
+    @Query("UPDATE RefundJob j SET j.status = :pending, j.nextAttemptAt = :now, j.updatedAt = :now WHERE j.status = :processing")
+    int requeueInterrupted(@Param("pending") RefundJob.RefundStatus pending,
+                           @Param("processing") RefundJob.RefundStatus processing,
+                           @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,182 @@
+package com.bms.restaurant_system.service;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Notification;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.repository.NotificationRepository;
+import com.bms.restaurant_system.repository.OrderTrackingRepository;
+import com.bms.restaurant_system.repository.OutboxEventRepository;
+import com.bms.restaurant_system.service.notification.UnreadCounterService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deletes notifications, order tracking history and relayed outbox events past their TTL.
+ * Rows go in batches of app.retention.batch-size, each its own short transaction with a pause
+ * after it, so no lock is held for long and replicas keep up. A run stops at app.retention.max-run-ms
+ * and leaves the rest for the next one. Rows purged and time taken are published per table as the
+ * retention.purged.rows counter and the retention.purge.duration timer.
+ * Each batch selects a bounded page of ids and deletes those rows by primary key, which runs the same
+ * on MySQL and PostgreSQL. Monthly partitioning on PostgreSQL is not used: a partitioned table needs
+ * the partition key in its primary key, and these tables are keyed by id alone.
+ */
+@Service
+public class DataRetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(DataRetentionService.class);
+
+    private static final List<Notification.NotificationStatus> READ_STATUSES = List.of(
+            Notification.NotificationStatus.READ,
+            Notification.NotificationStatus.DISMISSED);
+    private static final List<Notification.NotificationStatus> UNREAD_STATUSES = List.of(
+            Notification.NotificationStatus.UNREAD);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private OrderTrackingRepository orderTrackingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    public record PurgeResult(long notifications, long orderTracking, long outboxEvents, long durationMs) {}
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.retention.purge-cron:0 30 3 * * *}")
+    public void purgeOnSchedule() {
+        if (appProperties.getRetention().isEnabled()) {
+            purge();
+        }
+    }
+
+    public PurgeResult purge() {
+        AppProperties.Retention settings = appProperties.getRetention();
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(settings.getMaxRunMs());
+        LocalDateTime now = LocalDateTime.now();
+
+        long notifications = 0;
+        boolean unreadPurged = false;
+        for (Notification.NotificationType type : Notification.NotificationType.values()) {
+            int readTtlDays = settings.readTtlDays(type);
+            if (readTtlDays > 0) {
+                LocalDateTime cutoff = now.minusDays(readTtlDays);
+                notifications += purgeInBatches(deadline,
+                        limit -> notificationRepository.findExpiredIds(type, READ_STATUSES, cutoff, limit),
+                        notificationRepository::deleteByIds);
+            }
+            int unreadTtlDays = settings.unreadTtlDays(type);
+            if (unreadTtlDays > 0) {
+                LocalDateTime cutoff = now.minusDays(unreadTtlDays);
+                long purged = purgeInBatches(deadline,
+                        limit -> notificationRepository.findExpiredIds(type, UNREAD_STATUSES, cutoff, limit),
+                        notificationRepository::deleteByIds);
+                unreadPurged |= purged > 0;
+                notifications += purged;
+            }
+        }
+        if (unreadPurged) {
+            unreadCounterService.invalidateAll();
+        }
+        long trackingStarted = record("notifications", notifications, started);
+
+        long orderTracking = 0;
+        if (settings.getOrderTrackingTtlDays() > 0) {
+            // One index range read on timestamp finds the boundary, then the batches delete by primary key
+            Long lastId = orderTrackingRepository.findLastIdBefore(now.minusDays(settings.getOrderTrackingTtlDays()));
+            if (lastId != null) {
+                orderTracking = purgeInBatches(deadline,
+                        limit -> orderTrackingRepository.findIdsUpTo(lastId, limit),
+                        orderTrackingRepository::deleteByIds);
+            }
+        }
+        long outboxStarted = record("order_tracking", orderTracking, trackingStarted);
+
+        long outboxEvents = 0;
+        if (settings.getProcessedOutboxTtlDays() > 0) {
+            LocalDateTime cutoff = now.minusDays(settings.getProcessedOutboxTtlDays());
+            outboxEvents = purgeInBatches(deadline,
+                    limit -> outboxEventRepository.findProcessedIdsBefore(OutboxEvent.OutboxStatus.PROCESSED, cutoff, limit),
+                    outboxEventRepository::deleteByIds);
+        }
+        record("outbox_events", outboxEvents, outboxStarted);
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        if (System.nanoTime() - deadline >= 0) {
+            logger.warn("Retention purge reached its time limit, the remaining rows are left for the next run");
+        }
+        logger.info("Retention purge removed {} notifications, {} tracking rows and {} outbox events in {}ms",
+                notifications, orderTracking, outboxEvents, durationMs);
+        return new PurgeResult(notifications, orderTracking, outboxEvents, durationMs);
+    }
+
+    // Deletes batch after batch until one comes back short or the run is out of time
+    private long purgeInBatches(long deadline, Function<Limit, List<Long>> findBatch,
+                                ToIntFunction<Collection<Long>> deleteBatch) {
+        AppProperties.Retention settings = appProperties.getRetention();
+        int batchSize = settings.getBatchSize();
+        long purged = 0;
+        while (System.nanoTime() - deadline < 0) {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> batch = findBatch.apply(Limit.of(batchSize));
+                if (!batch.isEmpty()) {
+                    deleteBatch.applyAsInt(batch);
+                }
+                return batch;
+            });
+            int deleted = ids != null ? ids.size() : 0;
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(settings.getBatchPauseMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return purged;
+    }
+
+    // Publishes one table's rows and time, returning the time the next table starts from
+    private long record(String table, long purged, long started) {
+        long finished = System.nanoTime();
+        meterRegistry.counter("retention.purged.rows", "table", table).increment(purged);
+        meterRegistry.timer("retention.purge.duration", "table", table).record(finished - started, TimeUnit.NANOSECONDS);
+        return finished;
+    }
+}
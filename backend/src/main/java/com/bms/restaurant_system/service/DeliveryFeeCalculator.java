@@ -0,0 +1,119 @@
+package com.bms.restaurant_system.service;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.DeliveryFeeQuoteDTO;
+import com.bms.restaurant_system.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Prices deliveries by distance from the kitchen and by delivery zone.
+ * Bands and zones are read once at startup; a quote is a haversine, a grid lookup
+ * and a short band scan, so it can be called on every address change in the cart.
+ */
+@Service
+public class DeliveryFeeCalculator {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryFeeCalculator.class);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private SystemSettingsService settingsService;
+
+    private List<AppProperties.DeliveryFee.Band> bands = List.of();
+    private List<BigDecimal> zoneFees = List.of();
+    private List<String> zoneNames = List.of();
+    private DeliveryZoneIndex zoneIndex = new DeliveryZoneIndex(List.of(), 1);
+
+    @PostConstruct
+    public void init() {
+        AppProperties.DeliveryFee config = appProperties.getDeliveryFee();
+        bands = config.getBands().stream()
+                .sorted(Comparator.comparingDouble(AppProperties.DeliveryFee.Band::getMaxKm))
+                .toList();
+        for (AppProperties.DeliveryFee.Band band : bands) {
+            if (band.getFee() == null) {
+                throw new IllegalArgumentException("Delivery band up to " + band.getMaxKm() + " km has no fee");
+            }
+        }
+
+        List<DeliveryZoneIndex.Polygon> polygons = new ArrayList<>();
+        List<BigDecimal> fees = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (AppProperties.DeliveryFee.Zone zone : config.getZones()) {
+            if (zone.getFee() == null) {
+                throw new IllegalArgumentException("Zone " + zone.getName() + " has no fee");
+            }
+            polygons.add(toPolygon(zone));
+            fees.add(zone.getFee());
+            names.add(zone.getName());
+        }
+        zoneFees = List.copyOf(fees);
+        zoneNames = List.copyOf(names);
+        zoneIndex = new DeliveryZoneIndex(polygons, config.getZoneGridCellDegrees());
+        logger.info("Delivery pricing loaded with {} distance bands and {} zones", bands.size(), polygons.size());
+    }
+
+    /**
+     * Quote the fee for a drop-off point. Without coordinates the flat fee from settings applies.
+     */
+    public DeliveryFeeQuoteDTO quote(BigDecimal latitude, BigDecimal longitude) {
+        if (!GeoUtils.hasCoordinates(latitude, longitude)) {
+            return new DeliveryFeeQuoteDTO(null, settingsService.getDeliveryFee(), null, true);
+        }
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        if (!GeoUtils.isValidCoordinate(lat, lon)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+
+        AppProperties.Kitchen kitchen = appProperties.getKitchen();
+        double distance = GeoUtils.haversineKm(kitchen.getLatitude(), kitchen.getLongitude(), lat, lon);
+        BigDecimal distanceKm = BigDecimal.valueOf(distance).setScale(2, RoundingMode.HALF_UP);
+
+        int zone = zoneIndex.findZoneIndex(lat, lon);
+        if (zone >= 0) {
+            return new DeliveryFeeQuoteDTO(distanceKm, money(zoneFees.get(zone)), zoneNames.get(zone), true);
+        }
+
+        if (bands.isEmpty()) {
+            return new DeliveryFeeQuoteDTO(distanceKm, settingsService.getDeliveryFee(), null, true);
+        }
+        for (AppProperties.DeliveryFee.Band band : bands) {
+            if (distance <= band.getMaxKm()) {
+                return new DeliveryFeeQuoteDTO(distanceKm, money(band.getFee()), null, true);
+            }
+        }
+        // Beyond the last band the address is outside the delivery area
+        return new DeliveryFeeQuoteDTO(distanceKm, null, null, false);
+    }
+
+    private static DeliveryZoneIndex.Polygon toPolygon(AppProperties.DeliveryFee.Zone zone) {
+        int size = zone.getPoints().size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            String[] parts = zone.getPoints().get(i).trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Zone " + zone.getName() + " point must be 'latitude longitude': " + zone.getPoints().get(i));
+            }
+            latitudes[i] = Double.parseDouble(parts[0]);
+            longitudes[i] = Double.parseDouble(parts[1]);
+        }
+        return new DeliveryZoneIndex.Polygon(zone.getName(), latitudes, longitudes);
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,182 @@
+package com.bms.restaurant_system.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point-in-zone lookup backed by a precomputed grid.
+ * Every cell is classified once against every zone polygon: cells entirely inside a zone
+ * resolve without any geometry, and only cells crossed by a zone edge fall back to an exact
+ * ray-casting test against the few polygons that cross them. Zones earlier in the list win.
+ */
+public class DeliveryZoneIndex {
+
+    public record Polygon(String name, double[] latitudes, double[] longitudes) {
+        public Polygon {
+            if (latitudes.length != longitudes.length || latitudes.length < 3) {
+                throw new IllegalArgumentException("Zone " + name + " needs at least 3 points");
+            }
+        }
+    }
+
+    // Cells crossed by the edges of edgeZones need an exact test; otherwise insideZone applies (-1 for none)
+    private record Cell(int[] edgeZones, int insideZone) {}
+
+    private static final Cell EMPTY = new Cell(new int[0], -1);
+    private static final int MAX_CELLS = 1_000_000;
+
+    private final List<Polygon> zones;
+    private final double minLat;
+    private final double minLon;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Cell[] cells;
+
+    public DeliveryZoneIndex(List<Polygon> zones, double requestedCellDegrees) {
+        this.zones = List.copyOf(zones);
+        if (zones.isEmpty()) {
+            minLat = minLon = cellDegrees = 0;
+            rows = columns = 0;
+            cells = new Cell[0];
+            return;
+        }
+
+        double lowLat = Double.MAX_VALUE, lowLon = Double.MAX_VALUE;
+        double highLat = -Double.MAX_VALUE, highLon = -Double.MAX_VALUE;
+        for (Polygon zone : zones) {
+            for (int i = 0; i < zone.latitudes().length; i++) {
+                lowLat = Math.min(lowLat, zone.latitudes()[i]);
+                highLat = Math.max(highLat, zone.latitudes()[i]);
+                lowLon = Math.min(lowLon, zone.longitudes()[i]);
+                highLon = Math.max(highLon, zone.longitudes()[i]);
+            }
+        }
+
+        // Coarsen the grid if the zones cover too large an area for the requested resolution
+        double size = requestedCellDegrees;
+        while (cellCount(highLat - lowLat, highLon - lowLon, size) > MAX_CELLS) {
+            size *= 2;
+        }
+        this.minLat = lowLat;
+        this.minLon = lowLon;
+        this.cellDegrees = size;
+        this.rows = (int) Math.floor((highLat - lowLat) / size) + 1;
+        this.columns = (int) Math.floor((highLon - lowLon) / size) + 1;
+        this.cells = new Cell[rows * columns];
+        build();
+    }
+
+    /**
+     * Name of the first zone containing the point, or null when it is in no zone
+     */
+    public String findZone(double latitude, double longitude) {
+        int index = findZoneIndex(latitude, longitude);
+        return index >= 0 ? zones.get(index).name() : null;
+    }
+
+    public int findZoneIndex(double latitude, double longitude) {
+        if (cells.length == 0) {
+            return -1;
+        }
+        int row = (int) Math.floor((latitude - minLat) / cellDegrees);
+        int column = (int) Math.floor((longitude - minLon) / cellDegrees);
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        Cell cell = cells[row * columns + column];
+        for (int zone : cell.edgeZones()) {
+            if (contains(zones.get(zone), latitude, longitude)) {
+                return zone;
+            }
+        }
+        return cell.insideZone();
+    }
+
+    private void build() {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                double south = minLat + row * cellDegrees;
+                double west = minLon + column * cellDegrees;
+                cells[row * columns + column] = classify(south, west, south + cellDegrees, west + cellDegrees);
+            }
+        }
+    }
+
+    private Cell classify(double south, double west, double north, double east) {
+        List<Integer> edgeZones = new ArrayList<>();
+        int insideZone = -1;
+        for (int z = 0; z < zones.size(); z++) {
+            Polygon zone = zones.get(z);
+            if (crossesCell(zone, south, west, north, east)) {
+                edgeZones.add(z);
+            } else if (contains(zone, (south + north) / 2, (west + east) / 2)) {
+                // No edge crosses the cell, so the centre decides for the whole cell
+                insideZone = z;
+                break;
+            }
+        }
+        if (edgeZones.isEmpty() && insideZone < 0) {
+            return EMPTY;
+        }
+        return new Cell(edgeZones.stream().mapToInt(Integer::intValue).toArray(), insideZone);
+    }
+
+    private static boolean crossesCell(Polygon zone, double south, double west, double north, double east) {
+        double[] lat = zone.latitudes();
+        double[] lon = zone.longitudes();
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            if (segmentIntersectsBox(lon[j], lat[j], lon[i], lat[i], west, south, east, north)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Liang-Barsky clipping of the segment (x0,y0)-(x1,y1) against the box
+    private static boolean segmentIntersectsBox(double x0, double y0, double x1, double y1,
+                                                double minX, double minY, double maxX, double maxY) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+        double enter = 0.0;
+        double exit = 1.0;
+        for (int k = 0; k < 4; k++) {
+            if (p[k] == 0) {
+                if (q[k] < 0) {
+                    return false;
+                }
+            } else {
+                double t = q[k] / p[k];
+                if (p[k] < 0) {
+                    enter = Math.max(enter, t);
+                } else {
+                    exit = Math.min(exit, t);
+                }
+                if (enter > exit) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Even-odd ray casting
+    static boolean contains(Polygon zone, double latitude, double longitude) {
+        double[] lat = zone.latitudes();
+        double[] lon = zone.longitudes();
+        boolean inside = false;
+        for (int i = 0, j = lat.length - 1; i < lat.length; j = i++) {
+            if ((lat[i] > latitude) != (lat[j] > latitude)
+                    && longitude < (lon[j] - lon[i]) * (latitude - lat[i]) / (lat[j] - lat[i]) + lon[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static long cellCount(double latSpan, double lonSpan, double size) {
+        return ((long) Math.floor(latSpan / size) + 1) * ((long) Math.floor(lonSpan / size) + 1);
+    }
+}
@@ -21,13 +21,21 @@ public class SystemSettingsService {
     public static final String DEFAULT_DELIVERY_FEE = "400.00";
     public static final String DEFAULT_TAX_RATE = "0.10";
     
+    // Read on every order and fee quote, so kept in memory until the setting changes
+    private volatile BigDecimal cachedDeliveryFee;
+    
     /**
      * Get delivery fee from settings, or return default if not found
      */
     public BigDecimal getDeliveryFee() {
-        return settingsRepository.findBySettingKey(DELIVERY_FEE_KEY)
-                .map(SystemSettings::getValueAsBigDecimal)
-                .orElse(new BigDecimal(DEFAULT_DELIVERY_FEE));
+        BigDecimal fee = cachedDeliveryFee;
+        if (fee == null) {
+            fee = settingsRepository.findBySettingKey(DELIVERY_FEE_KEY)
+                    .map(SystemSettings::getValueAsBigDecimal)
+                    .orElse(new BigDecimal(DEFAULT_DELIVERY_FEE));
+            cachedDeliveryFee = fee;
+        }
+        return fee;
     }
     
     /**
@@ -42,7 +50,9 @@ public class SystemSettingsService {
         setting.setSettingValue(deliveryFee.toString());
         setting.setDescription("Delivery fee charged for delivery orders (LKR)");
         
-        return settingsRepository.save(setting);
+        setting = settingsRepository.save(setting);
+        cachedDeliveryFee = null;
+        return setting;
     }
     
     /**
@@ -98,7 +108,11 @@ public class SystemSettingsService {
             setting.setDescription(description);
         }
         
-        return settingsRepository.save(setting);
+        setting = settingsRepository.save(setting);
+        if (DELIVERY_FEE_KEY.equals(key)) {
+            cachedDeliveryFee = null;
+        }
+        return setting;
     }
     
     /**
@@ -9,6 +9,7 @@ import com.bms.restaurant_system.repository.MenuRepository;
 import com.bms.restaurant_system.repository.UserRepository;
 import com.bms.restaurant_system.repository.OrderRepository;
 import com.bms.restaurant_system.repository.ReservationRepository;
+import com.bms.restaurant_system.service.user.UserStatusCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,6 +40,9 @@ public class DatabaseRetrievalService {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private UserStatusCache userStatusCache;
+
     // ==================== BASIC RETRIEVAL METHODS ====================
 
     /**
@@ -340,6 +344,7 @@ public class DatabaseRetrievalService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setRole(Role.valueOf(role.toUpperCase()));
+        userStatusCache.evict(user.getUsername());
         return userRepository.save(user);
     }
 
@@ -351,6 +356,7 @@ public class DatabaseRetrievalService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setEnabled(enabled);
+        userStatusCache.evict(user.getUsername());
         return userRepository.save(user);
     }
 }
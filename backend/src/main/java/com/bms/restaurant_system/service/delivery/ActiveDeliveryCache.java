@@ -0,0 +1,72 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.dto.driver.DeliveryDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-driver snapshot of in-progress deliveries for the driver app.
+ * A driver's entry is loaded on first read and then kept current by assignment changes,
+ * so refreshes do not touch the deliveries table. Entries are immutable lists replaced atomically.
+ */
+@Component
+public class ActiveDeliveryCache {
+
+    private final ConcurrentHashMap<Long, List<DeliveryDTO>> byDriver = new ConcurrentHashMap<>();
+
+    public List<DeliveryDTO> get(Long driverId, Function<Long, List<DeliveryDTO>> loader) {
+        return byDriver.computeIfAbsent(driverId, id -> List.copyOf(loader.apply(id)));
+    }
+
+    /**
+     * Add or replace a delivery in its driver's entry, if that driver is cached
+     */
+    public void put(Long driverId, DeliveryDTO delivery) {
+        afterCommit(() -> byDriver.computeIfPresent(driverId, (id, current) -> {
+            List<DeliveryDTO> updated = new ArrayList<>(current.size() + 1);
+            for (DeliveryDTO existing : current) {
+                if (!Objects.equals(existing.id(), delivery.id())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(delivery);
+            return List.copyOf(updated);
+        }));
+    }
+
+    public void remove(Long driverId, Long deliveryId) {
+        afterCommit(() -> byDriver.computeIfPresent(driverId, (id, current) -> current.stream()
+                .filter(existing -> !Objects.equals(existing.id(), deliveryId))
+                .toList()));
+    }
+
+    /**
+     * Drop a driver's entry so it is reloaded on next read
+     */
+    public void evict(Long driverId) {
+        if (driverId != null) {
+            afterCommit(() -> byDriver.remove(driverId));
+        }
+    }
+
+    // Inside a transaction a change waits for commit, so a rollback leaves the cache matching the database
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
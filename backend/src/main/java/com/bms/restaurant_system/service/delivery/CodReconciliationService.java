@@ -0,0 +1,87 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.driver.CodReconciliationDTO;
+import com.bms.restaurant_system.dto.driver.CodShiftSummaryDTO;
+import com.bms.restaurant_system.entity.PaymentMethod;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-of-shift reconciliation of cash collected on delivery.
+ * Orders are marked paid as soon as the driver confirms the cash; this totals each driver's
+ * confirmed cash against the order totals in one grouped query and signs off every matching
+ * collection in one bulk update. Collections whose cash does not match stay open and are
+ * reported on every run until they are corrected.
+ */
+@Service
+public class CodReconciliationService {
+    private static final Logger logger = LoggerFactory.getLogger(CodReconciliationService.class);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    /**
+     * Reconcile cash confirmed in [from, to), for one driver or for all drivers when driverId is null
+     */
+    @Transactional
+    public CodReconciliationDTO reconcile(Long driverId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Reconciliation window must end after it starts");
+        }
+        PaymentMethod cod = PaymentMethod.CASH_ON_DELIVERY;
+
+        List<Object[]> rows = deliveryRepository.summarizeUnreconciledCash(cod, from, to, driverId);
+        if (rows.isEmpty()) {
+            return new CodReconciliationDTO(from, to, 0, List.of());
+        }
+
+        // Only fetch the individual orders when some driver's totals are off
+        Map<Long, List<Long>> mismatches = new HashMap<>();
+        if (rows.stream().anyMatch(row -> ((Number) row[4]).longValue() > 0)) {
+            for (Object[] row : deliveryRepository.findCashMismatches(cod, from, to, driverId)) {
+                mismatches.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+            }
+        }
+
+        int verified = deliveryRepository.markCashReconciled(cod, from, to, driverId, LocalDateTime.now());
+
+        List<CodShiftSummaryDTO> drivers = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long rowDriverId = (Long) row[0];
+            BigDecimal collected = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            BigDecimal expected = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+            List<Long> mismatchedOrders = mismatches.getOrDefault(rowDriverId, List.of());
+            if (!mismatchedOrders.isEmpty()) {
+                logger.warn("COD mismatch for driver {}: collected {} against {} expected, orders {}",
+                        rowDriverId, collected, expected, mismatchedOrders);
+            }
+            drivers.add(new CodShiftSummaryDTO(rowDriverId, ((Number) row[1]).longValue(),
+                    collected, expected, collected.subtract(expected), mismatchedOrders));
+        }
+
+        logger.info("COD reconciliation {} to {}: {} drivers, {} collections verified", from, to, drivers.size(), verified);
+        return new CodReconciliationDTO(from, to, verified, drivers);
+    }
+
+    @Scheduled(cron = "${app.cod.reconcile-cron:0 0 3 * * *}")
+    public void reconcileRecentShifts() {
+        LocalDateTime now = LocalDateTime.now();
+        reconcile(null, now.minusDays(appProperties.getCod().getLookbackDays()), now);
+    }
+}
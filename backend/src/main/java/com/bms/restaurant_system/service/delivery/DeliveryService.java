@@ -11,13 +11,17 @@ import com.bms.restaurant_system.repository.DeliveryRepository;
 import com.bms.restaurant_system.repository.DeliveryDriverRepository;
 import com.bms.restaurant_system.repository.DriverRepository;
 import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.service.outbox.OutboxService;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,6 +39,29 @@ public class DeliveryService {
     @Autowired
     private DeliveryDriverRepository deliveryDriverRepository;
 
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
+    @Autowired
+    private ActiveDeliveryCache activeDeliveryCache;
+
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private DriverMetricsService driverMetricsService;
+
+    @Autowired
+    private DriverStateRegistry driverStateRegistry;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Lazy: location ingestion feeds the dispatch engine, which depends on this service
+    @Lazy
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
     @Autowired
     private EntityManager em;    public List<DeliveryDTO> getAllDeliveries() {
         return deliveryRepository.findAll().stream()
@@ -61,9 +88,12 @@ public class DeliveryService {
         return convertToDTO(delivery);
     }
 
+    @Transactional
     public DeliveryDTO updateDelivery(Long id, DeliveryDTO deliveryDTO) {
         Delivery existingDelivery = deliveryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + id));
+        Delivery.DeliveryStatus previousStatus = existingDelivery.getStatus();
+        boolean wasInProgress = existingDelivery.isInProgress();
         
         existingDelivery.setDeliveryAddress(deliveryDTO.deliveryAddress());
         existingDelivery.setDriverName(deliveryDTO.driverName());
@@ -72,7 +102,14 @@ public class DeliveryService {
         existingDelivery.setStatus(Delivery.DeliveryStatus.valueOf(deliveryDTO.status().toUpperCase()));
         
         existingDelivery = deliveryRepository.save(existingDelivery);
-        return convertToDTO(existingDelivery);
+        driverStateRegistry.track(existingDelivery, wasInProgress);
+        endTrackingIfFinished(existingDelivery);
+        if (existingDelivery.getStatus() != previousStatus) {
+            outboxService.deliveryStatusChanged(existingDelivery);
+        }
+        DeliveryDTO dto = convertToDTO(existingDelivery);
+        refreshCachedDelivery(existingDelivery, dto);
+        return dto;
     }
 
     @Transactional
@@ -86,6 +123,13 @@ public class DeliveryService {
             orderRepository.save(order);
             em.flush();
         }
+        if (delivery.getDriver() != null) {
+            activeDeliveryCache.remove(delivery.getDriver().getId(), delivery.getId());
+            if (delivery.isInProgress()) {
+                driverStateRegistry.release(delivery.getDriver().getId());
+            }
+        }
+        locationIngestionService.endTrack(delivery.getId());
         deliveryRepository.delete(delivery);
     }
 
@@ -142,47 +186,158 @@ public class DeliveryService {
     
     // Driver-specific delivery methods
     public List<DeliveryDTO> getAvailableDeliveries() {
-        return deliveryRepository.findAll().stream()
-                .filter(delivery -> delivery.getStatus() == Delivery.DeliveryStatus.PENDING)
+        return deliveryRepository.findByStatusWithOrder(Delivery.DeliveryStatus.PENDING).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<DeliveryDTO> getDeliveriesByDriverId(Long driverId) {
-        return deliveryRepository.findAll().stream()
-                .filter(delivery -> delivery.getDriver() != null && delivery.getDriver().getId().equals(driverId))
+        return deliveryRepository.findByDriverIdWithOrder(driverId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    // In-progress deliveries for a driver, served from the per-driver cache
+    public List<DeliveryDTO> getActiveDeliveriesForDriver(Long driverId) {
+        return activeDeliveryCache.get(driverId, id ->
+                deliveryRepository.findByDriverIdAndStatusInWithOrder(id, Delivery.ACTIVE_STATUSES).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
+    }
+    
+    @Transactional
     public DeliveryDTO assignDriverToDelivery(Long deliveryId, Long driverId) {
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
-                
-        Driver driver = driverRepository.findById(driverId)
-                .orElseThrow(() -> new ResourceNotFoundException("Driver not found with id: " + driverId));
-        
-        if (!driver.getAvailable()) {
+        // Claiming the driver's capacity is the assignment lock; a busy or off-shift driver fails here
+        if (!driverStateRegistry.tryAssign(driverId, 1)) {
             throw new IllegalStateException("Driver is not available for delivery");
         }
         
-        delivery.assignDriver(driver);
-        delivery = deliveryRepository.save(delivery);
+        Delivery delivery;
+        Long previousDriverId;
+        Delivery.DeliveryStatus previousStatus;
+        boolean wasInProgress;
+        try {
+            delivery = deliveryRepository.findById(deliveryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
+                    
+            Driver driver = driverRepository.findById(driverId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Driver not found with id: " + driverId));
+            
+            previousDriverId = delivery.getDriver() != null ? delivery.getDriver().getId() : null;
+            previousStatus = delivery.getStatus();
+            wasInProgress = delivery.isInProgress();
+            
+            delivery.assignDriver(driver);
+            delivery = deliveryRepository.save(delivery);
+            
+            // Create junction table entry
+            DeliveryDriver dd = new DeliveryDriver();
+            dd.setDelivery(delivery);
+            dd.setDriver(driver);
+            dd.setAssignedAt(LocalDateTime.now());
+            deliveryDriverRepository.save(dd);
+        } catch (RuntimeException e) {
+            driverStateRegistry.cancel(driverId, 1);
+            throw e;
+        }
+        driverStateRegistry.releaseOnRollback(driverId, 1);
+        if (previousStatus != delivery.getStatus() || !driverId.equals(previousDriverId)) {
+            outboxService.deliveryStatusChanged(delivery);
+        }
         
-        // Create junction table entry
-        DeliveryDriver dd = new DeliveryDriver();
-        dd.setDelivery(delivery);
-        dd.setDriver(driver);
-        dd.setAssignedAt(LocalDateTime.now());
-        deliveryDriverRepository.save(dd);
+        // Reassignment frees the previous driver, or the extra claim when it is the same driver
+        if (previousDriverId != null && wasInProgress) {
+            driverStateRegistry.release(previousDriverId);
+            if (!previousDriverId.equals(driverId)) {
+                activeDeliveryCache.remove(previousDriverId, deliveryId);
+            }
+        }
+        if (previousDriverId != null && !previousDriverId.equals(driverId)) {
+            locationIngestionService.endTrack(deliveryId);
+        }
         
-        return convertToDTO(delivery);
+        DeliveryDTO dto = convertToDTO(delivery);
+        activeDeliveryCache.put(driverId, dto);
+        return dto;
     }
-    
+
+    /**
+     * Assign a planned route to one driver. Either every stop is assigned or none is;
+     * the route and stop order are recorded on the junction rows.
+     * Only deliveries that are waiting for a driver, or already with this one, can be routed.
+     */
+    @Transactional
+    public List<DeliveryDTO> assignRoute(String routeId, List<Long> deliveryIds, Long driverId) {
+        if (deliveryIds == null || deliveryIds.isEmpty()) {
+            throw new IllegalArgumentException("Route has no deliveries");
+        }
+        if (routeId.length() > 64) {
+            throw new IllegalArgumentException("Route id must be at most 64 characters");
+        }
+        // Claim capacity for every stop up front so a driver who cannot take the route fails fast
+        int stops = deliveryIds.size();
+        if (!driverStateRegistry.tryAssign(driverId, stops)) {
+            throw new IllegalStateException("Driver is not available for delivery");
+        }
+
+        List<DeliveryDTO> assigned = new ArrayList<>(stops);
+        int alreadyHeld = 0;
+        try {
+            Driver driver = driverRepository.findById(driverId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Driver not found with id: " + driverId));
+
+            for (int stop = 0; stop < stops; stop++) {
+                Long deliveryId = deliveryIds.get(stop);
+                Delivery delivery = deliveryRepository.findById(deliveryId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
+                if (delivery.getStatus() != Delivery.DeliveryStatus.PENDING
+                        && delivery.getStatus() != Delivery.DeliveryStatus.ASSIGNED) {
+                    throw new IllegalStateException("Delivery " + deliveryId + " cannot be routed in status " + delivery.getStatus());
+                }
+                if (delivery.getDriver() != null && !delivery.getDriver().getId().equals(driverId)) {
+                    throw new IllegalStateException("Delivery " + deliveryId + " is already assigned to another driver");
+                }
+                boolean reassigned = delivery.getDriver() != null;
+                if (reassigned && delivery.isInProgress()) {
+                    alreadyHeld++;
+                }
+                Delivery.DeliveryStatus previousStatus = delivery.getStatus();
+
+                delivery.assignDriver(driver);
+                delivery = deliveryRepository.save(delivery);
+                if (!reassigned || delivery.getStatus() != previousStatus) {
+                    outboxService.deliveryStatusChanged(delivery);
+                }
+
+                DeliveryDriver dd = deliveryDriverRepository.findByDeliveryIdAndDriverId(deliveryId, driverId)
+                        .orElseGet(DeliveryDriver::new);
+                dd.setDelivery(delivery);
+                dd.setDriver(driver);
+                dd.setRouteId(routeId);
+                dd.setStopSequence(stop + 1);
+                deliveryDriverRepository.save(dd);
+
+                assigned.add(convertToDTO(delivery));
+            }
+        } catch (RuntimeException e) {
+            driverStateRegistry.cancel(driverId, stops);
+            throw e;
+        }
+        driverStateRegistry.releaseOnRollback(driverId, stops);
+        if (alreadyHeld > 0) {
+            driverStateRegistry.release(driverId, alreadyHeld);
+        }
+        activeDeliveryCache.evict(driverId);
+        return assigned;
+    }
+
+    @Transactional
     public DeliveryDTO updateDeliveryStatus(Long deliveryId, Delivery.DeliveryStatus status) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
         
+        boolean wasInProgress = delivery.isInProgress();
+        Delivery.DeliveryStatus previousStatus = delivery.getStatus();
         delivery.setStatus(status);
         
         // Update timestamps based on status
@@ -203,7 +358,9 @@ public class DeliveryService {
                 updateOrderStatus(delivery.getOrder(), Order.OrderStatus.OUT_FOR_DELIVERY);
             }
             case DELIVERED -> {
-                delivery.markAsDelivered();
+                if (previousStatus != Delivery.DeliveryStatus.DELIVERED) {
+                    delivery.markAsDelivered();
+                }
                 updateOrderStatus(delivery.getOrder(), Order.OrderStatus.DELIVERED);
             }
             case CANCELLED -> {
@@ -213,8 +370,50 @@ public class DeliveryService {
             case RETURNED -> { /* Handle return */ }
         }
         
+        Order order = delivery.getOrder();
+        if (order != null && etaService.refreshEstimate(order, delivery)) {
+            orderRepository.save(order);
+        }
         delivery = deliveryRepository.save(delivery);
-        return convertToDTO(delivery);
+        // Completion stats are counted on the transition only, never for a repeated DELIVERED
+        if (status == Delivery.DeliveryStatus.DELIVERED && previousStatus != Delivery.DeliveryStatus.DELIVERED) {
+            etaService.recordCompletion(delivery);
+            driverMetricsService.recordDelivery(delivery);
+        }
+        driverStateRegistry.track(delivery, wasInProgress);
+        endTrackingIfFinished(delivery);
+        if (status != previousStatus) {
+            outboxService.deliveryStatusChanged(delivery);
+        }
+        publishStatus(delivery);
+        DeliveryDTO dto = convertToDTO(delivery);
+        refreshCachedDelivery(delivery, dto);
+        return dto;
+    }
+    
+    private void refreshCachedDelivery(Delivery delivery, DeliveryDTO dto) {
+        if (delivery.getDriver() == null) {
+            return;
+        }
+        if (delivery.isInProgress()) {
+            activeDeliveryCache.put(delivery.getDriver().getId(), dto);
+        } else {
+            activeDeliveryCache.remove(delivery.getDriver().getId(), delivery.getId());
+        }
+    }
+    
+    // The old driver's pings must not keep moving a delivery that is no longer theirs to carry
+    private void endTrackingIfFinished(Delivery delivery) {
+        if (!delivery.isInProgress()) {
+            locationIngestionService.endTrack(delivery.getId());
+        }
+    }
+    
+    private void publishStatus(Delivery delivery) {
+        Order order = delivery.getOrder();
+        if (order != null) {
+            orderTrackingStreamService.publishStatus(order.getId(), order.getStatus(), delivery.getId(), delivery.getStatus());
+        }
     }
     
     private void updateOrderStatus(Order order, Order.OrderStatus status) {
@@ -224,11 +423,16 @@ public class DeliveryService {
         }
     }
     
+    @Transactional
     public DeliveryDTO completeDelivery(Long deliveryId, String notes, String proofOfDelivery) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
         
-        delivery.markAsDelivered();
+        boolean wasInProgress = delivery.isInProgress();
+        boolean wasDelivered = delivery.getStatus() == Delivery.DeliveryStatus.DELIVERED;
+        if (!wasDelivered) {
+            delivery.markAsDelivered();
+        }
         if (notes != null) {
             delivery.setDeliveryNotes(notes);
         }
@@ -245,21 +449,36 @@ public class DeliveryService {
             orderRepository.save(order);
         }
         
-        // Update driver's delivery count and set available
-        if (delivery.getDriver() != null) {
-            Driver driver = delivery.getDriver();
-            driver.setTotalDeliveries(driver.getTotalDeliveries() + 1);
-            driver.setAvailable(true); // Set back to available after delivery
-            driverRepository.save(driver);
-        }
+        // Free the driver's capacity; the delivery count is kept by DriverMetricsService
+        driverStateRegistry.track(delivery, wasInProgress);
+        endTrackingIfFinished(delivery);
         
-        return convertToDTO(delivery);
+        if (!wasDelivered) {
+            etaService.recordCompletion(delivery);
+            driverMetricsService.recordDelivery(delivery);
+            outboxService.deliveryStatusChanged(delivery);
+        }
+        publishStatus(delivery);
+        DeliveryDTO dto = convertToDTO(delivery);
+        refreshCachedDelivery(delivery, dto);
+        return dto;
     }
 
     // Admin: Unassign driver from delivery
+    @Transactional
     public DeliveryDTO unassignDriverFromDelivery(Long deliveryId) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
+        Delivery.DeliveryStatus previousStatus = delivery.getStatus();
+        
+        if (delivery.getDriver() != null) {
+            activeDeliveryCache.remove(delivery.getDriver().getId(), deliveryId);
+            if (delivery.isInProgress()) {
+                driverStateRegistry.release(delivery.getDriver().getId());
+            }
+        }
+        
+        locationIngestionService.endTrack(deliveryId);
         
         // Remove driver assignment
         delivery.setDriver(null);
@@ -278,15 +497,27 @@ public class DeliveryService {
         
         // Update order status back to CONFIRMED
         updateOrderStatus(delivery.getOrder(), Order.OrderStatus.CONFIRMED);
+        if (previousStatus != Delivery.DeliveryStatus.PENDING) {
+            outboxService.deliveryStatusChanged(delivery);
+        }
         
         return convertToDTO(delivery);
     }
 
-    // Driver: Confirm cash collection for COD orders
-    public DeliveryDTO confirmCashCollection(Long deliveryId, BigDecimal amount) {
+    // Driver: Confirm cash collection for COD orders; the order is paid from now on.
+    // The amount is verified when the driver's shift is reconciled, see CodReconciliationService.
+    @Transactional
+    public DeliveryDTO confirmCashCollection(Long driverId, Long deliveryId, BigDecimal amount) {
+        if (amount == null || amount.signum() < 0) {
+            throw new IllegalArgumentException("Collected amount must be zero or more");
+        }
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
         
+        if (delivery.getDriver() == null || !delivery.getDriver().getId().equals(driverId)) {
+            throw new IllegalStateException("Delivery is not assigned to this driver");
+        }
+        
         Order order = delivery.getOrder();
         
         // Verify this is a cash on delivery order
@@ -303,15 +534,19 @@ public class DeliveryService {
         delivery.setCashCollected(amount);
         delivery.setCashCollectionConfirmed(true);
         delivery.setCashCollectionTime(LocalDateTime.now());
+        // A corrected amount is verified again by the next reconciliation
+        delivery.setCashReconciledAt(null);
         
         delivery = deliveryRepository.save(delivery);
         
-        // Update order payment status to PAID
-        if (order.getPaymentStatus() != null) {
+        if (order.getPaymentStatus() != Order.PaymentStatus.PAID) {
             order.setPaymentStatus(Order.PaymentStatus.PAID);
             orderRepository.save(order);
+            outboxService.orderPaymentStatusChanged(order, "Cash payment of LKR " + amount
+                    + " for your order #" + order.getId() + " was received by the driver.");
         }
-        
-        return convertToDTO(delivery);
+        DeliveryDTO dto = convertToDTO(delivery);
+        refreshCachedDelivery(delivery, dto);
+        return dto;
     }
 }
\ No newline at end of file
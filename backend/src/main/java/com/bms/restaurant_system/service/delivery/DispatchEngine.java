@@ -0,0 +1,159 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Automatically assigns pending deliveries to the nearest suitable driver.
+ * Driver positions live in an in-memory grid; matching runs in batches on a fixed delay.
+ */
+@Service
+public class DispatchEngine {
+    private static final Logger logger = LoggerFactory.getLogger(DispatchEngine.class);
+
+    // 0.01 degrees is roughly 1.1 km per cell
+    private static final double CELL_DEGREES = 0.01;
+
+    private static final List<Delivery.DeliveryStatus> DISPATCHABLE_DELIVERY_STATUSES = List.of(
+            Delivery.DeliveryStatus.PENDING,
+            Delivery.DeliveryStatus.ASSIGNED);
+
+    private static final List<Order.OrderStatus> DISPATCHABLE_ORDER_STATUSES = List.of(
+            Order.OrderStatus.CONFIRMED,
+            Order.OrderStatus.PREPARING,
+            Order.OrderStatus.READY_FOR_PICKUP);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private DriverStateRegistry driverStateRegistry;
+
+    private final DriverSpatialIndex index = new DriverSpatialIndex(CELL_DEGREES);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Seed the index from the last known position of drivers with in-progress deliveries
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedDriverPositions() {
+        List<Object[]> rows = deliveryRepository.findDriverPositionsLatestFirst(Delivery.ACTIVE_STATUSES);
+        for (Object[] row : rows) {
+            index.updateIfAbsent((Long) row[0], ((BigDecimal) row[1]).doubleValue(), ((BigDecimal) row[2]).doubleValue());
+        }
+        logger.info("Dispatch index seeded with {} driver positions", index.size());
+    }
+
+    public void updateDriverPosition(Long driverId, double latitude, double longitude) {
+        if (driverId != null && GeoUtils.isValidCoordinate(latitude, longitude)) {
+            index.update(driverId, latitude, longitude);
+        }
+    }
+
+    public void removeDriver(Long driverId) {
+        if (driverId != null) {
+            index.remove(driverId);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.dispatch.batch-interval-ms:5000}",
+               fixedDelayString = "${app.dispatch.batch-interval-ms:5000}")
+    public void scheduledDispatch() {
+        if (appProperties.getDispatch().isEnabled()) {
+            dispatchPending();
+        }
+    }
+
+    /**
+     * Run one matching batch and apply the resulting assignments
+     */
+    public List<DispatchMatcher.Assignment> dispatchPending() {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Dispatch batch already running, skipping");
+            return List.of();
+        }
+        try {
+            return runBatch();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<DispatchMatcher.Assignment> runBatch() {
+        List<Delivery> pending = deliveryRepository.findDispatchableDeliveries(
+                DISPATCHABLE_DELIVERY_STATUSES, DISPATCHABLE_ORDER_STATUSES);
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        // Shift and load come from the registry; the availability column may lag behind it
+        List<Driver> availableDrivers = driverRepository.findAllById(driverStateRegistry.getOnShiftDriverIds());
+        if (availableDrivers.isEmpty()) {
+            return List.of();
+        }
+
+        AppProperties.Kitchen kitchen = appProperties.getKitchen();
+        Map<Long, DispatchMatcher.DriverCandidate> candidates = new HashMap<>();
+        for (Driver driver : availableDrivers) {
+            // Drivers that have not reported a position yet are assumed to be waiting at the kitchen
+            index.updateIfAbsent(driver.getId(), kitchen.getLatitude(), kitchen.getLongitude());
+            double rating = driver.getRating() != null ? driver.getRating().doubleValue() : 0.0;
+            candidates.put(driver.getId(), new DispatchMatcher.DriverCandidate(
+                    driver.getId(), rating, driverStateRegistry.getSlot(driver.getId()).activeDeliveries()));
+        }
+
+        // Every order is collected from the kitchen, so that is where drivers are measured from
+        List<DispatchMatcher.PendingDelivery> requests = new ArrayList<>(pending.size());
+        for (Delivery delivery : pending) {
+            requests.add(new DispatchMatcher.PendingDelivery(delivery.getId(),
+                    kitchen.getLatitude(), kitchen.getLongitude()));
+        }
+
+        AppProperties.Dispatch settings = appProperties.getDispatch();
+        DispatchMatcher matcher = new DispatchMatcher(index, settings.getSearchRadiusKm(),
+                settings.getMaxActiveDeliveries(), settings.getCandidatesPerDelivery());
+        List<DispatchMatcher.Assignment> matched = matcher.match(requests, candidates);
+
+        List<DispatchMatcher.Assignment> applied = new ArrayList<>(matched.size());
+        for (DispatchMatcher.Assignment assignment : matched) {
+            try {
+                deliveryService.assignDriverToDelivery(assignment.deliveryId(), assignment.driverId());
+                applied.add(assignment);
+            } catch (RuntimeException e) {
+                logger.warn("Auto-dispatch of delivery {} to driver {} failed: {}",
+                        assignment.deliveryId(), assignment.driverId(), e.getMessage());
+            }
+        }
+
+        logger.info("Dispatch batch assigned {} of {} pending deliveries", applied.size(), pending.size());
+        return applied;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bms.restaurant_system.service.delivery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Greedy batch matcher that pairs pending deliveries with drivers near where they are picked up.
+ * Each delivery only considers the nearest few drivers from the spatial index,
+ * so a batch costs roughly deliveries x candidatesPerDelivery score evaluations.
+ */
+public class DispatchMatcher {
+
+    // Score weights: one extra active delivery costs as much as 2 km of travel,
+    // one rating star is worth half a kilometre
+    static final double DISTANCE_WEIGHT = 1.0;
+    static final double LOAD_WEIGHT = 2.0;
+    static final double RATING_WEIGHT = 0.5;
+
+    public record DriverCandidate(long driverId, double rating, int activeDeliveries) {}
+
+    // Drivers are ranked by distance to the pickup point, not the drop-off
+    public record PendingDelivery(long deliveryId, double pickupLatitude, double pickupLongitude) {}
+
+    public record Assignment(long deliveryId, long driverId, double distanceKm, double score) {}
+
+    private final DriverSpatialIndex index;
+    private final double searchRadiusKm;
+    private final int maxActiveDeliveries;
+    private final int candidatesPerDelivery;
+
+    public DispatchMatcher(DriverSpatialIndex index, double searchRadiusKm, int maxActiveDeliveries, int candidatesPerDelivery) {
+        this.index = index;
+        this.searchRadiusKm = searchRadiusKm;
+        this.maxActiveDeliveries = maxActiveDeliveries;
+        this.candidatesPerDelivery = candidatesPerDelivery;
+    }
+
+    /**
+     * Match deliveries in the given order (oldest first) to the best-scoring driver in range.
+     * Loads are tracked within the batch so one driver is not handed every delivery nearby.
+     */
+    public List<Assignment> match(List<PendingDelivery> deliveries, Map<Long, DriverCandidate> drivers) {
+        List<Assignment> assignments = new ArrayList<>();
+        Map<Long, Integer> loads = new HashMap<>();
+        drivers.forEach((id, candidate) -> loads.put(id, candidate.activeDeliveries()));
+
+        for (PendingDelivery delivery : deliveries) {
+            List<DriverSpatialIndex.Neighbour> nearby = index.nearest(
+                    delivery.pickupLatitude(), delivery.pickupLongitude(), searchRadiusKm, candidatesPerDelivery,
+                    driverId -> drivers.containsKey(driverId) && loads.get(driverId) < maxActiveDeliveries);
+
+            Assignment best = null;
+            for (DriverSpatialIndex.Neighbour neighbour : nearby) {
+                DriverCandidate candidate = drivers.get(neighbour.driverId());
+                double score = score(neighbour.distanceKm(), loads.get(neighbour.driverId()), candidate.rating());
+                if (best == null || score < best.score()) {
+                    best = new Assignment(delivery.deliveryId(), neighbour.driverId(), neighbour.distanceKm(), score);
+                }
+            }
+
+            if (best != null) {
+                assignments.add(best);
+                loads.merge(best.driverId(), 1, Integer::sum);
+            }
+        }
+        return assignments;
+    }
+
+    static double score(double distanceKm, int activeDeliveries, double rating) {
+        return distanceKm * DISTANCE_WEIGHT + activeDeliveries * LOAD_WEIGHT - rating * RATING_WEIGHT;
+    }
+}
@@ -0,0 +1,248 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.dto.driver.DriverStatsDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.repository.DriverRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Driver performance aggregates: rating, on-time deliveries and delivery minutes.
+ * Completed deliveries and ratings are merged into per-driver deltas in memory and written
+ * periodically as atomic SQL increments, so concurrent completions never lose a count.
+ * Leaderboards are served from the last loaded totals plus the deltas not yet written.
+ * Each delivery is counted once, however many paths report it as delivered.
+ */
+@Service
+public class DriverMetricsService {
+    private static final Logger logger = LoggerFactory.getLogger(DriverMetricsService.class);
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    record Counts(int ratingSum, int ratingCount, int deliveries, int onTime, long minutes) {
+        static final Counts ZERO = new Counts(0, 0, 0, 0, 0);
+
+        Counts plus(Counts other) {
+            return new Counts(ratingSum + other.ratingSum, ratingCount + other.ratingCount,
+                    deliveries + other.deliveries, onTime + other.onTime, minutes + other.minutes);
+        }
+    }
+
+    private record DriverTotals(Long id, String name, boolean available, BigDecimal storedRating, Counts counts) {}
+
+    // How long a counted delivery id is remembered to ignore repeat completions
+    private static final Duration COUNTED_RETENTION = Duration.ofDays(1);
+
+    private final ConcurrentHashMap<Long, Counts> pending = new ConcurrentHashMap<>();
+    // Delivery ids already counted, with the time they were counted
+    private final ConcurrentHashMap<Long, LocalDateTime> counted = new ConcurrentHashMap<>();
+    // Drivers added, edited or removed since the last flush; their totals are reloaded with it
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    // Deltas being written; still counted by leaderboards until the totals are reloaded
+    private volatile Map<Long, Counts> flushing = Map.of();
+    private volatile Map<Long, DriverTotals> persisted = Map.of();
+    // Leaderboard rows are rebuilt only after something changed
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Leaderboard leaderboard;
+
+    private record Leaderboard(long version, List<DriverStatsDTO> rows) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        persisted = loadTotals();
+        changes.incrementAndGet();
+    }
+
+    private Map<Long, DriverTotals> loadTotals() {
+        return toTotals(driverRepository.findAllMetrics());
+    }
+
+    private static Map<Long, DriverTotals> toTotals(List<Object[]> rows) {
+        Map<Long, DriverTotals> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            loaded.put(id, new DriverTotals(id, (String) row[1], Boolean.TRUE.equals(row[2]), (BigDecimal) row[3],
+                    new Counts(intValue(row[4]), intValue(row[5]), intValue(row[6]), intValue(row[7]),
+                            row[8] != null ? ((Number) row[8]).longValue() : 0L)));
+        }
+        return loaded;
+    }
+
+    /**
+     * Count a completed delivery once the surrounding transaction commits.
+     * It is on time when it arrived by its estimated delivery time. A delivery already counted is ignored.
+     */
+    public void recordDelivery(Delivery delivery) {
+        if (delivery.getDriver() == null || delivery.getActualDeliveryTime() == null) {
+            return;
+        }
+        LocalDateTime deliveredAt = delivery.getActualDeliveryTime();
+        LocalDateTime startedAt = delivery.getPickupTime() != null ? delivery.getPickupTime() : delivery.getAssignedDate();
+        long minutes = startedAt != null ? Math.max(0, Duration.between(startedAt, deliveredAt).toMinutes()) : 0;
+        boolean onTime = delivery.getEstimatedDeliveryTime() != null
+                && !deliveredAt.isAfter(delivery.getEstimatedDeliveryTime());
+        record(delivery.getId(), delivery.getDriver().getId(), new Counts(0, 0, 1, onTime ? 1 : 0, minutes));
+    }
+
+    public void recordRating(Long driverId, int stars) {
+        if (stars < 1 || stars > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        record(null, driverId, new Counts(stars, 1, 0, 0, 0));
+    }
+
+    // Reload this driver's name, availability and totals on the next flush
+    public void driverChanged(Long driverId) {
+        stale.add(driverId);
+    }
+
+    public List<DriverStatsDTO> getTopByDeliveries(int limit) {
+        return currentLeaderboard().stream()
+                .sorted(Comparator.comparingInt(DriverStatsDTO::totalDeliveries).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public List<DriverStatsDTO> getTopRatedAvailable(int limit) {
+        return currentLeaderboard().stream()
+                .filter(DriverStatsDTO::available)
+                .sorted(Comparator.comparing(DriverStatsDTO::rating).reversed()
+                        .thenComparing(Comparator.comparingInt(DriverStatsDTO::totalDeliveries).reversed()))
+                .limit(limit)
+                .toList();
+    }
+
+    @Scheduled(initialDelayString = "${app.driver-metrics.flush-interval-ms:10000}",
+               fixedDelayString = "${app.driver-metrics.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<Long, Counts> batch = new HashMap<>();
+        for (Long driverId : pending.keySet()) {
+            Counts counts = pending.remove(driverId);
+            if (counts != null) {
+                batch.put(driverId, counts);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushing = batch;
+            changes.incrementAndGet();
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    batch.forEach((driverId, counts) -> driverRepository.incrementMetrics(driverId,
+                            counts.ratingSum(), counts.ratingCount(), counts.deliveries(),
+                            counts.onTime(), counts.minutes(), now));
+                });
+                logger.debug("Flushed metrics for {} drivers", batch.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush driver metrics, will retry: {}", e.getMessage());
+                batch.forEach((driverId, counts) -> pending.merge(driverId, counts, Counts::plus));
+                flushing = Map.of();
+                changes.incrementAndGet();
+                return;
+            }
+        }
+        // Read back only the drivers just written or changed; a driver no longer found was deleted
+        Set<Long> reload = new HashSet<>(batch.keySet());
+        for (Long driverId : stale) {
+            stale.remove(driverId);
+            reload.add(driverId);
+        }
+        if (!reload.isEmpty()) {
+            Map<Long, DriverTotals> updated = new HashMap<>(persisted);
+            reload.forEach(updated::remove);
+            updated.putAll(toTotals(driverRepository.findMetricsByIds(reload)));
+            persisted = updated;
+        }
+        flushing = Map.of();
+        changes.incrementAndGet();
+        LocalDateTime forgetBefore = LocalDateTime.now().minus(COUNTED_RETENTION);
+        counted.values().removeIf(countedAt -> countedAt.isBefore(forgetBefore));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void record(Long deliveryId, Long driverId, Counts delta) {
+        Runnable apply = () -> {
+            if (deliveryId != null && counted.putIfAbsent(deliveryId, LocalDateTime.now()) != null) {
+                logger.debug("Delivery {} already counted for driver {}", deliveryId, driverId);
+                return;
+            }
+            pending.merge(driverId, delta, Counts::plus);
+            changes.incrementAndGet();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private List<DriverStatsDTO> currentLeaderboard() {
+        long version = changes.get();
+        Leaderboard current = leaderboard;
+        if (current != null && current.version() == version) {
+            return current.rows();
+        }
+        Map<Long, Counts> inFlight = flushing;
+        List<DriverStatsDTO> rows = new ArrayList<>(persisted.size());
+        for (DriverTotals totals : persisted.values()) {
+            Counts counts = totals.counts()
+                    .plus(inFlight.getOrDefault(totals.id(), Counts.ZERO))
+                    .plus(pending.getOrDefault(totals.id(), Counts.ZERO));
+            rows.add(toStats(totals, counts));
+        }
+        rows = List.copyOf(rows);
+        leaderboard = new Leaderboard(version, rows);
+        return rows;
+    }
+
+    private static DriverStatsDTO toStats(DriverTotals totals, Counts counts) {
+        BigDecimal rating = counts.ratingCount() > 0
+                ? BigDecimal.valueOf(counts.ratingSum()).divide(BigDecimal.valueOf(counts.ratingCount()), 2, RoundingMode.HALF_UP)
+                : (totals.storedRating() != null ? totals.storedRating() : BigDecimal.ZERO);
+        double onTimeRate = counts.deliveries() > 0 ? (double) counts.onTime() / counts.deliveries() : 0.0;
+        double averageMinutes = counts.deliveries() > 0 ? (double) counts.minutes() / counts.deliveries() : 0.0;
+        return new DriverStatsDTO(totals.id(), totals.name(), totals.available(), rating, counts.ratingCount(),
+                counts.deliveries(), counts.onTime(), onTimeRate, averageMinutes);
+    }
+
+    private static int intValue(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+}
@@ -5,9 +5,12 @@ import com.bms.restaurant_system.entity.User;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.DriverRepository;
 import com.bms.restaurant_system.repository.UserRepository;
+import com.bms.restaurant_system.service.user.TrackingAccessService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -19,20 +22,34 @@ public class DriverService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DriverStateRegistry driverStateRegistry;
+    
+    @Autowired
+    private DriverMetricsService driverMetricsService;
+    
+    @Autowired
+    private TrackingAccessService trackingAccessService;
+    
     // Get all drivers
     public List<Driver> getAllDrivers() {
-        return driverRepository.findAll();
+        List<Driver> drivers = driverRepository.findAll();
+        drivers.forEach(this::applyShift);
+        return drivers;
     }
     
     // Get driver by ID
     public Driver getDriverById(Long id) {
-        return driverRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Driver not found with id: " + id));
+        return applyShift(driverRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Driver not found with id: " + id)));
     }
     
-    // Get available drivers
+    // Get available drivers; on-shift drivers come from the registry, the column may not be written back yet
     public List<Driver> getAvailableDrivers() {
-        return driverRepository.findByAvailableTrueOrderByRatingDesc();
+        List<Driver> drivers = new ArrayList<>(driverRepository.findAllById(driverStateRegistry.getOnShiftDriverIds()));
+        drivers.forEach(this::applyShift);
+        drivers.sort(Comparator.comparing(Driver::getRating, Comparator.nullsLast(Comparator.reverseOrder())));
+        return drivers;
     }
     
     // Create a new driver linked to a user
@@ -41,7 +58,10 @@ public class DriverService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
         driver.setUser(user);
-        return driverRepository.save(driver);
+        driver = driverRepository.save(driver);
+        driverStateRegistry.register(driver.getId(), Boolean.TRUE.equals(driver.getAvailable()));
+        driverMetricsService.driverChanged(driver.getId());
+        return driver;
     }
     
     // Update driver
@@ -63,29 +83,40 @@ public class DriverService {
         if (driverDetails.getLicenseNumber() != null) {
             driver.setLicenseNumber(driverDetails.getLicenseNumber());
         }
+        
+        driver = driverRepository.save(driver);
+        // Availability is not an updatable column; the registry holds it and writes it back
         if (driverDetails.getAvailable() != null) {
-            driver.setAvailable(driverDetails.getAvailable());
+            driverStateRegistry.setOnShift(id, driverDetails.getAvailable());
         }
-        
-        return driverRepository.save(driver);
+        applyShift(driver);
+        driverMetricsService.driverChanged(id);
+        return driver;
     }
     
-    // Update driver availability
+    // Update driver availability; held in memory and written back by the registry
     public void updateDriverAvailability(Long driverId, Boolean available) {
-        Driver driver = getDriverById(driverId);
-        driver.setAvailable(available);
-        driverRepository.save(driver);
+        driverStateRegistry.setOnShift(driverId, Boolean.TRUE.equals(available));
     }
     
     // Delete driver
     public void deleteDriver(Long id) {
         Driver driver = getDriverById(id);
         driverRepository.delete(driver);
+        driverStateRegistry.unregister(id);
+        driverMetricsService.driverChanged(id);
+        trackingAccessService.evictDriver(id);
     }
     
     // Get driver by user ID
     public Driver getDriverByUserId(Long userId) {
-        return driverRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Driver not found for user ID: " + userId));
+        return applyShift(driverRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Driver not found for user ID: " + userId)));
+    }
+    
+    // Report the registry's on-shift flag rather than the column it writes back later
+    private Driver applyShift(Driver driver) {
+        driver.setAvailable(driverStateRegistry.isOnShift(driver.getId()));
+        return driver;
     }
 }
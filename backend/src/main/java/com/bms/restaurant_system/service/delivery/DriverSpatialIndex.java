@@ -0,0 +1,158 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory uniform grid of driver positions.
+ * Nearest-driver lookups scan rings of cells outward from the query point
+ * instead of measuring the distance to every known driver.
+ */
+public class DriverSpatialIndex {
+
+    public record DriverPosition(long driverId, double latitude, double longitude, long cellKey) {}
+
+    public record Neighbour(long driverId, double latitude, double longitude, double distanceKm) {}
+
+    private final double cellDegrees;
+    private final ConcurrentHashMap<Long, DriverPosition> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellDegrees edge length of a grid cell in degrees (0.01 is roughly 1.1 km)
+     */
+    public DriverSpatialIndex(double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Record the latest position of a driver, moving it between cells if needed
+     */
+    public void update(long driverId, double latitude, double longitude) {
+        long key = cellKey(latitude, longitude);
+        positions.compute(driverId, (id, previous) -> {
+            if (previous == null || previous.cellKey() != key) {
+                addToCell(key, id);
+                if (previous != null) {
+                    removeFromCell(previous.cellKey(), id);
+                }
+            }
+            return new DriverPosition(id, latitude, longitude, key);
+        });
+    }
+
+    /**
+     * Record a position only if the driver is not indexed yet
+     */
+    public void updateIfAbsent(long driverId, double latitude, double longitude) {
+        if (!positions.containsKey(driverId)) {
+            update(driverId, latitude, longitude);
+        }
+    }
+
+    public void remove(long driverId) {
+        positions.computeIfPresent(driverId, (id, previous) -> {
+            removeFromCell(previous.cellKey(), id);
+            return null;
+        });
+    }
+
+    public Optional<DriverPosition> getPosition(long driverId) {
+        return Optional.ofNullable(positions.get(driverId));
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Find up to {@code limit} drivers accepted by {@code filter} within {@code maxRadiusKm}, nearest first
+     */
+    public List<Neighbour> nearest(double latitude, double longitude, double maxRadiusKm, int limit, LongPredicate filter) {
+        List<Neighbour> found = new ArrayList<>();
+        if (limit <= 0 || positions.isEmpty()) {
+            return found;
+        }
+
+        int centerX = cellCoordinate(longitude);
+        int centerY = cellCoordinate(latitude);
+        // Longitude cells shrink towards the poles, so size the rings by the narrower dimension
+        double minCellKm = cellDegrees * Math.min(GeoUtils.KM_PER_DEGREE_LATITUDE,
+                Math.max(GeoUtils.kmPerDegreeLongitude(latitude), 1e-6));
+        int maxRing = (int) Math.ceil(maxRadiusKm / minCellKm);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dy = -ring; dy <= ring; dy++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) {
+                        continue;
+                    }
+                    Set<Long> members = cells.get(key(centerX + dx, centerY + dy));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (Long driverId : members) {
+                        if (!filter.test(driverId)) {
+                            continue;
+                        }
+                        DriverPosition position = positions.get(driverId);
+                        if (position == null) {
+                            continue;
+                        }
+                        double distance = GeoUtils.haversineKm(latitude, longitude, position.latitude(), position.longitude());
+                        if (distance <= maxRadiusKm) {
+                            found.add(new Neighbour(driverId, position.latitude(), position.longitude(), distance));
+                        }
+                    }
+                }
+            }
+            // Every cell beyond this ring is at least ring * minCellKm away
+            if (found.size() >= limit) {
+                found.sort(Comparator.comparingDouble(Neighbour::distanceKm));
+                if (found.get(limit - 1).distanceKm() <= ring * minCellKm) {
+                    break;
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingDouble(Neighbour::distanceKm));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    private void addToCell(long key, long driverId) {
+        cells.compute(key, (k, members) -> {
+            Set<Long> set = members != null ? members : ConcurrentHashMap.newKeySet();
+            set.add(driverId);
+            return set;
+        });
+    }
+
+    private void removeFromCell(long key, long driverId) {
+        cells.computeIfPresent(key, (k, members) -> {
+            members.remove(driverId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return key(cellCoordinate(longitude), cellCoordinate(latitude));
+    }
+
+    private int cellCoordinate(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -0,0 +1,314 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Authoritative in-memory state of every driver.
+ * Each driver's state and number of active deliveries change only through compare-and-set,
+ * so reserving a driver for a delivery is also the lock against two concurrent assignments:
+ * a reservation that would exceed the driver's capacity fails without touching the database.
+ * The on-shift flag is written back to drivers.available in the background, so it is read from here.
+ * Every driver is loaded at startup and drivers created later are registered, so lookups never
+ * query the database.
+ */
+@Service
+public class DriverStateRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DriverStateRegistry.class);
+
+    public enum DriverState {
+        OFFLINE,
+        IDLE,
+        ASSIGNED,
+        EN_ROUTE
+    }
+
+    public record Slot(DriverState state, int activeDeliveries) {}
+
+    private static final List<Delivery.DeliveryStatus> EN_ROUTE_STATUSES = List.of(
+            Delivery.DeliveryStatus.PICKED_UP,
+            Delivery.DeliveryStatus.IN_TRANSIT,
+            Delivery.DeliveryStatus.ARRIVED);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<Long, AtomicReference<Slot>> slots = new ConcurrentHashMap<>();
+    // Latest on-shift flag per driver not yet written to the database
+    private final ConcurrentHashMap<Long, Boolean> unsavedAvailability = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Integer> active = new HashMap<>();
+        for (Object[] row : deliveryRepository.countActiveDeliveriesByDriver(Delivery.ACTIVE_STATUSES)) {
+            active.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        Map<Long, Integer> enRoute = new HashMap<>();
+        for (Object[] row : deliveryRepository.countActiveDeliveriesByDriver(EN_ROUTE_STATUSES)) {
+            enRoute.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        for (Object[] row : driverRepository.findAllAvailability()) {
+            Long driverId = (Long) row[0];
+            int count = active.getOrDefault(driverId, 0);
+            slots.put(driverId, new AtomicReference<>(new Slot(
+                    stateFor(Boolean.TRUE.equals(row[1]), count, enRoute.containsKey(driverId)), count)));
+        }
+        logger.info("Driver state registry rebuilt for {} drivers", slots.size());
+    }
+
+    public Slot getSlot(Long driverId) {
+        return slotFor(driverId).get();
+    }
+
+    public boolean isOnShift(Long driverId) {
+        AtomicReference<Slot> slot = slots.get(driverId);
+        return slot != null && slot.get().state() != DriverState.OFFLINE;
+    }
+
+    public List<Long> getOnShiftDriverIds() {
+        List<Long> ids = new ArrayList<>();
+        slots.forEach((driverId, slot) -> {
+            if (slot.get().state() != DriverState.OFFLINE) {
+                ids.add(driverId);
+            }
+        });
+        return ids;
+    }
+
+    /**
+     * Reserve capacity on a driver for count deliveries. Fails when the driver is off shift
+     * or would exceed the maximum number of active deliveries.
+     */
+    public boolean tryAssign(Long driverId, int count) {
+        int capacity = appProperties.getDispatch().getMaxActiveDeliveries();
+        AtomicReference<Slot> ref = slotFor(driverId);
+        while (true) {
+            Slot current = ref.get();
+            if (current.state() == DriverState.OFFLINE || current.activeDeliveries() + count > capacity) {
+                return false;
+            }
+            DriverState next = current.state() == DriverState.IDLE ? DriverState.ASSIGNED : current.state();
+            if (ref.compareAndSet(current, new Slot(next, current.activeDeliveries() + count))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hand back a reservation from {@link #tryAssign} if the surrounding transaction rolls back
+     */
+    public void releaseOnRollback(Long driverId, int count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        cancel(driverId, count);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Return capacity when deliveries finish, are cancelled or are taken off the driver.
+     * Inside a transaction the capacity is returned once it commits.
+     */
+    public void release(Long driverId, int count) {
+        if (driverId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cancel(driverId, count);
+                }
+            });
+        } else {
+            cancel(driverId, count);
+        }
+    }
+
+    public void release(Long driverId) {
+        release(driverId, 1);
+    }
+
+    /**
+     * Return capacity immediately, for a reservation whose assignment was never written
+     */
+    public void cancel(Long driverId, int count) {
+        AtomicReference<Slot> ref = slots.get(driverId);
+        if (ref == null) {
+            return;
+        }
+        ref.updateAndGet(current -> {
+            int remaining = Math.max(0, current.activeDeliveries() - count);
+            DriverState next = current.state();
+            if (remaining == 0 && next != DriverState.OFFLINE) {
+                next = DriverState.IDLE;
+            }
+            return new Slot(next, remaining);
+        });
+    }
+
+    // The driver has picked up and is on the road
+    public void markEnRoute(Long driverId) {
+        AtomicReference<Slot> ref = driverId != null ? slots.get(driverId) : null;
+        if (ref != null) {
+            ref.updateAndGet(current -> current.state() == DriverState.ASSIGNED
+                    ? new Slot(DriverState.EN_ROUTE, current.activeDeliveries())
+                    : current);
+        }
+    }
+
+    /**
+     * Follow a status change of a delivery that already has its driver: capacity is returned
+     * when it leaves the in-progress statuses and counted again if it goes back into them.
+     */
+    public void track(Delivery delivery, boolean wasInProgress) {
+        if (delivery.getDriver() == null) {
+            return;
+        }
+        Long driverId = delivery.getDriver().getId();
+        if (wasInProgress && !delivery.isInProgress()) {
+            release(driverId);
+        } else if (!wasInProgress && delivery.isInProgress() && slots.containsKey(driverId)) {
+            // The delivery is already with this driver, so it counts even above capacity
+            slotFor(driverId).updateAndGet(current -> new Slot(
+                    current.state() == DriverState.IDLE ? DriverState.ASSIGNED : current.state(),
+                    current.activeDeliveries() + 1));
+        }
+        if (delivery.getStatus() == Delivery.DeliveryStatus.PICKED_UP
+                || delivery.getStatus() == Delivery.DeliveryStatus.IN_TRANSIT) {
+            markEnRoute(driverId);
+        }
+    }
+
+    /**
+     * Start or end a driver's shift. Deliveries already on an off-shift driver stay with them.
+     */
+    public void setOnShift(Long driverId, boolean onShift) {
+        slotFor(driverId).updateAndGet(current -> {
+            if (!onShift) {
+                return new Slot(DriverState.OFFLINE, current.activeDeliveries());
+            }
+            if (current.state() != DriverState.OFFLINE) {
+                return current;
+            }
+            return new Slot(current.activeDeliveries() > 0 ? DriverState.ASSIGNED : DriverState.IDLE,
+                    current.activeDeliveries());
+        });
+        unsavedAvailability.put(driverId, onShift);
+    }
+
+    // Register a driver created after startup
+    public void register(Long driverId, boolean onShift) {
+        slots.putIfAbsent(driverId, new AtomicReference<>(new Slot(onShift ? DriverState.IDLE : DriverState.OFFLINE, 0)));
+    }
+
+    /**
+     * Forget a deleted driver so it can no longer be dispatched; inside a transaction, once it commits
+     */
+    public void unregister(Long driverId) {
+        Runnable remove = () -> {
+            slots.remove(driverId);
+            unsavedAvailability.remove(driverId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void flush() {
+        if (unsavedAvailability.isEmpty()) {
+            return;
+        }
+        List<Long> online = new ArrayList<>();
+        List<Long> offline = new ArrayList<>();
+        Map<Long, Boolean> batch = new HashMap<>();
+        for (Long driverId : unsavedAvailability.keySet()) {
+            Boolean onShift = unsavedAvailability.remove(driverId);
+            if (onShift != null) {
+                batch.put(driverId, onShift);
+                (onShift ? online : offline).add(driverId);
+            }
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!online.isEmpty()) {
+                    driverRepository.updateAvailability(online, true);
+                }
+                if (!offline.isEmpty()) {
+                    driverRepository.updateAvailability(offline, false);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to write driver availability, will retry: {}", e.getMessage());
+            // A newer change made meanwhile wins over the one that failed
+            batch.forEach(unsavedAvailability::putIfAbsent);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private AtomicReference<Slot> slotFor(Long driverId) {
+        AtomicReference<Slot> ref = slots.get(driverId);
+        if (ref == null) {
+            throw new ResourceNotFoundException("Driver not found with id: " + driverId);
+        }
+        return ref;
+    }
+
+    private static DriverState stateFor(boolean onShift, int activeDeliveries, boolean enRoute) {
+        if (!onShift) {
+            return DriverState.OFFLINE;
+        }
+        if (activeDeliveries == 0) {
+            return DriverState.IDLE;
+        }
+        return enRoute ? DriverState.EN_ROUTE : DriverState.ASSIGNED;
+    }
+}
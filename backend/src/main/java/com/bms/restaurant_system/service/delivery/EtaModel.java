@@ -0,0 +1,144 @@
+package com.bms.restaurant_system.service.delivery;
+
+import java.time.LocalDateTime;
+
+/**
+ * Online linear model of delivery times, one regression per hour of the week.
+ * Kitchen time is regressed on the slowest menu item's preparation time and road time on
+ * distance. Training keeps decayed sums per bucket and republishes immutable coefficients,
+ * so predictions are a couple of array reads and never wait on training.
+ */
+public class EtaModel {
+
+    public static final int HOURS_PER_WEEK = 7 * 24;
+
+    // Buckets with fewer effective samples fall back to the all-week fit, then to the prior
+    private static final double MIN_SAMPLES = 5;
+    // Older samples fade so the model follows changes in kitchen load and traffic
+    private static final double DECAY = 0.995;
+    // Pulls the slope towards the prior when the feature barely varies within a bucket
+    private static final double RIDGE = 4.0;
+
+    private record Fit(double intercept, double slope, double samples) {
+        double predict(double x) {
+            return intercept + slope * x;
+        }
+    }
+
+    private static final class Sums {
+        double n, sumX, sumY, sumXX, sumXY;
+
+        void add(double x, double y) {
+            n = n * DECAY + 1;
+            sumX = sumX * DECAY + x;
+            sumY = sumY * DECAY + y;
+            sumXX = sumXX * DECAY + x * x;
+            sumXY = sumXY * DECAY + x * y;
+        }
+
+        Fit fit(double priorIntercept, double priorSlope) {
+            double meanX = sumX / n;
+            double meanY = sumY / n;
+            double varX = sumXX - n * meanX * meanX;
+            double covXY = sumXY - n * meanX * meanY;
+            double slope = (covXY + RIDGE * priorSlope) / (varX + RIDGE);
+            return new Fit(meanY - slope * meanX, slope, n);
+        }
+    }
+
+    /**
+     * One regression target with its prior, per-hour fits and all-week fit
+     */
+    private static final class Regression {
+        final double priorIntercept;
+        final double priorSlope;
+        final Sums[] hourSums = new Sums[HOURS_PER_WEEK];
+        final Sums weekSums = new Sums();
+        volatile Fit[] hourFits = new Fit[HOURS_PER_WEEK];
+        volatile Fit weekFit;
+
+        Regression(double priorIntercept, double priorSlope) {
+            this.priorIntercept = priorIntercept;
+            this.priorSlope = priorSlope;
+            for (int i = 0; i < HOURS_PER_WEEK; i++) {
+                hourSums[i] = new Sums();
+            }
+        }
+
+        synchronized void observe(int hour, double x, double y) {
+            hourSums[hour].add(x, y);
+            weekSums.add(x, y);
+            Fit[] fits = hourFits.clone();
+            fits[hour] = hourSums[hour].fit(priorIntercept, priorSlope);
+            weekFit = weekSums.fit(priorIntercept, priorSlope);
+            hourFits = fits;
+        }
+
+        double predict(int hour, double x) {
+            Fit fit = hourFits[hour];
+            if (fit != null && fit.samples() >= MIN_SAMPLES) {
+                return fit.predict(x);
+            }
+            Fit week = weekFit;
+            if (week != null && week.samples() >= MIN_SAMPLES) {
+                return week.predict(x);
+            }
+            return priorIntercept + priorSlope * x;
+        }
+
+        double samples() {
+            Fit week = weekFit;
+            return week != null ? week.samples() : 0;
+        }
+    }
+
+    private final Regression kitchen;
+    private final Regression road;
+
+    /**
+     * @param averageSpeedKmh   road speed assumed before any delivery has been observed
+     * @param handoverMinutes   time at the door assumed before any delivery has been observed
+     */
+    public EtaModel(double averageSpeedKmh, double handoverMinutes) {
+        // Before training, orders take as long as their slowest dish plus a few minutes of packing
+        this.kitchen = new Regression(5.0, 1.0);
+        this.road = new Regression(handoverMinutes, 60.0 / averageSpeedKmh);
+    }
+
+    public void observeKitchen(LocalDateTime orderedAt, double preparationMinutes, double actualMinutes) {
+        if (isPlausible(actualMinutes)) {
+            kitchen.observe(hourOfWeek(orderedAt), preparationMinutes, actualMinutes);
+        }
+    }
+
+    public void observeRoad(LocalDateTime pickedUpAt, double distanceKm, double actualMinutes) {
+        if (isPlausible(actualMinutes)) {
+            road.observe(hourOfWeek(pickedUpAt), distanceKm, actualMinutes);
+        }
+    }
+
+    public double predictKitchenMinutes(LocalDateTime orderedAt, double preparationMinutes) {
+        return Math.max(0, kitchen.predict(hourOfWeek(orderedAt), preparationMinutes));
+    }
+
+    public double predictRoadMinutes(LocalDateTime pickedUpAt, double distanceKm) {
+        return Math.max(0, road.predict(hourOfWeek(pickedUpAt), distanceKm));
+    }
+
+    public double kitchenSamples() {
+        return kitchen.samples();
+    }
+
+    public double roadSamples() {
+        return road.samples();
+    }
+
+    static int hourOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * 24 + time.getHour();
+    }
+
+    // Negative durations or orders left open for hours are data errors, not traffic
+    private static boolean isPlausible(double minutes) {
+        return minutes >= 0 && minutes <= 240;
+    }
+}
@@ -0,0 +1,184 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.OrderItemRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estimated delivery times for orders, learned from completed deliveries.
+ * The model is trained from recent history at startup and then from every delivery as it completes.
+ */
+@Service
+public class EtaService {
+    private static final Logger logger = LoggerFactory.getLogger(EtaService.class);
+
+    private static final int TRAINING_DAYS = 90;
+    // Used for orders without a menu preparation time or a measured distance
+    private static final int DEFAULT_PREPARATION_MINUTES = 20;
+    private static final double DEFAULT_DISTANCE_KM = 5.0;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private EtaModel model;
+
+    @PostConstruct
+    public void init() {
+        AppProperties.Routing routing = appProperties.getRouting();
+        model = new EtaModel(routing.getAverageSpeedKmh(), routing.getServiceMinutesPerStop());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void train() {
+        List<Object[]> rows = deliveryRepository.findCompletedDeliveryTimings(
+                Delivery.DeliveryStatus.DELIVERED, LocalDateTime.now().minusDays(TRAINING_DAYS));
+        for (Object[] row : rows) {
+            observe((LocalDateTime) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2],
+                    (BigDecimal) row[3], (Integer) row[4]);
+        }
+        logger.info("ETA model trained on {} completed deliveries", rows.size());
+    }
+
+    /**
+     * Update the estimated delivery time of an order and its delivery for their current status.
+     * Completed and cancelled orders keep their last estimate. Returns whether the order's estimate changed.
+     */
+    public boolean refreshEstimate(Order order, Delivery delivery) {
+        Integer preparationMinutes = null;
+        if (!isReady(order) && order.getId() != null) {
+            preparationMinutes = orderItemRepository.findMaxPreparationTime(order.getId());
+        }
+        return refreshEstimate(order, delivery, preparationMinutes);
+    }
+
+    /**
+     * As {@link #refreshEstimate(Order, Delivery)}, with the slowest dish's preparation time already known
+     */
+    public boolean refreshEstimate(Order order, Delivery delivery, Integer preparationMinutes) {
+        LocalDateTime estimate = estimate(order, delivery, preparationMinutes, LocalDateTime.now());
+        if (estimate == null) {
+            return false;
+        }
+        if (delivery != null) {
+            delivery.setEstimatedDeliveryTime(estimate);
+        }
+        boolean changed = !Objects.equals(order.getEstimatedDeliveryTime(), estimate);
+        order.setEstimatedDeliveryTime(estimate);
+        return changed;
+    }
+
+    LocalDateTime estimate(Order order, Delivery delivery, Integer preparationMinutes, LocalDateTime now) {
+        Order.OrderStatus status = order.getStatus();
+        if (status == Order.OrderStatus.DELIVERED || status == Order.OrderStatus.CANCELLED
+                || status == Order.OrderStatus.REFUNDED) {
+            return null;
+        }
+
+        if (delivery != null && delivery.getPickupTime() != null) {
+            LocalDateTime arrival = plusMinutes(delivery.getPickupTime(),
+                    model.predictRoadMinutes(delivery.getPickupTime(), distanceKm(delivery)));
+            return arrival.isAfter(now) ? arrival : now;
+        }
+
+        LocalDateTime readyAt = now;
+        if (!isReady(order)) {
+            LocalDateTime orderedAt = orderedAt(order, now);
+            int preparation = preparationMinutes != null ? preparationMinutes : DEFAULT_PREPARATION_MINUTES;
+            LocalDateTime predicted = plusMinutes(orderedAt, model.predictKitchenMinutes(orderedAt, preparation));
+            if (predicted.isAfter(now)) {
+                readyAt = predicted;
+            }
+        }
+        if (!order.isDeliveryOrder()) {
+            return readyAt;
+        }
+        return plusMinutes(readyAt, model.predictRoadMinutes(readyAt, distanceKm(delivery)));
+    }
+
+    /**
+     * Learn from a completed delivery once the surrounding transaction commits
+     */
+    public void recordCompletion(Delivery delivery) {
+        Order order = delivery.getOrder();
+        if (order == null || order.getId() == null || delivery.getPickupTime() == null
+                || delivery.getActualDeliveryTime() == null) {
+            return;
+        }
+        LocalDateTime orderedAt = orderedAt(order, delivery.getPickupTime());
+        LocalDateTime pickedUpAt = delivery.getPickupTime();
+        LocalDateTime deliveredAt = delivery.getActualDeliveryTime();
+        BigDecimal distance = delivery.getDistanceKm();
+        Integer preparation = orderItemRepository.findMaxPreparationTime(order.getId());
+
+        Runnable learn = () -> observe(orderedAt, pickedUpAt, deliveredAt, distance, preparation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    learn.run();
+                }
+            });
+        } else {
+            learn.run();
+        }
+    }
+
+    private void observe(LocalDateTime orderedAt, LocalDateTime pickedUpAt, LocalDateTime deliveredAt,
+                         BigDecimal distanceKm, Integer preparationMinutes) {
+        if (orderedAt != null && preparationMinutes != null) {
+            model.observeKitchen(orderedAt, preparationMinutes, minutesBetween(orderedAt, pickedUpAt));
+        }
+        if (distanceKm != null && deliveredAt != null) {
+            model.observeRoad(pickedUpAt, distanceKm.doubleValue(), minutesBetween(pickedUpAt, deliveredAt));
+        }
+    }
+
+    private static boolean isReady(Order order) {
+        Order.OrderStatus status = order.getStatus();
+        return status == Order.OrderStatus.READY_FOR_PICKUP || status == Order.OrderStatus.OUT_FOR_DELIVERY;
+    }
+
+    private static LocalDateTime orderedAt(Order order, LocalDateTime fallback) {
+        if (order.getCreatedAt() != null) {
+            return order.getCreatedAt();
+        }
+        return order.getOrderDate() != null ? order.getOrderDate() : fallback;
+    }
+
+    private static double distanceKm(Delivery delivery) {
+        return delivery != null && delivery.getDistanceKm() != null
+                ? delivery.getDistanceKm().doubleValue()
+                : DEFAULT_DISTANCE_KM;
+    }
+
+    private static double minutesBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).toSeconds() / 60.0;
+    }
+
+    private static LocalDateTime plusMinutes(LocalDateTime time, double minutes) {
+        return time.plusSeconds(Math.round(minutes * 60));
+    }
+}
@@ -0,0 +1,261 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.driver.LivePositionDTO;
+import com.bms.restaurant_system.dto.driver.LocationPingDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.DeliveryLocation;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.DeliveryLocationRepository;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.util.GeoUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts high-rate driver location pings without touching the database per ping.
+ * Pings land in a per-delivery ring buffer; a scheduled write-behind flushes only the
+ * latest position onto the delivery row and appends the breadcrumb trail in one transaction.
+ */
+@Service
+public class LocationIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(LocationIngestionService.class);
+
+    // Breadcrumbs kept for retry after a failed flush before the oldest are dropped
+    private static final int MAX_UNSAVED_BREADCRUMBS = 10_000;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryLocationRepository deliveryLocationRepository;
+
+    @Autowired
+    private DispatchEngine dispatchEngine;
+
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<Long, DeliveryTrack> tracks = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final List<DeliveryLocation> unsaved = new ArrayList<>();
+
+    private static final class DeliveryTrack {
+        final long deliveryId;
+        final long driverId;
+        final long orderId;
+        final LocationRingBuffer buffer;
+        volatile long lastPingMillis;
+
+        DeliveryTrack(long deliveryId, long driverId, long orderId, int bufferSize) {
+            this.deliveryId = deliveryId;
+            this.driverId = driverId;
+            this.orderId = orderId;
+            this.buffer = new LocationRingBuffer(bufferSize);
+            this.lastPingMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Accept one or more pings from a driver. Only the first ping of a delivery reads the database,
+     * to check that the delivery is in progress and assigned to this driver.
+     *
+     * @return number of pings accepted
+     */
+    public int ingest(Long driverId, List<LocationPingDTO> pings) {
+        if (pings == null || pings.isEmpty()) {
+            throw new IllegalArgumentException("At least one location is required");
+        }
+        for (LocationPingDTO ping : pings) {
+            if (ping.deliveryId() == null || ping.latitude() == null || ping.longitude() == null) {
+                throw new IllegalArgumentException("deliveryId, latitude and longitude are required");
+            }
+            if (!GeoUtils.isValidCoordinate(ping.latitude(), ping.longitude())) {
+                throw new IllegalArgumentException("Invalid coordinates: " + ping.latitude() + ", " + ping.longitude());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        LocationPingDTO newest = null;
+        long newestMillis = Long.MIN_VALUE;
+        for (LocationPingDTO ping : pings) {
+            DeliveryTrack track = trackFor(ping.deliveryId(), driverId);
+            // Device clocks drift; never accept a timestamp from the future
+            long recordedAt = ping.recordedAt() != null ? Math.min(toMillis(ping.recordedAt()), now) : now;
+            track.buffer.add(ping.latitude(), ping.longitude(), recordedAt);
+            track.lastPingMillis = now;
+            dirty.add(track.deliveryId);
+            orderTrackingStreamService.publish(track.orderId, OrderTrackingStreamService.LOCATION_EVENT, toLivePosition(track));
+            if (recordedAt >= newestMillis) {
+                newest = ping;
+                newestMillis = recordedAt;
+            }
+        }
+
+        dispatchEngine.updateDriverPosition(driverId, newest.latitude(), newest.longitude());
+        return pings.size();
+    }
+
+    /**
+     * Live position of a delivery served from memory only
+     */
+    public Optional<LivePositionDTO> getLivePosition(Long deliveryId) {
+        DeliveryTrack track = tracks.get(deliveryId);
+        if (track == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(toLivePosition(track));
+    }
+
+    private LivePositionDTO toLivePosition(DeliveryTrack track) {
+        LocationRingBuffer.Sample latest = track.buffer.latest();
+        if (latest == null) {
+            return null;
+        }
+        return new LivePositionDTO(track.deliveryId, track.driverId,
+                latest.latitude(), latest.longitude(), toDateTime(latest.recordedAtMillis()));
+    }
+
+    @Scheduled(initialDelayString = "${app.tracking.flush-interval-ms:5000}",
+               fixedDelayString = "${app.tracking.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<DeliveryTrack> changed = new ArrayList<>();
+        for (Long deliveryId : dirty) {
+            // Clear the flag before draining so pings arriving meanwhile mark the delivery again
+            dirty.remove(deliveryId);
+            DeliveryTrack track = tracks.get(deliveryId);
+            if (track == null) {
+                continue;
+            }
+            changed.add(track);
+            for (LocationRingBuffer.Sample sample : track.buffer.drain()) {
+                unsaved.add(new DeliveryLocation(null, track.deliveryId, track.driverId,
+                        coordinate(sample.latitude()), coordinate(sample.longitude()),
+                        toDateTime(sample.recordedAtMillis())));
+            }
+        }
+
+        if (!changed.isEmpty() || !unsaved.isEmpty()) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    for (DeliveryTrack track : changed) {
+                        LocationRingBuffer.Sample latest = track.buffer.latest();
+                        deliveryRepository.updateCurrentLocation(track.deliveryId,
+                                coordinate(latest.latitude()), coordinate(latest.longitude()), now);
+                    }
+                    deliveryLocationRepository.saveAll(unsaved);
+                });
+                logger.debug("Flushed {} delivery positions and {} breadcrumbs", changed.size(), unsaved.size());
+                unsaved.clear();
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush driver locations, will retry: {}", e.getMessage());
+                changed.forEach(track -> dirty.add(track.deliveryId));
+                if (unsaved.size() > MAX_UNSAVED_BREADCRUMBS) {
+                    unsaved.subList(0, unsaved.size() - MAX_UNSAVED_BREADCRUMBS).clear();
+                }
+            }
+        }
+
+        evictIdleTracks();
+    }
+
+    /**
+     * Stop tracking a delivery that left the in-progress statuses or changed driver, once that commits.
+     * Pings buffered but not yet flushed are dropped with the track, so they cannot move a finished
+     * delivery; the next ping for it loads and checks the delivery again.
+     */
+    public void endTrack(Long deliveryId) {
+        if (deliveryId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeTrack(deliveryId);
+                }
+            });
+        } else {
+            removeTrack(deliveryId);
+        }
+    }
+
+    private void removeTrack(Long deliveryId) {
+        tracks.remove(deliveryId);
+        dirty.remove(deliveryId);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private DeliveryTrack trackFor(Long deliveryId, Long driverId) {
+        DeliveryTrack track = tracks.get(deliveryId);
+        if (track == null || track.driverId != driverId) {
+            // First ping for this delivery, or it may have been reassigned since it was cached
+            DeliveryTrack loaded = loadTrack(deliveryId, driverId);
+            track = tracks.merge(deliveryId, loaded,
+                    (existing, candidate) -> existing.driverId == candidate.driverId ? existing : candidate);
+        }
+        return track;
+    }
+
+    private DeliveryTrack loadTrack(Long deliveryId, Long driverId) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Delivery not found with id: " + deliveryId));
+        if (delivery.getDriver() == null || !delivery.getDriver().getId().equals(driverId)) {
+            throw new IllegalStateException("Delivery " + deliveryId + " is not assigned to this driver");
+        }
+        if (!delivery.isInProgress()) {
+            throw new IllegalStateException("Delivery " + deliveryId + " is not in progress");
+        }
+        return new DeliveryTrack(deliveryId, driverId, delivery.getOrder().getId(),
+                appProperties.getTracking().getBufferSize());
+    }
+
+    private void evictIdleTracks() {
+        long cutoff = System.currentTimeMillis() - appProperties.getTracking().getIdleTimeoutMinutes() * 60_000L;
+        tracks.values().removeIf(track -> track.lastPingMillis < cutoff && !dirty.contains(track.deliveryId));
+    }
+
+    // Columns hold 8 decimal places (about 1 mm)
+    private static BigDecimal coordinate(double degrees) {
+        return BigDecimal.valueOf(degrees).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
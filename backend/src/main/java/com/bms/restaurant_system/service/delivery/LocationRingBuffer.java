@@ -0,0 +1,68 @@
+package com.bms.restaurant_system.service.delivery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free fixed-size ring of location samples for a single delivery.
+ * Writers claim a slot with an atomic counter and never block; the drainer reads
+ * everything published since its last drain. When writers lap the drainer
+ * the oldest unread samples are dropped.
+ */
+public class LocationRingBuffer {
+
+    public record Sample(long sequence, double latitude, double longitude, long recordedAtMillis) {}
+
+    private final AtomicReferenceArray<Sample> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicReference<Sample> latest = new AtomicReference<>();
+    private long drainedUpTo;
+
+    public LocationRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Publish a sample. The latest position only moves forward in time,
+     * so late or replayed pings still reach the breadcrumb trail but never rewind the live position.
+     */
+    public void add(double latitude, double longitude, long recordedAtMillis) {
+        long sequence = nextSequence.getAndIncrement();
+        Sample sample = new Sample(sequence, latitude, longitude, recordedAtMillis);
+        slots.set((int) (sequence % slots.length()), sample);
+        latest.accumulateAndGet(sample, (current, candidate) ->
+                current == null || candidate.recordedAtMillis() >= current.recordedAtMillis() ? candidate : current);
+    }
+
+    public Sample latest() {
+        return latest.get();
+    }
+
+    /**
+     * Collect samples published since the previous drain, oldest first
+     */
+    public synchronized List<Sample> drain() {
+        long published = nextSequence.get();
+        long from = Math.max(drainedUpTo, published - slots.length());
+        List<Sample> samples = new ArrayList<>((int) (published - from));
+        long sequence = from;
+        for (; sequence < published; sequence++) {
+            Sample sample = slots.get((int) (sequence % slots.length()));
+            if (sample == null || sample.sequence() < sequence) {
+                // Slot claimed but not written yet; pick it up on the next drain
+                break;
+            }
+            if (sample.sequence() == sequence) {
+                samples.add(sample);
+            }
+        }
+        drainedUpTo = sequence;
+        return samples;
+    }
+}
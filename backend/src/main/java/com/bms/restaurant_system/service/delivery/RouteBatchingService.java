@@ -0,0 +1,106 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.driver.DeliveryDTO;
+import com.bms.restaurant_system.dto.driver.RoutePlanDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Batches deliveries that are ready for pickup into multi-stop routes.
+ * Planning is read-only; a route is only committed when it is assigned to a driver as a unit.
+ */
+@Service
+public class RouteBatchingService {
+    private static final Logger logger = LoggerFactory.getLogger(RouteBatchingService.class);
+
+    private static final List<Delivery.DeliveryStatus> ROUTABLE_DELIVERY_STATUSES = List.of(
+            Delivery.DeliveryStatus.PENDING,
+            Delivery.DeliveryStatus.ASSIGNED);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    /**
+     * Plan routes over unassigned deliveries whose orders are ready for pickup.
+     * Deliveries without drop-off coordinates cannot be routed and are left to single dispatch.
+     */
+    public List<RoutePlanDTO> planRoutes() {
+        List<Delivery> ready = deliveryRepository.findDispatchableDeliveries(
+                ROUTABLE_DELIVERY_STATUSES, List.of(Order.OrderStatus.READY_FOR_PICKUP));
+
+        AppProperties.Routing routing = appProperties.getRouting();
+        LocalDateTime now = LocalDateTime.now();
+        List<RouteOptimizer.Stop> stops = new ArrayList<>(ready.size());
+        for (Delivery delivery : ready) {
+            if (GeoUtils.hasCoordinates(delivery.getDeliveryLatitude(), delivery.getDeliveryLongitude())) {
+                LocalDateTime due = delivery.getEstimatedDeliveryTime() != null
+                        ? delivery.getEstimatedDeliveryTime()
+                        : delivery.getCreatedAt().plusMinutes(routing.getDeliveryWindowMinutes());
+                stops.add(new RouteOptimizer.Stop(delivery.getId(),
+                        delivery.getDeliveryLatitude().doubleValue(), delivery.getDeliveryLongitude().doubleValue(),
+                        Duration.between(now, due).toSeconds() / 60.0));
+            }
+        }
+        if (stops.isEmpty()) {
+            return List.of();
+        }
+
+        long started = System.nanoTime();
+        List<RouteOptimizer.Route> routes = newOptimizer().optimize(stops);
+        logger.info("Planned {} routes for {} ready deliveries in {} ms", routes.size(), stops.size(),
+                (System.nanoTime() - started) / 1_000_000);
+
+        return routes.stream()
+                .map(route -> new RoutePlanDTO(
+                        newRouteId(),
+                        route.stops().stream().map(RouteOptimizer.Stop::deliveryId).toList(),
+                        BigDecimal.valueOf(route.distanceKm()).setScale(2, RoundingMode.HALF_UP),
+                        BigDecimal.valueOf(route.durationMinutes()).setScale(1, RoundingMode.HALF_UP)))
+                .toList();
+    }
+
+    /**
+     * Assign every stop of a route, in order, to one driver
+     */
+    public List<DeliveryDTO> assignRoute(String routeId, List<Long> deliveryIds, Long driverId) {
+        String id = routeId != null && !routeId.isBlank() ? routeId : newRouteId();
+        List<DeliveryDTO> assigned = deliveryService.assignRoute(id, deliveryIds, driverId);
+        logger.info("Route {} with {} stops assigned to driver {}", id, assigned.size(), driverId);
+        return assigned;
+    }
+
+    private RouteOptimizer newOptimizer() {
+        AppProperties.Kitchen kitchen = appProperties.getKitchen();
+        AppProperties.Routing routing = appProperties.getRouting();
+        return new RouteOptimizer(kitchen.getLatitude(), kitchen.getLongitude(),
+                new RouteOptimizer.Limits(routing.getMaxStops(), routing.getMaxRouteMinutes(),
+                        routing.getAverageSpeedKmh(), routing.getServiceMinutesPerStop()),
+                ForkJoinPool.commonPool());
+    }
+
+    private static String newRouteId() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,225 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Groups deliveries into multi-stop routes starting at the kitchen.
+ * Stops are swept by bearing around the kitchen and split into sectors that are
+ * clustered in parallel on a fork/join pool. Within a cluster stops are ordered
+ * nearest-neighbour first and then improved with 2-opt, and a stop only joins a
+ * route if every stop on it still arrives before its deadline.
+ */
+public class RouteOptimizer {
+
+    public record Stop(long deliveryId, double latitude, double longitude, double deadlineMinutes) {}
+
+    public record Route(List<Stop> stops, double distanceKm, double durationMinutes) {}
+
+    public record Limits(int maxStops, double maxRouteMinutes, double speedKmh, double serviceMinutesPerStop) {}
+
+    // Sectors at or below this size are clustered sequentially
+    private static final int SECTOR_SIZE = 24;
+
+    private final double kitchenLatitude;
+    private final double kitchenLongitude;
+    private final Limits limits;
+    private final ForkJoinPool pool;
+
+    public RouteOptimizer(double kitchenLatitude, double kitchenLongitude, Limits limits, ForkJoinPool pool) {
+        if (limits.maxStops() <= 0 || limits.speedKmh() <= 0) {
+            throw new IllegalArgumentException("Route limits must be positive");
+        }
+        this.kitchenLatitude = kitchenLatitude;
+        this.kitchenLongitude = kitchenLongitude;
+        this.limits = limits;
+        this.pool = pool;
+    }
+
+    /**
+     * Plan routes covering every stop. Deadlines are minutes from now; a stop that cannot
+     * make its deadline even on its own still gets a single-stop route.
+     */
+    public List<Route> optimize(List<Stop> stops) {
+        if (stops.isEmpty()) {
+            return List.of();
+        }
+        List<Stop> swept = new ArrayList<>(stops);
+        swept.sort(Comparator.comparingDouble(this::bearing));
+        return pool.invoke(new SectorTask(swept, 0, swept.size()));
+    }
+
+    private final class SectorTask extends RecursiveTask<List<Route>> {
+        private final List<Stop> swept;
+        private final int from;
+        private final int to;
+
+        SectorTask(List<Stop> swept, int from, int to) {
+            this.swept = swept;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Route> compute() {
+            if (to - from <= SECTOR_SIZE) {
+                return cluster(swept.subList(from, to));
+            }
+            int middle = (from + to) >>> 1;
+            SectorTask left = new SectorTask(swept, from, middle);
+            SectorTask right = new SectorTask(swept, middle, to);
+            left.fork();
+            List<Route> routes = new ArrayList<>(right.compute());
+            routes.addAll(0, left.join());
+            return routes;
+        }
+    }
+
+    // Greedily grow a route with the next stop by bearing while it stays feasible
+    private List<Route> cluster(List<Stop> sector) {
+        List<Route> routes = new ArrayList<>();
+        List<Stop> current = new ArrayList<>();
+        Route currentRoute = null;
+        for (Stop stop : sector) {
+            if (current.size() < limits.maxStops()) {
+                current.add(stop);
+                Route candidate = plan(current);
+                if (candidate != null) {
+                    currentRoute = candidate;
+                    continue;
+                }
+                current.remove(current.size() - 1);
+            }
+            if (currentRoute != null) {
+                routes.add(currentRoute);
+            }
+            current = new ArrayList<>();
+            current.add(stop);
+            currentRoute = plan(current);
+            if (currentRoute == null) {
+                // Late even on its own; send it alone and start afresh
+                routes.add(measure(List.copyOf(current)));
+                current = new ArrayList<>();
+            }
+        }
+        if (currentRoute != null && !current.isEmpty()) {
+            routes.add(currentRoute);
+        }
+        return routes;
+    }
+
+    /**
+     * Best order found for the stops, or null if no order found keeps them within the limits
+     */
+    Route plan(List<Stop> stops) {
+        List<Stop> order = nearestNeighbour(stops);
+        twoOpt(order);
+        Route route = measure(order);
+        return isFeasible(order, route) ? route : null;
+    }
+
+    private List<Stop> nearestNeighbour(List<Stop> stops) {
+        List<Stop> remaining = new ArrayList<>(stops);
+        List<Stop> order = new ArrayList<>(stops.size());
+        double lat = kitchenLatitude;
+        double lon = kitchenLongitude;
+        while (!remaining.isEmpty()) {
+            int best = 0;
+            double bestDistance = Double.MAX_VALUE;
+            for (int i = 0; i < remaining.size(); i++) {
+                Stop stop = remaining.get(i);
+                double distance = GeoUtils.haversineKm(lat, lon, stop.latitude(), stop.longitude());
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = i;
+                }
+            }
+            Stop next = remaining.remove(best);
+            order.add(next);
+            lat = next.latitude();
+            lon = next.longitude();
+        }
+        return order;
+    }
+
+    // Reverse segments while that shortens the open path from the kitchen
+    private void twoOpt(List<Stop> order) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < order.size() - 1; i++) {
+                for (int j = i + 1; j < order.size(); j++) {
+                    double before = edge(order, i - 1, i) + edge(order, j, j + 1);
+                    double after = edge(order, i - 1, j) + edge(order, i, j + 1);
+                    if (after + 1e-9 < before) {
+                        reverse(order, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Distance between positions a and b of the path; -1 is the kitchen and the end is open
+    private double edge(List<Stop> order, int a, int b) {
+        if (b >= order.size() || a >= order.size()) {
+            return 0;
+        }
+        double latA = a < 0 ? kitchenLatitude : order.get(a).latitude();
+        double lonA = a < 0 ? kitchenLongitude : order.get(a).longitude();
+        return GeoUtils.haversineKm(latA, lonA, order.get(b).latitude(), order.get(b).longitude());
+    }
+
+    private static void reverse(List<Stop> order, int i, int j) {
+        while (i < j) {
+            Stop swap = order.get(i);
+            order.set(i, order.get(j));
+            order.set(j, swap);
+            i++;
+            j--;
+        }
+    }
+
+    private Route measure(List<Stop> order) {
+        double distance = 0;
+        double lat = kitchenLatitude;
+        double lon = kitchenLongitude;
+        for (Stop stop : order) {
+            distance += GeoUtils.haversineKm(lat, lon, stop.latitude(), stop.longitude());
+            lat = stop.latitude();
+            lon = stop.longitude();
+        }
+        double minutes = distance / limits.speedKmh() * 60 + order.size() * limits.serviceMinutesPerStop();
+        return new Route(List.copyOf(order), distance, minutes);
+    }
+
+    private boolean isFeasible(List<Stop> order, Route route) {
+        if (order.size() > limits.maxStops() || route.durationMinutes() > limits.maxRouteMinutes()) {
+            return false;
+        }
+        double elapsed = 0;
+        double lat = kitchenLatitude;
+        double lon = kitchenLongitude;
+        for (Stop stop : order) {
+            elapsed += GeoUtils.haversineKm(lat, lon, stop.latitude(), stop.longitude()) / limits.speedKmh() * 60;
+            if (elapsed > stop.deadlineMinutes()) {
+                return false;
+            }
+            elapsed += limits.serviceMinutesPerStop();
+            lat = stop.latitude();
+            lon = stop.longitude();
+        }
+        return true;
+    }
+
+    private double bearing(Stop stop) {
+        double dLat = stop.latitude() - kitchenLatitude;
+        double dLon = (stop.longitude() - kitchenLongitude) * Math.cos(Math.toRadians(kitchenLatitude));
+        return Math.atan2(dLat, dLon);
+    }
+}
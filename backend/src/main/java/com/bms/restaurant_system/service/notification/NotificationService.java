@@ -7,6 +7,7 @@ import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.NotificationRepository;
 import com.bms.restaurant_system.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +23,15 @@ public class NotificationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    private static final int DEFAULT_HISTORY_SIZE = 50;
+    private static final int MAX_HISTORY_SIZE = 200;
+
     public List<NotificationDTO> getAllNotifications() {
         return notificationRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -34,9 +44,24 @@ public class NotificationService {
         return convertToDTO(notification);
     }
 
+    /**
+     * A page of the user's notifications and global announcements, newest first.
+     * Pass the smallest id of the previous page as beforeId to continue.
+     */
+    public List<NotificationDTO> getNotificationHistory(Long userId, Long beforeId, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_HISTORY_SIZE : Math.min(size, MAX_HISTORY_SIZE);
+        List<Notification> notifications = beforeId == null
+                ? notificationRepository.findHistory(userId, Limit.of(pageSize))
+                : notificationRepository.findHistoryBefore(userId, beforeId, Limit.of(pageSize));
+        return notifications.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     public NotificationDTO createNotification(NotificationDTO notificationDTO) {
         User user = null;
-        if (notificationDTO.userId() != null) {
+        // Global announcements are stored once and fanned out to every stream, not copied per user
+        if (notificationDTO.userId() != null && !Boolean.TRUE.equals(notificationDTO.isGlobal())) {
             user = userRepository.findById(notificationDTO.userId())
                     .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + notificationDTO.userId()));
         }
@@ -47,12 +72,52 @@ public class NotificationService {
         notification.setCreatedAt(LocalDateTime.now());
         
         notification = notificationRepository.save(notification);
+        NotificationDTO created = convertToDTO(notification);
+        if (Boolean.TRUE.equals(notification.getIsGlobal())) {
+            notificationStreamService.broadcast(created);
+        } else if (user != null) {
+            notificationStreamService.publishToUser(user.getId(), created);
+            unreadCounterService.adjust(user.getId(), 1);
+        }
+        return created;
+    }
+
+    public long getUnreadCount(Long userId) {
+        return unreadCounterService.getUnreadCount(userId);
+    }
+
+    /**
+     * Mark one of the user's notifications as read, moving the unread count only if it was unread
+     */
+    @Transactional
+    public NotificationDTO markAsRead(Notification notification) {
+        LocalDateTime now = LocalDateTime.now();
+        if (notificationRepository.markReadIfUnread(notification.getId(), now) == 1) {
+            unreadCounterService.adjust(notification.getUser().getId(), -1);
+            notification.setStatus(Notification.NotificationStatus.READ);
+            notification.setReadAt(now);
+        } else if (!notification.isRead()) {
+            // Dismissed notifications were never counted as unread
+            notification.markAsRead();
+            notification = notificationRepository.save(notification);
+        }
         return convertToDTO(notification);
     }
 
+    /**
+     * Mark all of the user's notifications as read with a single UPDATE
+     */
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllReadByUserId(userId, LocalDateTime.now());
+        unreadCounterService.reset(userId);
+        return updated;
+    }
+
     public NotificationDTO updateNotification(Long id, NotificationDTO notificationDTO) {
         Notification existingNotification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with id: " + id));
+        boolean wasUnread = existingNotification.isUnread();
         
         existingNotification.setMessage(notificationDTO.message());
         existingNotification.setTitle(notificationDTO.title());
@@ -63,6 +128,9 @@ public class NotificationService {
         existingNotification.setIsGlobal(notificationDTO.isGlobal());
         
         existingNotification = notificationRepository.save(existingNotification);
+        if (existingNotification.getUser() != null && wasUnread != existingNotification.isUnread()) {
+            unreadCounterService.adjust(existingNotification.getUser().getId(), wasUnread ? -1 : 1);
+        }
         return convertToDTO(existingNotification);
     }
 
@@ -71,6 +139,9 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with id: " + id));
         notificationRepository.delete(notification);
+        if (notification.getUser() != null && notification.isUnread()) {
+            unreadCounterService.adjust(notification.getUser().getId(), -1);
+        }
     }
 
     private NotificationDTO convertToDTO(Notification notification) {
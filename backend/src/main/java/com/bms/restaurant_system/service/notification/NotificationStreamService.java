@@ -0,0 +1,256 @@
+package com.bms.restaurant_system.service.notification;
+
+import com.bms.restaurant_system.dto.user.NotificationDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent event streams of new notifications, one channel per user.
+ * Personal notifications go into a small bounded queue per connection; when a slow client lets
+ * it overflow, the queue is dropped and the client gets a resync event telling it to refetch
+ * history. Global announcements are kept once in a shared log that every connection reads
+ * from its own cursor, so a broadcast costs the same however many users are online.
+ */
+@Service
+public class NotificationStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String RESYNC_EVENT = "resync";
+
+    // Clients are expected to reconnect after this; EventSource does so automatically
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final int QUEUE_CAPACITY = 32;
+    private static final int BROADCASTS_RETAINED = 32;
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> channels = new ConcurrentHashMap<>();
+    private final Set<Subscriber> pending = ConcurrentHashMap.newKeySet();
+    private final ConcurrentSkipListMap<Long, NotificationDTO> broadcasts = new ConcurrentSkipListMap<>();
+    private final AtomicLong broadcastSequence = new AtomicLong();
+    private final AtomicBoolean broadcastPending = new AtomicBoolean();
+    // Sends block on slow sockets, so each one gets a cheap virtual thread
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<NotificationDTO> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final AtomicBoolean overflowed = new AtomicBoolean();
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile long broadcastCursor;
+        volatile boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter, long broadcastCursor) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.broadcastCursor = broadcastCursor;
+        }
+    }
+
+    /**
+     * Open a stream of notifications created from now on for the user
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(userId, emitter, broadcastSequence.get());
+        channels.compute(userId, (id, existing) -> {
+            Set<Subscriber> target = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+
+        Runnable remove = () -> unsubscribe(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * Push a personal notification to the user's open streams once the surrounding transaction commits
+     */
+    public void publishToUser(Long userId, NotificationDTO notification) {
+        if (userId == null || !channels.containsKey(userId)) {
+            return;
+        }
+        afterCommit(() -> {
+            Set<Subscriber> subscribers = channels.get(userId);
+            if (subscribers == null) {
+                return;
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(notification)) {
+                    subscriber.overflowed.set(true);
+                }
+                pending.add(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Push a global announcement to every open stream once the surrounding transaction commits
+     */
+    public void broadcast(NotificationDTO notification) {
+        afterCommit(() -> {
+            // Readers trust the sequence, so it only moves once the entry is in the log
+            synchronized (broadcasts) {
+                long sequence = broadcastSequence.get() + 1;
+                broadcasts.put(sequence, notification);
+                broadcastSequence.set(sequence);
+                while (broadcasts.size() > BROADCASTS_RETAINED) {
+                    broadcasts.pollFirstEntry();
+                }
+            }
+            broadcastPending.set(true);
+        });
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(STREAM_TIMEOUT_MS);
+    }
+
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Scheduled(fixedDelay = 250)
+    public void dispatch() {
+        if (broadcastPending.getAndSet(false)) {
+            channels.values().forEach(pending::addAll);
+        }
+        for (Subscriber subscriber : pending) {
+            pending.remove(subscriber);
+            if (!subscriber.closed && isBehind(subscriber) && subscriber.sending.compareAndSet(false, true)) {
+                sender.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects clients that went away
+    @Scheduled(fixedDelay = 15_000)
+    public void heartbeat() {
+        channels.values().forEach(subscribers -> {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.sending.compareAndSet(false, true)) {
+                    sender.execute(() -> {
+                        try {
+                            subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } catch (IOException | IllegalStateException e) {
+                            close(subscriber);
+                        } finally {
+                            subscriber.sending.set(false);
+                        }
+                        if (!subscriber.closed && isBehind(subscriber)) {
+                            pending.add(subscriber);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private boolean isBehind(Subscriber subscriber) {
+        return !subscriber.queue.isEmpty() || subscriber.overflowed.get()
+                || subscriber.broadcastCursor < broadcastSequence.get();
+    }
+
+    private void send(Subscriber subscriber) {
+        try {
+            long latest = broadcastSequence.get();
+            if (subscriber.broadcastCursor < latest) {
+                ConcurrentNavigableMap<Long, NotificationDTO> unseen = broadcasts.tailMap(subscriber.broadcastCursor, false);
+                // Announcements trimmed from the log before this client read them are recovered by a resync
+                if (!unseen.isEmpty() && unseen.firstKey() > subscriber.broadcastCursor + 1) {
+                    subscriber.overflowed.set(true);
+                }
+                for (Map.Entry<Long, NotificationDTO> entry : unseen.headMap(latest, true).entrySet()) {
+                    sendNotification(subscriber, entry.getValue());
+                }
+                subscriber.broadcastCursor = latest;
+            }
+
+            if (subscriber.overflowed.getAndSet(false)) {
+                subscriber.queue.clear();
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(RESYNC_EVENT)
+                        .data(Map.of("reason", "Missed notifications, fetch history again")));
+            }
+
+            NotificationDTO notification;
+            while ((notification = subscriber.queue.poll()) != null) {
+                sendNotification(subscriber, notification);
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Notifications published while this send was in flight were skipped by the dispatcher
+        if (!subscriber.closed && isBehind(subscriber)) {
+            pending.add(subscriber);
+        }
+    }
+
+    private static void sendNotification(Subscriber subscriber, NotificationDTO notification) throws IOException {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(NOTIFICATION_EVENT).data(notification);
+        if (notification.id() != null) {
+            event.id(Long.toString(notification.id()));
+        }
+        subscriber.emitter.send(event);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        unsubscribe(subscriber);
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException e) {
+            logger.debug("Notification stream for user {} already closed", subscriber.userId);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        pending.remove(subscriber);
+        channels.computeIfPresent(subscriber.userId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bms.restaurant_system.service.notification;
+
+import com.bms.restaurant_system.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unread notification count per user, kept in memory.
+ * A user's count is loaded with one indexed COUNT the first time it is asked for, then moved by
+ * creates and reads as they commit. Counts are reloaded after COUNTER_TTL_MS so a change that
+ * raced with the initial load, or a write made outside the service, cannot skew a badge for long.
+ * Global announcements have no per-user read state and are not counted.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final long COUNTER_TTL_MS = 10 * 60 * 1000L;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private record Counter(AtomicLong unread, long loadedAt) {}
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public long getUnreadCount(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter == null || System.currentTimeMillis() - counter.loadedAt() >= COUNTER_TTL_MS) {
+            counter = new Counter(new AtomicLong(notificationRepository.countUnreadByUserId(userId)), System.currentTimeMillis());
+            counters.put(userId, counter);
+        }
+        return Math.max(0, counter.unread().get());
+    }
+
+    /**
+     * Move the user's count by delta once the surrounding transaction commits.
+     * Users whose count has not been loaded yet are skipped; their first read counts them.
+     */
+    public void adjust(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            Counter counter = counters.get(userId);
+            if (counter != null) {
+                counter.unread().addAndGet(delta);
+            }
+        });
+    }
+
+    /**
+     * Set the user's count to zero once the surrounding transaction commits
+     */
+    public void reset(Long userId) {
+        afterCommit(() -> counters.put(userId, new Counter(new AtomicLong(), System.currentTimeMillis())));
+    }
+
+    /**
+     * Forget every loaded count, for changes made in bulk; each is reloaded on its next read
+     */
+    public void invalidateAll() {
+        counters.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
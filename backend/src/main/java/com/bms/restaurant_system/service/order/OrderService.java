@@ -1,14 +1,22 @@
 package com.bms.restaurant_system.service.order;
 
 import com.bms.restaurant_system.dto.OrderDTO;
+import com.bms.restaurant_system.dto.DeliveryFeeQuoteDTO;
 import com.bms.restaurant_system.dto.OrderCreateDTO;
 import com.bms.restaurant_system.dto.OrderItemDTO;
+import com.bms.restaurant_system.dto.driver.AvailableDriverDTO;
 import com.bms.restaurant_system.dto.driver.DeliveryDTO;
 import com.bms.restaurant_system.dto.PaymentDTO;
 import com.bms.restaurant_system.entity.*;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.*;
-import com.bms.restaurant_system.service.SystemSettingsService;
+import com.bms.restaurant_system.service.DeliveryFeeCalculator;
+import com.bms.restaurant_system.service.delivery.ActiveDeliveryCache;
+import com.bms.restaurant_system.service.delivery.DriverMetricsService;
+import com.bms.restaurant_system.service.delivery.DriverStateRegistry;
+import com.bms.restaurant_system.service.delivery.EtaService;
+import com.bms.restaurant_system.service.delivery.LocationIngestionService;
+import com.bms.restaurant_system.service.outbox.OutboxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +46,7 @@ public class OrderService {
     private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private SystemSettingsService settingsService;
+    private DeliveryFeeCalculator deliveryFeeCalculator;
 
     @Autowired
     private DeliveryRepository deliveryRepository;
@@ -46,6 +54,27 @@ public class OrderService {
     @Autowired
     private DriverRepository driverRepository;
 
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
+    @Autowired
+    private ActiveDeliveryCache activeDeliveryCache;
+
+    @Autowired
+    private EtaService etaService;
+
+    @Autowired
+    private DriverMetricsService driverMetricsService;
+
+    @Autowired
+    private DriverStateRegistry driverStateRegistry;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private LocationIngestionService locationIngestionService;
+
     // Basic CRUD Operations
     public List<OrderDTO> getAllOrders() {
         return orderRepository.findAllWithDetails().stream()
@@ -119,9 +148,14 @@ public class OrderService {
         orderItemRepository.saveAll(orderItems);
         order.setItems(orderItems);
 
-        // Set delivery fee from settings if it's a delivery order
+        // Price the delivery by distance and zone; the flat fee applies when no coordinates were sent
+        DeliveryFeeQuoteDTO feeQuote = null;
         if (order.isDeliveryOrder()) {
-            order.setDeliveryFee(settingsService.getDeliveryFee());
+            feeQuote = deliveryFeeCalculator.quote(orderCreateDTO.deliveryLatitude(), orderCreateDTO.deliveryLongitude());
+            if (!feeQuote.deliverable()) {
+                throw new IllegalArgumentException("Delivery address is outside the delivery area");
+            }
+            order.setDeliveryFee(feeQuote.fee());
         }
 
         // Calculate totals
@@ -136,12 +170,26 @@ public class OrderService {
             delivery.setDeliveryInstructions(orderCreateDTO.specialInstructions());
             delivery.setStatus(Delivery.DeliveryStatus.PENDING);
             delivery.setDeliveryFee(order.getDeliveryFee());
-            delivery = deliveryRepository.save(delivery);
+            delivery.setDeliveryLatitude(orderCreateDTO.deliveryLatitude());
+            delivery.setDeliveryLongitude(orderCreateDTO.deliveryLongitude());
+            delivery.setDistanceKm(feeQuote.distanceKm());
             order.setDelivery(delivery);
         }
 
+        // Promise a delivery time from the learned ETA model; the slowest dish sets the kitchen time
+        Integer preparationMinutes = orderItems.stream()
+                .map(item -> item.getMenu().getPreparationTime())
+                .filter(Objects::nonNull)
+                .max(Integer::compare)
+                .orElse(null);
+        etaService.refreshEstimate(order, order.getDelivery(), preparationMinutes);
+        if (order.getDelivery() != null) {
+            order.setDelivery(deliveryRepository.save(order.getDelivery()));
+        }
+
         // Save final order
         order = orderRepository.save(order);
+        outboxService.orderCreated(order);
         return convertToDTO(order);
     }
 
@@ -150,10 +198,13 @@ public class OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
         
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         
         // Update delivery status if applicable
         if (order.getDelivery() != null) {
+            boolean wasInProgress = order.getDelivery().isInProgress();
+            boolean wasDelivered = order.getDelivery().getStatus() == Delivery.DeliveryStatus.DELIVERED;
             logger.info("📦 [UPDATE STATUS] Syncing delivery status for order {}", id);
             switch (status) {
                 case PENDING -> order.getDelivery().setStatus(Delivery.DeliveryStatus.PENDING);
@@ -176,20 +227,70 @@ public class OrderService {
                 case CANCELLED -> order.getDelivery().setStatus(Delivery.DeliveryStatus.CANCELLED);
                 case REFUNDED -> { /* No delivery status change needed */ }
             }
+            etaService.refreshEstimate(order, order.getDelivery());
             deliveryRepository.save(order.getDelivery());
+            driverStateRegistry.track(order.getDelivery(), wasInProgress);
+            if (order.getDelivery().getDriver() != null) {
+                activeDeliveryCache.evict(order.getDelivery().getDriver().getId());
+            }
+            if (!order.getDelivery().isInProgress()) {
+                locationIngestionService.endTrack(order.getDelivery().getId());
+            }
+            if (status == Order.OrderStatus.DELIVERED && !wasDelivered) {
+                etaService.recordCompletion(order.getDelivery());
+                driverMetricsService.recordDelivery(order.getDelivery());
+            }
             logger.info("✅ [UPDATE STATUS] Delivery status updated to: {}", order.getDelivery().getStatus());
+        } else {
+            etaService.refreshEstimate(order, null);
         }
         
         order = orderRepository.save(order);
+        if (status != previousStatus) {
+            outboxService.orderStatusChanged(order, null);
+        }
+        Delivery delivery = order.getDelivery();
+        orderTrackingStreamService.publishStatus(order.getId(), order.getStatus(),
+                delivery != null ? delivery.getId() : null, delivery != null ? delivery.getStatus() : null);
         logger.info("✅ [UPDATE STATUS] Order {} status updated successfully", id);
         return convertToDTO(order);
     }
 
+    // Customer rates the delivery of their own delivered order, once
+    @Transactional
+    public DeliveryDTO rateDelivery(Long orderId, Integer rating, String feedback) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        if (order.getUser() == null || !username.equals(order.getUser().getUsername())) {
+            throw new IllegalStateException("Only the customer who placed the order can rate it");
+        }
+        Delivery delivery = order.getDelivery();
+        if (delivery == null || delivery.getStatus() != Delivery.DeliveryStatus.DELIVERED) {
+            throw new IllegalStateException("Only delivered orders can be rated");
+        }
+        if (delivery.getCustomerRating() != null) {
+            throw new IllegalStateException("This delivery has already been rated");
+        }
+
+        delivery.setCustomerRating(rating);
+        delivery.setCustomerFeedback(feedback);
+        delivery = deliveryRepository.save(delivery);
+        if (delivery.getDriver() != null) {
+            driverMetricsService.recordRating(delivery.getDriver().getId(), rating);
+        }
+        return convertDeliveryToDTO(delivery);
+    }
+
     @Transactional
     public OrderDTO assignDriver(Long orderId, Long driverId) {
         logger.info("🚗 [ASSIGN DRIVER] Starting assignment - Order ID: {}, Driver ID: {}", orderId, driverId);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+        Order.OrderStatus previousStatus = order.getStatus();
         
         if (driverId != null) {
             User driver = userRepository.findById(driverId)
@@ -227,6 +328,25 @@ public class OrderService {
             if (order.getDelivery() != null) {
                 logger.info("📦 [ASSIGN DRIVER] Updating delivery - Current driver_id: {}", 
                            order.getDelivery().getDriver() != null ? order.getDelivery().getDriver().getId() : null);
+                Long previousDriverId = order.getDelivery().getDriver() != null ? order.getDelivery().getDriver().getId() : null;
+                boolean wasInProgress = order.getDelivery().isInProgress();
+                if (!wasInProgress || !driverEntity.getId().equals(previousDriverId)) {
+                    // Claim the driver before writing anything; taken and off-shift drivers are rejected here
+                    if (!driverStateRegistry.tryAssign(driverEntity.getId(), 1)) {
+                        throw new IllegalStateException("Driver is not available for delivery");
+                    }
+                    driverStateRegistry.releaseOnRollback(driverEntity.getId(), 1);
+                    if (previousDriverId != null && wasInProgress) {
+                        driverStateRegistry.release(previousDriverId);
+                    }
+                }
+                if (previousDriverId != null) {
+                    activeDeliveryCache.evict(previousDriverId);
+                    if (!previousDriverId.equals(driverEntity.getId())) {
+                        locationIngestionService.endTrack(order.getDelivery().getId());
+                    }
+                }
+                activeDeliveryCache.evict(driverEntity.getId());
                 order.getDelivery().setDriver(driverEntity);
                 order.getDelivery().setStatus(Delivery.DeliveryStatus.ASSIGNED);
                 deliveryRepository.save(order.getDelivery());
@@ -244,49 +364,31 @@ public class OrderService {
             }
             // Clear delivery driver assignment
             if (order.getDelivery() != null) {
+                if (order.getDelivery().getDriver() != null) {
+                    activeDeliveryCache.evict(order.getDelivery().getDriver().getId());
+                    if (order.getDelivery().isInProgress()) {
+                        driverStateRegistry.release(order.getDelivery().getDriver().getId());
+                    }
+                }
                 order.getDelivery().setDriver(null);
                 deliveryRepository.save(order.getDelivery());
+                locationIngestionService.endTrack(order.getDelivery().getId());
             }
         }
         
         order = orderRepository.save(order);
+        if (order.getStatus() != previousStatus) {
+            outboxService.orderStatusChanged(order, null);
+        }
         logger.info("✅ [ASSIGN DRIVER] Order saved successfully - Order ID: {}, Driver ID: {}", 
                    order.getId(), order.getDriver() != null ? order.getDriver().getId() : null);
         return convertToDTO(order);
     }
 
-    public List<Map<String, Object>> getAvailableDrivers() {
-        List<User> driverUsers = userRepository.findByRole(Role.DRIVER);
-        return driverUsers.stream()
-                // Don't filter by enabled - return all drivers (pending and active)
-                .map(user -> {
-                    Map<String, Object> driverInfo = new HashMap<>();
-                    driverInfo.put("id", user.getId());
-                    driverInfo.put("username", user.getUsername());
-                    driverInfo.put("email", user.getEmail());
-                    driverInfo.put("phone", user.getPhone());
-                    driverInfo.put("enabled", user.isEnabled()); // Add enabled status for filtering
-                    
-                    // Try to get driver details from drivers table
-                    try {
-                        Driver driver = driverRepository.findByUserId(user.getId())
-                                .orElse(null);
-                        if (driver != null) {
-                            driverInfo.put("name", driver.getName());
-                            driverInfo.put("vehicleNumber", driver.getVehicleNumber());
-                            driverInfo.put("vehicleType", driver.getVehicleType());
-                            driverInfo.put("licenseNumber", driver.getLicenseNumber());
-                            driverInfo.put("available", driver.getAvailable());
-                            driverInfo.put("rating", driver.getRating());
-                            driverInfo.put("totalDeliveries", driver.getTotalDeliveries());
-                        }
-                    } catch (Exception e) {
-                        // Driver details not available, continue with basic info
-                    }
-                    
-                    return driverInfo;
-                })
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<AvailableDriverDTO> getAvailableDrivers() {
+        // All driver accounts, pending and active; clients filter on enabled
+        return driverRepository.findDriverUsersWithLoad(Role.DRIVER, Delivery.ACTIVE_STATUSES);
     }
 
     public OrderDTO cancelOrder(Long id, String reason) {
@@ -301,12 +403,21 @@ public class OrderService {
         
         // Cancel delivery if exists
         if (order.getDelivery() != null) {
+            boolean wasInProgress = order.getDelivery().isInProgress();
             order.getDelivery().setStatus(Delivery.DeliveryStatus.CANCELLED);
             order.getDelivery().setDeliveryNotes("Order cancelled: " + reason);
             deliveryRepository.save(order.getDelivery());
+            driverStateRegistry.track(order.getDelivery(), wasInProgress);
+            if (order.getDelivery().getDriver() != null) {
+                activeDeliveryCache.evict(order.getDelivery().getDriver().getId());
+            }
+            locationIngestionService.endTrack(order.getDelivery().getId());
         }
         
         order = orderRepository.save(order);
+        outboxService.orderStatusChanged(order, reason != null
+                ? "Your order #" + order.getId() + " was cancelled: " + reason
+                : null);
         return convertToDTO(order);
     }
 
@@ -314,12 +425,16 @@ public class OrderService {
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
         
+        Order.OrderStatus previousStatus = existingOrder.getStatus();
         existingOrder.setStatus(Order.OrderStatus.valueOf(orderDTO.status()));
         existingOrder.setDeliveryAddress(orderDTO.deliveryAddress());
         existingOrder.setDeliveryPhone(orderDTO.deliveryPhone());
         existingOrder.setSpecialInstructions(orderDTO.specialInstructions());
         
         existingOrder = orderRepository.save(existingOrder);
+        if (existingOrder.getStatus() != previousStatus) {
+            outboxService.orderStatusChanged(existingOrder, null);
+        }
         return convertToDTO(existingOrder);
     }
 
@@ -21,6 +21,9 @@ public class OrderTrackingService {
     
     @Autowired
     private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
     
     /**
      * Get all tracking entries for a specific order
@@ -53,7 +56,9 @@ public class OrderTrackingService {
         tracking.setActor(actor);
         
         tracking = orderTrackingRepository.save(tracking);
-        return convertToDTO(tracking);
+        OrderTrackingDTO dto = convertToDTO(tracking);
+        orderTrackingStreamService.publish(orderId, OrderTrackingStreamService.TIMELINE_EVENT, dto);
+        return dto;
     }
     
     /**
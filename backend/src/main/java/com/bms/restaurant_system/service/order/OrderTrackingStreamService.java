@@ -0,0 +1,246 @@
+package com.bms.restaurant_system.service.order;
+
+import com.bms.restaurant_system.dto.TrackingStatusDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent event streams of order tracking updates.
+ * Each order keeps only the latest event of every kind, and a dispatcher pushes whatever a
+ * subscriber has not seen yet. A subscriber whose previous send is still in flight is skipped,
+ * so a slow client receives the newest state once it catches up instead of a growing backlog.
+ */
+@Service
+public class OrderTrackingStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderTrackingStreamService.class);
+
+    public static final String STATUS_EVENT = "status";
+    public static final String TIMELINE_EVENT = "timeline";
+    public static final String LOCATION_EVENT = "location";
+
+    // Clients are expected to reconnect after this; EventSource does so automatically
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final Set<Long> pendingOrders = ConcurrentHashMap.newKeySet();
+    private final AtomicLong versions = new AtomicLong();
+    // Sends block on slow sockets, so each one gets a cheap virtual thread
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record Event(String kind, long version, Object payload) {}
+
+    private static final class Channel {
+        final ConcurrentHashMap<String, Event> latest = new ConcurrentHashMap<>();
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Map<String, Long> delivered = new ConcurrentHashMap<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean isBehind(Channel channel) {
+            for (Event event : channel.latest.values()) {
+                if (event.version() > delivered.getOrDefault(event.kind(), 0L)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Open a stream for an order, starting with its current order and delivery status
+     */
+    public SseEmitter subscribe(Long orderId) {
+        List<Object[]> rows = orderRepository.findTrackingStatus(orderId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found with id: " + orderId);
+        }
+        Object[] row = rows.get(0);
+        Order.OrderStatus orderStatus = (Order.OrderStatus) row[0];
+        Delivery.DeliveryStatus deliveryStatus = (Delivery.DeliveryStatus) row[2];
+
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel = channels.compute(orderId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel();
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        Runnable remove = () -> unsubscribe(orderId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        channel.latest.putIfAbsent(STATUS_EVENT, new Event(STATUS_EVENT, versions.incrementAndGet(),
+                new TrackingStatusDTO(orderId, orderStatus.name(), (Long) row[1],
+                        deliveryStatus != null ? deliveryStatus.name() : null, LocalDateTime.now())));
+        pendingOrders.add(orderId);
+        return emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(STREAM_TIMEOUT_MS);
+    }
+
+    /**
+     * Publish an event for an order, replacing any undelivered event of the same kind.
+     * Inside a transaction the event is held back until commit.
+     */
+    public void publish(Long orderId, String kind, Object payload) {
+        if (orderId == null || !channels.containsKey(orderId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(orderId, kind, payload);
+                }
+            });
+        } else {
+            publishNow(orderId, kind, payload);
+        }
+    }
+
+    public void publishStatus(Long orderId, Order.OrderStatus orderStatus, Long deliveryId, Delivery.DeliveryStatus deliveryStatus) {
+        publish(orderId, STATUS_EVENT, new TrackingStatusDTO(orderId,
+                orderStatus != null ? orderStatus.name() : null, deliveryId,
+                deliveryStatus != null ? deliveryStatus.name() : null, LocalDateTime.now()));
+    }
+
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    private void publishNow(Long orderId, String kind, Object payload) {
+        Channel channel = channels.get(orderId);
+        if (channel != null) {
+            channel.latest.put(kind, new Event(kind, versions.incrementAndGet(), payload));
+            pendingOrders.add(orderId);
+        }
+    }
+
+    @Scheduled(fixedDelay = 250)
+    public void dispatch() {
+        for (Long orderId : pendingOrders) {
+            pendingOrders.remove(orderId);
+            Channel channel = channels.get(orderId);
+            if (channel == null) {
+                continue;
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.isBehind(channel) && subscriber.sending.compareAndSet(false, true)) {
+                    sender.execute(() -> send(orderId, channel, subscriber));
+                }
+            }
+        }
+    }
+
+    // Keeps idle connections open through proxies and detects clients that went away
+    @Scheduled(fixedDelay = 15_000)
+    public void heartbeat() {
+        channels.forEach((orderId, channel) -> {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.sending.compareAndSet(false, true)) {
+                    sender.execute(() -> {
+                        try {
+                            subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } catch (IOException | IllegalStateException e) {
+                            close(orderId, subscriber);
+                        } finally {
+                            subscriber.sending.set(false);
+                        }
+                        if (!subscriber.closed && subscriber.isBehind(channel)) {
+                            pendingOrders.add(orderId);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void send(Long orderId, Channel channel, Subscriber subscriber) {
+        try {
+            List<Event> unseen = new ArrayList<>();
+            for (Event event : channel.latest.values()) {
+                if (event.version() > subscriber.delivered.getOrDefault(event.kind(), 0L)) {
+                    unseen.add(event);
+                }
+            }
+            unseen.sort((a, b) -> Long.compare(a.version(), b.version()));
+            for (Event event : unseen) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.version()))
+                        .name(event.kind())
+                        .data(event.payload()));
+                subscriber.delivered.put(event.kind(), event.version());
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(orderId, subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Events published while this send was in flight were skipped by the dispatcher
+        if (!subscriber.closed && subscriber.isBehind(channel)) {
+            pendingOrders.add(orderId);
+        }
+    }
+
+    private void close(Long orderId, Subscriber subscriber) {
+        subscriber.closed = true;
+        unsubscribe(orderId, subscriber);
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException e) {
+            logger.debug("Tracking stream for order {} already closed", orderId);
+        }
+    }
+
+    private void unsubscribe(Long orderId, Subscriber subscriber) {
+        subscriber.closed = true;
+        channels.computeIfPresent(orderId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+}
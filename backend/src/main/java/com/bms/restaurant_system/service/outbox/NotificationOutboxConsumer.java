@@ -0,0 +1,57 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.dto.user.NotificationDTO;
+import com.bms.restaurant_system.entity.Notification;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.service.notification.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the customer about changes to their orders, deliveries, payments, refunds and reservations
+ */
+@Component
+public class NotificationOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public boolean accepts(OutboxEvent event) {
+        return event.getUserId() != null && event.getMessage() != null;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        notificationService.createNotification(new NotificationDTO(
+                null,
+                event.getTitle(),
+                event.getMessage(),
+                type(event).name(),
+                null,
+                event.getUserId(),
+                null,
+                null,
+                null,
+                event.getAggregateId(),
+                event.getAggregateType().name(),
+                false
+        ));
+    }
+
+    private static Notification.NotificationType type(OutboxEvent event) {
+        return switch (event.getAggregateType()) {
+            case ORDER -> event.getEventType() == OutboxEvent.EventType.CREATED
+                    ? Notification.NotificationType.ORDER_CONFIRMATION
+                    : Notification.NotificationType.ORDER_STATUS_UPDATE;
+            case DELIVERY -> Notification.NotificationType.DELIVERY_UPDATE;
+            case PAYMENT_SLIP, REFUND -> Notification.NotificationType.PAYMENT_CONFIRMATION;
+            case RESERVATION -> Notification.NotificationType.RESERVATION_CONFIRMATION;
+        };
+    }
+}
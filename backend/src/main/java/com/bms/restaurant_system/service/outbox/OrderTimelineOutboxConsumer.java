@@ -0,0 +1,48 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.service.order.OrderTrackingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Adds order, delivery, payment and refund changes to the order's tracking timeline
+ */
+@Component
+public class OrderTimelineOutboxConsumer implements OutboxConsumer {
+
+    // Steps that did not move the order forward are shown as not completed
+    private static final Set<String> SETBACK_STATUSES = Set.of("CANCELLED", "REJECTED", "FAILED", "RETURNED");
+
+    @Autowired
+    private OrderTrackingService orderTrackingService;
+
+    @Override
+    public String name() {
+        return "order-timeline";
+    }
+
+    @Override
+    public boolean accepts(OutboxEvent event) {
+        return event.getOrderId() != null && event.getAggregateType() != OutboxEvent.AggregateType.RESERVATION;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        orderTrackingService.addOrderTracking(event.getOrderId(), timelineStatus(event), event.getTitle(),
+                event.getMessage(), !SETBACK_STATUSES.contains(event.getNewStatus()), event.getActor());
+    }
+
+    // payment_confirmed, delivery_in_transit, out_for_delivery, ...
+    private static String timelineStatus(OutboxEvent event) {
+        String status = event.getNewStatus().toLowerCase();
+        return switch (event.getAggregateType()) {
+            case PAYMENT_SLIP -> "payment_" + status;
+            case DELIVERY -> "delivery_" + status;
+            case REFUND -> "refund_" + status;
+            default -> event.getEventType() == OutboxEvent.EventType.CREATED ? "order_placed" : status;
+        };
+    }
+}
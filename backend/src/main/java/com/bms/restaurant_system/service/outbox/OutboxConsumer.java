@@ -0,0 +1,23 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.entity.OutboxEvent;
+
+/**
+ * A side effect of state changes, run by OutboxRelay after the change has committed.
+ * Delivery is at least once: an event may reach a consumer again if the relay stops between
+ * handling it and recording that it was handled.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * Stable name recorded on events this consumer has handled; must not contain commas
+     */
+    String name();
+
+    boolean accepts(OutboxEvent event);
+
+    /**
+     * Runs in its own transaction; throwing schedules a retry of this consumer only
+     */
+    void handle(OutboxEvent event);
+}
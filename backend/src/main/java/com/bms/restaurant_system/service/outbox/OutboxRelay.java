@@ -0,0 +1,187 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox in batches and hands each event to the consumers that accept it.
+ * A batch is leased before delivery, so several instances can relay side by side, and an event
+ * whose relay stops mid-batch is picked up again when its lease runs out. A consumer that fails is
+ * retried with backoff while those that succeeded are not run again. Events are delivered in the
+ * order they were written, except that a retried event can land after later ones.
+ */
+@Service
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private List<OutboxConsumer> consumers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // One drain at a time; a wake-up during a drain makes it go round once more
+    private final ExecutorService worker = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Drain the outbox in the background, now or right after the drain in progress
+     */
+    public void wake() {
+        requested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            worker.execute(this::drainWhileRequested);
+        }
+    }
+
+    // Catches retries that came due and events written by other instances
+    @Scheduled(initialDelayString = "${app.outbox.relay-interval-ms:5000}",
+               fixedDelayString = "${app.outbox.relay-interval-ms:5000}")
+    public void poll() {
+        wake();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void drainWhileRequested() {
+        try {
+            while (requested.getAndSet(false)) {
+                drain();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay stopped, it will resume on the next poll: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+        // A wake-up that arrived after the last check but before the flag was cleared
+        if (requested.get() && draining.compareAndSet(false, true)) {
+            worker.execute(this::drainWhileRequested);
+        }
+    }
+
+    /**
+     * Deliver due events until the outbox has none left; returns how many were settled
+     */
+    int drain() {
+        int batchSize = appProperties.getOutbox().getBatchSize();
+        int settled = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch(batchSize));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (OutboxEvent event : batch) {
+                deliver(event);
+            }
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.saveAll(batch));
+            settled += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return settled;
+    }
+
+    private List<OutboxEvent> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        // Whole seconds, so a DATETIME column cannot round the lease end before the relay is done
+        LocalDateTime leaseUntil = now.plusNanos(appProperties.getOutbox().getLeaseMs() * 1_000_000)
+                .truncatedTo(ChronoUnit.SECONDS);
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : outboxEventRepository.findDueIds(OutboxEvent.OutboxStatus.PENDING, now, Limit.of(batchSize))) {
+            if (outboxEventRepository.claim(id, OutboxEvent.OutboxStatus.PENDING, now, leaseUntil) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        List<OutboxEvent> events = new ArrayList<>(outboxEventRepository.findAllById(claimed));
+        events.sort(Comparator.comparing(OutboxEvent::getId));
+        return events;
+    }
+
+    void deliver(OutboxEvent event) {
+        Set<String> delivered = event.getDeliveredConsumers();
+        String error = null;
+        for (OutboxConsumer consumer : consumers) {
+            if (delivered.contains(consumer.name()) || !consumer.accepts(event)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> consumer.handle(event));
+                delivered.add(consumer.name());
+            } catch (RuntimeException e) {
+                error = consumer.name() + ": " + e.getMessage();
+                logger.warn("Outbox event {} failed in {} on attempt {}: {}",
+                        event.getId(), consumer.name(), event.getAttempts(), e.getMessage());
+            }
+        }
+        event.setDeliveredConsumers(delivered);
+
+        AppProperties.Outbox settings = appProperties.getOutbox();
+        if (error == null) {
+            event.setStatus(OutboxEvent.OutboxStatus.PROCESSED);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        } else if (event.getAttempts() >= settings.getMaxAttempts()) {
+            event.setStatus(OutboxEvent.OutboxStatus.FAILED);
+            event.setLastError(truncate(error));
+            logger.error("Outbox event {} failed after {} attempts: {}", event.getId(), event.getAttempts(), error);
+        } else {
+            event.setLastError(truncate(error));
+            event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoffMs(event.getAttempts(), settings) * 1_000_000)
+                    .truncatedTo(ChronoUnit.SECONDS));
+        }
+    }
+
+    static long backoffMs(int attempts, AppProperties.Outbox settings) {
+        long exponential = settings.getInitialBackoffMs() << Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(settings.getMaxBackoffMs(), exponential);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
@@ -0,0 +1,150 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.PaymentSlip;
+import com.bms.restaurant_system.entity.RefundJob;
+import com.bms.restaurant_system.entity.Reservation;
+import com.bms.restaurant_system.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records state changes in the outbox as part of the caller's transaction, so an event exists
+ * exactly when its change committed. Notifications, timeline entries and stats are produced from
+ * the events by OutboxRelay, outside the request.
+ */
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order) {
+        record(OutboxEvent.AggregateType.ORDER, order.getId(), OutboxEvent.EventType.CREATED, order.getStatus().name(),
+                userId(order), order.getId(), "Order placed",
+                "Your order #" + order.getId() + " has been placed.");
+    }
+
+    /**
+     * Record an order status change; detail, when given, replaces the default message
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(Order order, String detail) {
+        String label = label(order.getStatus());
+        record(OutboxEvent.AggregateType.ORDER, order.getId(), OutboxEvent.EventType.STATUS_CHANGED, order.getStatus().name(),
+                userId(order), order.getId(), "Order " + label,
+                detail != null ? detail : "Your order #" + order.getId() + " is now " + label + ".");
+    }
+
+    /**
+     * Record a change of the order's payment status, such as cash collected on delivery
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPaymentStatusChanged(Order order, String detail) {
+        String label = label(order.getPaymentStatus());
+        record(OutboxEvent.AggregateType.ORDER, order.getId(), OutboxEvent.EventType.STATUS_CHANGED,
+                "PAYMENT_" + order.getPaymentStatus().name(), userId(order), order.getId(), "Payment " + label,
+                detail != null ? detail : "The payment for your order #" + order.getId() + " is now " + label + ".");
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deliveryStatusChanged(Delivery delivery) {
+        Order order = delivery.getOrder();
+        String label = label(delivery.getStatus());
+        record(OutboxEvent.AggregateType.DELIVERY, delivery.getId(), OutboxEvent.EventType.STATUS_CHANGED, delivery.getStatus().name(),
+                userId(order), order != null ? order.getId() : null, "Delivery " + label,
+                order != null ? "The delivery of your order #" + order.getId() + " is now " + label + "."
+                        : "Your delivery is now " + label + ".");
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentSlipStatusChanged(PaymentSlip paymentSlip, String detail) {
+        Order order = paymentSlip.getOrder();
+        Long userId = paymentSlip.getUser() != null ? paymentSlip.getUser().getId() : userId(order);
+        record(OutboxEvent.AggregateType.PAYMENT_SLIP, paymentSlip.getId(), OutboxEvent.EventType.STATUS_CHANGED,
+                paymentSlip.getStatus().name(), userId, order != null ? order.getId() : null,
+                "Payment " + label(paymentSlip.getStatus()), detail);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refundStatusChanged(RefundJob job, String detail) {
+        Payment payment = job.getPayment();
+        Order order = payment != null ? payment.getOrder() : null;
+        OutboxEvent.EventType eventType = job.getStatus() == RefundJob.RefundStatus.PENDING
+                ? OutboxEvent.EventType.CREATED : OutboxEvent.EventType.STATUS_CHANGED;
+        record(OutboxEvent.AggregateType.REFUND, job.getId(), eventType, job.getStatus().name(),
+                userId(order), order != null ? order.getId() : null, "Refund " + label(job.getStatus()), detail);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reservationCreated(Reservation reservation) {
+        record(OutboxEvent.AggregateType.RESERVATION, reservation.getId(), OutboxEvent.EventType.CREATED,
+                reservation.getStatus().name(), reservation.getUser() != null ? reservation.getUser().getId() : null, null,
+                "Reservation requested", "Your reservation " + describe(reservation) + " has been received.");
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reservationStatusChanged(Reservation reservation) {
+        String label = label(reservation.getStatus());
+        record(OutboxEvent.AggregateType.RESERVATION, reservation.getId(), OutboxEvent.EventType.STATUS_CHANGED,
+                reservation.getStatus().name(), reservation.getUser() != null ? reservation.getUser().getId() : null, null,
+                "Reservation " + label, "Your reservation " + describe(reservation) + " is now " + label + ".");
+    }
+
+    private void record(OutboxEvent.AggregateType aggregateType, Long aggregateId, OutboxEvent.EventType eventType,
+                        String newStatus, Long userId, Long orderId, String title, String message) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setNewStatus(newStatus);
+        event.setUserId(userId);
+        event.setOrderId(orderId);
+        event.setTitle(title);
+        event.setMessage(message);
+        event.setActor(currentActor());
+        outboxEventRepository.save(event);
+
+        // Start the relay as soon as the change is visible instead of waiting for its next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wake();
+                }
+            });
+        }
+    }
+
+    private static Long userId(Order order) {
+        return order != null && order.getUser() != null ? order.getUser().getId() : null;
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static String describe(Reservation reservation) {
+        return "for " + reservation.getNumberOfPeople() + " on " + reservation.getReservationDate()
+                + " at " + reservation.getReservationTime();
+    }
+
+    // OUT_FOR_DELIVERY -> "out for delivery"
+    private static String label(Enum<?> status) {
+        return status.name().toLowerCase().replace('_', ' ');
+    }
+}
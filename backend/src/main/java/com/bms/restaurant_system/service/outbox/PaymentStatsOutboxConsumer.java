@@ -0,0 +1,31 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.service.payment.PaymentStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks payment stats stale when a payment slip is reviewed
+ */
+@Component
+public class PaymentStatsOutboxConsumer implements OutboxConsumer {
+
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
+    @Override
+    public String name() {
+        return "payment-stats";
+    }
+
+    @Override
+    public boolean accepts(OutboxEvent event) {
+        return event.getAggregateType() == OutboxEvent.AggregateType.PAYMENT_SLIP;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        paymentStatsService.markChanged();
+    }
+}
@@ -24,6 +24,9 @@ public class PaymentService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
     public List<PaymentDTO> getAllPayments() {
         return paymentRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -49,6 +52,7 @@ public class PaymentService {
         payment.setSubmittedDate(LocalDateTime.now());
         
         payment = paymentRepository.save(payment);
+        paymentStatsService.markChanged();
         return convertToDTO(payment);
     }
 
@@ -61,6 +65,7 @@ public class PaymentService {
         existingPayment.setSubmittedDate(paymentDTO.submittedDate());
         existingPayment.setApprovedDate(paymentDTO.approvedDate());
         existingPayment = paymentRepository.save(existingPayment);
+        paymentStatsService.markChanged();
         return convertToDTO(existingPayment);
     }
 
@@ -68,6 +73,7 @@ public class PaymentService {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
         paymentRepository.delete(payment);
+        paymentStatsService.markChanged();
     }
 
     public PaymentDTO approvePayment(Long id) {
@@ -76,6 +82,7 @@ public class PaymentService {
         payment.setStatus(Payment.PaymentStatus.COMPLETED);
         payment.setApprovedDate(LocalDateTime.now());
         payment = paymentRepository.save(payment);
+        paymentStatsService.markChanged();
         return convertToDTO(payment);
     }
 
@@ -85,63 +92,10 @@ public class PaymentService {
         payment.setStatus(Payment.PaymentStatus.FAILED);
         payment.setFailureReason(reason);
         payment = paymentRepository.save(payment);
+        paymentStatsService.markChanged();
         return convertToDTO(payment);
     }
 
-    public PaymentDTO processRefund(Long paymentId, BigDecimal refundAmount, String reason) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + paymentId));
-
-        // Validate refund amount
-        if (refundAmount == null || refundAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Refund amount must be greater than zero");
-        }
-
-        if (refundAmount.compareTo(payment.getAmount()) > 0) {
-            throw new IllegalArgumentException("Refund amount cannot exceed original payment amount");
-        }
-
-        // Check if payment can be refunded
-        if (payment.getStatus() != Payment.PaymentStatus.COMPLETED) {
-            throw new IllegalStateException("Only completed payments can be refunded");
-        }
-
-        // Process refund through payment gateway
-        boolean gatewayRefundSuccess = processGatewayRefund(payment, refundAmount);
-
-        if (gatewayRefundSuccess) {
-            // Update payment status
-            if (refundAmount.compareTo(payment.getAmount()) == 0) {
-                payment.setStatus(Payment.PaymentStatus.REFUNDED);
-            } else {
-                payment.setStatus(Payment.PaymentStatus.PARTIALLY_REFUNDED);
-            }
-
-            payment.setRefundAmount(refundAmount);
-            payment.setRefundedDate(LocalDateTime.now());
-            payment.setRefundReason(reason);
-
-            // Update order status if full refund
-            if (refundAmount.compareTo(payment.getAmount()) == 0) {
-                Order order = payment.getOrder();
-                order.setStatus(Order.OrderStatus.REFUNDED);
-                orderRepository.save(order);
-            }
-
-            payment = paymentRepository.save(payment);
-            return convertToDTO(payment);
-        } else {
-            throw new RuntimeException("Payment gateway refund failed");
-        }
-    }
-
-    public PaymentDTO processFullRefund(Long paymentId, String reason) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + paymentId));
-
-        return processRefund(paymentId, payment.getAmount(), reason);
-    }
-
     public BigDecimal calculateRefundAmount(Long orderId, String refundType) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
@@ -187,21 +141,6 @@ public class PaymentService {
         };
     }
 
-    private boolean processGatewayRefund(Payment payment, BigDecimal refundAmount) {
-        // Simulate payment gateway integration
-        // In a real implementation, this would call the actual payment gateway API
-        try {
-            // Simulate gateway processing time
-            Thread.sleep(1000);
-
-            // Simulate success/failure (90% success rate for demo)
-            return Math.random() > 0.1;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
-        }
-    }
-
     private PaymentDTO convertToDTO(Payment payment) {
         return new PaymentDTO(
                 payment.getId(),
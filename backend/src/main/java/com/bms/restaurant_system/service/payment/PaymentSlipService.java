@@ -1,6 +1,10 @@
 package com.bms.restaurant_system.service.payment;
 
 import com.bms.restaurant_system.dto.PaymentSlipDTO;
+import com.bms.restaurant_system.dto.PaymentSlipQueuePageDTO;
+import com.bms.restaurant_system.dto.PaymentSlipReviewRequest;
+import com.bms.restaurant_system.dto.PaymentSlipReviewResultDTO;
+import com.bms.restaurant_system.dto.PaymentStatsDTO;
 import com.bms.restaurant_system.entity.Order;
 import com.bms.restaurant_system.entity.PaymentSlip;
 import com.bms.restaurant_system.entity.User;
@@ -8,22 +12,29 @@ import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.OrderRepository;
 import com.bms.restaurant_system.repository.PaymentSlipRepository;
 import com.bms.restaurant_system.repository.UserRepository;
+import com.bms.restaurant_system.service.outbox.OutboxService;
+import com.bms.restaurant_system.service.storage.BlobStore;
+import com.bms.restaurant_system.service.storage.FileStorageService;
+import com.bms.restaurant_system.service.storage.ThumbnailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,12 +50,20 @@ public class PaymentSlipService {
     @Autowired
     private UserRepository userRepository;
     
-    // Store payment slips in static resources directory (similar to menu images)
-    private static final String PAYMENT_SLIP_DIR = "src/main/resources/static/images/payment-slips/";
+    @Autowired
+    private FileStorageService fileStorageService;
     
-    private String getUploadDir() {
-        return PAYMENT_SLIP_DIR;
-    }
+    @Autowired
+    private ThumbnailService thumbnailService;
+    
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    private static final int DEFAULT_QUEUE_PAGE_SIZE = 20;
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
     
     // User methods
     public PaymentSlipDTO uploadPaymentSlip(Long orderId, Long userId, MultipartFile file, 
@@ -67,40 +86,28 @@ public class PaymentSlipService {
             throw new IllegalArgumentException("Invalid file type. Only JPEG, PNG, and PDF files are allowed");
         }
         
-        // Create upload directory if it doesn't exist
-        String uploadDir = getUploadDir();
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-            logger.info("Created directory: {}", uploadPath);
-        }
-        
-        // Generate unique filename
         String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isEmpty()) {
-            throw new IllegalArgumentException("File name cannot be null or empty");
-        }
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = "payment_slip_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8) + fileExtension;
-        String physicalFilePath = uploadDir + uniqueFilename;
-        
-        // Save file to physical directory
-        Path targetPath = Paths.get(physicalFilePath);
-        Files.copy(file.getInputStream(), targetPath);
-        logger.info("Saved payment slip file to: {}", targetPath);
+        BlobStore.Blob blob = fileStorageService.storePaymentSlip(file, orderId);
         
-        // Store web-accessible URL path in database (similar to menu images)
-        String webAccessiblePath = "/images/payment-slips/" + uniqueFilename;
+        // The same file uploaded again for this order is the same slip, so it is not recorded twice
+        Optional<PaymentSlip> existing = paymentSlipRepository.findFirstByOrderIdAndContentHash(orderId, blob.hash());
+        if (existing.isPresent()) {
+            logger.info("Payment slip for order {} was already uploaded as slip {}", orderId, existing.get().getId());
+            return convertToDTO(existing.get());
+        }
         
         // Create payment slip entity
-        PaymentSlip paymentSlip = new PaymentSlip(order, user, originalFilename, webAccessiblePath, 
+        PaymentSlip paymentSlip = new PaymentSlip(order, user, originalFilename, blob.url(), 
                                                 paymentAmount, paymentDate);
-        paymentSlip.setFileSize(file.getSize());
+        paymentSlip.setFileSize(blob.size());
+        paymentSlip.setContentHash(blob.hash());
         paymentSlip.setContentType(contentType);
         paymentSlip.setBankName(bankName);
         paymentSlip.setTransactionReference(transactionReference);
+        paymentSlip.setThumbnailPath(thumbnailFor(blob, contentType));
         
         paymentSlip = paymentSlipRepository.save(paymentSlip);
+        paymentStatsService.markChanged();
         return convertToDTO(paymentSlip);
     }
     
@@ -142,16 +149,106 @@ public class PaymentSlipService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * One page of the review queue, oldest first. cursor is the nextCursor of the previous page, or null for the first.
+     * Pages are keyed on (uploadedAt, id), so slips reviewed between requests do not shift later pages.
+     */
+    public PaymentSlipQueuePageDTO getReviewQueue(PaymentSlip.PaymentSlipStatus status, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_QUEUE_PAGE_SIZE : Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        // One extra row tells whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<PaymentSlip> slips;
+        if (cursor == null || cursor.isBlank()) {
+            slips = paymentSlipRepository.findReviewQueue(status, limit);
+        } else {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                slips = paymentSlipRepository.findReviewQueueAfter(status,
+                        LocalDateTime.parse(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)), limit);
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        
+        boolean hasMore = slips.size() > pageSize;
+        if (hasMore) {
+            slips = slips.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            PaymentSlip last = slips.get(slips.size() - 1);
+            nextCursor = last.getUploadedAt() + "_" + last.getId();
+        }
+        return new PaymentSlipQueuePageDTO(
+                slips.stream().map(this::convertToDTO).collect(Collectors.toList()), nextCursor, hasMore);
+    }
+    
+    /**
+     * Confirm or reject a batch of slips in one transaction.
+     * Slips that cannot take the requested action are reported in failed and left unchanged.
+     */
+    @Transactional
+    public PaymentSlipReviewResultDTO reviewPaymentSlips(PaymentSlipReviewRequest request) {
+        if (request == null || request.decisions() == null || request.decisions().isEmpty()) {
+            throw new IllegalArgumentException("At least one decision is required");
+        }
+        if (request.decisions().size() > MAX_QUEUE_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_QUEUE_PAGE_SIZE + " slips can be reviewed at once");
+        }
+        String adminUsername = request.adminUsername();
+        Map<Long, PaymentSlip> slips = paymentSlipRepository.findAllByIdWithOrderAndUser(
+                        request.decisions().stream().map(PaymentSlipReviewRequest.Decision::id).toList())
+                .stream()
+                .collect(Collectors.toMap(PaymentSlip::getId, Function.identity()));
+        
+        List<PaymentSlipDTO> reviewed = new ArrayList<>();
+        Map<Long, String> failed = new LinkedHashMap<>();
+        for (PaymentSlipReviewRequest.Decision decision : request.decisions()) {
+            PaymentSlip paymentSlip = slips.get(decision.id());
+            if (paymentSlip == null) {
+                failed.put(decision.id(), "Payment slip not found");
+                continue;
+            }
+            try {
+                String action = decision.action() == null ? "" : decision.action().toUpperCase();
+                switch (action) {
+                    case "CONFIRM" -> applyConfirmation(paymentSlip, adminUsername, decision.notes());
+                    case "REJECT" -> {
+                        if (decision.reason() == null || decision.reason().isBlank()) {
+                            throw new IllegalArgumentException("Rejection reason is required");
+                        }
+                        applyRejection(paymentSlip, adminUsername, decision.reason(), decision.notes());
+                    }
+                    default -> throw new IllegalArgumentException("Unknown action: " + decision.action());
+                }
+                reviewed.add(convertToDTO(paymentSlip));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                failed.put(decision.id(), e.getMessage());
+            }
+        }
+        logger.info("Admin {} reviewed {} payment slips ({} failed)", adminUsername, reviewed.size(), failed.size());
+        return new PaymentSlipReviewResultDTO(reviewed, failed);
+    }
+    
+    @Transactional
     public PaymentSlipDTO confirmPaymentSlip(Long id, String adminUsername, String notes) {
         PaymentSlip paymentSlip = paymentSlipRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment slip not found with id: " + id));
         
+        applyConfirmation(paymentSlip, adminUsername, notes);
+        return convertToDTO(paymentSlip);
+    }
+    
+    private void applyConfirmation(PaymentSlip paymentSlip, String adminUsername, String notes) {
+        Long id = paymentSlip.getId();
         if (!paymentSlip.canBeConfirmed()) {
             throw new IllegalStateException("Payment slip cannot be confirmed in current status: " + paymentSlip.getStatus());
         }
         
         paymentSlip.confirm(adminUsername, notes);
-        paymentSlip = paymentSlipRepository.save(paymentSlip);
+        paymentSlipRepository.save(paymentSlip);
+        outboxService.paymentSlipStatusChanged(paymentSlip, "Payment was verified by admin: " + adminUsername);
         logger.info("Payment slip confirmed with ID: {} by admin: {}", id, adminUsername);
         
         // Update order payment status
@@ -159,52 +256,45 @@ public class PaymentSlipService {
         if (order != null) {
             order.setStatus(Order.OrderStatus.CONFIRMED);
             order.setPaymentStatus(Order.PaymentStatus.PAID);
-            order.addTrackingUpdate(
-                "payment_confirmed",
-                "Payment Confirmed",
-                "Payment was verified by admin: " + adminUsername,
-                true
-            );
             orderRepository.save(order);
             logger.info("Updated order status to CONFIRMED for order ID: {}", order.getId());
         } else {
             logger.warn("No order found for payment slip ID: {}", id);
         }
-        
-        return convertToDTO(paymentSlip);
     }
     
+    @Transactional
     public PaymentSlipDTO rejectPaymentSlip(Long id, String adminUsername, String reason, String notes) {
         PaymentSlip paymentSlip = paymentSlipRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment slip not found with id: " + id));
         
+        applyRejection(paymentSlip, adminUsername, reason, notes);
+        return convertToDTO(paymentSlip);
+    }
+    
+    private void applyRejection(PaymentSlip paymentSlip, String adminUsername, String reason, String notes) {
+        Long id = paymentSlip.getId();
         if (!paymentSlip.canBeRejected()) {
             throw new IllegalStateException("Payment slip cannot be rejected in current status: " + paymentSlip.getStatus());
         }
         
         paymentSlip.reject(adminUsername, reason, notes);
-        paymentSlip = paymentSlipRepository.save(paymentSlip);
+        paymentSlipRepository.save(paymentSlip);
+        outboxService.paymentSlipStatusChanged(paymentSlip, "Payment verification failed: " + reason);
         logger.info("Payment slip rejected with ID: {} by admin: {}", id, adminUsername);
         
         // Update order payment status
         Order order = paymentSlip.getOrder();
         if (order != null) {
             order.setPaymentStatus(Order.PaymentStatus.FAILED);
-            order.addTrackingUpdate(
-                "payment_rejected",
-                "Payment Rejected",
-                "Payment verification failed: " + reason,
-                false
-            );
             orderRepository.save(order);
             logger.info("Updated order payment status to FAILED for order ID: {}", order.getId());
         } else {
             logger.warn("No order found for payment slip ID: {}", id);
         }
-        
-        return convertToDTO(paymentSlip);
     }
     
+    @Transactional
     public PaymentSlipDTO updatePaymentSlipStatus(Long id, String statusString, String adminUsername, String rejectionReason) {
         PaymentSlip paymentSlip = paymentSlipRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment slip not found with id: " + id));
@@ -227,6 +317,12 @@ public class PaymentSlipService {
             }
             
             paymentSlip = paymentSlipRepository.save(paymentSlip);
+            outboxService.paymentSlipStatusChanged(paymentSlip, switch (newStatus) {
+                case CONFIRMED -> "Payment verified and confirmed by " + adminUsername;
+                case REJECTED -> rejectionReason != null && !rejectionReason.isEmpty() ? rejectionReason : "Payment verification failed";
+                case PROCESSING -> "Payment verification in progress";
+                case PENDING -> "Payment is awaiting verification";
+            });
             logger.info("Payment slip {} status updated to {} by admin: {}", id, newStatus, adminUsername);
             
             // Update order payment status based on payment slip status
@@ -235,19 +331,11 @@ public class PaymentSlipService {
                 switch (newStatus) {
                     case CONFIRMED:
                         order.setPaymentStatus(Order.PaymentStatus.PAID);
-                        order.addTrackingUpdate("payment_confirmed", "Payment Confirmed", 
-                            "Payment verified and confirmed by " + adminUsername, false);
                         break;
                     case REJECTED:
                         order.setPaymentStatus(Order.PaymentStatus.FAILED);
-                        String reason = rejectionReason != null && !rejectionReason.isEmpty() ? rejectionReason : "Payment verification failed";
-                        order.addTrackingUpdate("payment_rejected", "Payment Rejected", reason, false);
                         break;
                     case PROCESSING:
-                        order.setPaymentStatus(Order.PaymentStatus.PENDING);
-                        order.addTrackingUpdate("payment_processing", "Payment Processing", 
-                            "Payment verification in progress", false);
-                        break;
                     case PENDING:
                         order.setPaymentStatus(Order.PaymentStatus.PENDING);
                         break;
@@ -266,33 +354,30 @@ public class PaymentSlipService {
         PaymentSlip paymentSlip = paymentSlipRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment slip not found with id: " + id));
         
-        // Delete physical file
-        try {
-            Path filePath = Paths.get(paymentSlip.getFilePath());
-            boolean deleted = Files.deleteIfExists(filePath);
-            if (deleted) {
-                logger.info("Deleted file: {}", filePath);
-            } else {
-                logger.warn("File not found for deletion: {}", filePath);
+        // Delete the physical file unless another slip shares it
+        String contentHash = paymentSlip.getContentHash();
+        if (contentHash == null || paymentSlipRepository.countByContentHash(contentHash) <= 1) {
+            fileStorageService.deleteFile(paymentSlip.getFilePath());
+            if (paymentSlip.getThumbnailPath() != null) {
+                fileStorageService.deleteFile(paymentSlip.getThumbnailPath());
             }
-        } catch (IOException e) {
-            // Log error but don't fail the operation
-            logger.error("Failed to delete file: {}", paymentSlip.getFilePath(), e);
         }
         
         // Delete from database
         paymentSlipRepository.delete(paymentSlip);
+        paymentStatsService.markChanged();
         logger.info("Deleted payment slip record with ID: {}", id);
     }
     
     public Map<String, Object> getPaymentSlipStatistics() {
+        Map<String, PaymentStatsDTO.StatusTotals> slips = paymentStatsService.getSnapshot().paymentSlips();
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalPaymentSlips", paymentSlipRepository.count());
-        stats.put("pendingPaymentSlips", paymentSlipRepository.countByStatus(PaymentSlip.PaymentSlipStatus.PENDING));
-        stats.put("confirmedPaymentSlips", paymentSlipRepository.countByStatus(PaymentSlip.PaymentSlipStatus.CONFIRMED));
-        stats.put("rejectedPaymentSlips", paymentSlipRepository.countByStatus(PaymentSlip.PaymentSlipStatus.REJECTED));
-        stats.put("processingPaymentSlips", paymentSlipRepository.countByStatus(PaymentSlip.PaymentSlipStatus.PROCESSING));
+        stats.put("totalPaymentSlips", slips.values().stream().mapToLong(PaymentStatsDTO.StatusTotals::count).sum());
+        stats.put("pendingPaymentSlips", slips.get(PaymentSlip.PaymentSlipStatus.PENDING.name()).count());
+        stats.put("confirmedPaymentSlips", slips.get(PaymentSlip.PaymentSlipStatus.CONFIRMED.name()).count());
+        stats.put("rejectedPaymentSlips", slips.get(PaymentSlip.PaymentSlipStatus.REJECTED.name()).count());
+        stats.put("processingPaymentSlips", slips.get(PaymentSlip.PaymentSlipStatus.PROCESSING.name()).count());
         
         return stats;
     }
@@ -307,6 +392,15 @@ public class PaymentSlipService {
         );
     }
     
+    // Reuse the preview of an identical earlier upload; PDFs get none
+    private String thumbnailFor(BlobStore.Blob blob, String contentType) {
+        if (!contentType.startsWith("image/")) {
+            return null;
+        }
+        List<String> existing = paymentSlipRepository.findThumbnailPathsByContentHash(blob.hash(), Limit.of(1));
+        return existing.isEmpty() ? thumbnailService.createThumbnail(blob.path()) : existing.get(0);
+    }
+    
     private PaymentSlipDTO convertToDTO(PaymentSlip paymentSlip) {
         return new PaymentSlipDTO(
             paymentSlip.getId(),
@@ -326,7 +420,8 @@ public class PaymentSlipService {
             paymentSlip.getRejectionReason(),
             paymentSlip.getAdminNotes(),
             paymentSlip.getBankName(),
-            paymentSlip.getTransactionReference()
+            paymentSlip.getTransactionReference(),
+            paymentSlip.getThumbnailPath()
         );
     }
 }
\ No newline at end of file
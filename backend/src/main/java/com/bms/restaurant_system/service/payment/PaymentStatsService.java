@@ -0,0 +1,196 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.PaymentStatsDTO;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.PaymentSlip;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.PaymentSlipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts, sums and per-day histograms for payments and payment slips.
+ * Each rebuild runs one query per table, grouped by day and status; totals and histograms are
+ * both folded from those rows. Dashboards read the last snapshot, which is rebuilt shortly after
+ * a payment or slip write commits, and at least every app.payment-stats.max-age-ms for writes
+ * made outside the services, such as manual SQL.
+ */
+@Service
+public class PaymentStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatsService.class);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentSlipRepository paymentSlipRepository;
+
+    // Bumped by every committed write; a snapshot built at an older version is stale
+    private final AtomicLong changes = new AtomicLong(1);
+    private volatile PaymentStatsDTO snapshot;
+
+    public PaymentStatsDTO getSnapshot() {
+        PaymentStatsDTO current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Record that payments or slips changed, once the surrounding transaction commits
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.incrementAndGet();
+                }
+            });
+        } else {
+            changes.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment-stats.refresh-interval-ms:5000}")
+    public void refreshIfStale() {
+        PaymentStatsDTO current = snapshot;
+        if (current == null || current.version() != changes.get()
+                || Duration.between(current.generatedAt(), LocalDateTime.now()).toMillis() >= appProperties.getPaymentStats().getMaxAgeMs()) {
+            refresh();
+        }
+    }
+
+    synchronized PaymentStatsDTO refresh() {
+        // Read the version first, so a write committed while the queries run triggers another rebuild
+        long version = changes.get();
+        PaymentStatsDTO current = snapshot;
+        if (current != null && current.version() == version && snapshotIsFresh(current)) {
+            return current;
+        }
+
+        LocalDate firstDay = LocalDate.now().minusDays(appProperties.getPaymentStats().getHistogramDays() - 1L);
+        TreeMap<LocalDate, DayTotals> days = new TreeMap<>();
+        for (LocalDate day = firstDay; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            days.put(day, new DayTotals());
+        }
+
+        Map<Payment.PaymentStatus, Totals> payments = new EnumMap<>(Payment.PaymentStatus.class);
+        BigDecimal refunded = BigDecimal.ZERO;
+        // Rows: [day, status, count, amount, refundAmount]
+        for (Object[] row : paymentRepository.summarizeByDayAndStatus()) {
+            Payment.PaymentStatus status = (Payment.PaymentStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            BigDecimal amount = decimal(row[3]);
+            BigDecimal refundAmount = decimal(row[4]);
+            payments.computeIfAbsent(status, s -> new Totals()).add(count, amount);
+            refunded = refunded.add(refundAmount);
+
+            DayTotals day = dayOf(days, row[0]);
+            if (day != null) {
+                day.payments += count;
+                day.paymentAmount = day.paymentAmount.add(amount);
+                day.refundedAmount = day.refundedAmount.add(refundAmount);
+                if (status == Payment.PaymentStatus.COMPLETED) {
+                    day.completedAmount = day.completedAmount.add(amount);
+                }
+            }
+        }
+
+        Map<PaymentSlip.PaymentSlipStatus, Totals> slips = new EnumMap<>(PaymentSlip.PaymentSlipStatus.class);
+        // Rows: [day, status, count, paymentAmount]
+        for (Object[] row : paymentSlipRepository.summarizeByDayAndStatus()) {
+            PaymentSlip.PaymentSlipStatus status = (PaymentSlip.PaymentSlipStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            BigDecimal amount = decimal(row[3]);
+            slips.computeIfAbsent(status, s -> new Totals()).add(count, amount);
+
+            DayTotals day = dayOf(days, row[0]);
+            if (day != null) {
+                day.slips += count;
+                day.slipAmount = day.slipAmount.add(amount);
+                if (status == PaymentSlip.PaymentSlipStatus.CONFIRMED) {
+                    day.confirmedSlipAmount = day.confirmedSlipAmount.add(amount);
+                }
+            }
+        }
+
+        List<PaymentStatsDTO.Day> daily = new ArrayList<>(days.size());
+        days.forEach((date, totals) -> daily.add(new PaymentStatsDTO.Day(date, totals.payments, totals.paymentAmount,
+                totals.completedAmount, totals.refundedAmount, totals.slips, totals.slipAmount, totals.confirmedSlipAmount)));
+        Totals completed = payments.getOrDefault(Payment.PaymentStatus.COMPLETED, new Totals());
+
+        PaymentStatsDTO rebuilt = new PaymentStatsDTO(version, LocalDateTime.now(),
+                byName(payments, Payment.PaymentStatus.values()),
+                byName(slips, PaymentSlip.PaymentSlipStatus.values()),
+                completed.amount, refunded, List.copyOf(daily));
+        snapshot = rebuilt;
+        logger.debug("Payment stats snapshot rebuilt at version {}", version);
+        return rebuilt;
+    }
+
+    private boolean snapshotIsFresh(PaymentStatsDTO current) {
+        return Duration.between(current.generatedAt(), LocalDateTime.now()).toMillis() < appProperties.getPaymentStats().getMaxAgeMs();
+    }
+
+    // Every status is listed, with zeros where there are no rows, so dashboards need no null checks
+    private static <S extends Enum<S>> Map<String, PaymentStatsDTO.StatusTotals> byName(Map<S, Totals> totals, S[] statuses) {
+        Map<String, PaymentStatsDTO.StatusTotals> result = new LinkedHashMap<>();
+        for (S status : statuses) {
+            Totals value = totals.getOrDefault(status, new Totals());
+            result.put(status.name(), new PaymentStatsDTO.StatusTotals(value.count, value.amount));
+        }
+        return result;
+    }
+
+    // Rows without a submission date count towards the totals but have no place in the histogram
+    private static DayTotals dayOf(TreeMap<LocalDate, DayTotals> days, Object date) {
+        return date != null ? days.get((LocalDate) date) : null;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static final class Totals {
+        long count;
+        BigDecimal amount = BigDecimal.ZERO;
+
+        void add(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+    }
+
+    private static final class DayTotals {
+        long payments;
+        BigDecimal paymentAmount = BigDecimal.ZERO;
+        BigDecimal completedAmount = BigDecimal.ZERO;
+        BigDecimal refundedAmount = BigDecimal.ZERO;
+        long slips;
+        BigDecimal slipAmount = BigDecimal.ZERO;
+        BigDecimal confirmedSlipAmount = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bms.restaurant_system.service.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment provider that returns money to the customer.
+ * Calls may block and are made from background refund workers, never from request threads.
+ */
+public interface RefundGateway {
+
+    /**
+     * Refund an amount against a payment. Repeating a call with the same idempotency key must not
+     * refund twice; it returns the reference of the refund already made.
+     *
+     * @return the gateway's reference for the refund
+     * @throws DeclinedException when the gateway refuses the refund and retrying cannot help
+     * @throws RuntimeException for transient failures such as timeouts, which are retried
+     */
+    String refund(String idempotencyKey, Long paymentId, String gatewayTransactionId, BigDecimal amount);
+
+    class DeclinedException extends RuntimeException {
+        public DeclinedException(String message) {
+            super(message);
+        }
+    }
+}
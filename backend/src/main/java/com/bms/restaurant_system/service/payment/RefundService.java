@@ -0,0 +1,349 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.RefundJobDTO;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.RefundJob;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.RefundJobRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.service.outbox.OutboxService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Refunds as background jobs.
+ * A request only validates and stores the job; the gateway is called from a virtual thread outside
+ * any transaction, so no request thread or database connection waits on it. Transient failures are
+ * retried with exponential backoff, and the request and its outcome are recorded in the outbox with
+ * the job, so the customer hears about them once they commit.
+ */
+@Service
+public class RefundService {
+    private static final Logger logger = LoggerFactory.getLogger(RefundService.class);
+
+    private static final List<RefundJob.RefundStatus> ACTIVE_STATUSES = List.of(
+            RefundJob.RefundStatus.PENDING,
+            RefundJob.RefundStatus.PROCESSING);
+
+    @Autowired
+    private AppProperties appProperties;
+
+    @Autowired
+    private RefundJobRepository refundJobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OrderTrackingStreamService orderTrackingStreamService;
+
+    @Autowired
+    private RefundGateway refundGateway;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Gateway calls block, so each job gets its own virtual thread
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    private record Attempt(String idempotencyKey, Long paymentId, String gatewayTransactionId,
+                           BigDecimal amount, int attempts) {}
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue a refund of a completed payment; a null amount refunds it in full.
+     * Repeating a request with the same idempotency key returns the job it created.
+     */
+    @Transactional
+    public RefundJobDTO requestRefund(Long paymentId, BigDecimal amount, String reason, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            if (idempotencyKey.length() > 100) {
+                throw new IllegalArgumentException("Idempotency key must be at most 100 characters");
+            }
+            Optional<RefundJob> existing = refundJobRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                if (!existing.get().getPayment().getId().equals(paymentId)) {
+                    throw new IllegalArgumentException("Idempotency key was already used for another payment");
+                }
+                return convertToDTO(existing.get());
+            }
+        } else {
+            idempotencyKey = UUID.randomUUID().toString();
+        }
+
+        // Locking the payment keeps two refunds with different keys from both passing the checks
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + paymentId));
+        BigDecimal refundAmount = amount != null ? amount : payment.getAmount();
+
+        if (refundAmount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Refund amount must be greater than zero");
+        }
+        if (refundAmount.compareTo(payment.getAmount()) > 0) {
+            throw new IllegalArgumentException("Refund amount cannot exceed original payment amount");
+        }
+        if (!payment.canBeRefunded()) {
+            throw new IllegalStateException("Only completed payments can be refunded");
+        }
+        if (refundJobRepository.existsByPaymentIdAndStatusIn(paymentId, ACTIVE_STATUSES)) {
+            throw new IllegalStateException("A refund is already in progress for this payment");
+        }
+
+        RefundJob job = new RefundJob();
+        job.setPayment(payment);
+        job.setIdempotencyKey(idempotencyKey);
+        job.setAmount(refundAmount);
+        job.setReason(reason);
+        job.setStatus(RefundJob.RefundStatus.PENDING);
+        job = refundJobRepository.save(job);
+        Order order = payment.getOrder();
+        outboxService.refundStatusChanged(job, "Your refund of LKR " + refundAmount + " for order #"
+                + order.getId() + " has been requested.");
+
+        Long jobId = job.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(jobId);
+            }
+        });
+        logger.info("Refund job {} queued for payment {}: {}", jobId, paymentId, refundAmount);
+        return convertToDTO(job);
+    }
+
+    public RefundJobDTO getRefundJob(Long jobId) {
+        return refundJobRepository.findById(jobId)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + jobId));
+    }
+
+    public RefundJobDTO getRefundJobByIdempotencyKey(String idempotencyKey) {
+        return refundJobRepository.findByIdempotencyKey(idempotencyKey)
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found for key: " + idempotencyKey));
+    }
+
+    public List<RefundJobDTO> getRefundJobsForPayment(Long paymentId) {
+        return refundJobRepository.findByPaymentIdOrderByCreatedAtDesc(paymentId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Jobs a shutdown interrupted go back in the queue before due jobs are resumed
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int requeued = transactionTemplate.execute(status -> refundJobRepository.requeueInterrupted(
+                RefundJob.RefundStatus.PENDING, RefundJob.RefundStatus.PROCESSING, LocalDateTime.now()));
+        if (requeued > 0) {
+            logger.info("Requeued {} interrupted refund jobs", requeued);
+        }
+        resumeDueJobs();
+    }
+
+    @Scheduled(initialDelayString = "${app.refund.recovery-interval-ms:30000}",
+               fixedDelayString = "${app.refund.recovery-interval-ms:30000}")
+    public void resumeDueJobs() {
+        for (Long jobId : refundJobRepository.findDueJobIds(RefundJob.RefundStatus.PENDING, LocalDateTime.now())) {
+            submit(jobId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void submit(Long jobId) {
+        if (running.add(jobId)) {
+            workers.submit(() -> {
+                try {
+                    process(jobId);
+                } catch (RuntimeException e) {
+                    logger.error("Refund job {} stopped unexpectedly, it will be resumed: {}", jobId, e.getMessage());
+                } finally {
+                    running.remove(jobId);
+                }
+            });
+        }
+    }
+
+    void process(Long jobId) {
+        AppProperties.Refund settings = appProperties.getRefund();
+        while (true) {
+            Attempt attempt = transactionTemplate.execute(status -> claim(jobId));
+            if (attempt == null) {
+                return;
+            }
+            try {
+                String reference = refundGateway.refund(attempt.idempotencyKey(), attempt.paymentId(),
+                        attempt.gatewayTransactionId(), attempt.amount());
+                transactionTemplate.executeWithoutResult(status -> complete(jobId, reference));
+                return;
+            } catch (RefundGateway.DeclinedException e) {
+                transactionTemplate.executeWithoutResult(status -> fail(jobId, e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt.attempts() >= settings.getMaxAttempts()) {
+                    transactionTemplate.executeWithoutResult(status -> fail(jobId, e.getMessage()));
+                    return;
+                }
+                long delayMs = backoffMs(attempt.attempts(), settings);
+                logger.warn("Refund job {} attempt {} failed, retrying in {}ms: {}",
+                        jobId, attempt.attempts(), delayMs, e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> reschedule(jobId, e.getMessage(), delayMs));
+                try {
+                    // Sleeping parks only this virtual thread
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Attempt claim(Long jobId) {
+        int claimed = refundJobRepository.claim(jobId, RefundJob.RefundStatus.PENDING,
+                RefundJob.RefundStatus.PROCESSING, LocalDateTime.now());
+        if (claimed == 0) {
+            return null;
+        }
+        RefundJob job = refundJobRepository.findByIdWithPayment(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + jobId));
+        Payment payment = job.getPayment();
+        return new Attempt(job.getIdempotencyKey(), payment.getId(), payment.getGatewayTransactionId(),
+                job.getAmount(), job.getAttempts());
+    }
+
+    private void complete(Long jobId, String reference) {
+        RefundJob job = refundJobRepository.findByIdWithPayment(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + jobId));
+        Payment payment = job.getPayment();
+        payment.processRefund(job.getAmount());
+        payment.setRefundReason(job.getReason());
+        paymentRepository.save(payment);
+        paymentStatsService.markChanged();
+
+        job.setStatus(RefundJob.RefundStatus.SUCCEEDED);
+        job.setGatewayReference(reference);
+        job.setLastError(null);
+        job.setCompletedAt(LocalDateTime.now());
+        refundJobRepository.save(job);
+
+        // A full refund also refunds the order; that one event tells the customer about both
+        Order order = payment.getOrder();
+        String message = "Your refund of LKR " + job.getAmount() + " for order #" + order.getId() + " has been processed.";
+        if (payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+            order.setStatus(Order.OrderStatus.REFUNDED);
+            orderRepository.save(order);
+            outboxService.orderStatusChanged(order, message);
+            orderTrackingStreamService.publishStatus(order.getId(), order.getStatus(),
+                    order.getDelivery() != null ? order.getDelivery().getId() : null,
+                    order.getDelivery() != null ? order.getDelivery().getStatus() : null);
+        } else {
+            outboxService.refundStatusChanged(job, message);
+        }
+        logger.info("Refund job {} succeeded with reference {}", jobId, reference);
+    }
+
+    private void fail(Long jobId, String error) {
+        RefundJob job = refundJobRepository.findByIdWithPayment(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + jobId));
+        job.setStatus(RefundJob.RefundStatus.FAILED);
+        job.setLastError(truncate(error));
+        job.setCompletedAt(LocalDateTime.now());
+        refundJobRepository.save(job);
+
+        Order order = job.getPayment().getOrder();
+        outboxService.refundStatusChanged(job,
+                "Your refund of LKR " + job.getAmount() + " for order #" + order.getId()
+                        + " could not be completed. Our team will contact you.");
+        logger.error("Refund job {} failed after {} attempts: {}", jobId, job.getAttempts(), error);
+    }
+
+    private void reschedule(Long jobId, String error, long delayMs) {
+        RefundJob job = refundJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Refund job not found with id: " + jobId));
+        job.setStatus(RefundJob.RefundStatus.PENDING);
+        job.setLastError(truncate(error));
+        // Whole seconds, so a DATETIME column cannot round the due time past the worker's wake-up
+        job.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000).truncatedTo(ChronoUnit.SECONDS));
+        refundJobRepository.save(job);
+    }
+
+    // Exponential backoff with jitter, so retries of jobs that failed together spread out
+    static long backoffMs(int attempts, AppProperties.Refund settings) {
+        long exponential = settings.getInitialBackoffMs() << Math.min(attempts - 1, 20);
+        long capped = Math.min(settings.getMaxBackoffMs(), exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private RefundJobDTO convertToDTO(RefundJob job) {
+        return new RefundJobDTO(
+                job.getId(),
+                job.getPayment().getId(),
+                job.getIdempotencyKey(),
+                job.getAmount(),
+                job.getReason(),
+                job.getStatus().name(),
+                job.getAttempts(),
+                job.getNextAttemptAt(),
+                job.getLastError(),
+                job.getGatewayReference(),
+                job.getCreatedAt(),
+                job.getCompletedAt()
+        );
+    }
+}
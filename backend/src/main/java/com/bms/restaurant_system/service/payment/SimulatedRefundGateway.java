@@ -0,0 +1,44 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a real payment gateway.
+ * Responds after a configurable delay and fails a share of calls with a transient error.
+ * A real gateway replaces it by registering a @Primary RefundGateway bean.
+ */
+@Component
+public class SimulatedRefundGateway implements RefundGateway {
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final Map<String, String> completed = new ConcurrentHashMap<>();
+
+    @Override
+    public String refund(String idempotencyKey, Long paymentId, String gatewayTransactionId, BigDecimal amount) {
+        String previous = completed.get(idempotencyKey);
+        if (previous != null) {
+            return previous;
+        }
+        AppProperties.Refund settings = appProperties.getRefund();
+        try {
+            Thread.sleep(settings.getSimulatedLatencyMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Refund call interrupted", e);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < settings.getSimulatedFailureRate()) {
+            throw new IllegalStateException("Simulated gateway timeout");
+        }
+        return completed.computeIfAbsent(idempotencyKey, key -> "SIM-RF-" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,181 @@
+package com.bms.restaurant_system.service.payment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory hash indexes over open slips and payments, built once per statement.
+ * Each statement line is looked up by reference first, then by amount and booking date,
+ * so matching a whole statement costs a couple of map lookups per line instead of a query.
+ * A slip or payment is matched at most once.
+ */
+class StatementMatcher {
+
+    enum Kind { SLIP, PAYMENT }
+
+    enum Outcome {
+        // Reference and amount agree
+        EXACT,
+        // No usable reference, but exactly one open record has this amount around this date
+        AMOUNT_AND_DATE,
+        // The reference is known but the amount differs
+        AMOUNT_MISMATCH,
+        // Several open records have this amount around this date, or the reference names records of different orders
+        AMBIGUOUS,
+        UNMATCHED
+    }
+
+    static final class Candidate {
+        final Kind kind;
+        final Long id;
+        final Long orderId;
+        final long cents;
+        final long epochDay;
+        boolean matched;
+
+        Candidate(Kind kind, Long id, Long orderId, long cents, long epochDay) {
+            this.kind = kind;
+            this.id = id;
+            this.orderId = orderId;
+            this.cents = cents;
+            this.epochDay = epochDay;
+        }
+    }
+
+    /**
+     * Result for one line; matches holds at most one slip and one payment, which are the same money for the same order
+     */
+    record Match(Outcome outcome, List<Candidate> matches) {
+        Long idOf(Kind kind) {
+            for (Candidate candidate : matches) {
+                if (candidate.kind == kind) {
+                    return candidate.id;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record AmountDay(long cents, long epochDay) {}
+
+    // Bank booking dates can trail the customer's payment date by a day, or lead it across midnight
+    private static final long[] DAY_OFFSETS = {0, -1, 1};
+
+    private final Map<String, List<Candidate>> byReference = new HashMap<>();
+    private final Map<AmountDay, List<Candidate>> byAmountDay = new HashMap<>();
+
+    void add(Kind kind, Long id, Long orderId, BigDecimal amount, LocalDate date, String... references) {
+        if (amount == null) {
+            return;
+        }
+        Candidate candidate = new Candidate(kind, id, orderId, toCents(amount), date != null ? date.toEpochDay() : Long.MIN_VALUE);
+        for (String reference : references) {
+            String key = normalizeReference(reference);
+            if (key != null) {
+                byReference.computeIfAbsent(key, k -> new ArrayList<>(1)).add(candidate);
+            }
+        }
+        if (date != null) {
+            byAmountDay.computeIfAbsent(new AmountDay(candidate.cents, candidate.epochDay), k -> new ArrayList<>(1))
+                    .add(candidate);
+        }
+    }
+
+    Match match(String reference, BigDecimal amount, LocalDate date) {
+        long cents = toCents(amount);
+        String key = normalizeReference(reference);
+        if (key != null) {
+            List<Candidate> sameReference = byReference.get(key);
+            if (sameReference != null) {
+                Match claimed = claimOnePerKind(sameReference, cents);
+                if (claimed != null) {
+                    return claimed;
+                }
+                if (sameReference.stream().anyMatch(candidate -> !candidate.matched)) {
+                    return new Match(Outcome.AMOUNT_MISMATCH, List.of());
+                }
+            }
+        }
+        if (date == null) {
+            return new Match(Outcome.UNMATCHED, List.of());
+        }
+        for (long offset : DAY_OFFSETS) {
+            List<Candidate> sameAmount = byAmountDay.get(new AmountDay(cents, date.toEpochDay() + offset));
+            if (sameAmount == null) {
+                continue;
+            }
+            List<Candidate> open = sameAmount.stream().filter(candidate -> !candidate.matched).toList();
+            if (open.size() == 1) {
+                open.get(0).matched = true;
+                return new Match(Outcome.AMOUNT_AND_DATE, open);
+            }
+            if (open.size() > 1) {
+                return new Match(Outcome.AMBIGUOUS, List.of());
+            }
+        }
+        return new Match(Outcome.UNMATCHED, List.of());
+    }
+
+    /**
+     * Claims one open slip and one open payment with this amount, but only when they belong to the same order;
+     * a line that would pay two different orders is left for review. Returns null when nothing has this amount.
+     */
+    private static Match claimOnePerKind(List<Candidate> candidates, long cents) {
+        Candidate slip = null;
+        List<Candidate> payments = new ArrayList<>(1);
+        for (Candidate candidate : candidates) {
+            if (candidate.matched || candidate.cents != cents) {
+                continue;
+            }
+            if (candidate.kind == Kind.PAYMENT) {
+                payments.add(candidate);
+            } else if (slip == null) {
+                slip = candidate;
+            }
+        }
+        if (slip == null && payments.isEmpty()) {
+            return null;
+        }
+        if (slip == null || payments.isEmpty()) {
+            return claim(slip != null ? slip : payments.get(0));
+        }
+        for (Candidate payment : payments) {
+            if (slip.orderId != null && slip.orderId.equals(payment.orderId)) {
+                return claim(slip, payment);
+            }
+        }
+        return new Match(Outcome.AMBIGUOUS, List.of());
+    }
+
+    private static Match claim(Candidate... candidates) {
+        for (Candidate candidate : candidates) {
+            candidate.matched = true;
+        }
+        return new Match(Outcome.EXACT, List.of(candidates));
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    // References are compared without case, spaces or punctuation, as banks reformat them freely
+    static String normalizeReference(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(reference.length());
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        // Very short references like "1" would match unrelated records
+        return key.length() >= 4 ? key.toString() : null;
+    }
+}
@@ -0,0 +1,351 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.dto.PaymentSlipReviewRequest;
+import com.bms.restaurant_system.dto.StatementLineDTO;
+import com.bms.restaurant_system.dto.StatementReconciliationDTO;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.PaymentSlip;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.PaymentSlipRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Matches a bank statement against open payment slips and payments.
+ * Open records are loaded once into a {@link StatementMatcher}, then the CSV is streamed line by line,
+ * so a statement of any length is matched with constant memory per line and no per-line queries.
+ * Exact matches (same reference and amount) are confirmed in batches while the file is read;
+ * everything else is returned for an admin to review.
+ */
+@Service
+public class StatementReconciliationService {
+    private static final Logger logger = LoggerFactory.getLogger(StatementReconciliationService.class);
+
+    private static final int SLIP_BATCH_SIZE = 100;
+    private static final int PAYMENT_BATCH_SIZE = 500;
+    private static final int MAX_REVIEW_LINES = 500;
+
+    private static final Set<PaymentSlip.PaymentSlipStatus> OPEN_SLIP_STATUSES =
+            Set.of(PaymentSlip.PaymentSlipStatus.PENDING, PaymentSlip.PaymentSlipStatus.PROCESSING);
+    private static final Set<Payment.PaymentStatus> OPEN_PAYMENT_STATUSES =
+            Set.of(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.PROCESSING);
+
+    // Header names banks commonly use for each column
+    private static final Set<String> DATE_HEADERS = Set.of("date", "transaction date", "value date", "posting date", "booking date");
+    private static final Set<String> AMOUNT_HEADERS = Set.of("amount", "credit", "credit amount", "deposit", "deposits");
+    private static final Set<String> REFERENCE_HEADERS = Set.of("reference", "ref", "transaction reference", "transaction id", "reference number");
+    private static final Set<String> DESCRIPTION_HEADERS = Set.of("description", "narration", "details", "particulars");
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+            caseInsensitive("dd-MMM-yyyy"),
+            caseInsensitive("dd MMM yyyy"));
+    private static final Pattern ISO_DATE_TIME_PREFIX = Pattern.compile("\\d{4}-\\d{2}-\\d{2}[T ].*");
+
+    @Autowired
+    private PaymentSlipRepository paymentSlipRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentSlipService paymentSlipService;
+
+    @Autowired
+    private PaymentStatsService paymentStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reconcile a CSV statement with a header row. Needs a date and an amount (or credit) column;
+     * a reference column is used when present, otherwise the description is tried as the reference.
+     */
+    public StatementReconciliationDTO reconcile(InputStream statement, String adminUsername, boolean autoConfirm) throws IOException {
+        long started = System.currentTimeMillis();
+        StatementMatcher matcher = buildMatcher();
+        Run run = new Run(adminUsername, autoConfirm);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8), 64 * 1024)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("Statement is empty");
+            }
+            Columns columns = Columns.from(parseCsvLine(stripBom(header)));
+
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.linesRead++;
+                List<String> fields = parseCsvLine(line);
+                BigDecimal amount = parseAmount(columns.value(fields, columns.amount));
+                LocalDate date = parseDate(columns.value(fields, columns.date));
+                // Debits and lines without an amount cannot pay for anything
+                if (amount == null || amount.signum() <= 0) {
+                    run.linesSkipped++;
+                    continue;
+                }
+                String reference = columns.reference >= 0
+                        ? columns.value(fields, columns.reference)
+                        : columns.value(fields, columns.description);
+                run.record(lineNumber, date, amount, reference, matcher.match(reference, amount, date));
+            }
+        }
+        run.flush();
+
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Statement reconciled in {} ms: {} lines, {} exact, {} slips confirmed, {} payments approved",
+                elapsed, run.linesRead, run.counts.get(StatementMatcher.Outcome.EXACT), run.slipsConfirmed, run.paymentsApproved);
+        return new StatementReconciliationDTO(
+                run.linesRead,
+                run.linesSkipped,
+                run.counts.get(StatementMatcher.Outcome.EXACT),
+                run.counts.get(StatementMatcher.Outcome.AMOUNT_AND_DATE),
+                run.counts.get(StatementMatcher.Outcome.AMOUNT_MISMATCH),
+                run.counts.get(StatementMatcher.Outcome.AMBIGUOUS),
+                run.counts.get(StatementMatcher.Outcome.UNMATCHED),
+                run.slipsConfirmed,
+                run.paymentsApproved,
+                run.needsReview,
+                elapsed);
+    }
+
+    private StatementMatcher buildMatcher() {
+        StatementMatcher matcher = new StatementMatcher();
+        // Rows: [id, transactionReference, paymentAmount, paymentDate, uploadedAt, orderId]
+        for (Object[] row : paymentSlipRepository.findReconciliationCandidates(OPEN_SLIP_STATUSES)) {
+            LocalDateTime paidAt = row[3] != null ? (LocalDateTime) row[3] : (LocalDateTime) row[4];
+            matcher.add(StatementMatcher.Kind.SLIP, (Long) row[0], (Long) row[5], (BigDecimal) row[2],
+                    paidAt != null ? paidAt.toLocalDate() : null, (String) row[1]);
+        }
+        // Rows: [id, transactionId, gatewayTransactionId, amount, submittedDate, orderId]
+        for (Object[] row : paymentRepository.findReconciliationCandidates(OPEN_PAYMENT_STATUSES)) {
+            LocalDateTime submitted = (LocalDateTime) row[4];
+            matcher.add(StatementMatcher.Kind.PAYMENT, (Long) row[0], (Long) row[5], (BigDecimal) row[3],
+                    submitted != null ? submitted.toLocalDate() : null, (String) row[1], (String) row[2]);
+        }
+        return matcher;
+    }
+
+    /**
+     * Counters and pending confirmations for one statement
+     */
+    private final class Run {
+        final String adminUsername;
+        final boolean autoConfirm;
+        final Map<StatementMatcher.Outcome, Long> counts = new EnumMap<>(StatementMatcher.Outcome.class);
+        final List<StatementLineDTO> needsReview = new ArrayList<>();
+        final List<PaymentSlipReviewRequest.Decision> slipBatch = new ArrayList<>(SLIP_BATCH_SIZE);
+        final List<Long> paymentBatch = new ArrayList<>(PAYMENT_BATCH_SIZE);
+        long linesRead;
+        long linesSkipped;
+        int slipsConfirmed;
+        int paymentsApproved;
+
+        Run(String adminUsername, boolean autoConfirm) {
+            this.adminUsername = adminUsername;
+            this.autoConfirm = autoConfirm;
+            for (StatementMatcher.Outcome outcome : StatementMatcher.Outcome.values()) {
+                counts.put(outcome, 0L);
+            }
+        }
+
+        void record(long lineNumber, LocalDate date, BigDecimal amount, String reference, StatementMatcher.Match match) {
+            counts.merge(match.outcome(), 1L, Long::sum);
+            Long slipId = match.idOf(StatementMatcher.Kind.SLIP);
+            Long paymentId = match.idOf(StatementMatcher.Kind.PAYMENT);
+
+            if (match.outcome() != StatementMatcher.Outcome.EXACT || !autoConfirm) {
+                if (needsReview.size() < MAX_REVIEW_LINES) {
+                    needsReview.add(new StatementLineDTO(lineNumber, date, amount, reference,
+                            match.outcome().name(), slipId, paymentId));
+                }
+                return;
+            }
+            if (slipId != null) {
+                slipBatch.add(new PaymentSlipReviewRequest.Decision(slipId, "CONFIRM", null,
+                        "Matched bank statement line " + lineNumber));
+                if (slipBatch.size() >= SLIP_BATCH_SIZE) {
+                    flushSlips();
+                }
+            }
+            if (paymentId != null) {
+                paymentBatch.add(paymentId);
+                if (paymentBatch.size() >= PAYMENT_BATCH_SIZE) {
+                    flushPayments();
+                }
+            }
+        }
+
+        void flush() {
+            flushSlips();
+            flushPayments();
+        }
+
+        // Slips go through the normal confirmation so their orders are updated and tracked too
+        private void flushSlips() {
+            if (slipBatch.isEmpty()) {
+                return;
+            }
+            slipsConfirmed += paymentSlipService.reviewPaymentSlips(
+                    new PaymentSlipReviewRequest(adminUsername, List.copyOf(slipBatch))).reviewed().size();
+            slipBatch.clear();
+        }
+
+        private void flushPayments() {
+            if (paymentBatch.isEmpty()) {
+                return;
+            }
+            List<Long> ids = List.copyOf(paymentBatch);
+            Integer approved = transactionTemplate.execute(status -> paymentRepository.approveMatched(
+                    ids, OPEN_PAYMENT_STATUSES, Payment.PaymentStatus.COMPLETED, LocalDateTime.now()));
+            paymentsApproved += approved != null ? approved : 0;
+            paymentStatsService.markChanged();
+            paymentBatch.clear();
+        }
+    }
+
+    /**
+     * Positions of the columns used, found from the header row
+     */
+    private record Columns(int date, int amount, int reference, int description) {
+        static Columns from(List<String> header) {
+            int date = -1, amount = -1, reference = -1, description = -1;
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+                if (date < 0 && DATE_HEADERS.contains(name)) {
+                    date = i;
+                } else if (amount < 0 && AMOUNT_HEADERS.contains(name)) {
+                    amount = i;
+                } else if (reference < 0 && REFERENCE_HEADERS.contains(name)) {
+                    reference = i;
+                } else if (description < 0 && DESCRIPTION_HEADERS.contains(name)) {
+                    description = i;
+                }
+            }
+            if (date < 0 || amount < 0) {
+                throw new IllegalArgumentException("Statement needs date and amount columns");
+            }
+            return new Columns(date, amount, reference, description);
+        }
+
+        String value(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index).trim() : null;
+        }
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static BigDecimal parseAmount(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Drops currency symbols and thousands separators
+            if (Character.isDigit(c) || c == '.' || c == '-') {
+                digits.append(c);
+            }
+        }
+        try {
+            return digits.isEmpty() ? null : new BigDecimal(digits.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static LocalDate parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        // Keep only the date part of "2025-03-01T10:15" or "01/03/2025 10:15"
+        String date = value;
+        if (ISO_DATE_TIME_PREFIX.matcher(date).matches()) {
+            date = date.substring(0, 10);
+        } else if (date.indexOf(':') > 0 && date.lastIndexOf(' ', date.indexOf(':')) > 0) {
+            date = date.substring(0, date.lastIndexOf(' ', date.indexOf(':'))).trim();
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(date, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        return null;
+    }
+
+    // Banks write month names as "Mar", "MAR" or "mar"
+    private static DateTimeFormatter caseInsensitive(String pattern) {
+        return new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern).toFormatter(Locale.ENGLISH);
+    }
+
+    private static String stripBom(String header) {
+        return !header.isEmpty() && header.charAt(0) == '\uFEFF' ? header.substring(1) : header;
+    }
+}
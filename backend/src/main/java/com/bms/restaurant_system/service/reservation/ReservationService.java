@@ -6,10 +6,12 @@ import com.bms.restaurant_system.entity.User;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.ReservationRepository;
 import com.bms.restaurant_system.repository.UserRepository;
+import com.bms.restaurant_system.service.outbox.OutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -25,6 +27,9 @@ public class ReservationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
     public List<ReservationDTO> getAllReservations() {
         return reservationRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -44,15 +49,19 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public ReservationDTO createReservation(ReservationDTO reservationDTO) {
         Reservation reservation = convertToEntity(reservationDTO);
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationCreated(reservation);
         return convertToDTO(reservation);
     }
 
+    @Transactional
     public ReservationDTO updateReservation(Long id, ReservationDTO reservationDTO) {
         Reservation existingReservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
+        Reservation.ReservationStatus previousStatus = existingReservation.getStatus();
         
         // Update all editable fields
         if (reservationDTO.numberOfPeople() != null) {
@@ -86,6 +95,9 @@ public class ReservationService {
         }
         
         existingReservation = reservationRepository.save(existingReservation);
+        if (existingReservation.getStatus() != previousStatus) {
+            outboxService.reservationStatusChanged(existingReservation);
+        }
         return convertToDTO(existingReservation);
     }
 
@@ -95,6 +107,7 @@ public class ReservationService {
         reservationRepository.delete(reservation);
     }
 
+    @Transactional
     public ReservationDTO cancelReservation(Long id, String reason) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
@@ -103,6 +116,7 @@ public class ReservationService {
             reservation.setCancellationReason(reason);
         }
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationStatusChanged(reservation);
         return convertToDTO(reservation);
     }
 
@@ -111,11 +125,16 @@ public class ReservationService {
         return cancelReservation(id, null);
     }
 
+    @Transactional
     public ReservationDTO updateReservationStatus(Long id, String status) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
+        Reservation.ReservationStatus previousStatus = reservation.getStatus();
         reservation.setStatus(Reservation.ReservationStatus.valueOf(status));
         reservation = reservationRepository.save(reservation);
+        if (reservation.getStatus() != previousStatus) {
+            outboxService.reservationStatusChanged(reservation);
+        }
         return convertToDTO(reservation);
     }
 
@@ -272,6 +291,7 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
     
+    @Transactional
     public ReservationDTO confirmReservation(Long id, String adminUsername, Integer tableNumber, String notes) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
@@ -286,33 +306,40 @@ public class ReservationService {
         }
         
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationStatusChanged(reservation);
         return convertToDTO(reservation);
     }
     
+    @Transactional
     public ReservationDTO markAsSeated(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
         
         reservation.markAsSeated();
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationStatusChanged(reservation);
         return convertToDTO(reservation);
     }
     
+    @Transactional
     public ReservationDTO completeReservation(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
         
         reservation.complete();
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationStatusChanged(reservation);
         return convertToDTO(reservation);
     }
     
+    @Transactional
     public ReservationDTO markAsNoShow(Long id) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
         
         reservation.markAsNoShow();
         reservation = reservationRepository.save(reservation);
+        outboxService.reservationStatusChanged(reservation);
         return convertToDTO(reservation);
     }
     
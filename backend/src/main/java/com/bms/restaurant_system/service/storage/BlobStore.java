@@ -0,0 +1,176 @@
+package com.bms.restaurant_system.service.storage;
+
+import com.bms.restaurant_system.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store under app.upload.dir.
+ * Uploads are streamed once to a staging file next to the blobs while their SHA-256 is computed,
+ * then moved atomically to blobs/<first two hex digits>/<hash><extension>. Storing the same bytes
+ * again finds the existing blob and discards the new copy, so identical uploads share one file.
+ */
+@Service
+public class BlobStore {
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    public static final String URL_PREFIX = "/uploads/blobs/";
+
+    private static final String BLOBS_DIR = "blobs";
+    private static final String STAGING_DIR = "staging";
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+
+    @Autowired
+    private AppProperties appProperties;
+
+    /**
+     * A stored blob. deduplicated is true when the content was already in the store.
+     */
+    public record Blob(String hash, long size, String url, Path path, boolean deduplicated) {}
+
+    /**
+     * Stream content into the store, rejecting it once it grows past maxBytes.
+     * The extension, such as ".png", becomes part of the name so the file can be served with its type.
+     */
+    public Blob store(InputStream content, String extension, long maxBytes) throws IOException {
+        String suffix = normalizeExtension(extension);
+        Path staging = stagingDir().resolve(UUID.randomUUID() + ".part");
+        MessageDigest digest = sha256();
+        long size;
+        try {
+            try (DigestInputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(staging)) {
+                size = copy(in, out, maxBytes);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(hash, suffix);
+            if (Files.exists(target)) {
+                return new Blob(hash, size, urlFor(hash, suffix), target, true);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another upload of the same content won the race
+                return new Blob(hash, size, urlFor(hash, suffix), target, true);
+            }
+            logger.info("Stored blob {} ({} bytes)", hash, size);
+            return new Blob(hash, size, urlFor(hash, suffix), target, false);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * Map a blob URL back to its file, or null when the URL does not name a blob
+     */
+    public Path resolve(String url) {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        if (!BLOB_NAME.matcher(name).matches()) {
+            return null;
+        }
+        Path path = blobsDir().resolve(name.substring(0, 2)).resolve(name);
+        return url.equals(URL_PREFIX + name.substring(0, 2) + "/" + name) ? path : null;
+    }
+
+    public boolean delete(String url) throws IOException {
+        Path path = resolve(url);
+        return path != null && Files.deleteIfExists(path);
+    }
+
+    public Path root() {
+        return Paths.get(appProperties.getUpload().getDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Extension for a content type, falling back to the one in the original file name
+     */
+    public static String extensionFor(String contentType, String originalFilename) {
+        if (contentType != null) {
+            switch (contentType.toLowerCase(Locale.ROOT)) {
+                case "image/jpeg", "image/jpg" -> { return ".jpg"; }
+                case "image/png" -> { return ".png"; }
+                case "image/gif" -> { return ".gif"; }
+                case "image/webp" -> { return ".webp"; }
+                case "application/pdf" -> { return ".pdf"; }
+                default -> { }
+            }
+        }
+        if (originalFilename != null && originalFilename.contains(".")) {
+            return originalFilename.substring(originalFilename.lastIndexOf('.'));
+        }
+        return "";
+    }
+
+    private static long copy(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("File size must be less than " + maxBytes / (1024 * 1024) + "MB");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private Path blobsDir() {
+        return root().resolve(BLOBS_DIR);
+    }
+
+    // Staging lives under the same root so the final move stays on one file system and is atomic
+    private Path stagingDir() throws IOException {
+        return Files.createDirectories(root().resolve(STAGING_DIR));
+    }
+
+    private Path blobPath(String hash, String suffix) {
+        return blobsDir().resolve(hash.substring(0, 2)).resolve(hash + suffix);
+    }
+
+    private static String urlFor(String hash, String suffix) {
+        return URL_PREFIX + hash.substring(0, 2) + "/" + hash + suffix;
+    }
+
+    private static String normalizeExtension(String extension) {
+        if (extension == null || extension.isEmpty()) {
+            return "";
+        }
+        String lower = extension.toLowerCase(Locale.ROOT);
+        if (!lower.startsWith(".")) {
+            lower = "." + lower;
+        }
+        return lower.matches("\\.[a-z0-9]{1,5}") ? lower : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
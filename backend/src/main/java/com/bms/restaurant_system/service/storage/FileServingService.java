@@ -0,0 +1,159 @@
+package com.bms.restaurant_system.service.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes files from disk to the response without copying them through the heap.
+ * On Tomcat the transfer is handed to the connector's sendfile support; elsewhere the file
+ * channel is transferred straight into the response stream. Handles conditional GETs
+ * (ETag / Last-Modified) and single byte ranges.
+ */
+@Service
+public class FileServingService {
+    private static final Logger logger = LoggerFactory.getLogger(FileServingService.class);
+
+    // Content-hashed names never change, so caches may keep them for a year without revalidating
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Request attributes Tomcat reads to send a file with sendfile once the servlet returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Serve a file. etag is the quoted entity tag, or null to send none; cacheControl is sent as is.
+     */
+    public void serve(Path file, String etag, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length;
+        long lastModified;
+        try {
+            length = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and answers 304 when the client copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(mediaType.toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            if (length == 0 || !isSatisfiable(range, length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response);
+    }
+
+    private static void transfer(Path file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    // The file shrank underneath us; the client sees a short body
+                    logger.warn("File {} ended before {} bytes were sent", file, count);
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * The single range to send, or null for the whole file.
+     * Multiple ranges and unparseable headers are answered with the full file, which RFC 9110 allows.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !rangeStillValid(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // If-Range carries either an entity tag or a date; the range only applies if it still matches
+    private static boolean rangeStillValid(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.IF_RANGE, ifRange);
+        try {
+            // HTTP dates have whole-second precision
+            return headers.getFirstDate(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) < length;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
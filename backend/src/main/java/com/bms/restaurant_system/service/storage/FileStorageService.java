@@ -2,65 +2,56 @@ package com.bms.restaurant_system.service.storage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 /**
- * Service for handling file storage in the resources/static/images directory
- * Stores payment slips and menu item images in organized subdirectories
+ * Service for handling uploaded payment slips and menu item images.
+ * Files are validated here and kept in the content-addressed {@link BlobStore};
+ * files from before the blob store remain under the legacy static images directory.
  */
 @Service
 public class FileStorageService {
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
     
-    // Base directories for all images
+    // Legacy directories that uploads were written to before the blob store
     private static final String BACKEND_UPLOAD_DIR = "src/main/resources/static/images/";
     private static final String FRONTEND_UPLOAD_DIR = "frontend/src/assets/images/";
     
-    // Subdirectories for different types of images
-    private static final String PAYMENT_SLIPS_DIR = "payment-slips/";
-    private static final String MENU_ITEMS_DIR = "menu/";
-    
     // Maximum file sizes
     private static final long MAX_PAYMENT_SLIP_SIZE = 10 * 1024 * 1024; // 10MB
     private static final long MAX_MENU_IMAGE_SIZE = 5 * 1024 * 1024; // 5MB
     
+    @Autowired
+    private BlobStore blobStore;
+    
     /**
-     * Store payment slip image with date-based organization
+     * Store payment slip image; identical slips share one stored file
      * @param file The multipart file to store
      * @param orderId The order ID for reference
-     * @return The relative URL path to access the stored file
+     * @return The stored blob with its URL, size and SHA-256
      * @throws IOException If file storage fails
      */
-    public String storePaymentSlip(MultipartFile file, Long orderId) throws IOException {
+    public BlobStore.Blob storePaymentSlip(MultipartFile file, Long orderId) throws IOException {
         logger.info("Storing payment slip for order: {}", orderId);
         
         // Validate file
         validateFile(file, MAX_PAYMENT_SLIP_SIZE, true);
         
-        // Create date-based subdirectory (e.g., payment-slips/2025-10/)
-        String yearMonth = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        String backendPath = BACKEND_UPLOAD_DIR + PAYMENT_SLIPS_DIR + yearMonth + "/";
-        
-        // Store file with specific naming: deposit_slip_order_no{orderId}
-        String filename = storeFileWithOrderId(file, backendPath, orderId);
-        String imageUrl = "/images/" + PAYMENT_SLIPS_DIR + yearMonth + "/" + filename;
-        
-        logger.info("Payment slip stored successfully: {}", imageUrl);
-        return imageUrl;
+        BlobStore.Blob blob = store(file, MAX_PAYMENT_SLIP_SIZE);
+        logger.info("Payment slip stored successfully: {}{}", blob.url(), blob.deduplicated() ? " (already stored)" : "");
+        return blob;
     }
     
     /**
-     * Store menu item image in backend resources with unique ID
+     * Store menu item image
      * @param file The multipart file to store
      * @param menuId The menu item ID for reference (optional)
      * @return The relative URL path to access the stored file
@@ -72,21 +63,9 @@ public class FileStorageService {
         // Validate file
         validateFile(file, MAX_MENU_IMAGE_SIZE, false);
         
-        // Store file ONLY in backend resources directory
-        String backendPath = BACKEND_UPLOAD_DIR + MENU_ITEMS_DIR;
-        
-        String filename;
-        if (menuId != null) {
-            filename = storeFileWithMenuId(file, backendPath, menuId);
-        } else {
-            filename = storeFile(file, backendPath, "menu_item");
-        }
-        
-        // Return URL path that backend will serve from /images/menu/
-        String imageUrl = "/images/" + MENU_ITEMS_DIR + filename;
-        
-        logger.info("Menu image stored successfully at: {}", imageUrl);
-        return imageUrl;
+        BlobStore.Blob blob = store(file, MAX_MENU_IMAGE_SIZE);
+        logger.info("Menu image for menu ID {} stored successfully at: {}", menuId, blob.url());
+        return blob.url();
     }
     
     /**
@@ -99,105 +78,14 @@ public class FileStorageService {
         return storeMenuImage(file, null);
     }
     
-    /**
-     * Generic file storage method
-     * @param file The file to store
-     * @param uploadPath The directory path to store the file
-     * @param prefix Filename prefix for organization
-     * @return The generated filename
-     * @throws IOException If storage fails
-     */
-    private String storeFile(MultipartFile file, String uploadPath, String prefix) throws IOException {
-        // Create directory if it doesn't exist
-        Path uploadDir = Paths.get(uploadPath);
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-            logger.info("Created directory: {}", uploadPath);
-        }
-        
-        // Generate unique filename
+    private BlobStore.Blob store(MultipartFile file, long maxSize) throws IOException {
         String originalFilename = file.getOriginalFilename();
         if (originalFilename == null || originalFilename.isEmpty()) {
             throw new IllegalArgumentException("File name cannot be null or empty");
         }
-        
-        String fileExtension = getFileExtension(originalFilename);
-        String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
-        String uniqueFilename = prefix + "_" + timestamp + "_" + uniqueId + fileExtension;
-        
-        // Save file
-        Path targetPath = uploadDir.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-        
-        logger.info("File stored at: {}", targetPath);
-        return uniqueFilename;
-    }
-    
-    /**
-     * Store file with order-specific naming
-     * @param file The file to store
-     * @param uploadPath The directory path to store the file
-     * @param orderId The order ID for naming
-     * @return The generated filename
-     * @throws IOException If storage fails
-     */
-    private String storeFileWithOrderId(MultipartFile file, String uploadPath, Long orderId) throws IOException {
-        // Create directory if it doesn't exist
-        Path uploadDir = Paths.get(uploadPath);
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-            logger.info("Created directory: {}", uploadPath);
-        }
-        
-        // Generate filename: deposit_slip_order_no{orderId}
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isEmpty()) {
-            throw new IllegalArgumentException("File name cannot be null or empty");
+        try (InputStream content = file.getInputStream()) {
+            return blobStore.store(content, BlobStore.extensionFor(file.getContentType(), originalFilename), maxSize);
         }
-        
-        String fileExtension = getFileExtension(originalFilename);
-        String specificFilename = String.format("deposit_slip_order_no%d%s", orderId, fileExtension);
-        
-        // Save file
-        Path targetPath = uploadDir.resolve(specificFilename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-        
-        logger.info("Payment slip stored at: {} for order ID: {}", targetPath, orderId);
-        return specificFilename;
-    }
-    
-    /**
-     * Store file with menu-specific naming
-     * @param file The file to store
-     * @param uploadPath The directory path to store the file
-     * @param menuId The menu ID for naming
-     * @return The generated filename
-     * @throws IOException If storage fails
-     */
-    private String storeFileWithMenuId(MultipartFile file, String uploadPath, Long menuId) throws IOException {
-        // Create directory if it doesn't exist
-        Path uploadDir = Paths.get(uploadPath);
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
-            logger.info("Created directory: {}", uploadPath);
-        }
-        
-        // Generate filename: menu_image_no{menuId}
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isEmpty()) {
-            throw new IllegalArgumentException("File name cannot be null or empty");
-        }
-        
-        String fileExtension = getFileExtension(originalFilename);
-        String specificFilename = String.format("menu_image_no%d%s", menuId, fileExtension);
-        
-        // Save file
-        Path targetPath = uploadDir.resolve(specificFilename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-        
-        logger.info("Menu image stored at: {} for menu ID: {}", targetPath, menuId);
-        return specificFilename;
     }
     
     /**
@@ -239,18 +127,6 @@ public class FileStorageService {
         }
     }
     
-    /**
-     * Get file extension from filename
-     * @param filename The original filename
-     * @return The file extension with dot (e.g., ".jpg")
-     */
-    private String getFileExtension(String filename) {
-        if (filename == null || !filename.contains(".")) {
-            return ".jpg";
-        }
-        return filename.substring(filename.lastIndexOf("."));
-    }
-    
     /**
      * Delete a stored file
      * @param fileUrl The relative URL of the file to delete
@@ -262,14 +138,7 @@ public class FileStorageService {
                 return false;
             }
             
-            // Convert URL to file path (handle both /images/ and /assets/images/ URLs)
-            String filePath;
-            if (fileUrl.startsWith("/assets/images/")) {
-                filePath = fileUrl.replace("/assets/images/", FRONTEND_UPLOAD_DIR);
-            } else {
-                filePath = fileUrl.replace("/images/", BACKEND_UPLOAD_DIR);
-            }
-            Path path = Paths.get(filePath);
+            Path path = getFilePath(fileUrl);
             
             if (Files.exists(path)) {
                 Files.delete(path);
@@ -291,6 +160,12 @@ public class FileStorageService {
      * @return The full file system path
      */
     public Path getFilePath(String fileUrl) {
+        Path blob = blobStore.resolve(fileUrl);
+        if (blob != null) {
+            return blob;
+        }
+        
+        // Legacy uploads (handle both /images/ and /assets/images/ URLs)
         String filePath;
         if (fileUrl.startsWith("/assets/images/")) {
             filePath = fileUrl.replace("/assets/images/", FRONTEND_UPLOAD_DIR);
@@ -0,0 +1,114 @@
+package com.bms.restaurant_system.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Small JPEG previews of uploaded images, kept in the blob store next to the originals.
+ * Admins review slips from these instead of downloading the full-size upload.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    static final int MAX_EDGE = 320;
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long MAX_THUMBNAIL_SIZE = 1024 * 1024;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    /**
+     * Create a thumbnail for a stored image and return its URL.
+     * Returns null for content that is not a readable image, such as PDF slips.
+     */
+    public String createThumbnail(Path image) {
+        try {
+            BufferedImage source = readSubsampled(image);
+            if (source == null) {
+                return null;
+            }
+            byte[] jpeg = encodeJpeg(scale(source));
+            return blobStore.store(new ByteArrayInputStream(jpeg), ".jpg", MAX_THUMBNAIL_SIZE).url();
+        } catch (IOException | RuntimeException e) {
+            // A missing preview should never fail the upload itself
+            logger.warn("Could not create thumbnail for {}: {}", image, e.getMessage());
+            return null;
+        }
+    }
+
+    // Decode only every n-th pixel when the image is much larger than the thumbnail
+    private static BufferedImage readSubsampled(Path image) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestEdge / (MAX_EDGE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source) {
+        double ratio = Math.min(1.0, (double) MAX_EDGE / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        // JPEG has no alpha channel, so transparent areas are painted white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
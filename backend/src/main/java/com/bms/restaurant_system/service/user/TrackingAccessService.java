@@ -0,0 +1,99 @@
+package com.bms.restaurant_system.service.user;
+
+import com.bms.restaurant_system.entity.Role;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides who may see or report live tracking data: an order's customer, its driver and admins.
+ * The caller comes from UserStatusCache, and each driver's id is remembered per user so
+ * location pings cost no driver query.
+ */
+@Service
+public class TrackingAccessService {
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final Map<Long, Long> driverIdsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Driver id of the authenticated user, or null when the caller is not a driver
+     */
+    public Long currentDriverId() {
+        UserStatusCache.UserStatus caller = currentUser();
+        if (caller == null) {
+            return null;
+        }
+        Long driverId = driverIdsByUser.get(caller.id());
+        if (driverId == null) {
+            driverId = driverRepository.findByUserId(caller.id()).map(driver -> driver.getId()).orElse(null);
+            if (driverId != null) {
+                driverIdsByUser.put(caller.id(), driverId);
+            }
+        }
+        return driverId;
+    }
+
+    /**
+     * Forget a deleted driver, so their user can no longer report locations as them
+     */
+    public void evictDriver(Long driverId) {
+        driverIdsByUser.values().removeIf(driverId::equals);
+    }
+
+    public boolean canTrackDelivery(Long deliveryId) {
+        return isParticipant(deliveryRepository.findParticipantUserIds(deliveryId));
+    }
+
+    public boolean canTrackOrder(Long orderId) {
+        return isParticipant(orderRepository.findParticipantUserIds(orderId));
+    }
+
+    // Admins see everything; anyone else must be the customer or a driver on the order
+    private boolean isParticipant(List<Object[]> rows) {
+        UserStatusCache.UserStatus caller = currentUser();
+        if (caller == null) {
+            return false;
+        }
+        if (caller.role() == Role.ADMIN) {
+            return true;
+        }
+        for (Object[] row : rows) {
+            for (Object userId : row) {
+                if (Objects.equals(userId, caller.id())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private UserStatusCache.UserStatus currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        UserStatusCache.UserStatus caller = userStatusCache.get(authentication.getName());
+        return caller != null && caller.enabled() ? caller : null;
+    }
+}
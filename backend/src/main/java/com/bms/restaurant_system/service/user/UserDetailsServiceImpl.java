@@ -2,14 +2,18 @@ package com.bms.restaurant_system.service.user;
 
 import com.bms.restaurant_system.entity.User;
 import com.bms.restaurant_system.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     @Autowired
     private UserRepository userRepository;
@@ -25,4 +29,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .roles(user.getRole().name())
                 .build();
     }
+
+    /**
+     * Called after a successful login when the stored hash uses a lower BCrypt cost than configured
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+            logger.info("Rehashed password for user {} with the configured BCrypt cost", user.getUsername());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
 }
@@ -8,6 +8,7 @@ import com.bms.restaurant_system.entity.Role;
 import com.bms.restaurant_system.exception.ResourceNotFoundException;
 import com.bms.restaurant_system.repository.UserRepository;
 import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.service.delivery.DriverStateRegistry;
 import com.bms.restaurant_system.dto.UserResponseDTO; // Assuming this is created
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,12 @@ public class UserService {
     @Autowired
     private DriverRepository driverRepository;
 
+    @Autowired
+    private DriverStateRegistry driverStateRegistry;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
     /**
      * Retrieves all users and converts them to a list of UserResponseDTOs.
      * @return List of UserResponseDTOs
@@ -115,6 +122,7 @@ public class UserService {
         logger.info("Updating user with id: {}", id);
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        String oldUsername = existingUser.getUsername();
         existingUser.setUsername(userDTO.username());
         existingUser.setEmail(userDTO.email());
         existingUser.setPhone(userDTO.phone());
@@ -126,6 +134,8 @@ public class UserService {
             logger.info("Password hashed for user: {}", userDTO.username());
         }
         existingUser = userRepository.save(existingUser);
+        userStatusCache.evict(oldUsername);
+        userStatusCache.evict(existingUser.getUsername());
         logger.info("User updated with id: {}", id);
         return convertToResponseDTO(existingUser);
     }
@@ -140,6 +150,7 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         userRepository.delete(user);
+        userStatusCache.evict(user.getUsername());
         logger.info("User deleted with id: {}", id);
     }
 
@@ -205,6 +216,7 @@ public class UserService {
         
         logger.info("💾 [DB] Executing database UPDATE for user role...");
         existingUser = userRepository.save(existingUser);
+        userStatusCache.evict(existingUser.getUsername());
         
         logger.info("✅ [DB] Database UPDATE completed successfully: User[id={}, username={}, oldRole={}, newRole={}]", 
             id, existingUser.getUsername(), oldRole, existingUser.getRole().toString());
@@ -261,6 +273,7 @@ public class UserService {
         
         logger.info("💾 [DB] Executing database UPDATE for user status...");
         existingUser = userRepository.save(existingUser);
+        userStatusCache.evict(existingUser.getUsername());
         
         logger.info("✅ [DB] Database UPDATE completed successfully: User[id={}, username={}, oldStatus={}, newStatus={}]", 
             id, existingUser.getUsername(), 
@@ -324,7 +337,8 @@ public class UserService {
             driver.setRating(BigDecimal.ZERO);
             driver.setTotalDeliveries(0);
             
-            driverRepository.save(driver);
+            driver = driverRepository.save(driver);
+            driverStateRegistry.register(driver.getId(), true);
             logger.info("Driver profile created successfully for user: {}", user.getUsername());
         } catch (Exception e) {
             logger.error("Failed to create driver profile for user: {}", user.getUsername(), e);
@@ -0,0 +1,97 @@
+package com.bms.restaurant_system.service.user;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Role;
+import com.bms.restaurant_system.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Id, enabled flag and role per username, used to authenticate requests without a user query.
+ * User admin operations evict entries as they change them; entries also expire after
+ * app.auth.user-cache-ttl-ms to pick up writes made outside the services.
+ */
+@Service
+public class UserStatusCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatusCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final Map<String, UserStatus> statuses = new ConcurrentHashMap<>();
+
+    public record UserStatus(Long id, String username, Role role, boolean enabled, long loadedAt) {
+    }
+
+    /**
+     * Current status of the user, loading it on a miss; null when the user does not exist
+     */
+    public UserStatus get(String username) {
+        UserStatus status = statuses.get(username);
+        if (status != null && System.currentTimeMillis() - status.loadedAt() < appProperties.getAuth().getUserCacheTtlMs()) {
+            return status;
+        }
+
+        UserStatus loaded = userRepository.findByUsername(username)
+                .map(user -> new UserStatus(user.getId(), user.getUsername(), user.getRole(), user.isEnabled(), System.currentTimeMillis()))
+                .orElse(null);
+        if (loaded == null) {
+            statuses.remove(username);
+            return null;
+        }
+        makeRoom();
+        statuses.put(username, loaded);
+        return loaded;
+    }
+
+    /**
+     * Drop the cached status now, and again once the surrounding transaction commits so a
+     * request that reloads the row before the commit cannot keep the old value
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        statuses.remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    statuses.remove(username);
+                }
+            });
+        }
+        logger.debug("Evicted cached status for user {}", username);
+    }
+
+    int size() {
+        return statuses.size();
+    }
+
+    // Drop stale entries first; if still full, evict arbitrary entries down to the bound
+    private void makeRoom() {
+        int maxSize = appProperties.getAuth().getUserCacheSize();
+        if (statuses.size() < maxSize) {
+            return;
+        }
+        long ttl = appProperties.getAuth().getUserCacheTtlMs();
+        long now = System.currentTimeMillis();
+        statuses.values().removeIf(status -> now - status.loadedAt() >= ttl);
+        Iterator<String> usernames = statuses.keySet().iterator();
+        while (statuses.size() >= maxSize && usernames.hasNext()) {
+            usernames.next();
+            usernames.remove();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bms.restaurant_system.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Geographic helpers shared by delivery dispatch, routing and fee calculation
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    public static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Great-circle distance between two points in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Width in kilometres of one degree of longitude at the given latitude
+     */
+    public static double kmPerDegreeLongitude(double latitude) {
+        return KM_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(latitude));
+    }
+
+    public static boolean hasCoordinates(BigDecimal latitude, BigDecimal longitude) {
+        return latitude != null && longitude != null;
+    }
+
+    public static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+}
@@ -2,24 +2,43 @@ package com.bms.restaurant_system.util;
 
 import com.bms.restaurant_system.config.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once; a verified token's claims
+ * are cached until the token expires, so repeat requests with the same token skip the HMAC check.
+ */
 @Component
 public class JwtUtil {
 
     @Autowired
     private JwtProperties jwtProperties;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Verified token -> claims; only tokens that passed signature and expiry checks are stored
+    private final Map<String, Claims> claimsCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public String generateToken(String username, String role) {
@@ -28,10 +47,34 @@ public class JwtUtil {
                 .claim("role", role)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpiration()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verify the token and return its claims, parsing it at most once while it stays cached.
+     * Throws a JwtException (ExpiredJwtException once expired) when the token is not valid.
+     * The returned claims are shared and must not be modified.
+     */
+    public Claims parseClaims(String token) {
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            claimsCache.remove(token);
+            throw new ExpiredJwtException(null, cached, "JWT expired at " + cached.getExpiration());
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        // Tokens without an expiry are verified every time rather than cached forever
+        if (claims.getExpiration() != null && jwtProperties.getClaimsCacheSize() > 0) {
+            makeRoom();
+            claimsCache.put(token, claims);
+        }
+        return claims;
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -45,24 +88,46 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return claimsResolver.apply(parseClaims(token));
     }
 
     public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        try {
+            return isExpired(parseClaims(token));
+        } catch (ExpiredJwtException e) {
+            return true;
+        }
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (username.equals(extractedUsername) && !isTokenExpired(token));
+        try {
+            Claims claims = parseClaims(token);
+            return username.equals(claims.getSubject()) && !isExpired(claims);
+        } catch (ExpiredJwtException e) {
+            return false;
+        }
+    }
+
+    int cachedTokens() {
+        return claimsCache.size();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    // Drop expired entries first; if the cache is still full, evict arbitrary entries down to the bound
+    private void makeRoom() {
+        int maxSize = jwtProperties.getClaimsCacheSize();
+        if (claimsCache.size() < maxSize) {
+            return;
+        }
+        claimsCache.values().removeIf(JwtUtil::isExpired);
+        Iterator<String> tokens = claimsCache.keySet().iterator();
+        while (claimsCache.size() >= maxSize && tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
     }
 }
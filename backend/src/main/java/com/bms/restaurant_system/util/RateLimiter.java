@@ -0,0 +1,99 @@
+package com.bms.restaurant_system.util;
+
+import com.bms.restaurant_system.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by caller. Each bucket is a single theoretical arrival time
+ * (GCRA): refill is computed lazily from the clock on each request, and a bucket whose arrival
+ * time has passed is full, so it can be dropped and recreated without changing behaviour.
+ * The number of buckets is capped: when the map is full, idle buckets are swept at most once a
+ * second and a new caller is refused until there is room, so a flood of new addresses costs
+ * neither unbounded memory nor a sweep per request.
+ */
+@Component
+public class RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final long FULL_SWEEP_INTERVAL_NS = 1_000_000_000L;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    @Autowired
+    private AppProperties appProperties;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastFullSweep = new AtomicLong(NEVER);
+
+    /**
+     * Take one token from the key's bucket.
+     * Returns 0 when the request is allowed, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key, AppProperties.RateLimit.Limit limit) {
+        return tryAcquire(key, limit, System.nanoTime());
+    }
+
+    long tryAcquire(String key, AppProperties.RateLimit.Limit limit, long now) {
+        if (limit.getCapacity() <= 0 || limit.getRefillPerSecond() <= 0) {
+            return 0;
+        }
+        long interval = (long) (1_000_000_000L / limit.getRefillPerSecond());
+        long burst = interval * limit.getCapacity();
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // Concurrent first requests can overshoot the cap by at most one bucket per thread
+            if (buckets.size() >= appProperties.getRateLimit().getMaxBuckets() && !makeRoom(now)) {
+                return interval;
+            }
+            bucket = new AtomicLong(now);
+            AtomicLong existing = buckets.putIfAbsent(key, bucket);
+            if (existing != null) {
+                bucket = existing;
+            }
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + interval;
+            long ahead = next - now;
+            if (ahead > burst) {
+                return ahead - burst;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Only one caller sweeps, and only once per interval; the rest are refused while the map stays full
+    private boolean makeRoom(long now) {
+        long last = lastFullSweep.get();
+        if ((last == NEVER || now - last >= FULL_SWEEP_INTERVAL_NS) && lastFullSweep.compareAndSet(last, now)) {
+            evictIdle(now);
+        }
+        return buckets.size() < appProperties.getRateLimit().getMaxBuckets();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.idle-eviction-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    // A bucket at or behind the clock is full; removing it loses nothing
+    void evictIdle(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        logger.debug("Rate limiter evicted {} idle buckets, {} remain", before - buckets.size(), buckets.size());
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
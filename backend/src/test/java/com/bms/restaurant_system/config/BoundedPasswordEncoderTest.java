@@ -0,0 +1,98 @@
+package com.bms.restaurant_system.config;
+
+import com.bms.restaurant_system.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encode_ShouldHashOnPoolAndFlagWeakerHashesForUpgrade() {
+        // Given
+        AppProperties.PasswordHashing config = new AppProperties.PasswordHashing();
+        config.setBcryptStrength(5);
+        encoder = new BoundedPasswordEncoder(config);
+
+        // When
+        String hash = encoder.encode("secret");
+
+        // Then
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertEquals(0, encoder.admitted());
+    }
+
+    @Test
+    void matches_ShouldRejectLoginsOnceOnlyReservedSlotsRemain() throws Exception {
+        // Given: one thread, one queue slot reserved for signed-in users, and a hash that blocks
+        AppProperties.PasswordHashing config = new AppProperties.PasswordHashing();
+        config.setThreads(1);
+        config.setQueueCapacity(1);
+        config.setReservedForSessions(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(config, blockingEncoder(started, release));
+        CompletableFuture<Boolean> inFlight = CompletableFuture.supplyAsync(() -> encoder.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When / Then: an anonymous login is turned away at once
+        assertThrows(ServiceBusyException.class, () -> encoder.matches("b", "b"));
+
+        // A signed-in user may still use the reserved slot
+        CompletableFuture<String> reserved = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "customer", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+            try {
+                return encoder.encode("c");
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+        release.countDown();
+        assertTrue(inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals("c", reserved.get(5, TimeUnit.SECONDS));
+    }
+
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
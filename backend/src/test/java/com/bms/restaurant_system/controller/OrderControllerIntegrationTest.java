@@ -2,8 +2,16 @@ package com.bms.restaurant_system.controller;
 
 import com.bms.restaurant_system.dto.OrderCreateDTO;
 import com.bms.restaurant_system.dto.OrderDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
 import com.bms.restaurant_system.entity.Order;
 import com.bms.restaurant_system.entity.PaymentMethod;
+import com.bms.restaurant_system.entity.Role;
+import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,8 +23,10 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +45,18 @@ class OrderControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -130,4 +152,43 @@ class OrderControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(orderCreateDTO)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional
+    void getAvailableDrivers_ShouldJoinProfilesAndLoadBestRatedFirst() throws Exception {
+        // Given - a rated driver carrying one delivery, next to the seeded driver account without a profile
+        User user = new User();
+        user.setUsername("rated-driver");
+        user.setEmail("rated-driver@restaurant.com");
+        user.setPassword("unused");
+        user.setPhone("5555500001");
+        user.setRole(Role.DRIVER);
+        user.setEnabled(true);
+        user = userRepository.save(user);
+        Driver driver = new Driver();
+        driver.setUser(user);
+        driver.setName("Rated Driver");
+        driver.setPhone("5555500001");
+        driver.setRating(new BigDecimal("4.90"));
+        driver = driverRepository.save(driver);
+
+        Order order = new Order();
+        order.setUser(userRepository.findByUsername("customer").orElseThrow());
+        order = orderRepository.save(order);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(order);
+        delivery.setDeliveryAddress("1 Galle Road");
+        delivery.setDriver(driver);
+        delivery.setStatus(Delivery.DeliveryStatus.PICKED_UP);
+        deliveryRepository.save(delivery);
+
+        // Then
+        mockMvc.perform(get("/api/orders/admin/drivers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("rated-driver"))
+                .andExpect(jsonPath("$[0].name").value("Rated Driver"))
+                .andExpect(jsonPath("$[0].activeDeliveries").value(1))
+                .andExpect(jsonPath("$[?(@.username == 'driver')].enabled").value(true))
+                .andExpect(jsonPath("$[?(@.username == 'driver')].activeDeliveries").value(0));
+    }
+}
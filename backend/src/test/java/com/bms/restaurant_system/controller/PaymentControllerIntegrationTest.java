@@ -1,6 +1,7 @@
 package com.bms.restaurant_system.controller;
 
 import com.bms.restaurant_system.dto.PaymentDTO;
+import com.bms.restaurant_system.dto.RefundJobDTO;
 import com.bms.restaurant_system.entity.Order;
 import com.bms.restaurant_system.entity.Order.OrderStatus;
 import com.bms.restaurant_system.entity.Order.OrderType;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -23,6 +25,7 @@ import org.springframework.web.context.WebApplicationContext;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -354,10 +357,22 @@ class PaymentControllerIntegrationTest {
         mockMvc.perform(put("/api/payments/" + created.id() + "/approve"))
                 .andExpect(status().isOk());
 
-        // Process a partial refund
-        mockMvc.perform(post("/api/payments/" + created.id() + "/refund")
+        // Queue a partial refund
+        MockHttpServletResponse accepted = mockMvc.perform(post("/api/payments/" + created.id() + "/refund")
                 .param("amount", "25.00")
                 .param("reason", "Customer request"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.paymentId").value(created.id()))
+                .andExpect(jsonPath("$.amount").value(25.00))
+                .andExpect(jsonPath("$.reason").value("Customer request"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse();
+        RefundJobDTO job = objectMapper.readValue(accepted.getContentAsString(), RefundJobDTO.class);
+        assertEquals("/api/payments/refunds/" + job.id(), accepted.getHeader("Location"));
+
+        // The job runs in the background; once it succeeds the payment is partially refunded
+        assertEquals("SUCCEEDED", awaitRefund(job.id()).status());
+        mockMvc.perform(get("/api/payments/" + created.id()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("PARTIALLY_REFUNDED"))
                 .andExpect(jsonPath("$.refundAmount").value(25.00))
@@ -417,10 +432,21 @@ class PaymentControllerIntegrationTest {
         mockMvc.perform(put("/api/payments/" + created.id() + "/approve"))
                 .andExpect(status().isOk());
 
-        // Process a full refund - should succeed in test environment
-        mockMvc.perform(post("/api/payments/" + created.id() + "/refund/full")
+        // Queue a full refund
+        MockHttpServletResponse accepted = mockMvc.perform(post("/api/payments/" + created.id() + "/refund/full")
                 .param("reason", "Order cancelled"))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.paymentId").value(created.id()))
+                .andExpect(jsonPath("$.amount").value(50.00))
+                .andReturn().getResponse();
+        RefundJobDTO job = objectMapper.readValue(accepted.getContentAsString(), RefundJobDTO.class);
+        assertEquals("/api/payments/refunds/" + job.id(), accepted.getHeader("Location"));
+
+        // Then
+        assertEquals("SUCCEEDED", awaitRefund(job.id()).status());
+        mockMvc.perform(get("/api/payments/" + created.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REFUNDED"));
     }
 
     @Test
@@ -475,4 +501,20 @@ class PaymentControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("100.00")); // Should return the full payment amount with 2 decimal places
     }
-}
\ No newline at end of file
+
+    // Polls the refund job until the background worker finishes it
+    private RefundJobDTO awaitRefund(Long jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            String body = mockMvc.perform(get("/api/payments/refunds/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            RefundJobDTO job = objectMapper.readValue(body, RefundJobDTO.class);
+            boolean finished = "SUCCEEDED".equals(job.status()) || "FAILED".equals(job.status());
+            if (finished || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
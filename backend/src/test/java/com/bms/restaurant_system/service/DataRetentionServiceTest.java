@@ -0,0 +1,119 @@
+package com.bms.restaurant_system.service;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Notification;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.repository.NotificationRepository;
+import com.bms.restaurant_system.repository.OrderTrackingRepository;
+import com.bms.restaurant_system.repository.OutboxEventRepository;
+import com.bms.restaurant_system.service.notification.UnreadCounterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DataRetentionServiceTest {
+
+    private static final List<Notification.NotificationStatus> UNREAD = List.of(Notification.NotificationStatus.UNREAD);
+
+    private NotificationRepository notificationRepository;
+    private OrderTrackingRepository orderTrackingRepository;
+    private OutboxEventRepository outboxEventRepository;
+    private UnreadCounterService unreadCounterService;
+    private SimpleMeterRegistry meterRegistry;
+    private AppProperties appProperties;
+    private DataRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        orderTrackingRepository = mock(OrderTrackingRepository.class);
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        unreadCounterService = mock(UnreadCounterService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        appProperties = new AppProperties();
+        appProperties.getRetention().setBatchSize(2);
+        appProperties.getRetention().setBatchPauseMs(0);
+
+        retentionService = new DataRetentionService();
+        ReflectionTestUtils.setField(retentionService, "appProperties", appProperties);
+        ReflectionTestUtils.setField(retentionService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(retentionService, "orderTrackingRepository", orderTrackingRepository);
+        ReflectionTestUtils.setField(retentionService, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(retentionService, "unreadCounterService", unreadCounterService);
+        ReflectionTestUtils.setField(retentionService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(retentionService, "transactionManager", mock(PlatformTransactionManager.class));
+        retentionService.init();
+    }
+
+    @Test
+    void purge_ShouldDeleteInBatchesUntilOneComesBackShort() {
+        // Given: five expired tracking rows and three relayed outbox events
+        when(orderTrackingRepository.findLastIdBefore(any())).thenReturn(40L);
+        when(orderTrackingRepository.findIdsUpTo(40L, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        when(outboxEventRepository.findProcessedIdsBefore(eq(OutboxEvent.OutboxStatus.PROCESSED), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(7L, 8L), List.of(9L));
+
+        // When
+        DataRetentionService.PurgeResult result = retentionService.purge();
+
+        // Then: each batch deletes exactly the ids it selected
+        assertEquals(5, result.orderTracking());
+        assertEquals(3, result.outboxEvents());
+        verify(orderTrackingRepository).deleteByIds(List.of(1L, 2L));
+        verify(orderTrackingRepository).deleteByIds(List.of(3L, 4L));
+        verify(orderTrackingRepository).deleteByIds(List.of(5L));
+        verify(outboxEventRepository).deleteByIds(List.of(9L));
+        assertEquals(5.0, meterRegistry.get("retention.purged.rows").tag("table", "order_tracking").counter().count());
+        assertEquals(1, meterRegistry.get("retention.purge.duration").tag("table", "outbox_events").timer().count());
+    }
+
+    @Test
+    void purge_ShouldUsePerTypeTtlAndReloadCountsAfterDeletingUnread() {
+        // Given
+        when(notificationRepository.findExpiredIds(eq(Notification.NotificationType.PROMOTIONAL), eq(UNREAD), any(), any()))
+                .thenReturn(List.of(3L));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        DataRetentionService.PurgeResult result = retentionService.purge();
+
+        // Then: promotions expire after 14 days unread, other types after the 90 day default
+        assertEquals(1, result.notifications());
+        verify(notificationRepository).findExpiredIds(eq(Notification.NotificationType.PROMOTIONAL), eq(UNREAD),
+                argThat(cutoff -> cutoff.isBefore(before.minusDays(13)) && cutoff.isAfter(before.minusDays(15))), eq(Limit.of(2)));
+        verify(notificationRepository).findExpiredIds(eq(Notification.NotificationType.ORDER_STATUS_UPDATE), eq(UNREAD),
+                argThat(cutoff -> cutoff.isBefore(before.minusDays(89)) && cutoff.isAfter(before.minusDays(91))), eq(Limit.of(2)));
+        verify(notificationRepository).deleteByIds(List.of(3L));
+        verify(unreadCounterService).invalidateAll();
+    }
+
+    @Test
+    void purge_ShouldKeepRowsWhoseTtlIsDisabled() {
+        // Given
+        appProperties.getRetention().setOrderTrackingTtlDays(0);
+        appProperties.getRetention().setProcessedOutboxTtlDays(0);
+
+        // When
+        retentionService.purge();
+
+        // Then
+        verify(orderTrackingRepository, never()).findIdsUpTo(any(), any());
+        verify(outboxEventRepository, never()).findProcessedIdsBefore(any(), any(), any());
+        verify(notificationRepository, atLeastOnce()).findExpiredIds(any(), any(), any(), any());
+        verify(notificationRepository, never()).deleteByIds(any());
+        verify(unreadCounterService, never()).invalidateAll();
+    }
+}
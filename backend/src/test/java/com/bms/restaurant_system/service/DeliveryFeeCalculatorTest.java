@@ -0,0 +1,64 @@
+package com.bms.restaurant_system.service;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.DeliveryFeeQuoteDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeliveryFeeCalculatorTest {
+
+    private AppProperties appProperties;
+    private DeliveryFeeCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        calculator = new DeliveryFeeCalculator();
+        ReflectionTestUtils.setField(calculator, "appProperties", appProperties);
+        ReflectionTestUtils.setField(calculator, "settingsService", mock(SystemSettingsService.class));
+    }
+
+    @Test
+    void quote_ShouldUseZoneFeeInsideZone() {
+        // Given - a square zone around the kitchen
+        appProperties.getDeliveryFee().setZones(List.of(zone("Fort", new BigDecimal("250"))));
+        calculator.init();
+
+        // When
+        DeliveryFeeQuoteDTO quote = calculator.quote(new BigDecimal("6.9271"), new BigDecimal("79.8612"));
+
+        // Then
+        assertEquals(new BigDecimal("250.00"), quote.fee());
+        assertEquals("Fort", quote.zone());
+    }
+
+    @Test
+    void init_ShouldRejectZonesAndBandsWithoutFee() {
+        // Given
+        appProperties.getDeliveryFee().setZones(List.of(zone("Fort", null)));
+
+        // Then - refused at startup rather than failing on the first quote
+        assertThrows(IllegalArgumentException.class, () -> calculator.init());
+
+        appProperties.getDeliveryFee().setZones(List.of());
+        AppProperties.DeliveryFee.Band band = new AppProperties.DeliveryFee.Band();
+        band.setMaxKm(5);
+        appProperties.getDeliveryFee().setBands(List.of(band));
+        assertThrows(IllegalArgumentException.class, () -> calculator.init());
+    }
+
+    private static AppProperties.DeliveryFee.Zone zone(String name, BigDecimal fee) {
+        AppProperties.DeliveryFee.Zone zone = new AppProperties.DeliveryFee.Zone();
+        zone.setName(name);
+        zone.setFee(fee);
+        zone.setPoints(List.of("6.92 79.85", "6.92 79.87", "6.94 79.87", "6.94 79.85"));
+        return zone;
+    }
+}
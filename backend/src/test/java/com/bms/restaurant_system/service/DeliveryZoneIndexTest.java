@@ -0,0 +1,54 @@
+package com.bms.restaurant_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryZoneIndexTest {
+
+    // Concave "L" shaped zone around the kitchen
+    private static final DeliveryZoneIndex.Polygon OUTER = new DeliveryZoneIndex.Polygon("outer",
+            new double[]{6.90, 6.90, 6.95, 6.95, 6.92, 6.92},
+            new double[]{79.84, 79.90, 79.90, 79.87, 79.87, 79.84});
+
+    // Small zone overlapping the outer one
+    private static final DeliveryZoneIndex.Polygon INNER = new DeliveryZoneIndex.Polygon("inner",
+            new double[]{6.905, 6.905, 6.915, 6.915},
+            new double[]{79.885, 79.895, 79.895, 79.885});
+
+    @Test
+    void findZone_ShouldMatchExactPointInPolygon() {
+        // Given
+        DeliveryZoneIndex index = new DeliveryZoneIndex(List.of(OUTER), 0.002);
+        Random random = new Random(11);
+
+        // When / Then
+        for (int i = 0; i < 20_000; i++) {
+            double lat = 6.89 + random.nextDouble() * 0.07;
+            double lon = 79.83 + random.nextDouble() * 0.08;
+            boolean expected = DeliveryZoneIndex.contains(OUTER, lat, lon);
+            assertEquals(expected ? "outer" : null, index.findZone(lat, lon), "at " + lat + ", " + lon);
+        }
+    }
+
+    @Test
+    void findZone_ShouldPreferEarlierZone_WhenZonesOverlap() {
+        // Given
+        DeliveryZoneIndex index = new DeliveryZoneIndex(List.of(INNER, OUTER), 0.002);
+
+        // Then
+        assertEquals("inner", index.findZone(6.91, 79.89));
+        assertEquals("outer", index.findZone(6.91, 79.86));
+        assertNull(index.findZone(6.94, 79.85));
+        assertNull(index.findZone(7.50, 80.50));
+    }
+
+    @Test
+    void findZone_ShouldReturnNull_WhenNoZonesConfigured() {
+        DeliveryZoneIndex index = new DeliveryZoneIndex(List.of(), 0.002);
+        assertNull(index.findZone(6.91, 79.89));
+    }
+}
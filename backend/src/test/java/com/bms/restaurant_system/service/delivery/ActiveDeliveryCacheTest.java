@@ -0,0 +1,111 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.dto.driver.DeliveryDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ActiveDeliveryCacheTest {
+
+    private ActiveDeliveryCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ActiveDeliveryCache();
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndFollowChangesOutsideTransactions() {
+        // Given
+        assertEquals(List.of(1L), ids(cached()));
+
+        // When
+        cache.put(3L, delivery(2L));
+        cache.put(3L, delivery(1L));
+        cache.remove(3L, 2L);
+
+        // Then - delivery 1 was replaced rather than duplicated, and nothing was reloaded
+        assertEquals(List.of(1L), ids(cached()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void changesInsideATransaction_ShouldWaitForCommit() {
+        // Given
+        cached();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        cache.put(3L, delivery(2L));
+        cache.remove(3L, 1L);
+
+        // Then
+        assertEquals(List.of(1L), ids(cached()));
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(List.of(2L), ids(cached()));
+    }
+
+    @Test
+    void changesInsideARolledBackTransaction_ShouldBeDropped() {
+        // Given
+        cached();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When - the transaction ends without committing
+        cache.put(3L, delivery(2L));
+        cache.evict(3L);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Then
+        assertEquals(List.of(1L), ids(cached()));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evict_ShouldReloadOnNextRead() {
+        // Given
+        cached();
+
+        // When
+        cache.evict(3L);
+        cached();
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    // Driver 3's entry, loaded with delivery 1
+    private List<DeliveryDTO> cached() {
+        return cache.get(3L, driverId -> {
+            loads.incrementAndGet();
+            return List.of(delivery(1L));
+        });
+    }
+
+    private static DeliveryDTO delivery(Long id) {
+        DeliveryDTO delivery = mock(DeliveryDTO.class);
+        when(delivery.id()).thenReturn(id);
+        return delivery;
+    }
+
+    private static List<Long> ids(List<DeliveryDTO> deliveries) {
+        return deliveries.stream().map(DeliveryDTO::id).toList();
+    }
+}
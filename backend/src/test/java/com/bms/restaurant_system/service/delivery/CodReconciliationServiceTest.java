@@ -0,0 +1,83 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.driver.CodReconciliationDTO;
+import com.bms.restaurant_system.dto.driver.CodShiftSummaryDTO;
+import com.bms.restaurant_system.entity.PaymentMethod;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class CodReconciliationServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 10, 17, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2025, 10, 18, 0, 0);
+
+    private DeliveryRepository deliveryRepository;
+    private CodReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        deliveryRepository = mock(DeliveryRepository.class);
+        reconciliationService = new CodReconciliationService();
+        ReflectionTestUtils.setField(reconciliationService, "appProperties", new AppProperties());
+        ReflectionTestUtils.setField(reconciliationService, "deliveryRepository", deliveryRepository);
+    }
+
+    @Test
+    void reconcile_ShouldVerifyMatchingCashAndFlagMismatches() {
+        // Given - driver 1's cash matches, driver 2 is 200 short on order 42
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 3L, new BigDecimal("4500.00"), new BigDecimal("4500.00"), 0L});
+        rows.add(new Object[]{2L, 2L, new BigDecimal("2800.00"), new BigDecimal("3000.00"), 1L});
+        when(deliveryRepository.summarizeUnreconciledCash(PaymentMethod.CASH_ON_DELIVERY, FROM, TO, null)).thenReturn(rows);
+        List<Object[]> mismatches = new ArrayList<>();
+        mismatches.add(new Object[]{2L, 42L});
+        when(deliveryRepository.findCashMismatches(PaymentMethod.CASH_ON_DELIVERY, FROM, TO, null)).thenReturn(mismatches);
+        when(deliveryRepository.markCashReconciled(eq(PaymentMethod.CASH_ON_DELIVERY), eq(FROM), eq(TO), isNull(), any()))
+                .thenReturn(4);
+
+        // When
+        CodReconciliationDTO result = reconciliationService.reconcile(null, FROM, TO);
+
+        // Then
+        assertEquals(4, result.deliveriesVerified());
+        CodShiftSummaryDTO short2 = result.drivers().get(1);
+        assertEquals(2L, short2.driverId());
+        assertEquals(new BigDecimal("-200.00"), short2.difference());
+        assertEquals(List.of(42L), short2.mismatchedOrderIds());
+        assertEquals(List.of(), result.drivers().get(0).mismatchedOrderIds());
+    }
+
+    @Test
+    void reconcile_ShouldSkipMismatchQueryWhenEverythingMatches() {
+        // Given
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 1L, new BigDecimal("1500.00"), new BigDecimal("1500.00"), 0L});
+        when(deliveryRepository.summarizeUnreconciledCash(any(), any(), any(), eq(1L))).thenReturn(rows);
+
+        // When
+        reconciliationService.reconcile(1L, FROM, TO);
+
+        // Then
+        verify(deliveryRepository, never()).findCashMismatches(any(), any(), any(), any());
+        verify(deliveryRepository).markCashReconciled(eq(PaymentMethod.CASH_ON_DELIVERY), eq(FROM), eq(TO), eq(1L), any());
+    }
+
+    @Test
+    void reconcile_ShouldRejectEmptyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> reconciliationService.reconcile(null, TO, FROM));
+    }
+}
@@ -0,0 +1,263 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.dto.driver.DeliveryDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.DeliveryDriver;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.PaymentMethod;
+import com.bms.restaurant_system.repository.DeliveryDriverRepository;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DeliveryServiceTest {
+
+    private DeliveryRepository deliveryRepository;
+    private OrderRepository orderRepository;
+    private DriverRepository driverRepository;
+    private DriverStateRegistry driverStateRegistry;
+    private DeliveryDriverRepository deliveryDriverRepository;
+    private EtaService etaService;
+    private DriverMetricsService driverMetricsService;
+    private OutboxService outboxService;
+    private ActiveDeliveryCache activeDeliveryCache;
+    private LocationIngestionService locationIngestionService;
+    private DeliveryService deliveryService;
+
+    @BeforeEach
+    void setUp() {
+        deliveryRepository = mock(DeliveryRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        driverRepository = mock(DriverRepository.class);
+        driverStateRegistry = mock(DriverStateRegistry.class);
+        deliveryDriverRepository = mock(DeliveryDriverRepository.class);
+        etaService = mock(EtaService.class);
+        driverMetricsService = mock(DriverMetricsService.class);
+        outboxService = mock(OutboxService.class);
+        activeDeliveryCache = mock(ActiveDeliveryCache.class);
+        locationIngestionService = mock(LocationIngestionService.class);
+        when(deliveryRepository.save(any(Delivery.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        deliveryService = new DeliveryService();
+        ReflectionTestUtils.setField(deliveryService, "deliveryRepository", deliveryRepository);
+        ReflectionTestUtils.setField(deliveryService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(deliveryService, "driverRepository", driverRepository);
+        ReflectionTestUtils.setField(deliveryService, "deliveryDriverRepository", deliveryDriverRepository);
+        ReflectionTestUtils.setField(deliveryService, "orderTrackingStreamService", mock(OrderTrackingStreamService.class));
+        ReflectionTestUtils.setField(deliveryService, "activeDeliveryCache", activeDeliveryCache);
+        ReflectionTestUtils.setField(deliveryService, "etaService", etaService);
+        ReflectionTestUtils.setField(deliveryService, "driverMetricsService", driverMetricsService);
+        ReflectionTestUtils.setField(deliveryService, "driverStateRegistry", driverStateRegistry);
+        ReflectionTestUtils.setField(deliveryService, "outboxService", outboxService);
+        ReflectionTestUtils.setField(deliveryService, "locationIngestionService", locationIngestionService);
+    }
+
+    @Test
+    void completingTheSameDeliveryTwice_ShouldRecordItsMetricsOnce() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+
+        // When - the driver marks it delivered, then submits proof of delivery
+        deliveryService.updateDeliveryStatus(10L, Delivery.DeliveryStatus.DELIVERED);
+        LocalDateTime deliveredAt = delivery.getActualDeliveryTime();
+        deliveryService.completeDelivery(10L, "Left at the door", "photo.jpg");
+
+        // Then
+        verify(driverMetricsService, times(1)).recordDelivery(delivery);
+        verify(etaService, times(1)).recordCompletion(delivery);
+        verify(outboxService, times(1)).deliveryStatusChanged(delivery);
+        verify(locationIngestionService, atLeastOnce()).endTrack(10L);
+        assertEquals(deliveredAt, delivery.getActualDeliveryTime());
+        assertEquals("photo.jpg", delivery.getProofOfDelivery());
+    }
+
+    @Test
+    void repeatedDeliveredStatus_ShouldNotRecordMetricsAgain() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+
+        // When
+        deliveryService.updateDeliveryStatus(10L, Delivery.DeliveryStatus.DELIVERED);
+        deliveryService.updateDeliveryStatus(10L, Delivery.DeliveryStatus.DELIVERED);
+
+        // Then
+        verify(driverMetricsService, times(1)).recordDelivery(delivery);
+    }
+
+    @Test
+    void assignDriverToDelivery_ShouldRecordTheAssignmentInTheOutbox() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        delivery.setDriver(null);
+        delivery.setStatus(Delivery.DeliveryStatus.PENDING);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+        when(driverRepository.findById(3L)).thenReturn(Optional.of(driver));
+        when(driverStateRegistry.tryAssign(3L, 1)).thenReturn(true);
+
+        // When
+        deliveryService.assignDriverToDelivery(10L, 3L);
+
+        // Then
+        assertEquals(Delivery.DeliveryStatus.ASSIGNED, delivery.getStatus());
+        verify(outboxService).deliveryStatusChanged(delivery);
+    }
+
+    @Test
+    void assignDriverToDelivery_ShouldStopTrackingThePreviousDriver() {
+        // Given - driver 3 is carrying the delivery, driver 4 takes it over
+        Delivery delivery = inTransitDelivery();
+        Driver next = new Driver();
+        next.setId(4L);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+        when(driverRepository.findById(4L)).thenReturn(Optional.of(next));
+        when(driverStateRegistry.tryAssign(4L, 1)).thenReturn(true);
+
+        // When
+        deliveryService.assignDriverToDelivery(10L, 4L);
+
+        // Then
+        verify(locationIngestionService).endTrack(10L);
+        verify(driverStateRegistry).release(3L);
+    }
+
+    @Test
+    void updateDelivery_ShouldReturnDriverCapacityAndDropItFromTheCacheWhenCancelled() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+        DeliveryDTO details = mock(DeliveryDTO.class);
+        when(details.status()).thenReturn("cancelled");
+
+        // When
+        deliveryService.updateDelivery(10L, details);
+
+        // Then
+        assertEquals(Delivery.DeliveryStatus.CANCELLED, delivery.getStatus());
+        verify(driverStateRegistry).track(delivery, true);
+        verify(outboxService).deliveryStatusChanged(delivery);
+        verify(activeDeliveryCache).remove(3L, 10L);
+    }
+
+    @Test
+    void assignRoute_ShouldRecordRouteAndStopOnTheAssignments() {
+        // Given
+        Delivery first = inTransitDelivery();
+        first.setDriver(null);
+        first.setStatus(Delivery.DeliveryStatus.PENDING);
+        Delivery second = inTransitDelivery();
+        second.setId(11L);
+        second.setDriver(null);
+        second.setStatus(Delivery.DeliveryStatus.PENDING);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(first));
+        when(deliveryRepository.findById(11L)).thenReturn(Optional.of(second));
+        when(driverRepository.findById(3L)).thenReturn(Optional.of(driver));
+        when(driverStateRegistry.tryAssign(3L, 2)).thenReturn(true);
+        when(deliveryDriverRepository.findByDeliveryIdAndDriverId(any(), any())).thenReturn(Optional.empty());
+
+        // When
+        deliveryService.assignRoute("r-1", List.of(11L, 10L), 3L);
+
+        // Then
+        ArgumentCaptor<DeliveryDriver> saved = ArgumentCaptor.forClass(DeliveryDriver.class);
+        verify(deliveryDriverRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(11L, 10L), saved.getAllValues().stream().map(dd -> dd.getDelivery().getId()).toList());
+        assertEquals(List.of(1, 2), saved.getAllValues().stream().map(DeliveryDriver::getStopSequence).toList());
+        assertTrue(saved.getAllValues().stream().allMatch(dd -> "r-1".equals(dd.getRouteId()) && dd.getNotes() == null));
+    }
+
+    @Test
+    void assignRoute_ShouldRejectDeliveriesThatAreNoLongerWaiting() {
+        // Given
+        Delivery delivered = inTransitDelivery();
+        delivered.setStatus(Delivery.DeliveryStatus.DELIVERED);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivered));
+        when(driverRepository.findById(3L)).thenReturn(Optional.of(driver));
+        when(driverStateRegistry.tryAssign(3L, 1)).thenReturn(true);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> deliveryService.assignRoute("r-1", List.of(10L), 3L));
+        assertEquals(Delivery.DeliveryStatus.DELIVERED, delivered.getStatus());
+        verify(driverStateRegistry).cancel(3L, 1);
+    }
+
+    @Test
+    void confirmCashCollection_ShouldMarkOrderPaidRightAway() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        delivery.setStatus(Delivery.DeliveryStatus.DELIVERED);
+        delivery.setCashReconciledAt(LocalDateTime.now().minusHours(1));
+        Order order = delivery.getOrder();
+        order.setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        order.setPaymentStatus(Order.PaymentStatus.PENDING);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+
+        // When
+        deliveryService.confirmCashCollection(3L, 10L, new BigDecimal("1500.00"));
+
+        // Then - paid now, with the amount left for the next reconciliation to verify
+        assertEquals(Order.PaymentStatus.PAID, order.getPaymentStatus());
+        assertTrue(delivery.getCashCollectionConfirmed());
+        assertEquals(new BigDecimal("1500.00"), delivery.getCashCollected());
+        assertNull(delivery.getCashReconciledAt());
+        verify(orderRepository).save(order);
+        verify(outboxService).orderPaymentStatusChanged(eq(order), any());
+    }
+
+    @Test
+    void confirmCashCollection_ShouldRejectOtherDriversAndPrepaidOrders() {
+        // Given
+        Delivery delivery = inTransitDelivery();
+        delivery.setStatus(Delivery.DeliveryStatus.DELIVERED);
+        delivery.getOrder().setPaymentMethod(PaymentMethod.CASH_ON_DELIVERY);
+        delivery.getOrder().setPaymentStatus(Order.PaymentStatus.PENDING);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+
+        // Then
+        assertThrows(IllegalStateException.class,
+                () -> deliveryService.confirmCashCollection(4L, 10L, new BigDecimal("1500.00")));
+        delivery.getOrder().setPaymentMethod(PaymentMethod.DEPOSIT_SLIP);
+        assertThrows(IllegalStateException.class,
+                () -> deliveryService.confirmCashCollection(3L, 10L, new BigDecimal("1500.00")));
+        assertEquals(Order.PaymentStatus.PENDING, delivery.getOrder().getPaymentStatus());
+    }
+
+    private static Delivery inTransitDelivery() {
+        Order order = new Order();
+        order.setId(7L);
+        order.setStatus(Order.OrderStatus.OUT_FOR_DELIVERY);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        Delivery delivery = new Delivery();
+        delivery.setId(10L);
+        delivery.setOrder(order);
+        delivery.setDriver(driver);
+        delivery.setStatus(Delivery.DeliveryStatus.IN_TRANSIT);
+        delivery.setPickupTime(LocalDateTime.now().minusMinutes(20));
+        return delivery;
+    }
+}
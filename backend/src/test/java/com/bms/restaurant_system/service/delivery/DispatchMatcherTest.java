@@ -0,0 +1,141 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DispatchMatcherTest {
+
+    private static final double KITCHEN_LAT = 6.9271;
+    private static final double KITCHEN_LON = 79.8612;
+
+    @Test
+    void match_ShouldPickNearestDriver() {
+        // Given
+        DriverSpatialIndex index = new DriverSpatialIndex(0.01);
+        index.update(1L, KITCHEN_LAT + 0.05, KITCHEN_LON);
+        index.update(2L, KITCHEN_LAT + 0.002, KITCHEN_LON);
+        Map<Long, DispatchMatcher.DriverCandidate> drivers = Map.of(
+                1L, new DispatchMatcher.DriverCandidate(1L, 4.0, 0),
+                2L, new DispatchMatcher.DriverCandidate(2L, 4.0, 0));
+        DispatchMatcher matcher = new DispatchMatcher(index, 15.0, 3, 8);
+
+        // When
+        List<DispatchMatcher.Assignment> assignments = matcher.match(
+                List.of(new DispatchMatcher.PendingDelivery(10L, KITCHEN_LAT, KITCHEN_LON)), drivers);
+
+        // Then
+        assertEquals(1, assignments.size());
+        assertEquals(2L, assignments.get(0).driverId());
+    }
+
+    @Test
+    void match_ShouldPreferHigherRating_WhenDistanceIsEqual() {
+        // Given
+        DriverSpatialIndex index = new DriverSpatialIndex(0.01);
+        index.update(1L, KITCHEN_LAT, KITCHEN_LON);
+        index.update(2L, KITCHEN_LAT, KITCHEN_LON);
+        Map<Long, DispatchMatcher.DriverCandidate> drivers = Map.of(
+                1L, new DispatchMatcher.DriverCandidate(1L, 3.0, 0),
+                2L, new DispatchMatcher.DriverCandidate(2L, 5.0, 0));
+        DispatchMatcher matcher = new DispatchMatcher(index, 15.0, 3, 8);
+
+        // When
+        List<DispatchMatcher.Assignment> assignments = matcher.match(
+                List.of(new DispatchMatcher.PendingDelivery(10L, KITCHEN_LAT, KITCHEN_LON)), drivers);
+
+        // Then
+        assertEquals(2L, assignments.get(0).driverId());
+    }
+
+    @Test
+    void match_ShouldRespectMaxActiveDeliveriesAndRadius() {
+        // Given
+        DriverSpatialIndex index = new DriverSpatialIndex(0.01);
+        index.update(1L, KITCHEN_LAT, KITCHEN_LON);
+        index.update(2L, KITCHEN_LAT + 1.0, KITCHEN_LON);
+        Map<Long, DispatchMatcher.DriverCandidate> drivers = Map.of(
+                1L, new DispatchMatcher.DriverCandidate(1L, 4.0, 1),
+                2L, new DispatchMatcher.DriverCandidate(2L, 4.0, 0));
+        DispatchMatcher matcher = new DispatchMatcher(index, 15.0, 2, 8);
+
+        // When
+        List<DispatchMatcher.Assignment> assignments = matcher.match(List.of(
+                new DispatchMatcher.PendingDelivery(10L, KITCHEN_LAT, KITCHEN_LON),
+                new DispatchMatcher.PendingDelivery(11L, KITCHEN_LAT, KITCHEN_LON)), drivers);
+
+        // Then - driver 1 fills up after one more delivery, driver 2 is out of range
+        assertEquals(1, assignments.size());
+        assertEquals(10L, assignments.get(0).deliveryId());
+        assertEquals(1L, assignments.get(0).driverId());
+    }
+
+    @Test
+    void nearest_ShouldMatchBruteForce() {
+        // Given
+        Random random = new Random(7);
+        DriverSpatialIndex index = new DriverSpatialIndex(0.01);
+        Map<Long, double[]> positions = new HashMap<>();
+        for (long id = 1; id <= 300; id++) {
+            double lat = KITCHEN_LAT + (random.nextDouble() - 0.5) * 0.3;
+            double lon = KITCHEN_LON + (random.nextDouble() - 0.5) * 0.3;
+            index.update(id, lat, lon);
+            positions.put(id, new double[]{lat, lon});
+        }
+
+        // When
+        List<DriverSpatialIndex.Neighbour> nearest = index.nearest(KITCHEN_LAT, KITCHEN_LON, 10.0, 5, id -> true);
+
+        // Then
+        List<Long> expected = positions.entrySet().stream()
+                .sorted((a, b) -> Double.compare(
+                        GeoUtils.haversineKm(KITCHEN_LAT, KITCHEN_LON, a.getValue()[0], a.getValue()[1]),
+                        GeoUtils.haversineKm(KITCHEN_LAT, KITCHEN_LON, b.getValue()[0], b.getValue()[1])))
+                .limit(5)
+                .map(Map.Entry::getKey)
+                .toList();
+        assertEquals(expected, nearest.stream().map(DriverSpatialIndex.Neighbour::driverId).toList());
+    }
+
+    @Test
+    void simulator_ShouldDispatch5000DeliveriesAcross500Drivers() {
+        // Given - drivers and pickup points scattered across roughly 30 km x 30 km around the kitchen
+        Random random = new Random(42);
+        DriverSpatialIndex index = new DriverSpatialIndex(0.01);
+        Map<Long, DispatchMatcher.DriverCandidate> drivers = new HashMap<>();
+        for (long id = 1; id <= 500; id++) {
+            index.update(id, KITCHEN_LAT + (random.nextDouble() - 0.5) * 0.27, KITCHEN_LON + (random.nextDouble() - 0.5) * 0.27);
+            drivers.put(id, new DispatchMatcher.DriverCandidate(id, 3.0 + random.nextDouble() * 2.0, random.nextInt(2)));
+        }
+        List<DispatchMatcher.PendingDelivery> deliveries = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            deliveries.add(new DispatchMatcher.PendingDelivery(id,
+                    KITCHEN_LAT + (random.nextDouble() - 0.5) * 0.27, KITCHEN_LON + (random.nextDouble() - 0.5) * 0.27));
+        }
+        DispatchMatcher matcher = new DispatchMatcher(index, 15.0, 10, 8);
+
+        // When
+        List<DispatchMatcher.Assignment> assignments = matcher.match(deliveries, drivers);
+
+        // Then - each delivery is assigned at most once and no driver exceeds the cap
+        Set<Long> assignedDeliveries = new HashSet<>();
+        Map<Long, Integer> loads = new HashMap<>();
+        drivers.forEach((id, candidate) -> loads.put(id, candidate.activeDeliveries()));
+        for (DispatchMatcher.Assignment assignment : assignments) {
+            assertTrue(assignedDeliveries.add(assignment.deliveryId()));
+            assertTrue(assignment.distanceKm() <= 15.0);
+            loads.merge(assignment.driverId(), 1, Integer::sum);
+        }
+        loads.values().forEach(load -> assertTrue(load <= 10));
+        assertTrue(assignments.size() > 4000);
+    }
+}
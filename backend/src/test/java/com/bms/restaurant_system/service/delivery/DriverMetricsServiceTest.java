@@ -0,0 +1,143 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.dto.driver.DriverStatsDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.repository.DriverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DriverMetricsServiceTest {
+
+    private DriverRepository driverRepository;
+    private DriverMetricsService metrics;
+    private long nextDeliveryId = 100L;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = mock(DriverRepository.class);
+        metrics = new DriverMetricsService();
+        ReflectionTestUtils.setField(metrics, "driverRepository", driverRepository);
+        ReflectionTestUtils.setField(metrics, "transactionManager", mock(PlatformTransactionManager.class));
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "Nimal", true, new BigDecimal("4.00"), 8, 2, 10, 7, 200L});
+        rows.add(new Object[]{2L, "Kasun", true, new BigDecimal("5.00"), 5, 1, 3, 3, 45L});
+        rows.add(new Object[]{3L, "Ruwan", false, new BigDecimal("5.00"), 10, 2, 20, 15, 400L});
+        when(driverRepository.findAllMetrics()).thenReturn(rows);
+        metrics.load();
+    }
+
+    @Test
+    void leaderboards_ShouldIncludeUnflushedDeltas() {
+        // Given - driver 2 completes eight on-time deliveries
+        for (int i = 0; i < 8; i++) {
+            metrics.recordDelivery(completedDelivery(2L, 20, true));
+        }
+
+        // When
+        List<DriverStatsDTO> byDeliveries = metrics.getTopByDeliveries(3);
+
+        // Then
+        assertEquals(List.of(3L, 2L, 1L), byDeliveries.stream().map(DriverStatsDTO::driverId).toList());
+        DriverStatsDTO driver2 = byDeliveries.get(1);
+        assertEquals(11, driver2.totalDeliveries());
+        assertEquals(1.0, driver2.onTimeRate(), 1e-9);
+        assertEquals((45 + 8 * 20) / 11.0, driver2.averageDeliveryMinutes(), 1e-9);
+        verify(driverRepository, never()).incrementMetrics(anyLong(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void topRatedAvailable_ShouldSkipUnavailableAndReflectNewRatings() {
+        // Given - driver 2 receives a poor rating
+        metrics.recordRating(2L, 1);
+
+        // When
+        List<DriverStatsDTO> topRated = metrics.getTopRatedAvailable(10);
+
+        // Then - (5 + 1) / 2 = 3.00 drops below driver 1, driver 3 is unavailable
+        assertEquals(List.of(1L, 2L), topRated.stream().map(DriverStatsDTO::driverId).toList());
+        assertEquals(new BigDecimal("3.00"), topRated.get(1).rating());
+    }
+
+    @Test
+    void flush_ShouldWriteMergedDeltasOncePerDriver() {
+        // Given
+        metrics.recordDelivery(completedDelivery(1L, 30, false));
+        metrics.recordDelivery(completedDelivery(1L, 10, true));
+        metrics.recordRating(1L, 5);
+
+        // When
+        metrics.flush();
+        metrics.flush();
+
+        // Then
+        verify(driverRepository, times(1)).incrementMetrics(eq(1L), eq(5), eq(1), eq(2), eq(1), eq(40L), any());
+    }
+
+    @Test
+    void recordDelivery_ShouldCountTheSameDeliveryOnce() {
+        // Given - the same delivery is reported by two completion paths
+        Delivery delivery = completedDelivery(2L, 20, true);
+        metrics.recordDelivery(delivery);
+        metrics.recordDelivery(delivery);
+
+        // When
+        metrics.flush();
+
+        // Then
+        verify(driverRepository, times(1)).incrementMetrics(eq(2L), eq(0), eq(0), eq(1), eq(1), eq(20L), any());
+    }
+
+    @Test
+    void flush_ShouldReloadOnlyFlushedAndChangedDrivers() {
+        // Given - driver 1 completes a delivery and driver 3 is deleted
+        metrics.recordDelivery(completedDelivery(1L, 30, true));
+        metrics.driverChanged(3L);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "Nimal", true, new BigDecimal("4.00"), 8, 2, 11, 8, 230L});
+        when(driverRepository.findMetricsByIds(Set.of(1L, 3L))).thenReturn(rows);
+
+        // When
+        metrics.flush();
+
+        // Then
+        verify(driverRepository, times(1)).findAllMetrics();
+        List<DriverStatsDTO> byDeliveries = metrics.getTopByDeliveries(10);
+        assertEquals(List.of(1L, 2L), byDeliveries.stream().map(DriverStatsDTO::driverId).toList());
+        assertEquals(11, byDeliveries.get(0).totalDeliveries());
+    }
+
+    @Test
+    void recordRating_ShouldRejectOutOfRangeStars() {
+        assertThrows(IllegalArgumentException.class, () -> metrics.recordRating(1L, 6));
+    }
+
+    private Delivery completedDelivery(Long driverId, int minutes, boolean onTime) {
+        Driver driver = new Driver();
+        driver.setId(driverId);
+        LocalDateTime delivered = LocalDateTime.of(2025, 10, 17, 20, 0);
+        Delivery delivery = new Delivery();
+        delivery.setId(nextDeliveryId++);
+        delivery.setDriver(driver);
+        delivery.setPickupTime(delivered.minusMinutes(minutes));
+        delivery.setActualDeliveryTime(delivered);
+        delivery.setEstimatedDeliveryTime(onTime ? delivered.plusMinutes(5) : delivered.minusMinutes(5));
+        return delivery;
+    }
+}
@@ -0,0 +1,90 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.repository.UserRepository;
+import com.bms.restaurant_system.service.user.TrackingAccessService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DriverServiceTest {
+
+    private DriverRepository driverRepository;
+    private DriverStateRegistry driverStateRegistry;
+    private DriverService driverService;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = mock(DriverRepository.class);
+        driverStateRegistry = mock(DriverStateRegistry.class);
+        driverService = new DriverService();
+        ReflectionTestUtils.setField(driverService, "driverRepository", driverRepository);
+        ReflectionTestUtils.setField(driverService, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(driverService, "driverStateRegistry", driverStateRegistry);
+        ReflectionTestUtils.setField(driverService, "driverMetricsService", mock(DriverMetricsService.class));
+        ReflectionTestUtils.setField(driverService, "trackingAccessService", mock(TrackingAccessService.class));
+        when(driverRepository.save(any(Driver.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void getAvailableDrivers_ShouldReadShiftsFromRegistryBestRatedFirst() {
+        // Given - the column still says driver 1 is off shift, the registry knows better
+        when(driverStateRegistry.getOnShiftDriverIds()).thenReturn(List.of(1L, 2L));
+        when(driverStateRegistry.isOnShift(any())).thenReturn(true);
+        when(driverRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(driver(1L, "3.50", false), driver(2L, "4.80", true)));
+
+        // When
+        List<Driver> available = driverService.getAvailableDrivers();
+
+        // Then
+        assertEquals(List.of(2L, 1L), available.stream().map(Driver::getId).toList());
+        assertTrue(available.stream().allMatch(Driver::getAvailable));
+    }
+
+    @Test
+    void updateDriver_ShouldChangeAvailabilityThroughRegistry() {
+        // Given
+        when(driverRepository.findById(1L)).thenReturn(Optional.of(driver(1L, "4.00", true)));
+        Driver details = new Driver();
+        details.setAvailable(false);
+
+        // When
+        Driver updated = driverService.updateDriver(1L, details);
+
+        // Then
+        verify(driverStateRegistry).setOnShift(1L, false);
+        assertFalse(updated.getAvailable());
+    }
+
+    @Test
+    void deleteDriver_ShouldRemoveRegistrySlot() {
+        // Given
+        Driver driver = driver(1L, "4.00", true);
+        when(driverRepository.findById(1L)).thenReturn(Optional.of(driver));
+
+        // When
+        driverService.deleteDriver(1L);
+
+        // Then
+        verify(driverRepository).delete(driver);
+        verify(driverStateRegistry).unregister(1L);
+    }
+
+    private static Driver driver(Long id, String rating, boolean available) {
+        Driver driver = new Driver();
+        driver.setId(id);
+        driver.setRating(new BigDecimal(rating));
+        driver.setAvailable(available);
+        return driver;
+    }
+}
@@ -0,0 +1,170 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DriverStateRegistryTest {
+
+    private DriverRepository driverRepository;
+    private DriverStateRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        driverRepository = mock(DriverRepository.class);
+        DeliveryRepository deliveryRepository = mock(DeliveryRepository.class);
+        registry = new DriverStateRegistry();
+        ReflectionTestUtils.setField(registry, "appProperties", new AppProperties());
+        ReflectionTestUtils.setField(registry, "driverRepository", driverRepository);
+        ReflectionTestUtils.setField(registry, "deliveryRepository", deliveryRepository);
+        ReflectionTestUtils.setField(registry, "transactionManager", mock(PlatformTransactionManager.class));
+
+        List<Object[]> drivers = new ArrayList<>();
+        drivers.add(new Object[]{1L, true});
+        drivers.add(new Object[]{2L, true});
+        drivers.add(new Object[]{3L, false});
+        when(driverRepository.findAllAvailability()).thenReturn(drivers);
+        List<Object[]> active = new ArrayList<>();
+        active.add(new Object[]{2L, 1L});
+        when(deliveryRepository.countActiveDeliveriesByDriver(any())).thenReturn(active);
+        registry.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldRestoreStateFromDatabase() {
+        assertEquals(DriverStateRegistry.DriverState.IDLE, registry.getSlot(1L).state());
+        assertEquals(DriverStateRegistry.DriverState.EN_ROUTE, registry.getSlot(2L).state());
+        assertEquals(1, registry.getSlot(2L).activeDeliveries());
+        assertEquals(DriverStateRegistry.DriverState.OFFLINE, registry.getSlot(3L).state());
+    }
+
+    @Test
+    void tryAssign_ShouldNeverExceedCapacityUnderContention() throws Exception {
+        // Given - 16 admins race to assign driver 1, who can carry 3 deliveries
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return registry.tryAssign(1L, 1);
+            }));
+        }
+
+        // When
+        start.countDown();
+        int granted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                granted++;
+            }
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(3, granted);
+        assertEquals(3, registry.getSlot(1L).activeDeliveries());
+        verify(driverRepository, never()).findById(any());
+    }
+
+    @Test
+    void tryAssign_ShouldRejectOfflineDriver() {
+        assertFalse(registry.tryAssign(3L, 1));
+    }
+
+    @Test
+    void release_ShouldReturnDriverToIdleWhenLastDeliveryEnds() {
+        // Given
+        assertTrue(registry.tryAssign(1L, 2));
+        assertEquals(DriverStateRegistry.DriverState.ASSIGNED, registry.getSlot(1L).state());
+
+        // When
+        registry.release(1L);
+        registry.release(1L);
+
+        // Then
+        assertEquals(DriverStateRegistry.DriverState.IDLE, registry.getSlot(1L).state());
+        assertEquals(0, registry.getSlot(1L).activeDeliveries());
+    }
+
+    @Test
+    void track_ShouldMarkDriverEnRouteOnPickup() {
+        // Given
+        assertTrue(registry.tryAssign(1L, 1));
+        Driver driver = new Driver();
+        driver.setId(1L);
+        Delivery delivery = new Delivery();
+        delivery.setDriver(driver);
+        delivery.setStatus(Delivery.DeliveryStatus.PICKED_UP);
+
+        // When
+        registry.track(delivery, true);
+
+        // Then
+        assertEquals(DriverStateRegistry.DriverState.EN_ROUTE, registry.getSlot(1L).state());
+    }
+
+    @Test
+    void unregister_ShouldStopDispatchingDeletedDriver() {
+        // Given
+        registry.setOnShift(1L, false);
+
+        // When
+        registry.unregister(1L);
+        registry.flush();
+
+        // Then
+        assertFalse(registry.isOnShift(1L));
+        assertFalse(registry.getOnShiftDriverIds().contains(1L));
+        assertThrows(ResourceNotFoundException.class, () -> registry.tryAssign(1L, 1));
+        verify(driverRepository, never()).updateAvailability(any(), anyBoolean());
+    }
+
+    @Test
+    void getSlot_ShouldNotQueryForUnknownDrivers() {
+        assertThrows(ResourceNotFoundException.class, () -> registry.getSlot(99L));
+
+        registry.register(99L, true);
+
+        assertEquals(DriverStateRegistry.DriverState.IDLE, registry.getSlot(99L).state());
+        verify(driverRepository, never()).findById(any());
+    }
+
+    @Test
+    void flush_ShouldWriteLatestShiftChangeOnce() {
+        // Given
+        registry.setOnShift(3L, true);
+        registry.setOnShift(1L, false);
+        registry.setOnShift(3L, false);
+
+        // When
+        registry.flush();
+        registry.flush();
+
+        // Then
+        verify(driverRepository, times(1)).updateAvailability(eq(List.of(1L, 3L)), eq(false));
+        verify(driverRepository, never()).updateAvailability(any(), eq(true));
+        verify(driverRepository, times(1)).updateAvailability(any(), anyBoolean());
+    }
+}
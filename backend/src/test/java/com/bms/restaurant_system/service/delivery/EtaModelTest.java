@@ -0,0 +1,77 @@
+package com.bms.restaurant_system.service.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EtaModelTest {
+
+    // A Friday evening rush and a quiet Tuesday afternoon
+    private static final LocalDateTime FRIDAY_EVENING = LocalDateTime.of(2025, 10, 17, 19, 30);
+    private static final LocalDateTime TUESDAY_AFTERNOON = LocalDateTime.of(2025, 10, 14, 15, 10);
+
+    @Test
+    void predict_ShouldUsePriorBeforeTraining() {
+        // Given
+        EtaModel model = new EtaModel(30, 3);
+
+        // When / Then - 10 km at 30 km/h plus handover
+        assertEquals(23.0, model.predictRoadMinutes(FRIDAY_EVENING, 10), 1e-9);
+        assertEquals(25.0, model.predictKitchenMinutes(FRIDAY_EVENING, 20), 1e-9);
+    }
+
+    @Test
+    void observe_ShouldLearnSeparateHoursOfTheWeek() {
+        // Given - Friday evening traffic at 15 km/h, Tuesday afternoon at 40 km/h
+        EtaModel model = new EtaModel(25, 3);
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            double distance = 1 + random.nextDouble() * 9;
+            model.observeRoad(FRIDAY_EVENING.plusMinutes(random.nextInt(30)), distance, 2 + distance * 4.0);
+            model.observeRoad(TUESDAY_AFTERNOON.plusMinutes(random.nextInt(30)), distance, 2 + distance * 1.5);
+        }
+
+        // When
+        double friday = model.predictRoadMinutes(FRIDAY_EVENING, 6);
+        double tuesday = model.predictRoadMinutes(TUESDAY_AFTERNOON, 6);
+
+        // Then
+        assertEquals(26.0, friday, 0.5);
+        assertEquals(11.0, tuesday, 0.5);
+    }
+
+    @Test
+    void observe_ShouldIgnoreImplausibleDurations() {
+        // Given
+        EtaModel model = new EtaModel(30, 3);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            model.observeRoad(FRIDAY_EVENING, 5, -4);
+            model.observeKitchen(FRIDAY_EVENING, 15, 600);
+        }
+
+        // Then
+        assertEquals(0, model.roadSamples());
+        assertEquals(0, model.kitchenSamples());
+    }
+
+    @Test
+    void predict_ShouldFallBackToWeekFitForUnseenHour() {
+        // Given - kitchen consistently takes twice the menu time, seen only on Friday evenings
+        EtaModel model = new EtaModel(25, 3);
+        for (int i = 0; i < 50; i++) {
+            double preparation = 10 + (i % 5) * 5;
+            model.observeKitchen(FRIDAY_EVENING, preparation, preparation * 2);
+        }
+
+        // When
+        double tuesday = model.predictKitchenMinutes(TUESDAY_AFTERNOON, 20);
+
+        // Then
+        assertEquals(40.0, tuesday, 0.5);
+    }
+}
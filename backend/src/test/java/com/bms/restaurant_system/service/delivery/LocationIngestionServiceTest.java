@@ -0,0 +1,68 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.driver.LocationPingDTO;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.repository.DeliveryLocationRepository;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LocationIngestionServiceTest {
+
+    private DeliveryRepository deliveryRepository;
+    private Delivery delivery;
+    private LocationIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        deliveryRepository = mock(DeliveryRepository.class);
+        Order order = new Order();
+        order.setId(7L);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        delivery = new Delivery();
+        delivery.setId(10L);
+        delivery.setOrder(order);
+        delivery.setDriver(driver);
+        delivery.setStatus(Delivery.DeliveryStatus.IN_TRANSIT);
+        when(deliveryRepository.findById(10L)).thenReturn(Optional.of(delivery));
+
+        ingestionService = new LocationIngestionService();
+        ReflectionTestUtils.setField(ingestionService, "appProperties", new AppProperties());
+        ReflectionTestUtils.setField(ingestionService, "deliveryRepository", deliveryRepository);
+        ReflectionTestUtils.setField(ingestionService, "deliveryLocationRepository", mock(DeliveryLocationRepository.class));
+        ReflectionTestUtils.setField(ingestionService, "dispatchEngine", mock(DispatchEngine.class));
+        ReflectionTestUtils.setField(ingestionService, "orderTrackingStreamService", mock(OrderTrackingStreamService.class));
+        ReflectionTestUtils.setField(ingestionService, "transactionManager", mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void endTrack_ShouldDropBufferedPingsAndRejectLaterOnes() {
+        // Given - the driver has pinged, then the delivery is completed before the next flush
+        ingestionService.ingest(3L, List.of(new LocationPingDTO(10L, 6.91, 79.86, null)));
+        delivery.setStatus(Delivery.DeliveryStatus.DELIVERED);
+
+        // When
+        ingestionService.endTrack(10L);
+        ingestionService.flush();
+
+        // Then - the finished row keeps its position and the old track is gone
+        verify(deliveryRepository, never()).updateCurrentLocation(any(), any(), any(), any());
+        assertTrue(ingestionService.getLivePosition(10L).isEmpty());
+        assertThrows(IllegalStateException.class,
+                () -> ingestionService.ingest(3L, List.of(new LocationPingDTO(10L, 6.92, 79.86, null))));
+    }
+}
@@ -0,0 +1,93 @@
+package com.bms.restaurant_system.service.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationRingBufferTest {
+
+    @Test
+    void drain_ShouldReturnSamplesSinceLastDrainInOrder() {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        buffer.add(6.90, 79.80, 1_000);
+        buffer.add(6.91, 79.81, 2_000);
+
+        // When
+        List<LocationRingBuffer.Sample> first = buffer.drain();
+        buffer.add(6.92, 79.82, 3_000);
+        List<LocationRingBuffer.Sample> second = buffer.drain();
+
+        // Then
+        assertEquals(2, first.size());
+        assertEquals(1_000, first.get(0).recordedAtMillis());
+        assertEquals(1, second.size());
+        assertEquals(6.92, second.get(0).latitude());
+        assertTrue(buffer.drain().isEmpty());
+    }
+
+    @Test
+    void drain_ShouldKeepOnlyNewestSamples_WhenWritersLapTheDrainer() {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(6.9, 79.8, i);
+        }
+
+        // When
+        List<LocationRingBuffer.Sample> samples = buffer.drain();
+
+        // Then
+        assertEquals(4, samples.size());
+        assertEquals(6, samples.get(0).recordedAtMillis());
+        assertEquals(9, samples.get(3).recordedAtMillis());
+    }
+
+    @Test
+    void latest_ShouldIgnoreOutOfOrderPings() {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        buffer.add(6.95, 79.85, 5_000);
+
+        // When
+        buffer.add(6.90, 79.80, 4_000);
+
+        // Then
+        assertEquals(6.95, buffer.latest().latitude());
+        assertEquals(2, buffer.drain().size());
+    }
+
+    @Test
+    void add_ShouldNotLoseSamples_WhenWrittenConcurrently() throws Exception {
+        // Given
+        LocationRingBuffer buffer = new LocationRingBuffer(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.add(6.9, 79.8, thread * 1000L + i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        List<LocationRingBuffer.Sample> samples = new ArrayList<>(buffer.drain());
+        Set<Long> timestamps = new HashSet<>();
+        samples.forEach(sample -> timestamps.add(sample.recordedAtMillis()));
+        assertEquals(4000, timestamps.size());
+        assertEquals(3999, buffer.latest().recordedAtMillis());
+    }
+}
@@ -0,0 +1,124 @@
+package com.bms.restaurant_system.service.delivery;
+
+import com.bms.restaurant_system.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizerTest {
+
+    private static final double KITCHEN_LAT = 6.9271;
+    private static final double KITCHEN_LON = 79.8612;
+    private static final RouteOptimizer.Limits LIMITS = new RouteOptimizer.Limits(4, 60, 25, 3);
+
+    private final RouteOptimizer optimizer = new RouteOptimizer(KITCHEN_LAT, KITCHEN_LON, LIMITS, ForkJoinPool.commonPool());
+
+    @Test
+    void optimize_ShouldVisitStopsOnOneSideInDistanceOrder() {
+        // Given - three stops due north, listed out of order
+        List<RouteOptimizer.Stop> stops = List.of(
+                new RouteOptimizer.Stop(3L, KITCHEN_LAT + 0.03, KITCHEN_LON, 60),
+                new RouteOptimizer.Stop(1L, KITCHEN_LAT + 0.01, KITCHEN_LON, 60),
+                new RouteOptimizer.Stop(2L, KITCHEN_LAT + 0.02, KITCHEN_LON, 60));
+
+        // When
+        List<RouteOptimizer.Route> routes = optimizer.optimize(stops);
+
+        // Then
+        assertEquals(1, routes.size());
+        assertEquals(List.of(1L, 2L, 3L), routes.get(0).stops().stream().map(RouteOptimizer.Stop::deliveryId).toList());
+    }
+
+    @Test
+    void optimize_ShouldSplitRouteWhenDeadlineWouldBeMissed() {
+        // Given - the far stop is due almost immediately
+        List<RouteOptimizer.Stop> stops = List.of(
+                new RouteOptimizer.Stop(1L, KITCHEN_LAT + 0.01, KITCHEN_LON, 60),
+                new RouteOptimizer.Stop(2L, KITCHEN_LAT + 0.05, KITCHEN_LON + 0.001, 15));
+
+        // When
+        List<RouteOptimizer.Route> routes = optimizer.optimize(stops);
+
+        // Then
+        assertEquals(2, routes.size());
+    }
+
+    @Test
+    void optimize_ShouldBatchThreeHundredDeliveriesIntoShortFeasibleRoutes() {
+        // Given
+        Random random = new Random(42);
+        List<RouteOptimizer.Stop> stops = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            stops.add(new RouteOptimizer.Stop(id,
+                    KITCHEN_LAT + (random.nextDouble() - 0.5) * 0.12,
+                    KITCHEN_LON + (random.nextDouble() - 0.5) * 0.12,
+                    30 + random.nextInt(30)));
+        }
+
+        // When
+        List<RouteOptimizer.Route> routes = optimizer.optimize(stops);
+
+        // Then - every delivery once, on time, and each route in its shortest stop order
+        Set<Long> seen = new HashSet<>();
+        double plannedKm = 0;
+        for (RouteOptimizer.Route route : routes) {
+            assertTrue(route.stops().size() <= LIMITS.maxStops());
+            if (route.stops().size() > 1) {
+                assertTrue(route.durationMinutes() <= LIMITS.maxRouteMinutes());
+            }
+            double elapsed = 0;
+            double lat = KITCHEN_LAT;
+            double lon = KITCHEN_LON;
+            for (RouteOptimizer.Stop stop : route.stops()) {
+                assertTrue(seen.add(stop.deliveryId()), "Delivery " + stop.deliveryId() + " routed twice");
+                elapsed += GeoUtils.haversineKm(lat, lon, stop.latitude(), stop.longitude()) / LIMITS.speedKmh() * 60;
+                if (route.stops().size() > 1) {
+                    assertTrue(elapsed <= stop.deadlineMinutes(), "Delivery " + stop.deliveryId() + " arrives late");
+                }
+                elapsed += LIMITS.serviceMinutesPerStop();
+                lat = stop.latitude();
+                lon = stop.longitude();
+            }
+            assertEquals(shortestKm(new ArrayList<>(route.stops()), 0), route.distanceKm(), 1e-6);
+            plannedKm += route.distanceKm();
+        }
+        assertEquals(300, seen.size());
+        assertTrue(routes.size() < 300, "Expected some deliveries to be batched");
+
+        // Batching should at least halve the distance of sending every delivery on its own
+        double separateKm = stops.stream()
+                .mapToDouble(stop -> GeoUtils.haversineKm(KITCHEN_LAT, KITCHEN_LON, stop.latitude(), stop.longitude()))
+                .sum();
+        assertTrue(plannedKm < separateKm / 2, "Planned " + plannedKm + " km against " + separateKm + " km");
+    }
+
+    // Length of the best open path from the kitchen through the stops, by trying every order
+    private static double shortestKm(List<RouteOptimizer.Stop> stops, int from) {
+        if (from == stops.size()) {
+            double km = 0;
+            double lat = KITCHEN_LAT;
+            double lon = KITCHEN_LON;
+            for (RouteOptimizer.Stop stop : stops) {
+                km += GeoUtils.haversineKm(lat, lon, stop.latitude(), stop.longitude());
+                lat = stop.latitude();
+                lon = stop.longitude();
+            }
+            return km;
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = from; i < stops.size(); i++) {
+            Collections.swap(stops, from, i);
+            best = Math.min(best, shortestKm(stops, from + 1));
+            Collections.swap(stops, from, i);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,112 @@
+package com.bms.restaurant_system.service.notification;
+
+import com.bms.restaurant_system.dto.user.NotificationDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationStreamServiceTest {
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private NotificationStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new NotificationStreamService() {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void dispatch_ShouldSendPersonalNotificationsToOwnerAndBroadcastsToEveryone() throws Exception {
+        // Given
+        service.subscribe(1L);
+        service.subscribe(2L);
+        RecordingEmitter first = emitters.get(0);
+        RecordingEmitter second = emitters.get(1);
+
+        // When
+        service.publishToUser(1L, notification(10L, false));
+        service.broadcast(notification(11L, true));
+        service.dispatch();
+
+        // Then
+        awaitUntil(() -> first.events.size() == 2 && second.events.size() == 1);
+        assertTrue(first.events.stream().anyMatch(event -> event.contains("id:10")));
+        assertTrue(first.events.stream().anyMatch(event -> event.contains("id:11")));
+        assertTrue(second.events.get(0).contains("id:11"));
+        assertEquals(2, service.getSubscriberCount());
+    }
+
+    @Test
+    void dispatch_ShouldReplaceOverflowedQueueWithResyncEvent() throws Exception {
+        // Given
+        service.subscribe(1L);
+        RecordingEmitter emitter = emitters.get(0);
+
+        // When: far more notifications than one connection may buffer
+        for (long id = 1; id <= 100; id++) {
+            service.publishToUser(1L, notification(id, false));
+        }
+        service.dispatch();
+
+        // Then
+        awaitUntil(() -> !emitter.events.isEmpty());
+        Thread.sleep(100);
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:" + NotificationStreamService.RESYNC_EVENT));
+    }
+
+    @Test
+    void publishToUser_ShouldIgnoreUsersWithoutStreams() {
+        service.publishToUser(99L, notification(1L, false));
+        service.dispatch();
+
+        assertEquals(0, service.getSubscriberCount());
+    }
+
+    private static NotificationDTO notification(Long id, boolean global) {
+        return new NotificationDTO(id, "Order update", "Your order is on its way", "ORDER_STATUS_UPDATE", "UNREAD",
+                global ? null : 1L, null, LocalDateTime.now(), null, null, null, global);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for events");
+            Thread.sleep(10);
+        }
+    }
+
+    // Records the text of each event instead of writing to a response
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType data : builder.build()) {
+                text.append(data.getData() instanceof String value ? value : "<data>");
+            }
+            events.add(text.toString());
+        }
+    }
+}
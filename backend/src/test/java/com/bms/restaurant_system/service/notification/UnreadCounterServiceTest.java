@@ -0,0 +1,62 @@
+package com.bms.restaurant_system.service.notification;
+
+import com.bms.restaurant_system.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnreadCounterServiceTest {
+
+    private NotificationRepository notificationRepository;
+    private UnreadCounterService unreadCounterService;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        unreadCounterService = new UnreadCounterService();
+        ReflectionTestUtils.setField(unreadCounterService, "notificationRepository", notificationRepository);
+    }
+
+    @Test
+    void getUnreadCount_ShouldCountOnceThenFollowAdjustments() {
+        // Given
+        when(notificationRepository.countUnreadByUserId(1L)).thenReturn(3L);
+
+        // When
+        long loaded = unreadCounterService.getUnreadCount(1L);
+        unreadCounterService.adjust(1L, 1);
+        unreadCounterService.adjust(1L, -1);
+        unreadCounterService.adjust(1L, -1);
+
+        // Then
+        assertEquals(3, loaded);
+        assertEquals(2, unreadCounterService.getUnreadCount(1L));
+        verify(notificationRepository, times(1)).countUnreadByUserId(1L);
+    }
+
+    @Test
+    void adjust_ShouldSkipUsersNotLoadedYet() {
+        // Given
+        when(notificationRepository.countUnreadByUserId(2L)).thenReturn(5L);
+
+        // When
+        unreadCounterService.adjust(2L, 1);
+
+        // Then: the first read counts what was created before it
+        assertEquals(5, unreadCounterService.getUnreadCount(2L));
+    }
+
+    @Test
+    void reset_ShouldZeroCountWithoutQuerying() {
+        // When
+        unreadCounterService.reset(3L);
+        unreadCounterService.adjust(3L, -1);
+
+        // Then
+        assertEquals(0, unreadCounterService.getUnreadCount(3L));
+        verify(notificationRepository, never()).countUnreadByUserId(3L);
+    }
+}
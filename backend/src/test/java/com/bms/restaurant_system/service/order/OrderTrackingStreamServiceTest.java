@@ -0,0 +1,151 @@
+package com.bms.restaurant_system.service.order;
+
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.exception.ResourceNotFoundException;
+import com.bms.restaurant_system.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderTrackingStreamServiceTest {
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private OrderTrackingStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        List<Object[]> order7 = new ArrayList<>();
+        order7.add(new Object[]{Order.OrderStatus.OUT_FOR_DELIVERY, 10L, Delivery.DeliveryStatus.IN_TRANSIT});
+        List<Object[]> order8 = new ArrayList<>();
+        order8.add(new Object[]{Order.OrderStatus.PREPARING, null, null});
+        when(orderRepository.findTrackingStatus(7L)).thenReturn(order7);
+        when(orderRepository.findTrackingStatus(8L)).thenReturn(order8);
+
+        streamService = new OrderTrackingStreamService() {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(streamService, "orderRepository", orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldRegisterAndSendTheCurrentStatus() {
+        // When
+        streamService.subscribe(7L);
+        streamService.dispatch();
+
+        // Then
+        assertEquals(1, streamService.getSubscriberCount());
+        assertEquals(List.of(OrderTrackingStreamService.STATUS_EVENT), awaitEvents(emitters.get(0), 1));
+    }
+
+    @Test
+    void subscribe_ShouldRejectUnknownOrders() {
+        assertThrows(ResourceNotFoundException.class, () -> streamService.subscribe(99L));
+        assertEquals(0, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void publish_ShouldFanOutToEverySubscriberOfTheOrderOnly() {
+        // Given - two customers' tabs on order 7, one on order 8, all caught up
+        streamService.subscribe(7L);
+        streamService.subscribe(7L);
+        streamService.subscribe(8L);
+        streamService.dispatch();
+        emitters.forEach(emitter -> awaitEvents(emitter, 1));
+
+        // When
+        streamService.publish(7L, OrderTrackingStreamService.TIMELINE_EVENT, "Order picked up");
+        streamService.dispatch();
+
+        // Then
+        List<String> expected = List.of(OrderTrackingStreamService.STATUS_EVENT, OrderTrackingStreamService.TIMELINE_EVENT);
+        assertEquals(expected, awaitEvents(emitters.get(0), 2));
+        assertEquals(expected, awaitEvents(emitters.get(1), 2));
+        assertEquals(List.of(OrderTrackingStreamService.STATUS_EVENT), emitters.get(2).events);
+    }
+
+    @Test
+    void completionAndTimeout_ShouldRemoveTheSubscriber() {
+        // Given
+        streamService.subscribe(7L);
+        streamService.subscribe(7L);
+        streamService.subscribe(8L);
+
+        // When
+        emitters.get(0).completion.run();
+        emitters.get(1).timeout.run();
+        emitters.get(2).error.accept(new IllegalStateException("connection reset"));
+
+        // Then - the channels are gone, so later publishes are dropped
+        assertEquals(0, streamService.getSubscriberCount());
+        streamService.publish(7L, OrderTrackingStreamService.TIMELINE_EVENT, "Order picked up");
+        streamService.dispatch();
+        assertTrue(emitters.get(0).events.isEmpty());
+    }
+
+    // Sends run on virtual threads; dispatching again picks up anything a send in flight skipped
+    private List<String> awaitEvents(RecordingEmitter emitter, int count) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (emitter.events.size() < count && System.currentTimeMillis() < deadline) {
+            streamService.dispatch();
+            LockSupport.parkNanos(1_000_000);
+        }
+        return List.copyOf(emitter.events);
+    }
+
+    // Captures the callbacks MVC would register and the names of the events sent
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        Runnable completion;
+        Runnable timeout;
+        Consumer<Throwable> error;
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            completion = callback;
+        }
+
+        @Override
+        public synchronized void onTimeout(Runnable callback) {
+            timeout = callback;
+        }
+
+        @Override
+        public synchronized void onError(Consumer<Throwable> callback) {
+            error = callback;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String text = builder.build().iterator().next().getData().toString();
+            for (String line : text.split("\n")) {
+                if (line.startsWith("event:")) {
+                    events.add(line.substring("event:".length()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.bms.restaurant_system.service.outbox;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Delivery;
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Notification;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.OutboxEvent;
+import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.repository.OutboxEventRepository;
+import com.bms.restaurant_system.service.notification.NotificationService;
+import com.bms.restaurant_system.service.order.OrderTrackingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private AppProperties appProperties;
+    private RecordingConsumer notifications;
+    private RecordingConsumer timeline;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        appProperties = new AppProperties();
+        appProperties.getOutbox().setMaxAttempts(3);
+        notifications = new RecordingConsumer("notifications");
+        timeline = new RecordingConsumer("order-timeline");
+
+        relay = new OutboxRelay();
+        ReflectionTestUtils.setField(relay, "appProperties", appProperties);
+        ReflectionTestUtils.setField(relay, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(relay, "consumers", List.of(notifications, timeline));
+        ReflectionTestUtils.setField(relay, "transactionManager", mock(PlatformTransactionManager.class));
+        relay.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    void deliver_ShouldRetryOnlyTheConsumerThatFailed() {
+        // Given
+        OutboxEvent event = event(1L);
+        event.setAttempts(1);
+        timeline.failuresLeft = 1;
+
+        // When: the first attempt fails in the timeline consumer
+        relay.deliver(event);
+
+        // Then
+        assertEquals(OutboxEvent.OutboxStatus.PENDING, event.getStatus());
+        assertEquals(Set.of("notifications"), event.getDeliveredConsumers());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertTrue(event.getLastError().startsWith("order-timeline"));
+
+        // When: the retry succeeds
+        event.setAttempts(2);
+        relay.deliver(event);
+
+        // Then: the notification was not sent twice
+        assertEquals(OutboxEvent.OutboxStatus.PROCESSED, event.getStatus());
+        assertEquals(1, notifications.handled.size());
+        assertEquals(1, timeline.handled.size());
+        assertNotNull(event.getProcessedAt());
+        assertNull(event.getLastError());
+    }
+
+    @Test
+    void deliver_ShouldGiveUpAfterMaxAttempts() {
+        // Given
+        OutboxEvent event = event(1L);
+        event.setAttempts(3);
+        timeline.failuresLeft = Integer.MAX_VALUE;
+
+        // When
+        relay.deliver(event);
+
+        // Then
+        assertEquals(OutboxEvent.OutboxStatus.FAILED, event.getStatus());
+        assertNotNull(event.getLastError());
+    }
+
+    @Test
+    void drain_ShouldDeliverClaimedEventsInOrderAndSaveTheBatch() {
+        // Given: three due events, one of which another relay claims first
+        appProperties.getOutbox().setBatchSize(10);
+        when(outboxEventRepository.findDueIds(eq(OutboxEvent.OutboxStatus.PENDING), any(), eq(Limit.of(10))))
+                .thenReturn(List.of(1L, 2L, 3L))
+                .thenReturn(List.of());
+        when(outboxEventRepository.claim(any(), any(), any(), any())).thenReturn(1);
+        when(outboxEventRepository.claim(eq(2L), any(), any(), any())).thenReturn(0);
+        when(outboxEventRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(event(3L), event(1L)));
+
+        // When
+        int settled = relay.drain();
+
+        // Then
+        assertEquals(2, settled);
+        assertEquals(List.of(1L, 3L), notifications.handled);
+        verify(outboxEventRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void deliver_ShouldTurnADriverAssignmentIntoNotificationAndTimelineEntry() {
+        // Given: an assignment recorded through OutboxService, relayed to the real consumers
+        OutboxService outboxService = new OutboxService();
+        ReflectionTestUtils.setField(outboxService, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(outboxService, "outboxRelay", relay);
+        NotificationService notificationService = mock(NotificationService.class);
+        OrderTrackingService orderTrackingService = mock(OrderTrackingService.class);
+        NotificationOutboxConsumer notificationConsumer = new NotificationOutboxConsumer();
+        ReflectionTestUtils.setField(notificationConsumer, "notificationService", notificationService);
+        OrderTimelineOutboxConsumer timelineConsumer = new OrderTimelineOutboxConsumer();
+        ReflectionTestUtils.setField(timelineConsumer, "orderTrackingService", orderTrackingService);
+        ReflectionTestUtils.setField(relay, "consumers", List.of(notificationConsumer, timelineConsumer));
+
+        User customer = new User();
+        customer.setId(5L);
+        Order order = new Order();
+        order.setId(7L);
+        order.setUser(customer);
+        Driver driver = new Driver();
+        driver.setId(3L);
+        Delivery delivery = new Delivery();
+        delivery.setId(10L);
+        delivery.setOrder(order);
+        delivery.assignDriver(driver);
+
+        // When
+        outboxService.deliveryStatusChanged(delivery);
+        ArgumentCaptor<OutboxEvent> recorded = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(recorded.capture());
+        OutboxEvent event = recorded.getValue();
+        event.setId(1L);
+        event.setAttempts(1);
+        relay.deliver(event);
+
+        // Then
+        assertEquals(OutboxEvent.OutboxStatus.PROCESSED, event.getStatus());
+        verify(notificationService).createNotification(argThat(notification ->
+                notification.userId().equals(5L)
+                        && notification.type().equals(Notification.NotificationType.DELIVERY_UPDATE.name())
+                        && notification.referenceId().equals(10L)));
+        verify(orderTrackingService).addOrderTracking(eq(7L), eq("delivery_assigned"), eq("Delivery assigned"),
+                any(), eq(true), any());
+    }
+
+    @Test
+    void backoffMs_ShouldDoubleUpToTheCap() {
+        AppProperties.Outbox settings = appProperties.getOutbox();
+        settings.setInitialBackoffMs(1000);
+        settings.setMaxBackoffMs(5000);
+
+        assertEquals(1000, OutboxRelay.backoffMs(1, settings));
+        assertEquals(4000, OutboxRelay.backoffMs(3, settings));
+        assertEquals(5000, OutboxRelay.backoffMs(30, settings));
+    }
+
+    private static OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType(OutboxEvent.AggregateType.ORDER);
+        event.setAggregateId(7L);
+        event.setEventType(OutboxEvent.EventType.STATUS_CHANGED);
+        event.setNewStatus("CONFIRMED");
+        event.setUserId(5L);
+        event.setOrderId(7L);
+        event.setTitle("Order confirmed");
+        event.setMessage("Your order #7 is now confirmed.");
+        event.setAttempts(1);
+        return event;
+    }
+
+    private static final class RecordingConsumer implements OutboxConsumer {
+        final String name;
+        final List<Long> handled = new ArrayList<>();
+        int failuresLeft;
+
+        RecordingConsumer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean accepts(OutboxEvent event) {
+            return true;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("temporarily unavailable");
+            }
+            handled.add(event.getId());
+        }
+    }
+}
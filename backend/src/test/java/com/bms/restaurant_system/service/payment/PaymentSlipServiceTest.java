@@ -0,0 +1,125 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.dto.PaymentSlipQueuePageDTO;
+import com.bms.restaurant_system.dto.PaymentSlipReviewRequest;
+import com.bms.restaurant_system.dto.PaymentSlipReviewResultDTO;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.PaymentSlip;
+import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.repository.PaymentSlipRepository;
+import com.bms.restaurant_system.repository.UserRepository;
+import com.bms.restaurant_system.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PaymentSlipServiceTest {
+
+    private PaymentSlipRepository paymentSlipRepository;
+    private PaymentSlipService paymentSlipService;
+
+    @BeforeEach
+    void setUp() {
+        paymentSlipRepository = mock(PaymentSlipRepository.class);
+        paymentSlipService = new PaymentSlipService();
+        ReflectionTestUtils.setField(paymentSlipService, "paymentSlipRepository", paymentSlipRepository);
+        ReflectionTestUtils.setField(paymentSlipService, "orderRepository", mock(OrderRepository.class));
+        ReflectionTestUtils.setField(paymentSlipService, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(paymentSlipService, "paymentStatsService", mock(PaymentStatsService.class));
+        ReflectionTestUtils.setField(paymentSlipService, "outboxService", mock(OutboxService.class));
+    }
+
+    @Test
+    void getReviewQueue_ShouldReturnCursorOfLastSlipWhenMoreRemain() {
+        // Given
+        LocalDateTime uploadedAt = LocalDateTime.of(2025, 3, 1, 10, 30, 15);
+        when(paymentSlipRepository.findReviewQueue(PaymentSlip.PaymentSlipStatus.PENDING, Limit.of(3)))
+                .thenReturn(List.of(slip(1L, uploadedAt), slip(2L, uploadedAt), slip(3L, uploadedAt.plusMinutes(1))));
+
+        // When
+        PaymentSlipQueuePageDTO page = paymentSlipService.getReviewQueue(PaymentSlip.PaymentSlipStatus.PENDING, null, 2);
+
+        // Then
+        assertEquals(2, page.slips().size());
+        assertTrue(page.hasMore());
+        assertEquals("2025-03-01T10:30:15_2", page.nextCursor());
+    }
+
+    @Test
+    void getReviewQueue_ShouldContinueAfterCursor() {
+        // Given
+        LocalDateTime uploadedAt = LocalDateTime.of(2025, 3, 1, 10, 30, 15);
+        when(paymentSlipRepository.findReviewQueueAfter(PaymentSlip.PaymentSlipStatus.PENDING, uploadedAt, 2L, Limit.of(3)))
+                .thenReturn(List.of(slip(3L, uploadedAt.plusMinutes(1))));
+
+        // When
+        PaymentSlipQueuePageDTO page = paymentSlipService.getReviewQueue(
+                PaymentSlip.PaymentSlipStatus.PENDING, "2025-03-01T10:30:15_2", 2);
+
+        // Then
+        assertEquals(1, page.slips().size());
+        assertFalse(page.hasMore());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getReviewQueue_ShouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentSlipService.getReviewQueue(PaymentSlip.PaymentSlipStatus.PENDING, "not-a-cursor", 20));
+    }
+
+    @Test
+    void reviewPaymentSlips_ShouldApplyEachDecisionAndReportFailures() {
+        // Given
+        LocalDateTime uploadedAt = LocalDateTime.now();
+        PaymentSlip pending = slip(1L, uploadedAt);
+        PaymentSlip toReject = slip(2L, uploadedAt);
+        PaymentSlip alreadyConfirmed = slip(3L, uploadedAt);
+        alreadyConfirmed.setStatus(PaymentSlip.PaymentSlipStatus.CONFIRMED);
+        when(paymentSlipRepository.findAllByIdWithOrderAndUser(anyCollection()))
+                .thenReturn(List.of(pending, toReject, alreadyConfirmed));
+        PaymentSlipReviewRequest request = new PaymentSlipReviewRequest("admin", List.of(
+                new PaymentSlipReviewRequest.Decision(1L, "confirm", null, "ok"),
+                new PaymentSlipReviewRequest.Decision(2L, "REJECT", "Amount does not match", null),
+                new PaymentSlipReviewRequest.Decision(3L, "CONFIRM", null, null),
+                new PaymentSlipReviewRequest.Decision(4L, "CONFIRM", null, null)));
+
+        // When
+        PaymentSlipReviewResultDTO result = paymentSlipService.reviewPaymentSlips(request);
+
+        // Then
+        assertEquals(2, result.reviewed().size());
+        assertEquals(PaymentSlip.PaymentSlipStatus.CONFIRMED, pending.getStatus());
+        assertEquals(Order.PaymentStatus.PAID, pending.getOrder().getPaymentStatus());
+        assertEquals(PaymentSlip.PaymentSlipStatus.REJECTED, toReject.getStatus());
+        assertEquals(Order.PaymentStatus.FAILED, toReject.getOrder().getPaymentStatus());
+        assertEquals(List.of(3L, 4L), List.copyOf(result.failed().keySet()));
+        verify(paymentSlipRepository, times(1)).findAllByIdWithOrderAndUser(eq(List.of(1L, 2L, 3L, 4L)));
+        verify(paymentSlipRepository, times(2)).save(any(PaymentSlip.class));
+    }
+
+    private static PaymentSlip slip(Long id, LocalDateTime uploadedAt) {
+        Order order = new Order();
+        order.setId(id * 10);
+        User user = new User();
+        user.setId(5L);
+        user.setUsername("customer");
+        PaymentSlip slip = new PaymentSlip(order, user, "slip.png", "/uploads/blobs/ab/slip.png",
+                new BigDecimal("1500.00"), uploadedAt);
+        slip.setId(id);
+        slip.setUploadedAt(uploadedAt);
+        return slip;
+    }
+}
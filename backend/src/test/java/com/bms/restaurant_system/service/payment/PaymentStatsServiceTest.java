@@ -0,0 +1,107 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.dto.PaymentStatsDTO;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.PaymentSlip;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.PaymentSlipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PaymentStatsServiceTest {
+
+    private PaymentRepository paymentRepository;
+    private PaymentSlipRepository paymentSlipRepository;
+    private PaymentStatsService paymentStatsService;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        paymentSlipRepository = mock(PaymentSlipRepository.class);
+        AppProperties appProperties = new AppProperties();
+        appProperties.getPaymentStats().setHistogramDays(7);
+
+        paymentStatsService = new PaymentStatsService();
+        ReflectionTestUtils.setField(paymentStatsService, "appProperties", appProperties);
+        ReflectionTestUtils.setField(paymentStatsService, "paymentRepository", paymentRepository);
+        ReflectionTestUtils.setField(paymentStatsService, "paymentSlipRepository", paymentSlipRepository);
+    }
+
+    @Test
+    void getSnapshot_ShouldFoldGroupedRowsIntoTotalsAndHistogram() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(paymentRepository.summarizeByDayAndStatus()).thenReturn(List.of(
+                new Object[]{today, Payment.PaymentStatus.COMPLETED, 3L, new BigDecimal("4500.00"), BigDecimal.ZERO},
+                new Object[]{today.minusDays(30), Payment.PaymentStatus.COMPLETED, 1L, new BigDecimal("1000.00"), BigDecimal.ZERO},
+                new Object[]{today.minusDays(1), Payment.PaymentStatus.REFUNDED, 1L, new BigDecimal("800.00"), new BigDecimal("800.00")}));
+        when(paymentSlipRepository.summarizeByDayAndStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{today, PaymentSlip.PaymentSlipStatus.PENDING, 2L, new BigDecimal("3000.00")}));
+
+        // When
+        PaymentStatsDTO stats = paymentStatsService.getSnapshot();
+
+        // Then
+        assertEquals(new BigDecimal("5500.00"), stats.totalProcessedAmount());
+        assertEquals(new BigDecimal("800.00"), stats.totalRefundedAmount());
+        assertEquals(4, stats.payments().get("COMPLETED").count());
+        assertEquals(0, stats.payments().get("FAILED").count());
+        assertEquals(2, stats.paymentSlips().get("PENDING").count());
+        assertEquals(7, stats.daily().size());
+        PaymentStatsDTO.Day last = stats.daily().get(6);
+        assertEquals(today, last.date());
+        assertEquals(new BigDecimal("4500.00"), last.completedAmount());
+        assertEquals(new BigDecimal("3000.00"), last.slipAmount());
+        assertEquals(new BigDecimal("800.00"), stats.daily().get(5).refundedAmount());
+    }
+
+    @Test
+    void getSnapshot_ShouldCountUndatedRowsInTotalsOnly() {
+        // Given - submitted_date is nullable, so a group can have no day
+        LocalDate today = LocalDate.now();
+        when(paymentRepository.summarizeByDayAndStatus()).thenReturn(List.of(
+                new Object[]{null, Payment.PaymentStatus.COMPLETED, 2L, new BigDecimal("2000.00"), BigDecimal.ZERO},
+                new Object[]{today, Payment.PaymentStatus.COMPLETED, 1L, new BigDecimal("500.00"), BigDecimal.ZERO}));
+        when(paymentSlipRepository.summarizeByDayAndStatus()).thenReturn(List.<Object[]>of(
+                new Object[]{null, PaymentSlip.PaymentSlipStatus.PENDING, 1L, new BigDecimal("700.00")}));
+
+        // When
+        PaymentStatsDTO stats = paymentStatsService.getSnapshot();
+
+        // Then
+        assertEquals(new BigDecimal("2500.00"), stats.totalProcessedAmount());
+        assertEquals(1, stats.paymentSlips().get("PENDING").count());
+        assertEquals(new BigDecimal("500.00"), stats.daily().get(6).completedAmount());
+        assertEquals(0, stats.daily().stream().mapToLong(PaymentStatsDTO.Day::paymentSlips).sum());
+    }
+
+    @Test
+    void refreshIfStale_ShouldRebuildOnlyAfterAChange() {
+        // Given
+        when(paymentRepository.summarizeByDayAndStatus()).thenReturn(List.of());
+        when(paymentSlipRepository.summarizeByDayAndStatus()).thenReturn(List.of());
+        PaymentStatsDTO first = paymentStatsService.getSnapshot();
+
+        // When
+        paymentStatsService.refreshIfStale();
+        PaymentStatsDTO unchanged = paymentStatsService.getSnapshot();
+        paymentStatsService.markChanged();
+        paymentStatsService.refreshIfStale();
+        PaymentStatsDTO rebuilt = paymentStatsService.getSnapshot();
+
+        // Then
+        assertSame(first, unchanged);
+        assertNotSame(first, rebuilt);
+        assertTrue(rebuilt.version() > first.version());
+        verify(paymentRepository, times(2)).summarizeByDayAndStatus();
+    }
+}
@@ -0,0 +1,149 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Order;
+import com.bms.restaurant_system.entity.Payment;
+import com.bms.restaurant_system.entity.PaymentMethod;
+import com.bms.restaurant_system.entity.RefundJob;
+import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.repository.OrderRepository;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.RefundJobRepository;
+import com.bms.restaurant_system.service.order.OrderTrackingStreamService;
+import com.bms.restaurant_system.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefundServiceTest {
+
+    private RefundJobRepository refundJobRepository;
+    private RefundGateway refundGateway;
+    private OutboxService outboxService;
+    private AppProperties appProperties;
+    private RefundService refundService;
+    private RefundJob job;
+
+    @BeforeEach
+    void setUp() {
+        refundJobRepository = mock(RefundJobRepository.class);
+        refundGateway = mock(RefundGateway.class);
+        outboxService = mock(OutboxService.class);
+        appProperties = new AppProperties();
+        appProperties.getRefund().setInitialBackoffMs(1);
+        appProperties.getRefund().setMaxBackoffMs(4);
+
+        refundService = new RefundService();
+        ReflectionTestUtils.setField(refundService, "appProperties", appProperties);
+        ReflectionTestUtils.setField(refundService, "refundJobRepository", refundJobRepository);
+        ReflectionTestUtils.setField(refundService, "paymentRepository", mock(PaymentRepository.class));
+        ReflectionTestUtils.setField(refundService, "orderRepository", mock(OrderRepository.class));
+        ReflectionTestUtils.setField(refundService, "paymentStatsService", mock(PaymentStatsService.class));
+        ReflectionTestUtils.setField(refundService, "outboxService", outboxService);
+        ReflectionTestUtils.setField(refundService, "orderTrackingStreamService", mock(OrderTrackingStreamService.class));
+        ReflectionTestUtils.setField(refundService, "refundGateway", refundGateway);
+        ReflectionTestUtils.setField(refundService, "transactionManager", mock(PlatformTransactionManager.class));
+        refundService.init();
+
+        User customer = new User();
+        customer.setId(5L);
+        Order order = new Order();
+        order.setId(7L);
+        order.setUser(customer);
+        Payment payment = new Payment();
+        payment.setId(3L);
+        payment.setOrder(order);
+        payment.setAmount(new BigDecimal("1500.00"));
+        payment.setPaymentMethod(PaymentMethod.DEPOSIT_SLIP);
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        job = new RefundJob();
+        job.setId(11L);
+        job.setPayment(payment);
+        job.setIdempotencyKey("refund-key");
+        job.setAmount(new BigDecimal("1500.00"));
+
+        // Each claim moves the job to processing and counts the attempt
+        when(refundJobRepository.claim(eq(11L), any(), any(), any())).thenAnswer(invocation -> {
+            job.setStatus(RefundJob.RefundStatus.PROCESSING);
+            job.setAttempts(job.getAttempts() + 1);
+            return 1;
+        });
+        when(refundJobRepository.findByIdWithPayment(11L)).thenReturn(Optional.of(job));
+        when(refundJobRepository.findById(11L)).thenReturn(Optional.of(job));
+    }
+
+    @Test
+    void process_ShouldRetryTransientFailuresWithTheSameKey() {
+        // Given
+        when(refundGateway.refund(eq("refund-key"), anyLong(), any(), any()))
+                .thenThrow(new IllegalStateException("timeout"))
+                .thenThrow(new IllegalStateException("timeout"))
+                .thenReturn("RF-1");
+
+        // When
+        refundService.process(11L);
+
+        // Then
+        verify(refundGateway, times(3)).refund(eq("refund-key"), eq(3L), any(), eq(new BigDecimal("1500.00")));
+        assertEquals(RefundJob.RefundStatus.SUCCEEDED, job.getStatus());
+        assertEquals("RF-1", job.getGatewayReference());
+        assertEquals(Payment.PaymentStatus.REFUNDED, job.getPayment().getStatus());
+        assertEquals(Order.OrderStatus.REFUNDED, job.getPayment().getOrder().getStatus());
+        // The full refund is announced once, with the order
+        verify(outboxService, times(1)).orderStatusChanged(eq(job.getPayment().getOrder()),
+                argThat(message -> message.contains("has been processed")));
+        verify(outboxService, never()).refundStatusChanged(any(), any());
+    }
+
+    @Test
+    void process_ShouldStopAtMaxAttempts() {
+        // Given
+        appProperties.getRefund().setMaxAttempts(2);
+        when(refundGateway.refund(any(), anyLong(), any(), any())).thenThrow(new IllegalStateException("timeout"));
+
+        // When
+        refundService.process(11L);
+
+        // Then
+        verify(refundGateway, times(2)).refund(any(), anyLong(), any(), any());
+        assertEquals(RefundJob.RefundStatus.FAILED, job.getStatus());
+        assertEquals(Payment.PaymentStatus.COMPLETED, job.getPayment().getStatus());
+    }
+
+    @Test
+    void process_ShouldNotRetryDeclinedRefund() {
+        // Given
+        when(refundGateway.refund(any(), anyLong(), any(), any()))
+                .thenThrow(new RefundGateway.DeclinedException("card closed"));
+
+        // When
+        refundService.process(11L);
+
+        // Then
+        verify(refundGateway, times(1)).refund(any(), anyLong(), any(), any());
+        assertEquals(RefundJob.RefundStatus.FAILED, job.getStatus());
+        assertEquals("card closed", job.getLastError());
+        verify(outboxService).refundStatusChanged(eq(job), argThat(message -> message.contains("could not be completed")));
+    }
+
+    @Test
+    void backoff_ShouldGrowAndStayWithinCap() {
+        AppProperties.Refund settings = new AppProperties.Refund();
+        for (int attempt = 1; attempt <= 30; attempt++) {
+            long delay = RefundService.backoffMs(attempt, settings);
+            long cap = Math.min(settings.getMaxBackoffMs(), settings.getInitialBackoffMs() << Math.min(attempt - 1, 20));
+            assertTrue(delay >= cap / 2 && delay <= cap, "attempt " + attempt + " delay " + delay);
+        }
+    }
+}
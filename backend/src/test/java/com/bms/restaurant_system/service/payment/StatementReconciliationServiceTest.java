@@ -0,0 +1,156 @@
+package com.bms.restaurant_system.service.payment;
+
+import com.bms.restaurant_system.dto.PaymentSlipDTO;
+import com.bms.restaurant_system.dto.PaymentSlipReviewRequest;
+import com.bms.restaurant_system.dto.PaymentSlipReviewResultDTO;
+import com.bms.restaurant_system.dto.StatementReconciliationDTO;
+import com.bms.restaurant_system.repository.PaymentRepository;
+import com.bms.restaurant_system.repository.PaymentSlipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class StatementReconciliationServiceTest {
+
+    private PaymentSlipRepository paymentSlipRepository;
+    private PaymentRepository paymentRepository;
+    private PaymentSlipService paymentSlipService;
+    private StatementReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        paymentSlipRepository = mock(PaymentSlipRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        paymentSlipService = mock(PaymentSlipService.class);
+        service = new StatementReconciliationService();
+        ReflectionTestUtils.setField(service, "paymentSlipRepository", paymentSlipRepository);
+        ReflectionTestUtils.setField(service, "paymentRepository", paymentRepository);
+        ReflectionTestUtils.setField(service, "paymentSlipService", paymentSlipService);
+        ReflectionTestUtils.setField(service, "paymentStatsService", mock(PaymentStatsService.class));
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        service.init();
+
+        // Every requested confirmation succeeds
+        when(paymentSlipService.reviewPaymentSlips(any())).thenAnswer(invocation -> {
+            PaymentSlipReviewRequest request = invocation.getArgument(0);
+            List<PaymentSlipDTO> reviewed = new ArrayList<>(Collections.nCopies(request.decisions().size(), null));
+            return new PaymentSlipReviewResultDTO(reviewed, Map.of());
+        });
+        when(paymentRepository.approveMatched(anyCollection(), anyCollection(), any(), any()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @Test
+    void reconcile_ShouldConfirmExactMatchesAndReportTheRest() throws Exception {
+        // Given
+        LocalDateTime paidAt = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(paymentSlipRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.of(
+                new Object[]{1L, "TRX-1001", new BigDecimal("1500.00"), paidAt, paidAt, 7L},
+                new Object[]{2L, null, new BigDecimal("2750.50"), null, paidAt, 8L},
+                new Object[]{3L, "TRX-1003", new BigDecimal("900.00"), paidAt, paidAt, 9L}));
+        when(paymentRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "trx 1001", null, new BigDecimal("1500.00"), paidAt, 7L}));
+        String csv = "Date,Description,Reference,Amount\n"
+                + "2025-03-01,Deposit,TRX1001,\"1,500.00\"\n"
+                + "02/03/2025,Deposit,,2750.50\n"
+                + "2025-03-01,Deposit,TRX-1003,950.00\n"
+                + "2025-03-01,Card fee,,-25.00\n"
+                + "2025-03-05,Deposit,UNKNOWN-9,10.00\n";
+
+        // When
+        StatementReconciliationDTO result = service.reconcile(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "admin", true);
+
+        // Then
+        assertEquals(5, result.linesRead());
+        assertEquals(1, result.linesSkipped());
+        assertEquals(1, result.exactMatches());
+        assertEquals(1, result.amountAndDateMatches());
+        assertEquals(1, result.amountMismatches());
+        assertEquals(1, result.unmatched());
+        assertEquals(1, result.slipsConfirmed());
+        assertEquals(1, result.paymentsApproved());
+        assertEquals(3, result.needsReview().size());
+        assertEquals(2L, result.needsReview().get(0).paymentSlipId());
+
+        ArgumentCaptor<PaymentSlipReviewRequest> review = ArgumentCaptor.forClass(PaymentSlipReviewRequest.class);
+        verify(paymentSlipService).reviewPaymentSlips(review.capture());
+        assertEquals(1L, review.getValue().decisions().get(0).id());
+        verify(paymentRepository).approveMatched(eqList(10L), anyCollection(), any(), any());
+    }
+
+    @Test
+    void reconcile_ShouldNotConfirmAnythingWhenAutoConfirmIsOff() throws Exception {
+        // Given
+        LocalDateTime paidAt = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(paymentSlipRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "TRX-1001", new BigDecimal("1500.00"), paidAt, paidAt, 7L}));
+        when(paymentRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.of());
+        String csv = "date,reference,credit\n2025-03-01,TRX-1001,1500\n";
+
+        // When
+        StatementReconciliationDTO result = service.reconcile(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "admin", false);
+
+        // Then
+        assertEquals(1, result.exactMatches());
+        assertEquals(0, result.slipsConfirmed());
+        assertEquals(1, result.needsReview().size());
+        verifyNoInteractions(paymentSlipService);
+    }
+
+    @Test
+    void reconcile_ShouldRejectStatementWithoutAmountColumn() {
+        when(paymentSlipRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.of());
+        when(paymentRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.of());
+        String csv = "Date,Reference\n2025-03-01,TRX-1\n";
+
+        assertThrows(IllegalArgumentException.class, () -> service.reconcile(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "admin", true));
+    }
+
+    @Test
+    void reconcile_ShouldSendLinesNamingTwoOrdersToReview() throws Exception {
+        // Given - a slip for order 7 and a payment for order 8 carry the same reference and amount
+        LocalDateTime paidAt = LocalDateTime.of(2025, 3, 1, 9, 0);
+        when(paymentSlipRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "TRX-2001", new BigDecimal("1500.00"), paidAt, paidAt, 7L}));
+        when(paymentRepository.findReconciliationCandidates(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "TRX-2001", null, new BigDecimal("1500.00"), paidAt, 8L}));
+        String csv = "Date,Reference,Amount\n2025-03-01,TRX-2001,1500.00\n";
+
+        // When
+        StatementReconciliationDTO result = service.reconcile(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "admin", true);
+
+        // Then
+        assertEquals(0, result.exactMatches());
+        assertEquals(1, result.ambiguous());
+        assertEquals(0, result.slipsConfirmed());
+        assertEquals(0, result.paymentsApproved());
+        assertEquals(1, result.needsReview().size());
+        verifyNoInteractions(paymentSlipService);
+        verify(paymentRepository, never()).approveMatched(anyCollection(), anyCollection(), any(), any());
+    }
+
+    private static Collection<Long> eqList(Long... ids) {
+        return argThat(collection -> collection != null && List.copyOf(collection).equals(List.of(ids)));
+    }
+}
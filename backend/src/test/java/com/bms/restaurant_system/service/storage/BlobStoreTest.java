@@ -0,0 +1,76 @@
+package com.bms.restaurant_system.service.storage;
+
+import com.bms.restaurant_system.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.getUpload().setDir(root.toString());
+        blobStore = new BlobStore();
+        ReflectionTestUtils.setField(blobStore, "appProperties", appProperties);
+    }
+
+    @Test
+    void store_ShouldNameBlobBySha256AndDedupeRepeatedContent() throws Exception {
+        // Given
+        byte[] content = "bank slip 1500.00".getBytes(StandardCharsets.UTF_8);
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        // When
+        BlobStore.Blob first = blobStore.store(new ByteArrayInputStream(content), ".png", 1024);
+        BlobStore.Blob second = blobStore.store(new ByteArrayInputStream(content), ".png", 1024);
+
+        // Then
+        assertEquals(expectedHash, first.hash());
+        assertEquals(content.length, first.size());
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(first.url(), second.url());
+        assertEquals(first.path(), blobStore.resolve(first.url()));
+        assertArrayEquals(content, Files.readAllBytes(first.path()));
+        try (Stream<Path> staging = Files.list(root.resolve("staging"))) {
+            assertEquals(0, staging.count());
+        }
+    }
+
+    @Test
+    void store_ShouldRejectContentOverLimitAndLeaveNothingBehind() throws Exception {
+        // Given
+        byte[] content = new byte[2048];
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> blobStore.store(new ByteArrayInputStream(content), ".jpg", 1024));
+        assertFalse(Files.exists(root.resolve("blobs")));
+        try (Stream<Path> staging = Files.list(root.resolve("staging"))) {
+            assertEquals(0, staging.count());
+        }
+    }
+
+    @Test
+    void resolve_ShouldIgnoreUrlsOutsideTheStore() {
+        assertNull(blobStore.resolve("/images/payment-slips/payment_slip_1.png"));
+        assertNull(blobStore.resolve(BlobStore.URL_PREFIX + "../../etc/passwd"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.bms.restaurant_system.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileServingServiceTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private FileServingService fileServingService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(dir.resolve("abc123.png"), "0123456789", StandardCharsets.US_ASCII);
+        fileServingService = new FileServingService();
+    }
+
+    @Test
+    void serve_ShouldSendWholeFileWithCacheHeaders() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals(FileServingService.IMMUTABLE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+    }
+
+    @Test
+    void serve_ShouldAnswerMatchingEtagWithNotModified() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        request.addHeader("If-None-Match", ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void serve_ShouldSendRequestedRange() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void serve_ShouldIgnoreRangeWhenIfRangeIsStale() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"other\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void serve_ShouldRejectRangePastEndOfFile() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        request.addHeader("Range", "bytes=20-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void serve_ShouldHandTransferToContainerWhenSendfileIsSupported() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/blobs/ab/abc123.png");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        fileServingService.serve(file, ETAG, FileServingService.IMMUTABLE_CACHE_CONTROL, request, response);
+
+        // Then
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(7L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(3, response.getContentLengthLong());
+    }
+}
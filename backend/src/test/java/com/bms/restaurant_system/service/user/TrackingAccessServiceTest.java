@@ -0,0 +1,123 @@
+package com.bms.restaurant_system.service.user;
+
+import com.bms.restaurant_system.entity.Driver;
+import com.bms.restaurant_system.entity.Role;
+import com.bms.restaurant_system.repository.DeliveryRepository;
+import com.bms.restaurant_system.repository.DriverRepository;
+import com.bms.restaurant_system.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TrackingAccessServiceTest {
+
+    private UserStatusCache userStatusCache;
+    private DriverRepository driverRepository;
+    private DeliveryRepository deliveryRepository;
+    private OrderRepository orderRepository;
+    private TrackingAccessService accessService;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = mock(UserStatusCache.class);
+        driverRepository = mock(DriverRepository.class);
+        deliveryRepository = mock(DeliveryRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        accessService = new TrackingAccessService();
+        ReflectionTestUtils.setField(accessService, "userStatusCache", userStatusCache);
+        ReflectionTestUtils.setField(accessService, "driverRepository", driverRepository);
+        ReflectionTestUtils.setField(accessService, "deliveryRepository", deliveryRepository);
+        ReflectionTestUtils.setField(accessService, "orderRepository", orderRepository);
+
+        when(userStatusCache.get("customer")).thenReturn(status(5L, "customer", Role.USER));
+        when(userStatusCache.get("other")).thenReturn(status(6L, "other", Role.USER));
+        when(userStatusCache.get("driver")).thenReturn(status(8L, "driver", Role.DRIVER));
+        when(userStatusCache.get("admin")).thenReturn(status(1L, "admin", Role.ADMIN));
+        // Delivery 10 belongs to customer 5 and is carried by the driver whose user is 8
+        List<Object[]> participants = new ArrayList<>();
+        participants.add(new Object[]{5L, null, 8L});
+        when(deliveryRepository.findParticipantUserIds(10L)).thenReturn(participants);
+        when(orderRepository.findParticipantUserIds(7L)).thenReturn(participants);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void canTrackDelivery_ShouldAllowOnlyCustomerDriverAndAdmin() {
+        assertTrue(canTrackAs("customer"));
+        assertTrue(canTrackAs("driver"));
+        assertTrue(canTrackAs("admin"));
+        assertFalse(canTrackAs("other"));
+        SecurityContextHolder.clearContext();
+        assertFalse(accessService.canTrackDelivery(10L));
+    }
+
+    @Test
+    void canTrackOrder_ShouldAllowOnlyCustomerDriverAndAdmin() {
+        login("customer");
+        assertTrue(accessService.canTrackOrder(7L));
+        login("driver");
+        assertTrue(accessService.canTrackOrder(7L));
+        login("other");
+        assertFalse(accessService.canTrackOrder(7L));
+        // Unknown orders are only visible to admins, who then get a 404 from the stream
+        assertFalse(accessService.canTrackOrder(99L));
+        login("admin");
+        assertTrue(accessService.canTrackOrder(99L));
+    }
+
+    @Test
+    void currentDriverId_ShouldResolveOnceAndForgetDeletedDrivers() {
+        // Given
+        Driver driver = new Driver();
+        driver.setId(3L);
+        when(driverRepository.findByUserId(8L)).thenReturn(Optional.of(driver));
+        login("driver");
+
+        // When
+        Long first = accessService.currentDriverId();
+        Long second = accessService.currentDriverId();
+        accessService.evictDriver(3L);
+        when(driverRepository.findByUserId(8L)).thenReturn(Optional.empty());
+
+        // Then
+        assertEquals(3L, first);
+        assertEquals(3L, second);
+        assertNull(accessService.currentDriverId());
+        verify(driverRepository, times(2)).findByUserId(8L);
+    }
+
+    @Test
+    void currentDriverId_ShouldBeNullForNonDrivers() {
+        login("customer");
+
+        assertNull(accessService.currentDriverId());
+    }
+
+    private boolean canTrackAs(String username) {
+        login(username);
+        return accessService.canTrackDelivery(10L);
+    }
+
+    private static void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static UserStatusCache.UserStatus status(Long id, String username, Role role) {
+        return new UserStatusCache.UserStatus(id, username, role, true, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,91 @@
+package com.bms.restaurant_system.service.user;
+
+import com.bms.restaurant_system.config.AppProperties;
+import com.bms.restaurant_system.entity.Role;
+import com.bms.restaurant_system.entity.User;
+import com.bms.restaurant_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserStatusCacheTest {
+
+    private UserRepository userRepository;
+    private AppProperties appProperties;
+    private UserStatusCache userStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        appProperties = new AppProperties();
+        appProperties.getAuth().setUserCacheSize(2);
+        userStatusCache = new UserStatusCache();
+        ReflectionTestUtils.setField(userStatusCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userStatusCache, "appProperties", appProperties);
+    }
+
+    @Test
+    void get_ShouldQueryOnceUntilEvicted() {
+        // Given
+        User user = user("customer", Role.USER, true);
+        when(userRepository.findByUsername("customer")).thenReturn(Optional.of(user));
+
+        // When
+        UserStatusCache.UserStatus first = userStatusCache.get("customer");
+        UserStatusCache.UserStatus second = userStatusCache.get("customer");
+        user.setEnabled(false);
+        userStatusCache.evict("customer");
+        UserStatusCache.UserStatus afterEvict = userStatusCache.get("customer");
+
+        // Then
+        assertSame(first, second);
+        assertTrue(first.enabled());
+        assertFalse(afterEvict.enabled());
+        verify(userRepository, times(2)).findByUsername("customer");
+    }
+
+    @Test
+    void get_ShouldReloadExpiredEntriesAndReturnNullForMissingUsers() {
+        // Given
+        appProperties.getAuth().setUserCacheTtlMs(0);
+        when(userRepository.findByUsername("customer")).thenReturn(Optional.of(user("customer", Role.USER, true)));
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // When
+        userStatusCache.get("customer");
+        userStatusCache.get("customer");
+
+        // Then
+        assertNull(userStatusCache.get("ghost"));
+        verify(userRepository, times(2)).findByUsername("customer");
+    }
+
+    @Test
+    void get_ShouldKeepCacheWithinBound() {
+        // Given
+        for (String name : new String[]{"a", "b", "c", "d"}) {
+            when(userRepository.findByUsername(name)).thenReturn(Optional.of(user(name, Role.USER, true)));
+        }
+
+        // When
+        for (String name : new String[]{"a", "b", "c", "d"}) {
+            userStatusCache.get(name);
+        }
+
+        // Then
+        assertTrue(userStatusCache.size() <= 2);
+    }
+
+    private static User user(String username, Role role, boolean enabled) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole(role);
+        user.setEnabled(enabled);
+        return user;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bms.restaurant_system.util;
+
+import com.bms.restaurant_system.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtProperties jwtProperties;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setClaimsCacheSize(3);
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtProperties", jwtProperties);
+        jwtUtil.init();
+    }
+
+    @Test
+    void parseClaims_ShouldVerifyOnceAndServeRepeatsFromCache() {
+        // Given
+        String token = jwtUtil.generateToken("customer", "USER");
+
+        // When
+        Claims first = jwtUtil.parseClaims(token);
+        Claims second = jwtUtil.parseClaims(token);
+
+        // Then
+        assertSame(first, second);
+        assertEquals("customer", first.getSubject());
+        assertEquals("USER", jwtUtil.extractRole(token));
+        assertTrue(jwtUtil.validateToken(token, "customer"));
+        assertFalse(jwtUtil.validateToken(token, "someone-else"));
+        assertEquals(1, jwtUtil.cachedTokens());
+    }
+
+    @Test
+    void parseClaims_ShouldRejectForgedAndExpiredTokens() {
+        // Given
+        JwtProperties otherProperties = new JwtProperties();
+        otherProperties.setSecret("anotherSecretKey12345678901234567890123456");
+        JwtUtil otherIssuer = new JwtUtil();
+        ReflectionTestUtils.setField(otherIssuer, "jwtProperties", otherProperties);
+        otherIssuer.init();
+        String forged = otherIssuer.generateToken("customer", "ADMIN");
+        jwtProperties.setExpiration(-1000);
+        String expired = jwtUtil.generateToken("customer", "USER");
+
+        // Then
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(forged));
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(expired));
+        assertTrue(jwtUtil.isTokenExpired(expired));
+        assertFalse(jwtUtil.validateToken(expired, "customer"));
+        assertEquals(0, jwtUtil.cachedTokens());
+    }
+
+    @Test
+    void parseClaims_ShouldKeepCacheWithinBound() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            jwtUtil.parseClaims(jwtUtil.generateToken("user" + i, "USER"));
+        }
+
+        // Then
+        assertTrue(jwtUtil.cachedTokens() <= 3);
+    }
+}
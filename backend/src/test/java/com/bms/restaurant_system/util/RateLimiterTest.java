@@ -0,0 +1,114 @@
+package com.bms.restaurant_system.util;
+
+import com.bms.restaurant_system.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private AppProperties appProperties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        appProperties = new AppProperties();
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "appProperties", appProperties);
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReportWaitUntilRefill() {
+        // Given
+        AppProperties.RateLimit.Limit limit = new AppProperties.RateLimit.Limit(3, 1);
+        long now = 10 * SECOND;
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("auth|ip:1.2.3.4", limit, now));
+        }
+        long wait = rateLimiter.tryAcquire("auth|ip:1.2.3.4", limit, now);
+
+        // Then
+        assertEquals(SECOND, wait);
+        assertEquals(0, rateLimiter.tryAcquire("auth|ip:5.6.7.8", limit, now));
+        assertEquals(0, rateLimiter.tryAcquire("auth|ip:1.2.3.4", limit, now + SECOND));
+        assertTrue(rateLimiter.tryAcquire("auth|ip:1.2.3.4", limit, now + SECOND) > 0);
+    }
+
+    @Test
+    void evictIdle_ShouldDropOnlyRefilledBuckets() {
+        // Given
+        AppProperties.RateLimit.Limit limit = new AppProperties.RateLimit.Limit(2, 1);
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("user|u:busy", limit, now);
+        rateLimiter.tryAcquire("user|u:busy", limit, now);
+        rateLimiter.tryAcquire("user|u:quiet", limit, now - 5 * SECOND);
+
+        // When
+        rateLimiter.evictIdle(now);
+
+        // Then
+        assertEquals(1, rateLimiter.size());
+        assertTrue(rateLimiter.tryAcquire("user|u:busy", limit, now) > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldEvictIdleBucketsToMakeRoomForNewKeys() {
+        // Given - a full map whose buckets have all refilled
+        appProperties.getRateLimit().setMaxBuckets(2);
+        AppProperties.RateLimit.Limit limit = new AppProperties.RateLimit.Limit(2, 1);
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("auth|ip:1.1.1.1", limit, now - 5 * SECOND);
+        rateLimiter.tryAcquire("auth|ip:2.2.2.2", limit, now - 5 * SECOND);
+
+        // When
+        long wait = rateLimiter.tryAcquire("auth|ip:3.3.3.3", limit, now);
+
+        // Then
+        assertEquals(0, wait);
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    void tryAcquire_ShouldRefuseNewKeysWhileFullOfBusyBuckets() {
+        // Given - both buckets are still draining
+        appProperties.getRateLimit().setMaxBuckets(2);
+        AppProperties.RateLimit.Limit limit = new AppProperties.RateLimit.Limit(2, 1);
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("auth|ip:1.1.1.1", limit, now);
+        rateLimiter.tryAcquire("auth|ip:2.2.2.2", limit, now);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(rateLimiter.tryAcquire("auth|ip:10.0." + (i / 256) + "." + (i % 256), limit, now) > 0);
+        }
+
+        // Then - the cap held and known callers are still metered as before
+        assertEquals(2, rateLimiter.size());
+        assertEquals(0, rateLimiter.tryAcquire("auth|ip:1.1.1.1", limit, now));
+        assertTrue(rateLimiter.tryAcquire("auth|ip:1.1.1.1", limit, now) > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldSweepAFullMapAtMostOncePerSecond() {
+        // Given - one bucket that refills half a second from now
+        appProperties.getRateLimit().setMaxBuckets(1);
+        AppProperties.RateLimit.Limit limit = new AppProperties.RateLimit.Limit(1, 2);
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("auth|ip:1.1.1.1", limit, now);
+
+        // When / Then: the first newcomer sweeps and is refused
+        assertTrue(rateLimiter.tryAcquire("auth|ip:2.2.2.2", limit, now) > 0);
+        // The bucket is idle now, but the last sweep was too recent to repeat
+        assertTrue(rateLimiter.tryAcquire("auth|ip:2.2.2.2", limit, now + SECOND * 6 / 10) > 0);
+        assertEquals(1, rateLimiter.size());
+        // A second after the first sweep, the idle bucket makes way
+        assertEquals(0, rateLimiter.tryAcquire("auth|ip:2.2.2.2", limit, now + SECOND));
+        assertEquals(1, rateLimiter.size());
+    }
+}
@@ -50,6 +50,7 @@ CREATE TABLE `deliveries` (
   `cash_collected` decimal(10,2) DEFAULT NULL,
   `cash_collection_confirmed` tinyint(1) DEFAULT 0,
   `cash_collection_time` datetime DEFAULT NULL,
+  `cash_reconciled_at` datetime DEFAULT NULL,
   `created_at` datetime DEFAULT current_timestamp(),
   `updated_at` datetime DEFAULT current_timestamp() ON UPDATE current_timestamp(),
   PRIMARY KEY (`id`),
@@ -57,6 +58,9 @@ CREATE TABLE `deliveries` (
   KEY `idx_deliveries_driver_id` (`driver_id`),
   KEY `idx_deliveries_status` (`status`),
   KEY `idx_deliveries_estimated_time` (`estimated_delivery_time`),
+  KEY `idx_deliveries_driver_status` (`driver_id`,`status`),
+  KEY `idx_deliveries_status_created` (`status`,`created_at`),
+  KEY `idx_deliveries_driver_cash` (`driver_id`,`cash_collection_time`),
   CONSTRAINT `deliveries_ibfk_1` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`) ON DELETE CASCADE,
   CONSTRAINT `deliveries_ibfk_2` FOREIGN KEY (`driver_id`) REFERENCES `drivers` (`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB AUTO_INCREMENT=13 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -74,15 +78,36 @@ CREATE TABLE `delivery_drivers` (
   `driver_id` bigint(20) NOT NULL,
   `assigned_at` datetime DEFAULT current_timestamp(),
   `notes` text DEFAULT NULL,
+  `route_id` varchar(64) DEFAULT NULL,
+  `stop_sequence` int(11) DEFAULT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `unique_assignment` (`delivery_id`,`driver_id`),
   KEY `idx_delivery_drivers_delivery_id` (`delivery_id`),
   KEY `idx_delivery_drivers_driver_id` (`driver_id`),
+  KEY `idx_delivery_drivers_route` (`route_id`,`stop_sequence`),
   CONSTRAINT `delivery_drivers_ibfk_1` FOREIGN KEY (`delivery_id`) REFERENCES `deliveries` (`id`) ON DELETE CASCADE,
   CONSTRAINT `delivery_drivers_ibfk_2` FOREIGN KEY (`driver_id`) REFERENCES `drivers` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `delivery_locations`
+--
+
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `delivery_locations` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `delivery_id` bigint(20) NOT NULL,
+  `driver_id` bigint(20) NOT NULL,
+  `latitude` decimal(10,8) NOT NULL,
+  `longitude` decimal(11,8) NOT NULL,
+  `recorded_at` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_delivery_locations_delivery_time` (`delivery_id`,`recorded_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `drivers`
 --
@@ -101,6 +126,10 @@ CREATE TABLE `drivers` (
   `available` tinyint(1) DEFAULT 1,
   `rating` decimal(3,2) DEFAULT 0.00,
   `total_deliveries` int(11) DEFAULT 0,
+  `rating_sum` int(11) NOT NULL DEFAULT 0,
+  `rating_count` int(11) NOT NULL DEFAULT 0,
+  `on_time_deliveries` int(11) NOT NULL DEFAULT 0,
+  `total_delivery_minutes` bigint(20) NOT NULL DEFAULT 0,
   `status` enum('AVAILABLE','BUSY','OFFLINE') DEFAULT 'AVAILABLE',
   `created_at` datetime DEFAULT current_timestamp(),
   `updated_at` datetime DEFAULT current_timestamp() ON UPDATE current_timestamp(),
@@ -194,8 +223,10 @@ CREATE TABLE `notifications` (
   `read_at` datetime DEFAULT NULL,
   PRIMARY KEY (`id`),
   KEY `idx_notifications_user_id` (`user_id`),
+  KEY `idx_notifications_user_status` (`user_id`,`status`),
   KEY `idx_notifications_status` (`status`),
   KEY `idx_notifications_type` (`type`),
+  KEY `idx_notifications_type_status_created` (`type`,`status`,`created_at`),
   KEY `idx_notifications_is_global` (`is_global`),
   KEY `idx_notifications_reference` (`reference_type`,`reference_id`),
   CONSTRAINT `notifications_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
@@ -285,6 +316,36 @@ CREATE TABLE `orders` (
 ) ENGINE=InnoDB AUTO_INCREMENT=13 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `outbox_events`
+--
+
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `outbox_events` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `aggregate_type` enum('ORDER','DELIVERY','PAYMENT_SLIP','RESERVATION','REFUND') NOT NULL,
+  `aggregate_id` bigint(20) NOT NULL,
+  `event_type` enum('CREATED','STATUS_CHANGED') NOT NULL,
+  `new_status` varchar(50) NOT NULL,
+  `user_id` bigint(20) DEFAULT NULL,
+  `order_id` bigint(20) DEFAULT NULL,
+  `title` varchar(255) NOT NULL,
+  `message` text DEFAULT NULL,
+  `actor` varchar(255) DEFAULT NULL,
+  `status` enum('PENDING','PROCESSED','FAILED') NOT NULL DEFAULT 'PENDING',
+  `attempts` int(11) NOT NULL DEFAULT 0,
+  `next_attempt_at` datetime NOT NULL,
+  `delivered_to` varchar(255) DEFAULT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `processed_at` datetime DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT current_timestamp(),
+  PRIMARY KEY (`id`),
+  KEY `idx_outbox_events_status_next_attempt` (`status`,`next_attempt_at`),
+  KEY `idx_outbox_events_aggregate` (`aggregate_type`,`aggregate_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `payment_slips`
 --
@@ -299,6 +360,8 @@ CREATE TABLE `payment_slips` (
   `file_path` varchar(500) NOT NULL DEFAULT '/uploads/',
   `file_size` bigint(20) DEFAULT NULL,
   `content_type` varchar(100) DEFAULT NULL,
+  `content_hash` varchar(64) DEFAULT NULL,
+  `thumbnail_path` varchar(500) DEFAULT NULL,
   `payment_amount` decimal(10,2) NOT NULL DEFAULT 0.00,
   `payment_date` datetime DEFAULT NULL,
   `uploaded_at` datetime NOT NULL DEFAULT current_timestamp(),
@@ -318,6 +381,9 @@ CREATE TABLE `payment_slips` (
   PRIMARY KEY (`id`),
   KEY `idx_payment_slips_order_id` (`order_id`),
   KEY `idx_payment_slips_status` (`status`),
+  KEY `idx_payment_slips_content_hash` (`content_hash`),
+  KEY `idx_payment_slips_status_uploaded` (`status`,`uploaded_at`,`id`),
+  KEY `idx_payment_slips_transaction_reference` (`transaction_reference`),
   KEY `idx_payment_slips_reviewed_by` (`reviewed_by`),
   KEY `payment_slips_user_fk` (`user_id`),
   CONSTRAINT `payment_slips_ibfk_1` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`) ON DELETE CASCADE,
@@ -356,10 +422,39 @@ CREATE TABLE `payments` (
   KEY `idx_payments_status` (`status`),
   KEY `idx_payments_method` (`payment_method`),
   KEY `idx_payments_transaction_id` (`transaction_id`),
+  KEY `idx_payments_gateway_transaction_id` (`gateway_transaction_id`),
   CONSTRAINT `payments_ibfk_1` FOREIGN KEY (`order_id`) REFERENCES `orders` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `refund_jobs`
+--
+
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `refund_jobs` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `payment_id` bigint(20) NOT NULL,
+  `idempotency_key` varchar(100) NOT NULL,
+  `amount` decimal(10,2) NOT NULL,
+  `reason` varchar(500) DEFAULT NULL,
+  `status` enum('PENDING','PROCESSING','SUCCEEDED','FAILED') NOT NULL DEFAULT 'PENDING',
+  `attempts` int(11) NOT NULL DEFAULT 0,
+  `next_attempt_at` datetime NOT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `gateway_reference` varchar(255) DEFAULT NULL,
+  `completed_at` datetime DEFAULT NULL,
+  `created_at` datetime NOT NULL DEFAULT current_timestamp(),
+  `updated_at` datetime DEFAULT current_timestamp() ON UPDATE current_timestamp(),
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_refund_jobs_idempotency_key` (`idempotency_key`),
+  KEY `idx_refund_jobs_status_next_attempt` (`status`,`next_attempt_at`),
+  KEY `idx_refund_jobs_payment_id` (`payment_id`),
+  CONSTRAINT `refund_jobs_ibfk_1` FOREIGN KEY (`payment_id`) REFERENCES `payments` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `reservations`
 --